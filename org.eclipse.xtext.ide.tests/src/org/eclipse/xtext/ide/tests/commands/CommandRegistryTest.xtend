@@ -7,6 +7,8 @@
  *******************************************************************************/
 package org.eclipse.xtext.ide.tests.commands
 
+import com.google.inject.Guice
+import java.util.List
 import java.util.Map
 import java.util.Set
 import java.util.concurrent.CompletableFuture
@@ -27,6 +29,7 @@ import org.junit.Assert
 import org.junit.Test
 import org.eclipse.xtext.ide.server.commands.IExecutableCommandService
 import org.eclipse.xtext.ide.server.commands.ExecutableCommandRegistry
+import org.eclipse.xtext.ide.server.commands.MetricsCommandService
 
 /**
  * @author Sven Efftinge - Initial contribution and API
@@ -74,6 +77,22 @@ class CommandRegistryTest implements IResourceServiceProvider, IExecutableComman
 		Assert.assertEquals(#{}, this.commandsExecuted)
 	}
 
+	@Test def void testMetricsCommand() {
+		val reg = Guice.createInjector.getInstance(ExecutableCommandRegistry)
+		val cap = new ClientCapabilities => [
+			workspace = new WorkspaceClientCapabilities => [
+				executeCommand  = new ExecuteCommandCapabilities => [
+					dynamicRegistration = false
+				]
+			]
+		]
+		reg.initialize(#[], cap, this)
+		
+		Assert.assertEquals(#[MetricsCommandService.COMMAND], reg.commands)
+		val result = reg.executeCommand(new ExecuteCommandParams => [ command = MetricsCommandService.COMMAND ], null, null)
+		Assert.assertTrue(result instanceof List<?>)
+	}
+
 	override initialize() {
 		#['static-command']
 	}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.ide.tests.editor.contentassist.antlr;
+
+import static org.junit.Assert.*;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.antlr.runtime.RecognitionException;
+import org.eclipse.xtext.ide.editor.contentassist.antlr.FollowElement;
+import org.eclipse.xtext.ide.editor.contentassist.antlr.LookAheadTerminal;
+import org.eclipse.xtext.testlanguages.xtextgrammar.ide.contentassist.antlr.XtextGrammarTestLanguageParser;
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+import com.google.inject.Inject;
+
+/**
+ * Runs the parser tests with the follow element cache. Each input is parsed twice to check that the cached follow
+ * elements are the same as the computed ones.
+ */
+public class CachedParserTest extends AbstractParserTest {
+
+	@Inject
+	private XtextGrammarTestLanguageParser parser;
+
+	@Override
+	protected Collection<FollowElement> getFollowSet(String input) throws RecognitionException {
+		parser.setFollowElementCache(false);
+		Collection<FollowElement> expected = parser.getFollowElements(input, false);
+		parser.setFollowElementCache(true);
+		Collection<FollowElement> computed = parser.getFollowElements(input, false);
+		Collection<FollowElement> cached = parser.getFollowElements(input, false);
+		assertEquals(Sets.newHashSet(expected), Sets.newHashSet(computed));
+		assertEquals(Sets.newHashSet(expected), Sets.newHashSet(cached));
+		for (FollowElement element : cached) {
+			if (element.getLookAhead() > 1) {
+				assertLookAheadCached(element);
+			}
+		}
+		return cached;
+	}
+
+	@Test public void testCachedTokensAreCopied() throws RecognitionException {
+		parser.setFollowElementCache(true);
+		String input = "grammar org.foo with org.bar generate foo 'bar' Rule: name=ID;";
+		Collection<FollowElement> first = parser.getFollowElements(input, false);
+		Collection<FollowElement> second = parser.getFollowElements(input, false);
+		assertNotSame(first, second);
+		assertEquals(Sets.newHashSet(first), Sets.newHashSet(second));
+		for (FollowElement element : second) {
+			for (FollowElement other : first) {
+				assertNotSame(element, other);
+			}
+		}
+	}
+
+	@Test public void testLookAheadTokensAreTakenFromTheRequest() throws RecognitionException {
+		parser.setFollowElementCache(true);
+		Collection<FollowElement> first = getFollowSet("grammar org.foo with org.bar generate foo 'bar' Rule: name=");
+		Collection<FollowElement> second = getFollowSet("grammar org.foo with org.bar generate foo 'bar' Rule: other=");
+		assertEquals(Sets.newHashSet(first), Sets.newHashSet(second));
+	}
+
+	@Test public void testLookAheadIsCached() throws RecognitionException {
+		boolean hasLookAhead = false;
+		for (FollowElement element : getFollowSet("grammar a generate b 'c' Rule: 'a' foo")) {
+			hasLookAhead |= element.getLookAhead() > 1;
+		}
+		assertTrue(hasLookAhead);
+	}
+
+	protected void assertLookAheadCached(FollowElement element) {
+		parser.setFollowElementCache(false);
+		Collection<FollowElement> expected = parser.getFollowElements(element);
+		parser.setFollowElementCache(true);
+		parser.getFollowElements(element);
+		Collection<FollowElement> cached = parser.getFollowElements(element);
+		assertEquals(Sets.newHashSet(expected), Sets.newHashSet(cached));
+		List<LookAheadTerminal> terminals = element.getLookAheadTerminals();
+		for (FollowElement followElement : cached) {
+			List<LookAheadTerminal> followTerminals = followElement.getLookAheadTerminals();
+			if (followTerminals != null) {
+				for (int i = 0; i < followTerminals.size(); i++) {
+					assertSame(terminals.get(terminals.size() - followTerminals.size() + i).getToken(), followTerminals.get(i).getToken());
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.ide.tests.server
+
+import com.google.inject.Inject
+import com.google.inject.Singleton
+import com.google.inject.name.Names
+import java.util.List
+import java.util.concurrent.CountDownLatch
+import org.eclipse.lsp4j.DidChangeTextDocumentParams
+import org.eclipse.lsp4j.DocumentSymbolParams
+import org.eclipse.lsp4j.Position
+import org.eclipse.lsp4j.Range
+import org.eclipse.lsp4j.SymbolInformation
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent
+import org.eclipse.lsp4j.TextDocumentIdentifier
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier
+import org.eclipse.xtext.ide.server.BuildManager
+import org.eclipse.xtext.ide.server.ServerModule
+import org.eclipse.xtext.ide.server.UriExtensions
+import org.eclipse.xtext.ide.server.WorkspaceManager
+import org.eclipse.xtext.util.Modules2
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+/**
+ * Runs the document changes with concurrent reads, like the language server does outside of tests.
+ */
+class ConcurrentReadsTest extends AbstractTestLangLanguageServerTest {
+
+	@Inject WorkspaceManager workspaceManager
+	@Inject extension UriExtensions
+
+	override protected getServerModule() {
+		return Modules2.mixin(new ServerModule, [
+			bind(WorkspaceManager).in(Singleton)
+			bindConstant.annotatedWith(Names.named(BuildManager.VALIDATION_DELAY)).to(60000L)
+		])
+	}
+
+	@Test(timeout = 10000)
+	def void testReadAfterCancelledWrite() {
+		val file = 'MyType1.testlang'.writeFile('type Foo {}')
+		initialize
+
+		val proceed = new CountDownLatch(1)
+		val cancelledWrite = languageServer.requestManager.runWriteWithConcurrentReads([
+			proceed.await
+			workspaceManager.didOpen(file.toUri, 1, 'type Bar {}')
+		], [ cancelIndicator, buildable |
+			buildable.build(cancelIndicator)
+		])
+		cancelledWrite.cancel(true)
+		proceed.countDown
+
+		// the project has unbuilt changes, but the read does not wait forever
+		val read = languageServer.documentSymbol(new DocumentSymbolParams(new TextDocumentIdentifier(file)))
+		read.handle[result, exception | null].join
+		assertTrue(read.completedExceptionally)
+
+		file.replace(2, new Range(new Position(0, 5), new Position(0, 8)), 'Baz')
+		assertEquals('Baz', file.documentSymbols.head.name)
+	}
+
+	@Test(timeout = 10000)
+	def void testDelayedValidationIsCancelledByChange() {
+		val file = 'MyType1.testlang'.writeFile('type Foo { NonExisting foo }')
+		initialize
+		assertEquals(1, diagnostics.get(file).size)
+
+		file.open('type Foo {}')
+		// the index is up to date, but the validation is delayed
+		assertEquals('Foo', file.documentSymbols.head.name)
+		assertEquals(1, diagnostics.get(file).size)
+
+		// the change does not wait for the delay of the previous validation
+		file.replace(2, new Range(new Position(0, 5), new Position(0, 8)), 'Baz')
+		assertEquals('Baz', file.documentSymbols.head.name)
+	}
+
+	protected def List<? extends SymbolInformation> getDocumentSymbols(String file) {
+		return languageServer.documentSymbol(new DocumentSymbolParams(new TextDocumentIdentifier(file))).get
+	}
+
+	protected def void replace(String file, int version, Range range, String text) {
+		languageServer.didChange(new DidChangeTextDocumentParams => [
+			textDocument = new VersionedTextDocumentIdentifier => [
+				uri = file
+				it.version = version
+			]
+			contentChanges = #[
+				new TextDocumentContentChangeEvent => [
+					it.range = range
+					it.text = text
+				]
+			]
+		])
+	}
+
+}
@@ -54,6 +54,26 @@ class DocumentTest {
         ]
     }
     
+    @Test def void testPosition() {
+        new Document(1, '''
+            hello world
+            foo
+            bar
+        '''.normalize) => [
+            assertEquals(position(0,0), getPosition(0))
+            assertEquals(position(0,11), getPosition(11))
+            assertEquals(position(1,0), getPosition(12))
+            assertEquals(position(2,3), getPosition(19))
+            assertEquals(position(3,0), getPosition(20))
+            try {
+                getPosition(21)
+                fail()
+            } catch (IndexOutOfBoundsException e) {
+                //expected
+            }
+        ]
+    }
+    
     @Test def void testUpdate_01() {
         new Document(1, '''
             hello world
@@ -107,6 +127,25 @@ class DocumentTest {
         ]
     }
     
+    @Test def void testUpdate_sequentialChanges() {
+        new Document(1, '''
+            hello world
+            foo
+            bar
+        '''.normalize) => [
+            assertEquals('''
+                hello world
+                future
+                baz
+                bar!
+            '''.normalize, applyChanges(#[
+                change(position(1,1), position(1,3), "uture"),
+                change(position(1,6), position(1,6), "\nbaz"),
+                change(position(3,3), position(3,3), "!")
+            ]).contents)
+        ]
+    }
+    
     private def change(Position startPos, Position endPos, String newText) {
         new TextEdit => [
               if (startPos !== null) {
@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.ide.tests.server
+
+import com.google.common.base.Strings
+import com.google.common.io.Files
+import com.google.inject.Guice
+import com.google.inject.Inject
+import com.google.inject.Singleton
+import com.google.inject.name.Names
+import java.io.File
+import java.util.List
+import java.util.concurrent.CancellationException
+import java.util.concurrent.CompletableFuture
+import org.eclipse.emf.common.util.URI
+import org.eclipse.lsp4j.jsonrpc.services.ServiceEndpoints
+import org.eclipse.lsp4j.services.LanguageClientExtensions
+import org.eclipse.xtext.build.IndexState
+import org.eclipse.xtext.diagnostics.Severity
+import org.eclipse.xtext.ide.server.BuildManager
+import org.eclipse.xtext.ide.server.ProjectStatePersister
+import org.eclipse.xtext.ide.server.ProjectStatePersister.PersistedState
+import org.eclipse.xtext.ide.server.WorkspaceManager
+import org.eclipse.xtext.ide.server.concurrent.RequestCancelIndicator
+import org.eclipse.xtext.resource.IResourceDescription.Delta
+import org.eclipse.xtext.util.Modules2
+import org.eclipse.xtext.validation.Issue
+import org.junit.After
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+/**
+ * Restarts the language server and checks that only the files that changed in between are rebuilt.
+ */
+class ProjectStatePersisterTest extends AbstractTestLangLanguageServerTest {
+
+	val File stateDirectory = Files.createTempDir
+
+	@Inject WorkspaceManager workspaceManager
+
+	@Inject ProjectStatePersister projectStatePersister
+
+	List<Delta> deltas = newArrayList
+
+	override protected getServerModule() {
+		Modules2.mixin(super.serverModule, [
+			bind(String).annotatedWith(Names.named(ProjectStatePersister.STATE_DIRECTORY)).toInstance(stateDirectory.absolutePath)
+			bind(WorkspaceManager).in(Singleton)
+			bind(Long).annotatedWith(Names.named(BuildManager.PERSISTENCE_DELAY)).toInstance(0L)
+		])
+	}
+
+	@After
+	def void deleteStateDirectory() {
+		org.eclipse.xtext.util.Files.cleanFolder(stateDirectory, null, true, true)
+	}
+
+	protected def void shutdown() {
+		languageServer.shutdown.get
+	}
+
+	protected def void restart() {
+		Guice.createInjector(serverModule).injectMembers(this)
+		languageServer.connect(ServiceEndpoints.toServiceObject(this, LanguageClientExtensions))
+		languageServer.supportedMethods()
+		notifications.clear
+		deltas.clear
+		workspaceManager.addBuildListener[deltas += it]
+		initialize
+	}
+
+	@Test
+	def void testRestoreUnchangedProject() {
+		val path = 'MyType1.testlang'.writeFile('type Test { NonExisting foo }')
+		'MyType2.testlang'.writeFile('type Other {}')
+		initialize
+		shutdown
+		restart
+		assertTrue(deltas.map[uri].join(','), deltas.empty)
+		assertEquals("Couldn't resolve reference to TypeDeclaration 'NonExisting'.", diagnostics.get(path).head.message)
+		assertEquals(12, diagnostics.get(path).head.range.start.character)
+	}
+
+	@Test
+	def void testRebuildChangedFile() {
+		val path = 'MyType1.testlang'.writeFile('type Test { NonExisting foo }')
+		'MyType2.testlang'.writeFile('type Other {}')
+		initialize
+		shutdown
+		'MyType2.testlang'.writeFile('type NonExisting {}')
+		restart
+		assertEquals(2, deltas.size)
+		assertTrue(diagnostics.get(path).empty)
+	}
+
+	@Test
+	def void testRebuildDeletedFile() {
+		val path = 'MyType1.testlang'.writeFile('type Test { Other foo }')
+		'MyType2.testlang'.writeFile('type Other {}')
+		initialize
+		assertTrue(diagnostics.get(path).empty)
+		shutdown
+		new File(root, 'MyType2.testlang').delete
+		restart
+		assertEquals("Couldn't resolve reference to TypeDeclaration 'Other'.", diagnostics.get(path).head.message)
+	}
+
+	@Test
+	def void testRestoreWithoutShutdown() {
+		'MyType1.testlang'.writeFile('type Test { Other foo }')
+		'MyType2.testlang'.writeFile('type Other {}')
+		initialize
+		workspaceManager.persistProjectStatesWhenIdle(new RequestCancelIndicator(new CompletableFuture))
+		restart
+		assertTrue(deltas.map[uri].join(','), deltas.empty)
+	}
+
+	@Test
+	def void testCancelledPersistence() {
+		'MyType1.testlang'.writeFile('type Test { Other foo }')
+		initialize
+		val request = new CompletableFuture
+		request.cancel(true)
+		try {
+			workspaceManager.persistProjectStatesWhenIdle(new RequestCancelIndicator(request))
+			fail()
+		} catch (CancellationException e) {
+			//expected
+		}
+		assertTrue(stateDirectory.list.empty)
+	}
+
+	@Test
+	def void testLongIssueMessage() {
+		val message = Strings.repeat('x', 100000)
+		val uri = URI.createURI('file:/MyType1.testlang')
+		val Issue issue = new Issue.IssueImpl => [
+			severity = Severity.ERROR
+			it.message = message
+		]
+		projectStatePersister.writeProjectState('test', uri, new PersistedState(new IndexState, emptyMap, #{uri -> #[issue]}))
+		val state = projectStatePersister.readProjectState('test', uri)
+		assertEquals(message, state.validationIssues.get(uri).head.message)
+	}
+}
@@ -79,5 +79,38 @@ class WorkspaceSymbolTest extends AbstractTestLangLanguageServerTest {
 			'''
 		]
 	}
+
+	@Test
+	def void testSymbol_ranking() {
+		testSymbol[
+			model = '''
+				type Foo {
+					int bar
+				}
+				type Bar {
+					Foo foo
+				}
+			'''
+			query = 'bar'
+			expectedSymbols = '''
+				symbol "Bar" {
+					kind: 7
+					location: MyModel.testlang [[3, 5] .. [3, 8]]
+				}
+				symbol "Foo.bar" {
+					kind: 7
+					location: MyModel.testlang [[1, 5] .. [1, 8]]
+				}
+				symbol "Bar.foo" {
+					kind: 7
+					location: MyModel.testlang [[4, 5] .. [4, 8]]
+				}
+				symbol "Foo.bar.int" {
+					kind: 7
+					location: MyModel.testlang [[1, 1] .. [1, 4]]
+				}
+			'''
+		]
+	}
 	
 }
\ No newline at end of file
@@ -108,6 +108,41 @@ class RequestManagerTest {
 		assertEquals(2, sharedState.get)
 	}
 
+	@Test(timeout = 1000)
+	def void testRunReadDuringWriteWithConcurrentReads() {
+		val write = requestManager.runWriteWithConcurrentReads([
+			sharedState.incrementAndGet
+		], [
+			while (sharedState.get == 1) {
+				Thread.sleep(10)
+			}
+			sharedState.incrementAndGet
+		])
+		val read = requestManager.runRead [
+			sharedState.incrementAndGet
+		]
+		assertEquals(2, read.get)
+		assertEquals(3, write.get)
+	}
+
+	@Test(timeout = 1000)
+	def void testRunWriteWithConcurrentReadsAfterRead() {
+		val previousRead = requestManager.runRead [
+			while (sharedState.get == 0) {
+				Thread.sleep(10)
+			}
+			sharedState.incrementAndGet
+		]
+		val write = requestManager.runWriteWithConcurrentReads([], [
+			sharedState.incrementAndGet
+		])
+		sharedState.incrementAndGet
+		previousRead.join
+		write.join
+		assertEquals(3, sharedState.get)
+		assertFalse(previousRead.cancelled)
+	}
+
 	@Test(timeout = 1000)
 	def void testCancelRead() {
 		val isCanceled = new AtomicBoolean(false)
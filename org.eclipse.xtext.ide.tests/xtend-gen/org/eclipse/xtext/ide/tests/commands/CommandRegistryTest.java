@@ -7,6 +7,7 @@
  */
 package org.eclipse.xtext.ide.tests.commands;
 
+import com.google.inject.Guice;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +33,7 @@ import org.eclipse.xtend.lib.annotations.Delegate;
 import org.eclipse.xtext.ide.server.ILanguageServerAccess;
 import org.eclipse.xtext.ide.server.commands.ExecutableCommandRegistry;
 import org.eclipse.xtext.ide.server.commands.IExecutableCommandService;
+import org.eclipse.xtext.ide.server.commands.MetricsCommandService;
 import org.eclipse.xtext.parser.IEncodingProvider;
 import org.eclipse.xtext.resource.IContainer;
 import org.eclipse.xtext.resource.IResourceDescription;
@@ -111,6 +113,35 @@ public class CommandRegistryTest implements IResourceServiceProvider, IExecutabl
     Assert.assertEquals(Collections.<Object>unmodifiableSet(CollectionLiterals.<Object>newHashSet()), this.commandsExecuted);
   }
   
+  @Test
+  public void testMetricsCommand() {
+    final ExecutableCommandRegistry reg = Guice.createInjector().<ExecutableCommandRegistry>getInstance(ExecutableCommandRegistry.class);
+    ClientCapabilities _clientCapabilities = new ClientCapabilities();
+    final Procedure1<ClientCapabilities> _function = (ClientCapabilities it) -> {
+      WorkspaceClientCapabilities _workspaceClientCapabilities = new WorkspaceClientCapabilities();
+      final Procedure1<WorkspaceClientCapabilities> _function_1 = (WorkspaceClientCapabilities it_1) -> {
+        ExecuteCommandCapabilities _executeCommandCapabilities = new ExecuteCommandCapabilities();
+        final Procedure1<ExecuteCommandCapabilities> _function_2 = (ExecuteCommandCapabilities it_2) -> {
+          it_2.setDynamicRegistration(Boolean.valueOf(false));
+        };
+        ExecuteCommandCapabilities _doubleArrow = ObjectExtensions.<ExecuteCommandCapabilities>operator_doubleArrow(_executeCommandCapabilities, _function_2);
+        it_1.setExecuteCommand(_doubleArrow);
+      };
+      WorkspaceClientCapabilities _doubleArrow = ObjectExtensions.<WorkspaceClientCapabilities>operator_doubleArrow(_workspaceClientCapabilities, _function_1);
+      it.setWorkspace(_doubleArrow);
+    };
+    final ClientCapabilities cap = ObjectExtensions.<ClientCapabilities>operator_doubleArrow(_clientCapabilities, _function);
+    reg.initialize(Collections.<IResourceServiceProvider>unmodifiableList(CollectionLiterals.<IResourceServiceProvider>newArrayList()), cap, this);
+    Assert.assertEquals(Collections.<String>unmodifiableList(CollectionLiterals.<String>newArrayList(MetricsCommandService.COMMAND)), reg.getCommands());
+    ExecuteCommandParams _executeCommandParams = new ExecuteCommandParams();
+    final Procedure1<ExecuteCommandParams> _function_1 = (ExecuteCommandParams it) -> {
+      it.setCommand(MetricsCommandService.COMMAND);
+    };
+    ExecuteCommandParams _doubleArrow = ObjectExtensions.<ExecuteCommandParams>operator_doubleArrow(_executeCommandParams, _function_1);
+    final Object result = reg.executeCommand(_doubleArrow, null, null);
+    Assert.assertTrue((result instanceof List<?>));
+  }
+  
   @Override
   public List<String> initialize() {
     return Collections.<String>unmodifiableList(CollectionLiterals.<String>newArrayList("static-command"));
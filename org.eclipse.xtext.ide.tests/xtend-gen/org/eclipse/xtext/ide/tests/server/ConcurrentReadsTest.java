@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.xtext.ide.tests.server;
+
+import com.google.inject.Binder;
+import com.google.inject.Inject;
+import com.google.inject.Module;
+import com.google.inject.Singleton;
+import com.google.inject.name.Names;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BiFunction;
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.DocumentSymbolParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
+import org.eclipse.xtext.ide.server.BuildManager;
+import org.eclipse.xtext.ide.server.ServerModule;
+import org.eclipse.xtext.ide.server.UriExtensions;
+import org.eclipse.xtext.ide.server.WorkspaceManager;
+import org.eclipse.xtext.ide.tests.server.AbstractTestLangLanguageServerTest;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.util.Modules2;
+import org.eclipse.xtext.xbase.lib.CollectionLiterals;
+import org.eclipse.xtext.xbase.lib.Exceptions;
+import org.eclipse.xtext.xbase.lib.Extension;
+import org.eclipse.xtext.xbase.lib.Functions.Function0;
+import org.eclipse.xtext.xbase.lib.Functions.Function2;
+import org.eclipse.xtext.xbase.lib.IterableExtensions;
+import org.eclipse.xtext.xbase.lib.ObjectExtensions;
+import org.eclipse.xtext.xbase.lib.Procedures.Procedure1;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Runs the document changes with concurrent reads, like the language server does outside of tests.
+ */
+@SuppressWarnings("all")
+public class ConcurrentReadsTest extends AbstractTestLangLanguageServerTest {
+  @Inject
+  private WorkspaceManager workspaceManager;
+  
+  @Inject
+  @Extension
+  private UriExtensions _uriExtensions;
+  
+  @Override
+  protected Module getServerModule() {
+    ServerModule _serverModule = new ServerModule();
+    final Module _function = (Binder it) -> {
+      it.<WorkspaceManager>bind(WorkspaceManager.class).in(Singleton.class);
+      it.bindConstant().annotatedWith(Names.named(BuildManager.VALIDATION_DELAY)).to(60000L);
+    };
+    return Modules2.mixin(_serverModule, _function);
+  }
+  
+  @Test(timeout = 10000)
+  public void testReadAfterCancelledWrite() {
+    try {
+      final String file = this.writeFile("MyType1.testlang", "type Foo {}");
+      this.initialize();
+      final CountDownLatch proceed = new CountDownLatch(1);
+      final Function0<BuildManager.Buildable> _function = () -> {
+        try {
+          BuildManager.Buildable _xblockexpression = null;
+          {
+            proceed.await();
+            _xblockexpression = this.workspaceManager.didOpen(this._uriExtensions.toUri(file), 1, "type Bar {}");
+          }
+          return _xblockexpression;
+        } catch (Throwable _e) {
+          throw Exceptions.sneakyThrow(_e);
+        }
+      };
+      final Function2<CancelIndicator, BuildManager.Buildable, List<IResourceDescription.Delta>> _function_1 = (CancelIndicator cancelIndicator, BuildManager.Buildable buildable) -> {
+        return buildable.build(cancelIndicator);
+      };
+      final CompletableFuture<List<IResourceDescription.Delta>> cancelledWrite = this.languageServer.getRequestManager().<BuildManager.Buildable, List<IResourceDescription.Delta>>runWriteWithConcurrentReads(_function, _function_1);
+      cancelledWrite.cancel(true);
+      proceed.countDown();
+      TextDocumentIdentifier _textDocumentIdentifier = new TextDocumentIdentifier(file);
+      DocumentSymbolParams _documentSymbolParams = new DocumentSymbolParams(_textDocumentIdentifier);
+      final CompletableFuture<List<? extends SymbolInformation>> read = this.languageServer.documentSymbol(_documentSymbolParams);
+      final BiFunction<List<? extends SymbolInformation>, Throwable, Object> _function_2 = (List<? extends SymbolInformation> result, Throwable exception) -> {
+        return null;
+      };
+      read.<Object>handle(_function_2).join();
+      Assert.assertTrue(read.isCompletedExceptionally());
+      Position _position = new Position(0, 5);
+      Position _position_1 = new Position(0, 8);
+      Range _range = new Range(_position, _position_1);
+      this.replace(file, 2, _range, "Baz");
+      Assert.assertEquals("Baz", IterableExtensions.head(this.getDocumentSymbols(file)).getName());
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  @Test(timeout = 10000)
+  public void testDelayedValidationIsCancelledByChange() {
+    final String file = this.writeFile("MyType1.testlang", "type Foo { NonExisting foo }");
+    this.initialize();
+    Assert.assertEquals(1, this.getDiagnostics().get(file).size());
+    this.open(file, "type Foo {}");
+    Assert.assertEquals("Foo", IterableExtensions.head(this.getDocumentSymbols(file)).getName());
+    Assert.assertEquals(1, this.getDiagnostics().get(file).size());
+    Position _position = new Position(0, 5);
+    Position _position_1 = new Position(0, 8);
+    Range _range = new Range(_position, _position_1);
+    this.replace(file, 2, _range, "Baz");
+    Assert.assertEquals("Baz", IterableExtensions.head(this.getDocumentSymbols(file)).getName());
+  }
+  
+  protected List<? extends SymbolInformation> getDocumentSymbols(final String file) {
+    try {
+      TextDocumentIdentifier _textDocumentIdentifier = new TextDocumentIdentifier(file);
+      DocumentSymbolParams _documentSymbolParams = new DocumentSymbolParams(_textDocumentIdentifier);
+      return this.languageServer.documentSymbol(_documentSymbolParams).get();
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  protected void replace(final String file, final int version, final Range range, final String text) {
+    DidChangeTextDocumentParams _didChangeTextDocumentParams = new DidChangeTextDocumentParams();
+    final Procedure1<DidChangeTextDocumentParams> _function = (DidChangeTextDocumentParams it) -> {
+      VersionedTextDocumentIdentifier _versionedTextDocumentIdentifier = new VersionedTextDocumentIdentifier();
+      final Procedure1<VersionedTextDocumentIdentifier> _function_1 = (VersionedTextDocumentIdentifier it_1) -> {
+        it_1.setUri(file);
+        it_1.setVersion(Integer.valueOf(version));
+      };
+      VersionedTextDocumentIdentifier _doubleArrow = ObjectExtensions.<VersionedTextDocumentIdentifier>operator_doubleArrow(_versionedTextDocumentIdentifier, _function_1);
+      it.setTextDocument(_doubleArrow);
+      TextDocumentContentChangeEvent _textDocumentContentChangeEvent = new TextDocumentContentChangeEvent();
+      final Procedure1<TextDocumentContentChangeEvent> _function_2 = (TextDocumentContentChangeEvent it_1) -> {
+        it_1.setRange(range);
+        it_1.setText(text);
+      };
+      TextDocumentContentChangeEvent _doubleArrow_1 = ObjectExtensions.<TextDocumentContentChangeEvent>operator_doubleArrow(_textDocumentContentChangeEvent, _function_2);
+      it.setContentChanges(Collections.<TextDocumentContentChangeEvent>unmodifiableList(CollectionLiterals.<TextDocumentContentChangeEvent>newArrayList(_doubleArrow_1)));
+    };
+    DidChangeTextDocumentParams _doubleArrow = ObjectExtensions.<DidChangeTextDocumentParams>operator_doubleArrow(_didChangeTextDocumentParams, _function);
+    this.languageServer.didChange(_doubleArrow);
+  }
+}
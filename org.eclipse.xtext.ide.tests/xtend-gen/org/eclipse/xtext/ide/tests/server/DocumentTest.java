@@ -77,6 +77,37 @@ public class DocumentTest {
     ObjectExtensions.<Document>operator_doubleArrow(_document, _function);
   }
   
+  @Test
+  public void testPosition() {
+    StringConcatenation _builder = new StringConcatenation();
+    _builder.append("hello world");
+    _builder.newLine();
+    _builder.append("foo");
+    _builder.newLine();
+    _builder.append("bar");
+    _builder.newLine();
+    String _normalize = this.normalize(_builder);
+    Document _document = new Document(1, _normalize);
+    final Procedure1<Document> _function = (Document it) -> {
+      Assert.assertEquals(this.position(0, 0), it.getPosition(0));
+      Assert.assertEquals(this.position(0, 11), it.getPosition(11));
+      Assert.assertEquals(this.position(1, 0), it.getPosition(12));
+      Assert.assertEquals(this.position(2, 3), it.getPosition(19));
+      Assert.assertEquals(this.position(3, 0), it.getPosition(20));
+      try {
+        it.getPosition(21);
+        Assert.fail();
+      } catch (final Throwable _t) {
+        if (_t instanceof IndexOutOfBoundsException) {
+          final IndexOutOfBoundsException e = (IndexOutOfBoundsException)_t;
+        } else {
+          throw Exceptions.sneakyThrow(_t);
+        }
+      }
+    };
+    ObjectExtensions.<Document>operator_doubleArrow(_document, _function);
+  }
+  
   @Test
   public void testUpdate_01() {
     StringConcatenation _builder = new StringConcatenation();
@@ -163,6 +194,36 @@ public class DocumentTest {
     ObjectExtensions.<Document>operator_doubleArrow(_document, _function);
   }
   
+  @Test
+  public void testUpdate_sequentialChanges() {
+    StringConcatenation _builder = new StringConcatenation();
+    _builder.append("hello world");
+    _builder.newLine();
+    _builder.append("foo");
+    _builder.newLine();
+    _builder.append("bar");
+    _builder.newLine();
+    String _normalize = this.normalize(_builder);
+    Document _document = new Document(1, _normalize);
+    final Procedure1<Document> _function = (Document it) -> {
+      StringConcatenation _builder_1 = new StringConcatenation();
+      _builder_1.append("hello world");
+      _builder_1.newLine();
+      _builder_1.append("future");
+      _builder_1.newLine();
+      _builder_1.append("baz");
+      _builder_1.newLine();
+      _builder_1.append("bar!");
+      _builder_1.newLine();
+      TextEdit _change = this.change(this.position(1, 1), this.position(1, 3), "uture");
+      TextEdit _change_1 = this.change(this.position(1, 6), this.position(1, 6), "\nbaz");
+      TextEdit _change_2 = this.change(this.position(3, 3), this.position(3, 3), "!");
+      Assert.assertEquals(this.normalize(_builder_1), it.applyChanges(
+        Collections.<TextEdit>unmodifiableList(CollectionLiterals.<TextEdit>newArrayList(_change, _change_1, _change_2))).getContents());
+    };
+    ObjectExtensions.<Document>operator_doubleArrow(_document, _function);
+  }
+  
   private TextEdit change(final Position startPos, final Position endPos, final String newText) {
     TextEdit _textEdit = new TextEdit();
     final Procedure1<TextEdit> _function = (TextEdit it) -> {
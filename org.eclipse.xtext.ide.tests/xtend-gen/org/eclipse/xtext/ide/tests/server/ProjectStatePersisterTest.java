@@ -0,0 +1,200 @@
+/**
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.xtext.ide.tests.server;
+
+import com.google.common.base.Strings;
+import com.google.common.io.Files;
+import com.google.inject.Binder;
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Module;
+import com.google.inject.Singleton;
+import com.google.inject.name.Names;
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.jsonrpc.services.ServiceEndpoints;
+import org.eclipse.lsp4j.services.LanguageClientExtensions;
+import org.eclipse.xtext.build.IndexState;
+import org.eclipse.xtext.diagnostics.Severity;
+import org.eclipse.xtext.ide.server.BuildManager;
+import org.eclipse.xtext.ide.server.ILanguageServerAccess;
+import org.eclipse.xtext.ide.server.ProjectStatePersister;
+import org.eclipse.xtext.ide.server.WorkspaceManager;
+import org.eclipse.xtext.ide.server.concurrent.RequestCancelIndicator;
+import org.eclipse.xtext.ide.tests.server.AbstractTestLangLanguageServerTest;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.util.Modules2;
+import org.eclipse.xtext.validation.Issue;
+import org.eclipse.xtext.xbase.lib.CollectionLiterals;
+import org.eclipse.xtext.xbase.lib.Conversions;
+import org.eclipse.xtext.xbase.lib.Exceptions;
+import org.eclipse.xtext.xbase.lib.Functions.Function1;
+import org.eclipse.xtext.xbase.lib.IterableExtensions;
+import org.eclipse.xtext.xbase.lib.ListExtensions;
+import org.eclipse.xtext.xbase.lib.ObjectExtensions;
+import org.eclipse.xtext.xbase.lib.Pair;
+import org.eclipse.xtext.xbase.lib.Procedures.Procedure1;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Restarts the language server and checks that only the files that changed in between are rebuilt.
+ */
+@SuppressWarnings("all")
+public class ProjectStatePersisterTest extends AbstractTestLangLanguageServerTest {
+  private final File stateDirectory = Files.createTempDir();
+  
+  @Inject
+  private WorkspaceManager workspaceManager;
+  
+  @Inject
+  private ProjectStatePersister projectStatePersister;
+  
+  private List<IResourceDescription.Delta> deltas = CollectionLiterals.<IResourceDescription.Delta>newArrayList();
+  
+  @Override
+  protected Module getServerModule() {
+    Module _serverModule = super.getServerModule();
+    final Module _function = (Binder it) -> {
+      it.<String>bind(String.class).annotatedWith(Names.named(ProjectStatePersister.STATE_DIRECTORY)).toInstance(this.stateDirectory.getAbsolutePath());
+      it.<WorkspaceManager>bind(WorkspaceManager.class).in(Singleton.class);
+      it.<Long>bind(Long.class).annotatedWith(Names.named(BuildManager.PERSISTENCE_DELAY)).toInstance(Long.valueOf(0L));
+    };
+    return Modules2.mixin(_serverModule, _function);
+  }
+  
+  @After
+  public void deleteStateDirectory() {
+    try {
+      org.eclipse.xtext.util.Files.cleanFolder(this.stateDirectory, null, true, true);
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  protected void shutdown() {
+    try {
+      this.languageServer.shutdown().get();
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  protected void restart() {
+    Guice.createInjector(this.getServerModule()).injectMembers(this);
+    this.languageServer.connect(ServiceEndpoints.<LanguageClientExtensions>toServiceObject(this, LanguageClientExtensions.class));
+    this.languageServer.supportedMethods();
+    this.notifications.clear();
+    this.deltas.clear();
+    final ILanguageServerAccess.IBuildListener _function = (List<IResourceDescription.Delta> it) -> {
+      this.deltas.addAll(it);
+    };
+    this.workspaceManager.addBuildListener(_function);
+    this.initialize();
+  }
+  
+  @Test
+  public void testRestoreUnchangedProject() {
+    final String path = this.writeFile("MyType1.testlang", "type Test { NonExisting foo }");
+    this.writeFile("MyType2.testlang", "type Other {}");
+    this.initialize();
+    this.shutdown();
+    this.restart();
+    final Function1<IResourceDescription.Delta, URI> _function = (IResourceDescription.Delta it) -> {
+      return it.getUri();
+    };
+    Assert.assertTrue(IterableExtensions.join(ListExtensions.<IResourceDescription.Delta, URI>map(this.deltas, _function), ","), this.deltas.isEmpty());
+    this.assertEquals("Couldn\'t resolve reference to TypeDeclaration \'NonExisting\'.", IterableExtensions.<Diagnostic>head(this.getDiagnostics().get(path)).getMessage());
+    Assert.assertEquals(12, IterableExtensions.<Diagnostic>head(this.getDiagnostics().get(path)).getRange().getStart().getCharacter());
+  }
+  
+  @Test
+  public void testRebuildChangedFile() {
+    final String path = this.writeFile("MyType1.testlang", "type Test { NonExisting foo }");
+    this.writeFile("MyType2.testlang", "type Other {}");
+    this.initialize();
+    this.shutdown();
+    this.writeFile("MyType2.testlang", "type NonExisting {}");
+    this.restart();
+    Assert.assertEquals(2, this.deltas.size());
+    Assert.assertTrue(this.getDiagnostics().get(path).isEmpty());
+  }
+  
+  @Test
+  public void testRebuildDeletedFile() {
+    final String path = this.writeFile("MyType1.testlang", "type Test { Other foo }");
+    this.writeFile("MyType2.testlang", "type Other {}");
+    this.initialize();
+    Assert.assertTrue(this.getDiagnostics().get(path).isEmpty());
+    this.shutdown();
+    new File(this.root, "MyType2.testlang").delete();
+    this.restart();
+    this.assertEquals("Couldn\'t resolve reference to TypeDeclaration \'Other\'.", IterableExtensions.<Diagnostic>head(this.getDiagnostics().get(path)).getMessage());
+  }
+  
+  @Test
+  public void testRestoreWithoutShutdown() {
+    this.writeFile("MyType1.testlang", "type Test { Other foo }");
+    this.writeFile("MyType2.testlang", "type Other {}");
+    this.initialize();
+    CompletableFuture<Object> _completableFuture = new CompletableFuture<Object>();
+    RequestCancelIndicator _requestCancelIndicator = new RequestCancelIndicator(_completableFuture);
+    this.workspaceManager.persistProjectStatesWhenIdle(_requestCancelIndicator);
+    this.restart();
+    final Function1<IResourceDescription.Delta, URI> _function = (IResourceDescription.Delta it) -> {
+      return it.getUri();
+    };
+    Assert.assertTrue(IterableExtensions.join(ListExtensions.<IResourceDescription.Delta, URI>map(this.deltas, _function), ","), this.deltas.isEmpty());
+  }
+  
+  @Test
+  public void testCancelledPersistence() {
+    this.writeFile("MyType1.testlang", "type Test { Other foo }");
+    this.initialize();
+    final CompletableFuture<Object> request = new CompletableFuture<Object>();
+    request.cancel(true);
+    try {
+      RequestCancelIndicator _requestCancelIndicator = new RequestCancelIndicator(request);
+      this.workspaceManager.persistProjectStatesWhenIdle(_requestCancelIndicator);
+      Assert.fail();
+    } catch (final Throwable _t) {
+      if (_t instanceof CancellationException) {
+        final CancellationException e = (CancellationException)_t;
+      } else {
+        throw Exceptions.sneakyThrow(_t);
+      }
+    }
+    Assert.assertTrue(((List<String>)Conversions.doWrapArray(this.stateDirectory.list())).isEmpty());
+  }
+  
+  @Test
+  public void testLongIssueMessage() {
+    final String message = Strings.repeat("x", 100000);
+    final URI uri = URI.createURI("file:/MyType1.testlang");
+    Issue.IssueImpl _issueImpl = new Issue.IssueImpl();
+    final Procedure1<Issue.IssueImpl> _function = (Issue.IssueImpl it) -> {
+      it.setSeverity(Severity.ERROR);
+      it.setMessage(message);
+    };
+    final Issue issue = ObjectExtensions.<Issue.IssueImpl>operator_doubleArrow(_issueImpl, _function);
+    IndexState _indexState = new IndexState();
+    Map<URI, ProjectStatePersister.FileFingerprint> _emptyMap = CollectionLiterals.<URI, ProjectStatePersister.FileFingerprint>emptyMap();
+    Pair<URI, List<Issue>> _mappedTo = Pair.<URI, List<Issue>>of(uri, Collections.<Issue>unmodifiableList(CollectionLiterals.<Issue>newArrayList(issue)));
+    ProjectStatePersister.PersistedState _persistedState = new ProjectStatePersister.PersistedState(_indexState, _emptyMap, Collections.<URI, List<Issue>>unmodifiableMap(CollectionLiterals.<URI, List<Issue>>newHashMap(_mappedTo)));
+    this.projectStatePersister.writeProjectState("test", uri, _persistedState);
+    final ProjectStatePersister.PersistedState state = this.projectStatePersister.readProjectState("test", uri);
+    Assert.assertEquals(message, IterableExtensions.<Issue>head(state.getValidationIssues().get(uri)).getMessage());
+  }
+}
@@ -149,4 +149,70 @@ public class WorkspaceSymbolTest extends AbstractTestLangLanguageServerTest {
     };
     this.testSymbol(_function);
   }
+  
+  @Test
+  public void testSymbol_ranking() {
+    final Procedure1<WorkspaceSymbolConfiguraiton> _function = (WorkspaceSymbolConfiguraiton it) -> {
+      StringConcatenation _builder = new StringConcatenation();
+      _builder.append("type Foo {");
+      _builder.newLine();
+      _builder.append("\t");
+      _builder.append("int bar");
+      _builder.newLine();
+      _builder.append("}");
+      _builder.newLine();
+      _builder.append("type Bar {");
+      _builder.newLine();
+      _builder.append("\t");
+      _builder.append("Foo foo");
+      _builder.newLine();
+      _builder.append("}");
+      _builder.newLine();
+      it.setModel(_builder.toString());
+      it.setQuery("bar");
+      StringConcatenation _builder_1 = new StringConcatenation();
+      _builder_1.append("symbol \"Bar\" {");
+      _builder_1.newLine();
+      _builder_1.append("\t");
+      _builder_1.append("kind: 7");
+      _builder_1.newLine();
+      _builder_1.append("\t");
+      _builder_1.append("location: MyModel.testlang [[3, 5] .. [3, 8]]");
+      _builder_1.newLine();
+      _builder_1.append("}");
+      _builder_1.newLine();
+      _builder_1.append("symbol \"Foo.bar\" {");
+      _builder_1.newLine();
+      _builder_1.append("\t");
+      _builder_1.append("kind: 7");
+      _builder_1.newLine();
+      _builder_1.append("\t");
+      _builder_1.append("location: MyModel.testlang [[1, 5] .. [1, 8]]");
+      _builder_1.newLine();
+      _builder_1.append("}");
+      _builder_1.newLine();
+      _builder_1.append("symbol \"Bar.foo\" {");
+      _builder_1.newLine();
+      _builder_1.append("\t");
+      _builder_1.append("kind: 7");
+      _builder_1.newLine();
+      _builder_1.append("\t");
+      _builder_1.append("location: MyModel.testlang [[4, 5] .. [4, 8]]");
+      _builder_1.newLine();
+      _builder_1.append("}");
+      _builder_1.newLine();
+      _builder_1.append("symbol \"Foo.bar.int\" {");
+      _builder_1.newLine();
+      _builder_1.append("\t");
+      _builder_1.append("kind: 7");
+      _builder_1.newLine();
+      _builder_1.append("\t");
+      _builder_1.append("location: MyModel.testlang [[1, 1] .. [1, 4]]");
+      _builder_1.newLine();
+      _builder_1.append("}");
+      _builder_1.newLine();
+      it.setExpectedSymbols(_builder_1.toString());
+    };
+    this.testSymbol(_function);
+  }
 }
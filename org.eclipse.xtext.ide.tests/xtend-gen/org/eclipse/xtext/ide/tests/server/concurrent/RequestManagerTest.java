@@ -166,6 +166,69 @@ public class RequestManagerTest {
     Assert.assertEquals(2, this.sharedState.get());
   }
   
+  @Test(timeout = 1000)
+  public void testRunReadDuringWriteWithConcurrentReads() {
+    try {
+      final Function0<Integer> _function = () -> {
+        return Integer.valueOf(this.sharedState.incrementAndGet());
+      };
+      final Function2<CancelIndicator, Integer, Integer> _function_1 = (CancelIndicator $0, Integer $1) -> {
+        try {
+          int _xblockexpression = (int) 0;
+          {
+            while ((this.sharedState.get() == 1)) {
+              Thread.sleep(10);
+            }
+            _xblockexpression = this.sharedState.incrementAndGet();
+          }
+          return Integer.valueOf(_xblockexpression);
+        } catch (Throwable _e) {
+          throw Exceptions.sneakyThrow(_e);
+        }
+      };
+      final CompletableFuture<Integer> write = this.requestManager.<Integer, Integer>runWriteWithConcurrentReads(_function, _function_1);
+      final Function1<CancelIndicator, Integer> _function_2 = (CancelIndicator it) -> {
+        return Integer.valueOf(this.sharedState.incrementAndGet());
+      };
+      final CompletableFuture<Integer> read = this.requestManager.<Integer>runRead(_function_2);
+      Assert.assertEquals(2, (read.get()).intValue());
+      Assert.assertEquals(3, (write.get()).intValue());
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  @Test(timeout = 1000)
+  public void testRunWriteWithConcurrentReadsAfterRead() {
+    final Function1<CancelIndicator, Integer> _function = (CancelIndicator it) -> {
+      try {
+        int _xblockexpression = (int) 0;
+        {
+          while ((this.sharedState.get() == 0)) {
+            Thread.sleep(10);
+          }
+          _xblockexpression = this.sharedState.incrementAndGet();
+        }
+        return Integer.valueOf(_xblockexpression);
+      } catch (Throwable _e) {
+        throw Exceptions.sneakyThrow(_e);
+      }
+    };
+    final CompletableFuture<Integer> previousRead = this.requestManager.<Integer>runRead(_function);
+    final Function0<Object> _function_1 = () -> {
+      return null;
+    };
+    final Function2<CancelIndicator, Object, Integer> _function_2 = (CancelIndicator $0, Object $1) -> {
+      return Integer.valueOf(this.sharedState.incrementAndGet());
+    };
+    final CompletableFuture<Integer> write = this.requestManager.<Object, Integer>runWriteWithConcurrentReads(_function_1, _function_2);
+    this.sharedState.incrementAndGet();
+    previousRead.join();
+    write.join();
+    Assert.assertEquals(3, this.sharedState.get());
+    Assert.assertFalse(previousRead.isCancelled());
+  }
+  
   @Test(timeout = 1000)
   public void testCancelRead() {
     try {
@@ -49,6 +49,15 @@ import com.google.inject.name.Named;
  */
 public abstract class AbstractContentAssistParser implements IContentAssistParser, IPartialEditingContentAssistParser {
 
+	/**
+	 * Enables the {@link FollowElementCache} that remembers the follow elements of the parser states, so they are not
+	 * computed again for subsequent completion requests. Languages with semantic predicates that depend on the text of
+	 * the tokens should not enable it. Disabled by default.
+	 * 
+	 * @since 2.13
+	 */
+	public static final String FOLLOW_ELEMENT_CACHE = "org.eclipse.xtext.ide.editor.contentassist.antlr.AbstractContentAssistParser.followElementCache";
+
 	@Inject
 	@Named(LexerIdeBindings.CONTENT_ASSIST)
 	private Provider<Lexer> lexerProvider;
@@ -62,6 +71,13 @@ public abstract class AbstractContentAssistParser implements IContentAssistParse
 	@Inject
 	private RuleNames ruleNames;
 	
+	@Inject(optional = true)
+	@Named(FOLLOW_ELEMENT_CACHE)
+	private boolean useFollowElementCache = false;
+	
+	@Inject
+	private FollowElementCache followElementCache;
+	
 	private AbstractRule entryRule;
 	
 	@Inject
@@ -92,6 +108,21 @@ public abstract class AbstractContentAssistParser implements IContentAssistParse
 	public Collection<FollowElement> getFollowElements(FollowElement element) {
 		if (element.getLookAhead() <= 1)
 			throw new IllegalArgumentException("lookahead may not be less than or equal to 1");
+		if (useFollowElementCache) {
+			Collection<FollowElement> cached = followElementCache.get(element);
+			if (cached != null)
+				return cached;
+			Collection<FollowElement> result = computeFollowElements(element);
+			followElementCache.put(element, result);
+			return result;
+		}
+		return computeFollowElements(element);
+	}
+	
+	/**
+	 * @since 2.13
+	 */
+	protected Collection<FollowElement> computeFollowElements(FollowElement element) {
 		Collection<FollowElement> result = new ArrayList<FollowElement>();
 		for(AbstractElement elementToParse: getElementsToParse(element)) {
 			String ruleName = getRuleName(elementToParse);
@@ -367,6 +398,21 @@ public abstract class AbstractContentAssistParser implements IContentAssistParse
 	
 	@Override
 	public Collection<FollowElement> getFollowElements(String input, boolean strict) {
+		if (useFollowElementCache) {
+			Collection<FollowElement> cached = followElementCache.get(entryRule, input, strict);
+			if (cached != null)
+				return cached;
+			Collection<FollowElement> result = computeFollowElements(input, strict);
+			followElementCache.put(entryRule, input, strict, result);
+			return result;
+		}
+		return computeFollowElements(input, strict);
+	}
+	
+	/**
+	 * @since 2.13
+	 */
+	protected Collection<FollowElement> computeFollowElements(String input, boolean strict) {
 		TokenSource tokenSource = createTokenSource(input);
 		AbstractInternalContentAssistParser parser = createParser();
 		parser.setStrict(strict);
@@ -399,4 +445,25 @@ public abstract class AbstractContentAssistParser implements IContentAssistParse
 	public RequiredRuleNameComputer getRequiredRuleNameComputer() {
 		return requiredRuleNameComputer;
 	}
+	
+	/**
+	 * @since 2.13
+	 */
+	public void setFollowElementCache(boolean useFollowElementCache) {
+		this.useFollowElementCache = useFollowElementCache;
+	}
+	
+	/**
+	 * @since 2.13
+	 */
+	public boolean isFollowElementCache() {
+		return useFollowElementCache;
+	}
+	
+	/**
+	 * @since 2.13
+	 */
+	protected FollowElementCache getFollowElementCache() {
+		return followElementCache;
+	}
 }
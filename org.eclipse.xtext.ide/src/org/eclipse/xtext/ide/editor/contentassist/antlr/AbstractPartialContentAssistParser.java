@@ -49,22 +49,16 @@ public abstract class AbstractPartialContentAssistParser extends AbstractContent
 		ICompositeNode entryPoint = entryPointFinder.findEntryPoint(parseResult, offset);
 		if (entryPoint != null) {
 			String parseMe = getTextToParse(parseResult, entryPoint, offset);
-			TokenSource tokenSource = createTokenSource(parseMe);
-			AbstractInternalContentAssistParser parser = createParser();
-			parser.setStrict(strict);
-			ObservableXtextTokenStream tokens = new ObservableXtextTokenStream(tokenSource, parser);
-			tokens.setInitialHiddenTokens(getInitialHiddenTokens());
-			parser.setTokenStream(tokens);
-			IUnorderedGroupHelper helper = getUnorderedGroupHelper().get();
-			parser.setUnorderedGroupHelper(helper);
-			helper.initializeWith(parser);
-			tokens.setListener(parser);
-			try {
-				Collection<FollowElement> followElements = getFollowElements(parser, getEntryGrammarElement(entryPoint));
-				return Lists.newArrayList(followElements);
-			} catch (InfiniteRecursion infinite) {
-				return Lists.newArrayList(parser.getFollowElements());
+			AbstractElement entryGrammarElement = getEntryGrammarElement(entryPoint);
+			if (isFollowElementCache()) {
+				Collection<FollowElement> cached = getFollowElementCache().get(entryGrammarElement, parseMe, strict);
+				if (cached != null)
+					return cached;
+				Collection<FollowElement> result = computeFollowElements(entryGrammarElement, parseMe, strict);
+				getFollowElementCache().put(entryGrammarElement, parseMe, strict, result);
+				return result;
 			}
+			return computeFollowElements(entryGrammarElement, parseMe, strict);
 		} else {
 			String text = parseResult.getRootNode().getText();
 			String parseMe = text.substring(0, offset);
@@ -74,6 +68,30 @@ public abstract class AbstractPartialContentAssistParser extends AbstractContent
 		}
 	}
 
+	/**
+	 * Parses the given text that starts at an entry point.
+	 * 
+	 * @since 2.13
+	 */
+	protected Collection<FollowElement> computeFollowElements(AbstractElement entryGrammarElement, String parseMe, boolean strict) {
+		TokenSource tokenSource = createTokenSource(parseMe);
+		AbstractInternalContentAssistParser parser = createParser();
+		parser.setStrict(strict);
+		ObservableXtextTokenStream tokens = new ObservableXtextTokenStream(tokenSource, parser);
+		tokens.setInitialHiddenTokens(getInitialHiddenTokens());
+		parser.setTokenStream(tokens);
+		IUnorderedGroupHelper helper = getUnorderedGroupHelper().get();
+		parser.setUnorderedGroupHelper(helper);
+		helper.initializeWith(parser);
+		tokens.setListener(parser);
+		try {
+			Collection<FollowElement> followElements = getFollowElements(parser, entryGrammarElement);
+			return Lists.newArrayList(followElements);
+		} catch (InfiniteRecursion infinite) {
+			return Lists.newArrayList(parser.getFollowElements());
+		}
+	}
+
 	protected AbstractElement getEntryGrammarElement(ICompositeNode entryPoint) {
 		EObject grammarElement = entryPoint.getGrammarElement();
 		if (grammarElement instanceof RuleCall) {
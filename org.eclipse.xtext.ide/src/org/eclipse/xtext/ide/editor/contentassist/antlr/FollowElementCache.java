@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.ide.editor.contentassist.antlr;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.antlr.runtime.CommonToken;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.Lists;
+import com.google.inject.Singleton;
+
+/**
+ * Remembers the follow elements that the content assist parser computed for a parser state. The follow elements
+ * only depend on the grammar, so they can be reused by all completion requests of a language.
+ *
+ * Two kinds of parser states are cached:
+ * <ul>
+ * <li>the {@link FollowElement follow elements} with a look ahead. They are identified by their trace, their
+ * parameters and the kinds of their look ahead terminals.</li>
+ * <li>the text before the cursor position that was parsed from a given entry point. Only a few of them are kept, since
+ * the texts may be large.</li>
+ * </ul>
+ *
+ * The cached follow elements do not refer to the tokens of the request that computed them. The tokens of the current
+ * request are used instead.
+ *
+ * @see AbstractContentAssistParser#FOLLOW_ELEMENT_CACHE
+ * @since 2.13
+ */
+@Beta
+@Singleton
+public class FollowElementCache {
+
+	private static final int MAX_LOOK_AHEAD_ENTRIES = 1000;
+
+	private static final int MAX_INPUT_ENTRIES = 10;
+
+	private final Map<FollowElement, List<FollowElement>> byLookAhead = new LinkedHashMap<FollowElement, List<FollowElement>>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<FollowElement, List<FollowElement>> eldest) {
+			return size() > MAX_LOOK_AHEAD_ENTRIES;
+		}
+	};
+
+	private final Map<List<Object>, List<FollowElement>> byInput = new LinkedHashMap<List<Object>, List<FollowElement>>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<List<Object>, List<FollowElement>> eldest) {
+			return size() > MAX_INPUT_ENTRIES;
+		}
+	};
+
+	/**
+	 * Returns the follow elements for the given element with a look ahead or <code>null</code> if they are not known.
+	 * The look ahead terminals of the result are taken from the given element.
+	 */
+	public Collection<FollowElement> get(FollowElement element) {
+		List<FollowElement> cached;
+		synchronized (byLookAhead) {
+			cached = byLookAhead.get(element);
+		}
+		if (cached == null)
+			return null;
+		List<LookAheadTerminal> terminals = element.getLookAheadTerminals();
+		List<FollowElement> result = Lists.newArrayListWithCapacity(cached.size());
+		for (FollowElement followElement : cached) {
+			List<LookAheadTerminal> followTerminals = followElement.getLookAheadTerminals();
+			if (followTerminals != null) {
+				followTerminals = Lists.newArrayList(terminals.subList(terminals.size() - followTerminals.size(), terminals.size()));
+			}
+			result.add(copy(followElement, followTerminals));
+		}
+		return result;
+	}
+
+	/**
+	 * Remembers the follow elements for the given element with a look ahead. They are only cached if their look ahead
+	 * terminals are the remaining terminals of the given element, which is the case for the follow elements that are
+	 * computed by the content assist parser.
+	 */
+	public void put(FollowElement element, Collection<FollowElement> followElements) {
+		List<LookAheadTerminal> terminals = element.getLookAheadTerminals();
+		List<LookAheadTerminal> keyTerminals = withoutTokens(terminals);
+		if (keyTerminals == null)
+			return;
+		List<FollowElement> cached = Lists.newArrayListWithCapacity(followElements.size());
+		for (FollowElement followElement : followElements) {
+			List<LookAheadTerminal> followTerminals = followElement.getLookAheadTerminals();
+			if (followTerminals != null) {
+				if (!isSuffix(followTerminals, terminals))
+					return;
+				followTerminals = keyTerminals.subList(keyTerminals.size() - followTerminals.size(), keyTerminals.size());
+			}
+			cached.add(copy(followElement, followTerminals));
+		}
+		FollowElement key = copy(element, keyTerminals);
+		synchronized (byLookAhead) {
+			byLookAhead.put(key, cached);
+		}
+	}
+
+	/**
+	 * Returns the follow elements for the text that was parsed from the given entry point or <code>null</code> if
+	 * they are not known. The result refers to copies of the tokens that were lexed for the cached result.
+	 */
+	public Collection<FollowElement> get(Object entryPoint, String input, boolean strict) {
+		List<FollowElement> cached;
+		synchronized (byInput) {
+			cached = byInput.get(Lists.newArrayList(entryPoint, input, strict));
+		}
+		if (cached == null)
+			return null;
+		List<FollowElement> result = Lists.newArrayListWithCapacity(cached.size());
+		for (FollowElement followElement : cached) {
+			result.add(copy(followElement, withTokenCopies(followElement.getLookAheadTerminals())));
+		}
+		return result;
+	}
+
+	/**
+	 * Remembers the follow elements for the text that was parsed from the given entry point.
+	 */
+	public void put(Object entryPoint, String input, boolean strict, Collection<FollowElement> followElements) {
+		List<FollowElement> cached = Lists.newArrayListWithCapacity(followElements.size());
+		for (FollowElement followElement : followElements) {
+			List<LookAheadTerminal> terminals = followElement.getLookAheadTerminals();
+			if (terminals != null && withTokenCopies(terminals) == null)
+				return;
+			cached.add(copy(followElement, terminals));
+		}
+		synchronized (byInput) {
+			byInput.put(Lists.newArrayList(entryPoint, input, strict), cached);
+		}
+	}
+
+	public void clear() {
+		synchronized (byLookAhead) {
+			byLookAhead.clear();
+		}
+		synchronized (byInput) {
+			byInput.clear();
+		}
+	}
+
+	protected boolean isSuffix(List<LookAheadTerminal> suffix, List<LookAheadTerminal> terminals) {
+		int offset = terminals.size() - suffix.size();
+		if (offset < 0)
+			return false;
+		for (int i = 0; i < suffix.size(); i++) {
+			if (suffix.get(i).getToken() != terminals.get(offset + i).getToken())
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns terminals of the same kind that do not refer to any token or <code>null</code> if a terminal is not
+	 * supported.
+	 */
+	protected List<LookAheadTerminal> withoutTokens(List<LookAheadTerminal> terminals) {
+		return copyTerminals(terminals, false);
+	}
+
+	/**
+	 * Returns terminals of the same kind that refer to copies of the tokens or <code>null</code> if a terminal is not
+	 * supported.
+	 */
+	protected List<LookAheadTerminal> withTokenCopies(List<LookAheadTerminal> terminals) {
+		return copyTerminals(terminals, true);
+	}
+
+	private List<LookAheadTerminal> copyTerminals(List<LookAheadTerminal> terminals, boolean copyTokens) {
+		if (terminals == null)
+			return null;
+		List<LookAheadTerminal> result = Lists.newArrayListWithCapacity(terminals.size());
+		for (LookAheadTerminal terminal : terminals) {
+			LookAheadTerminal copy;
+			if (terminal.getClass() == LookaheadKeyword.class) {
+				LookaheadKeyword keyword = new LookaheadKeyword();
+				keyword.setKeyword(((LookaheadKeyword) terminal).getKeyword());
+				copy = keyword;
+			} else if (terminal.getClass() == LookAheadTerminalRuleCall.class) {
+				LookAheadTerminalRuleCall ruleCall = new LookAheadTerminalRuleCall();
+				ruleCall.setRule(((LookAheadTerminalRuleCall) terminal).getRule());
+				copy = ruleCall;
+			} else {
+				return null;
+			}
+			if (copyTokens && terminal.getToken() != null) {
+				copy.setToken(new CommonToken(terminal.getToken()));
+			}
+			result.add(copy);
+		}
+		return result;
+	}
+
+	protected FollowElement copy(FollowElement element, List<LookAheadTerminal> terminals) {
+		FollowElement result = new FollowElement();
+		result.setGrammarElement(element.getGrammarElement());
+		result.setTrace(element.getTrace());
+		result.setLocalTrace(element.getLocalTrace());
+		result.setLookAhead(element.getLookAhead());
+		result.setParamStack(element.getParamStack());
+		result.setLookAheadTerminals(terminals);
+		result.setHandledUnorderedGroupElements(element.getHandledUnorderedGroupElements());
+		return result;
+	}
+
+}
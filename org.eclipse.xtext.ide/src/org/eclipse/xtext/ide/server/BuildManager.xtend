@@ -10,16 +10,20 @@ package org.eclipse.xtext.ide.server
 import com.google.common.collect.HashMultimap
 import com.google.inject.Inject
 import com.google.inject.Provider
+import com.google.inject.name.Named
 import java.util.ArrayList
 import java.util.Collection
 import java.util.List
 import java.util.Set
+import java.util.concurrent.CancellationException
 import org.eclipse.emf.common.util.URI
 import org.eclipse.xtend.lib.annotations.Accessors
 import org.eclipse.xtend.lib.annotations.Data
+import org.eclipse.xtext.ide.server.concurrent.RequestCancelIndicator
 import org.eclipse.xtext.diagnostics.Severity
 import org.eclipse.xtext.resource.IResourceDescription
 import org.eclipse.xtext.resource.impl.ProjectDescription
+import org.eclipse.xtext.service.OperationCanceledManager
 import org.eclipse.xtext.util.CancelIndicator
 
 /**
@@ -29,18 +33,145 @@ import org.eclipse.xtext.util.CancelIndicator
 class BuildManager {
     
     public static val CYCLIC_PROJECT_DEPENDENCIES = BuildManager.canonicalName + '.cyclicProjectDependencies'
+    
+    /**
+     * The name of an optional {@link Long} binding that denotes the time in milliseconds to wait after the index has
+     * been updated before the changed files are validated and generated. Changes that arrive in the meantime cancel
+     * the pending validation, so a sequence of fast edits is only validated once.
+     * @since 2.13
+     */
+    public static val String VALIDATION_DELAY = 'org.eclipse.xtext.ide.server.BuildManager.validationDelay'
+
+    /**
+     * The name of an optional {@link Long} binding that denotes the time in milliseconds that no change has to be
+     * submitted before the project states are {@link #persistWhenIdle(CancelIndicator) persisted}.
+     * @since 2.13
+     */
+    public static val String PERSISTENCE_DELAY = 'org.eclipse.xtext.ide.server.BuildManager.persistenceDelay'
+
+    /**
+     * @since 2.13
+     */
+    public static val long DEFAULT_PERSISTENCE_DELAY = 5000
 
     @Accessors(PUBLIC_SETTER)
     WorkspaceManager workspaceManager
     @Inject Provider<TopologicalSorter> sorterProvider
+    @Inject OperationCanceledManager operationCanceledManager
+    @Inject(optional=true) @Named(VALIDATION_DELAY) long validationDelay
+    @Inject(optional=true) @Named(PERSISTENCE_DELAY) long persistenceDelay = DEFAULT_PERSISTENCE_DELAY
+    @Inject ProjectStatePersister projectStatePersister
 
     val dirtyFiles = <URI>newLinkedHashSet
     val deletedFiles = <URI>newLinkedHashSet
     
+    /**
+     * Queues the given changes and returns a buildable that builds all queued changes, including the ones of
+     * buildables that have not been built successfully.
+     * 
+     * The build has two phases. First, the index is updated for the changed and the affected files without
+     * validating them. The projects of the queued files are {@link ProjectManager#announceChanges() announced}, so
+     * reads of these projects wait until this phase is finished. Then, after the {@link #VALIDATION_DELAY}, the
+     * indexed files are validated and generated. If this phase is cancelled, e.g. by a new change, the files are
+     * validated by the next build. The buildable has to be built even if its request has been cancelled, otherwise
+     * the reads keep waiting. Once the files have been validated, the project states are
+     * {@link #persistWhenIdle(CancelIndicator) persisted when no further changes arrive}.
+     */
     def Buildable submit(List<URI> dirtyFiles, List<URI> deletedFiles) {
     	queue(this.dirtyFiles, deletedFiles, dirtyFiles)
         queue(this.deletedFiles, dirtyFiles, deletedFiles)
-        return [cancelIndicator|internalBuild(cancelIndicator)]
+        val announcedProjects = announceQueuedProjects
+        return [cancelIndicator|
+            val lockedProjects = <ProjectManager>newArrayList
+            val result = try {
+                for (projectManager : announcedProjects) {
+                    projectManager.lockForChanges
+                    lockedProjects += projectManager
+                }
+                internalBuild(cancelIndicator)
+            } finally {
+                for (projectManager : lockedProjects) {
+                    projectManager.unlockAfterChanges
+                }
+            }
+            try {
+                awaitValidationDelay(cancelIndicator)
+                validateAndGenerate(cancelIndicator)
+                persistWhenIdle(cancelIndicator)
+            } catch (Throwable t) {
+                if (!isCancelException(t))
+                    throw t
+            }
+            return result
+        ]
+    }
+    
+    /**
+     * Waits for the {@link #VALIDATION_DELAY} unless the build is cancelled in the meantime. Only the builds of
+     * {@link RequestCancelIndicator requests} are delayed, because only they are cancelled by later changes.
+     * @since 2.13
+     */
+    protected def void awaitValidationDelay(CancelIndicator cancelIndicator) {
+        if (validationDelay > 0 && cancelIndicator instanceof RequestCancelIndicator) {
+            (cancelIndicator as RequestCancelIndicator).await(validationDelay)
+        }
+        operationCanceledManager.checkCanceled(cancelIndicator)
+    }
+    
+    /**
+     * Waits until no change has been submitted for the {@link #PERSISTENCE_DELAY} and then
+     * {@link WorkspaceManager#persistProjectStates(CancelIndicator) persists} the project states. Later changes cancel
+     * the waiting as well as the persistence. Only the builds of {@link RequestCancelIndicator requests} persist the
+     * project states, because only they are cancelled by later changes. Otherwise the states are persisted on
+     * shutdown.
+     * @since 2.13
+     */
+    def void persistWhenIdle(CancelIndicator cancelIndicator) {
+        if (!projectStatePersister.enabled || !(cancelIndicator instanceof RequestCancelIndicator))
+            return;
+        (cancelIndicator as RequestCancelIndicator).await(persistenceDelay)
+        operationCanceledManager.checkCanceled(cancelIndicator)
+        workspaceManager.persistProjectStates(cancelIndicator)
+    }
+    
+    /**
+     * Validates and generates the files that have been indexed but not validated yet.
+     * @since 2.13
+     */
+    protected def void validateAndGenerate(CancelIndicator cancelIndicator) {
+        for (projectManager : workspaceManager.projectManagers) {
+            projectManager.doValidateAndGenerate(cancelIndicator)
+        }
+    }
+    
+    /**
+     * @since 2.13
+     */
+    protected def boolean isCancelException(Throwable t) {
+        return t instanceof CancellationException || operationCanceledManager.isOperationCanceledException(t)
+    }
+    
+    /**
+     * Announces the changes to the projects of all queued files.
+     * @since 2.13
+     */
+    protected def Set<ProjectManager> announceQueuedProjects() {
+        val result = <ProjectManager>newLinkedHashSet
+        for (uri : dirtyFiles + deletedFiles) {
+            val projectManager = workspaceManager.getProjectManager(uri)
+            if (projectManager !== null && result.add(projectManager)) {
+                projectManager.announceChanges
+            }
+        }
+        return result
+    }
+
+    /**
+     * The files whose changes have been queued but not built yet.
+     * @since 2.13
+     */
+    def Set<URI> getUnbuiltFiles() {
+        return (dirtyFiles + deletedFiles).toSet
     }
 
     def List<IResourceDescription.Delta> doBuild(List<URI> dirtyFiles, List<URI> deletedFiles, CancelIndicator cancelIndicator) {
@@ -56,7 +187,7 @@ class BuildManager {
         val sortedDescriptions = sortByDependencies(projects)
         val result = newArrayList
         for(description : sortedDescriptions) {
-            val partialresult = workspaceManager.getProjectManager(description.name).doInitialBuild(indicator)
+            val partialresult = workspaceManager.getProjectManager(description.name).doInitialBuild(result, indicator)
             result.addAll(partialresult.affectedResources)
         }
         return result
@@ -80,7 +211,7 @@ class BuildManager {
             val projectManager = workspaceManager.getProjectManager(name)
             val projectDirty = project2dirty.get(it).toList
             val projectDeleted = project2deleted.get(it).toList
-            val partialResult = projectManager.doBuild(projectDirty, projectDeleted, result, cancelIndicator)
+            val partialResult = projectManager.doIndexBuild(projectDirty, projectDeleted, result, cancelIndicator)
             allDirty.addAll(partialResult.affectedResources.map[uri])
             this.dirtyFiles -= projectDirty
             this.deletedFiles -= projectDeleted
@@ -7,6 +7,7 @@
  *******************************************************************************/
 package org.eclipse.xtext.ide.server
 
+import java.util.Arrays
 import org.eclipse.lsp4j.Position
 import org.eclipse.lsp4j.TextEdit
 import org.eclipse.xtend.lib.annotations.Data
@@ -21,25 +22,20 @@ import org.eclipse.lsp4j.Range
     int version
     String contents
 
+    /**
+     * The offsets of the line breaks in the contents. Lazily computed.
+     */
+    volatile transient int[] lineBreaks
+
     def int getOffSet(Position position) {
-        val l = contents.length
-        val char NL = '\n'
-        var line = 0
-        var column = 0
-        for (var i = 0; i < l; i++) {
-            val ch = contents.charAt(i)
-            if (position.line === line && position.character === column) {
-                return i
+        val lineBreaks = getLineBreaks
+        val line = position.line
+        if (line >= 0 && line <= lineBreaks.length && position.character >= 0) {
+            val lineStart = if (line === 0) 0 else lineBreaks.get(line - 1) + 1
+            val lineEnd = if (line < lineBreaks.length) lineBreaks.get(line) else contents.length
+            if (position.character <= lineEnd - lineStart) {
+                return lineStart + position.character
             }
-            if (ch === NL) {
-                line++
-                column = 0
-            } else {
-                column++
-            }
-        }
-        if (position.line === line && position.character === column) {
-            return l
         }
         throw new IndexOutOfBoundsException(position.toString + " text was : " + contents)
     }
@@ -49,22 +45,23 @@ import org.eclipse.lsp4j.Range
         if (offset < 0 || offset > l)
             throw new IndexOutOfBoundsException(offset + " text was : " + contents)
 
-        val char NL = '\n'
-        var line = 0
-        var column = 0
-        for (var i = 0; i < l; i++) {
-            val ch = contents.charAt(i)
-            if (i === offset) {
-                return new Position(line, column)
-            }
-            if (ch === NL) {
-                line++
-                column = 0
-            } else {
-                column++
-            }
+        val lineBreaks = getLineBreaks
+        val index = Arrays.binarySearch(lineBreaks, offset)
+        val line = if (index >= 0) index else -(index + 1)
+        val lineStart = if (line === 0) 0 else lineBreaks.get(line - 1) + 1
+        return new Position(line, offset - lineStart)
+    }
+
+    /**
+     * @since 2.13
+     */
+    protected def int[] getLineBreaks() {
+        var result = lineBreaks
+        if (result === null) {
+            result = PieceTable.computeLineBreaks(contents)
+            lineBreaks = result
         }
-        return new Position(line, column)
+        return result
     }
     
     def String getSubstring(Range range) {
@@ -73,18 +70,22 @@ import org.eclipse.lsp4j.Range
     		return this.contents.substring(start, end)
     }
 
+    /**
+     * Applies the given changes one after the other, i.e. the range of a change refers to the text that results
+     * from the previous changes.
+     */
     def Document applyChanges(Iterable<? extends TextEdit> changes) {
-        var newContent = contents
+        val newContent = new PieceTable(contents, getLineBreaks)
         for (change : changes) {
             if (change.range === null) {
-                newContent = change.newText
+                newContent.text = change.newText
             } else {
-                val start = getOffSet(change.range.start)
-                val end = getOffSet(change.range.end)
-                newContent = newContent.substring(0, start) + change.newText + newContent.substring(end)
+                val start = newContent.getOffSet(change.range.start)
+                val end = newContent.getOffSet(change.range.end)
+                newContent.replace(start, end, change.newText)
             }
         }
-        return new Document(version + 1, newContent)
+        return new Document(version + 1, newContent.toString)
     }
 
 }
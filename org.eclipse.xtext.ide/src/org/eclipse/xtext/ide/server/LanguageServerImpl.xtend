@@ -169,10 +169,15 @@ import org.eclipse.xtext.ide.server.commands.ExecutableCommandRegistry
 		
 		access.addBuildListener(this);
 		
-		return requestManager.runWrite([
+		val initialized = requestManager.runWrite([
 			workspaceManager.initialize(baseDir, [this.publishDiagnostics($0, $1)], CancelIndicator.NullImpl)
 			return null
-		], []).thenApply [result]
+		], [])
+		requestManager.runWriteWithConcurrentReads([null], [ cancelIndicator, nothing |
+			workspaceManager.persistProjectStatesWhenIdle(cancelIndicator)
+			return null
+		])
+		return initialized.thenApply [result]
 	}
 	
 	@Deprecated
@@ -198,7 +203,10 @@ import org.eclipse.xtext.ide.server.commands.ExecutableCommandRegistry
 	}
 
 	override CompletableFuture<Object> shutdown() {
-		return CompletableFuture.completedFuture(new Object());
+		return requestManager.runWrite([
+			workspaceManager.persistProjectStates
+			return new Object
+		], [cancelIndicator, result|result])
 	}
 
 	override TextDocumentService getTextDocumentService() {
@@ -212,7 +220,7 @@ import org.eclipse.xtext.ide.server.commands.ExecutableCommandRegistry
 	// end notification callbacks
 	// file/content change events
 	override didOpen(DidOpenTextDocumentParams params) {
-		requestManager.runWrite([
+		requestManager.runWriteWithConcurrentReads([
 			workspaceManager.didOpen(params.textDocument.uri.toUri, params.textDocument.version, params.textDocument.text)
 		], [cancelIndicator , buildable | 
 			buildable.build(cancelIndicator)
@@ -220,7 +228,7 @@ import org.eclipse.xtext.ide.server.commands.ExecutableCommandRegistry
 	}
 
 	override didChange(DidChangeTextDocumentParams params) {
-		requestManager.runWrite([ 
+		requestManager.runWriteWithConcurrentReads([ 
 			workspaceManager.didChange(params.textDocument.uri.toUri, params.textDocument.version, params.contentChanges.map [ event |
 				new TextEdit(event.range, event.text)
 			])
@@ -230,7 +238,7 @@ import org.eclipse.xtext.ide.server.commands.ExecutableCommandRegistry
 	}
 
 	override didClose(DidCloseTextDocumentParams params) {
-		requestManager.runWrite([
+		requestManager.runWriteWithConcurrentReads([
 			workspaceManager.didClose(params.textDocument.uri.toUri)
 		], [cancelIndicator , buildable | 
 			buildable.build(cancelIndicator)
@@ -243,7 +251,7 @@ import org.eclipse.xtext.ide.server.commands.ExecutableCommandRegistry
 	}
 
 	override didChangeWatchedFiles(DidChangeWatchedFilesParams params) {
-		requestManager.runWrite([
+		requestManager.runWriteWithConcurrentReads([
 			val dirtyFiles = newArrayList
 			val deletedFiles = newArrayList
 			for (fileEvent : params.changes) {
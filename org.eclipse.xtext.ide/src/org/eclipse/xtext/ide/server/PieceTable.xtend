@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.ide.server
+
+import java.util.Arrays
+import java.util.List
+import org.eclipse.lsp4j.Position
+import org.eclipse.xtend.lib.annotations.FinalFieldsConstructor
+
+/**
+ * Applies a sequence of edits to a text without copying the text for each edit. The text is represented as a list
+ * of pieces that refer to the original text or to the inserted texts. Each of these texts knows the offsets of its
+ * line breaks, so positions are resolved without scanning the text. The positions of an edit refer to the text
+ * that results from the previous edits.
+ */
+package class PieceTable {
+
+	/**
+	 * A text together with the sorted offsets of its line breaks.
+	 */
+	@FinalFieldsConstructor
+	static class Buffer {
+		val String text
+		val int[] lineBreaks
+
+		/**
+		 * Returns the number of line breaks before the given offset.
+		 */
+		def int countLineBreaks(int offset) {
+			val index = Arrays.binarySearch(lineBreaks, offset)
+			return if (index >= 0) index else -(index + 1)
+		}
+	}
+
+	@FinalFieldsConstructor
+	static class Piece {
+		val Buffer buffer
+		val int start
+		val int end
+
+		def int length() {
+			return end - start
+		}
+
+		def int lineBreakCount() {
+			return buffer.countLineBreaks(end) - buffer.countLineBreaks(start)
+		}
+
+		/**
+		 * Returns the offset of the line break with the given index relative to the start of this piece.
+		 */
+		def int getLineBreak(int index) {
+			return buffer.lineBreaks.get(buffer.countLineBreaks(start) + index) - start
+		}
+	}
+
+	/**
+	 * Returns the offsets of the line breaks in the given text.
+	 */
+	static def int[] computeLineBreaks(String text) {
+		var count = 0
+		for (var i = text.indexOf('\n'); i !== -1; i = text.indexOf('\n', i + 1)) {
+			count++
+		}
+		val int[] result = newIntArrayOfSize(count)
+		var index = 0
+		for (var i = text.indexOf('\n'); i !== -1; i = text.indexOf('\n', i + 1)) {
+			result.set(index++, i)
+		}
+		return result
+	}
+
+	val List<Piece> pieces = newArrayList
+	int length
+
+	new(String text, int[] lineBreaks) {
+		setText(new Buffer(text, lineBreaks))
+	}
+
+	def void setText(String text) {
+		setText(new Buffer(text, computeLineBreaks(text)))
+	}
+
+	def private void setText(Buffer buffer) {
+		pieces.clear
+		if (!buffer.text.empty) {
+			pieces.add(new Piece(buffer, 0, buffer.text.length))
+		}
+		length = buffer.text.length
+	}
+
+	def int getOffSet(Position position) {
+		if (position.line >= 0 && position.character >= 0) {
+			val lineStart = getLineStart(position.line)
+			if (lineStart !== -1) {
+				val nextLineStart = getLineStart(position.line + 1)
+				val lineEnd = if (nextLineStart === -1) length else nextLineStart - 1
+				if (position.character <= lineEnd - lineStart) {
+					return lineStart + position.character
+				}
+			}
+		}
+		throw new IndexOutOfBoundsException(position.toString + " text was : " + toString)
+	}
+
+	/**
+	 * Returns the offset of the first character of the given line, or <code>-1</code> if there is no such line.
+	 */
+	def private int getLineStart(int line) {
+		if (line === 0) {
+			return 0
+		}
+		var remaining = line
+		var offset = 0
+		for (piece : pieces) {
+			val count = piece.lineBreakCount
+			if (remaining <= count) {
+				return offset + piece.getLineBreak(remaining - 1) + 1
+			}
+			remaining -= count
+			offset += piece.length
+		}
+		return -1
+	}
+
+	def void replace(int start, int end, String text) {
+		if (start < 0 || end < start || end > length) {
+			throw new IndexOutOfBoundsException('[' + start + ', ' + end + '] text was : ' + toString)
+		}
+		val startIndex = split(start)
+		val endIndex = split(end)
+		pieces.subList(startIndex, endIndex).clear
+		if (!text.empty) {
+			pieces.add(startIndex, new Piece(new Buffer(text, computeLineBreaks(text)), 0, text.length))
+		}
+		length += text.length - (end - start)
+	}
+
+	/**
+	 * Splits the piece that contains the given offset and returns the index of the piece that starts at the offset.
+	 */
+	def private int split(int offset) {
+		var pieceStart = 0
+		for (var i = 0; i < pieces.size; i++) {
+			if (offset === pieceStart) {
+				return i
+			}
+			val piece = pieces.get(i)
+			val pieceEnd = pieceStart + piece.length
+			if (offset < pieceEnd) {
+				val splitOffset = piece.start + offset - pieceStart
+				pieces.set(i, new Piece(piece.buffer, piece.start, splitOffset))
+				pieces.add(i + 1, new Piece(piece.buffer, splitOffset, piece.end))
+				return i + 1
+			}
+			pieceStart = pieceEnd
+		}
+		return pieces.size
+	}
+
+	override toString() {
+		val result = new StringBuilder(length)
+		for (piece : pieces) {
+			result.append(piece.buffer.text, piece.start, piece.end)
+		}
+		return result.toString
+	}
+
+}
@@ -9,8 +9,17 @@ package org.eclipse.xtext.ide.server
 
 import com.google.inject.Inject
 import com.google.inject.Provider
+import com.google.inject.name.Named
+import java.util.HashMap
+import java.util.HashSet
 import java.util.List
 import java.util.Map
+import java.util.Set
+import java.util.concurrent.CancellationException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.locks.ReentrantLock
+import java.util.concurrent.locks.ReentrantReadWriteLock
 import org.eclipse.emf.common.util.URI
 import org.eclipse.emf.ecore.resource.Resource
 import org.eclipse.xtend.lib.annotations.Accessors
@@ -19,6 +28,8 @@ import org.eclipse.xtext.build.IncrementalBuilder
 import org.eclipse.xtext.build.IncrementalBuilder.Result
 import org.eclipse.xtext.build.IndexState
 import org.eclipse.xtext.diagnostics.Severity
+import org.eclipse.xtext.ide.server.ProjectStatePersister.FileFingerprint
+import org.eclipse.xtext.ide.server.ProjectStatePersister.PersistedState
 import org.eclipse.xtext.resource.IExternalContentSupport
 import org.eclipse.xtext.resource.IExternalContentSupport.IExternalContentProvider
 import org.eclipse.xtext.resource.IResourceServiceProvider
@@ -26,6 +37,7 @@ import org.eclipse.xtext.resource.XtextResourceSet
 import org.eclipse.xtext.resource.impl.ChunkedResourceDescriptions
 import org.eclipse.xtext.resource.impl.ProjectDescription
 import org.eclipse.xtext.resource.impl.ResourceDescriptionsData
+import org.eclipse.xtext.service.OperationCanceledManager
 import org.eclipse.xtext.util.CancelIndicator
 import org.eclipse.xtext.util.IFileSystemScanner
 import org.eclipse.xtext.validation.Issue
@@ -39,12 +51,34 @@ import org.eclipse.xtext.resource.IResourceDescription
  */
 class ProjectManager {
     
+    /**
+     * The name of an optional {@link ExecutorService} binding. If present, builds load, validate and generate
+     * independent resources in parallel on it.
+     * @since 2.13
+     */
+    public static val String PARALLEL_BUILD_EXECUTOR = 'org.eclipse.xtext.ide.server.ProjectManager.parallelBuildExecutor'
+    
     @Inject protected IncrementalBuilder incrementalBuilder
     @Inject protected Provider<XtextResourceSet> resourceSetProvider
     @Inject protected IResourceServiceProvider.Registry languagesRegistry
     @Inject protected IFileSystemScanner fileSystemScanner
     @Inject protected IExternalContentSupport externalContentSupport
     
+    /**
+     * @since 2.13
+     */
+    @Inject(optional=true) @Named(PARALLEL_BUILD_EXECUTOR) protected ExecutorService parallelBuildExecutor
+    
+    /**
+     * @since 2.13
+     */
+    @Inject protected ProjectStatePersister projectStatePersister
+    
+    /**
+     * @since 2.13
+     */
+    @Inject protected OperationCanceledManager operationCanceledManager
+    
     @Accessors(PUBLIC_GETTER)
     IndexState indexState = new IndexState
 
@@ -55,6 +89,12 @@ class ProjectManager {
     Provider<Map<String, ResourceDescriptionsData>> indexProvider
     IExternalContentProvider openedDocumentsContentProvider
     
+    /**
+     * The issues of the files that have not been validated successfully. Only recorded if the project state is
+     * persisted.
+     */
+    val Map<URI, List<Issue>> validationIssues = new ConcurrentHashMap
+    
     @Accessors(PUBLIC_GETTER)
     XtextResourceSet resourceSet
     
@@ -62,6 +102,46 @@ class ProjectManager {
     ProjectDescription projectDescription
     IProjectConfig projectConfig
     
+    /**
+     * Guards the resource set and the index state of this project. Builds hold the write lock, reads hold the read
+     * lock.
+     */
+    val lock = new ReentrantReadWriteLock
+    
+    /**
+     * Serializes the builds and the validations of this project. It is acquired before the lock and held by a
+     * validation until its result has been published, so no build can change the index state in between.
+     */
+    val buildLock = new ReentrantLock
+    
+    /**
+     * Whether changes to this project have been locked for a build that has not finished successfully. Guarded by
+     * the lock.
+     */
+    boolean pendingChanges
+    
+    /**
+     * Whether changes to this project have been {@link #announceChanges() announced} whose build has not finished.
+     * Guarded by the monitor of the lock.
+     */
+    boolean announcedChanges
+    
+    /**
+     * The files that have been indexed by {@link #doIndexBuild index only builds} but have not been validated since.
+     */
+    val Set<URI> unvalidatedFiles = ConcurrentHashMap.newKeySet
+    
+    /**
+     * The index state that has been {@link #persistProjectState persisted} last.
+     */
+    IndexState persistedIndexState
+    
+    /**
+     * The fingerprints that have been persisted or restored last. Their content hashes are reused for files whose
+     * time stamp has not changed.
+     */
+    Map<URI, FileFingerprint> fingerprints = emptyMap
+    
     def void initialize(ProjectDescription description, IProjectConfig projectConfig, (URI, Iterable<Issue>)=>void acceptor, IExternalContentProvider openedDocumentsContentProvider, Provider<Map<String, ResourceDescriptionsData>> indexProvider, CancelIndicator cancelIndicator) {
         this.projectDescription = description
         this.projectConfig = projectConfig
@@ -72,49 +152,281 @@ class ProjectManager {
     }
     
     def Result doInitialBuild(CancelIndicator cancelIndicator) {
+        return doInitialBuild(emptyList, cancelIndicator)
+    }
+    
+    /**
+     * Builds all files of this project. If the {@link ProjectStatePersister persisted state} of a previous session
+     * is available, it is restored instead and only the files that have been changed in the meantime are rebuilt,
+     * along with the files that are affected by these changes or by the given external deltas.
+     * @since 2.13
+     */
+    def Result doInitialBuild(List<IResourceDescription.Delta> externalDeltas, CancelIndicator cancelIndicator) {
         val uris = newArrayList
         projectConfig.sourceFolders.forEach [
             fileSystemScanner.scan(path) [uris += it]
         ] 
-        return doBuild(uris, emptyList, emptyList, cancelIndicator)        
+        val persistedState = projectStatePersister.readProjectState(projectDescription.name, baseDir)
+        if (persistedState !== null) {
+            return doRestoredBuild(uris, persistedState, externalDeltas, cancelIndicator)
+        }
+        return doBuild(uris, emptyList, externalDeltas, cancelIndicator)        
     } 
+    
+    /**
+     * Restores the persisted state and rebuilds the files that have been added, changed or deleted since it was
+     * written. The persisted issues of the remaining files are reported again.
+     * @since 2.13
+     */
+    protected def Result doRestoredBuild(List<URI> allFiles, PersistedState persistedState, List<IResourceDescription.Delta> externalDeltas, CancelIndicator cancelIndicator) {
+        indexState = persistedState.indexState
+        fingerprints = persistedState.fingerprints
+        indexProvider.get.put(projectDescription.name, indexState.resourceDescriptions)
+        val uriConverter = resourceSetProvider.get.URIConverter
+        val existingFiles = new HashSet(allFiles)
+        val dirtyFiles = newLinkedHashSet
+        for (uri : allFiles) {
+            if (!projectStatePersister.isUpToDate(uri, persistedState.fingerprints.get(uri), uriConverter))
+                dirtyFiles += uri
+        }
+        val deletedFiles = indexState.resourceDescriptions.allURIs.filter[!existingFiles.contains(it)].toList
+        for (entry : persistedState.validationIssues.entrySet) {
+            if (existingFiles.contains(entry.key) && !dirtyFiles.contains(entry.key)) {
+                validationIssues.put(entry.key, entry.value)
+                issueAcceptor.apply(entry.key, entry.value)
+            }
+        }
+        return doBuild(dirtyFiles.toList, deletedFiles, externalDeltas, cancelIndicator)
+    }
+    
+    /**
+     * Writes the current state of this project, so that a later session can {@link #doRestoredBuild restore} it
+     * instead of building the project from scratch. Open documents are not fingerprinted because their content may
+     * differ from the files on disk, so they are rebuilt after a restart. The same holds for files that have not
+     * been validated yet and for the given files, whose changes have not been built yet. If a build of this project
+     * has been cancelled, no file is fingerprinted, since the unbuilt changes of upstream projects may affect any of
+     * them. Nothing is written if the index state has not changed since the last call.
+     * 
+     * The state is only captured under the read lock. The files are fingerprinted and the state is written afterwards,
+     * and only the files whose time stamp has changed since the last call are hashed. If the cancel indicator is
+     * cancelled in the meantime, the previously written state is kept.
+     * @since 2.13
+     */
+    def void persistProjectState(Set<URI> unbuiltFiles, CancelIndicator cancelIndicator) {
+        if (!projectStatePersister.enabled)
+            return;
+        var IndexState state
+        var boolean changesPending
+        var List<URI> fingerprintedFiles
+        var Map<URI, List<Issue>> issues
+        lock.readLock.lock
+        try {
+            if (resourceSet === null || indexState === persistedIndexState && !pendingChanges)
+                return;
+            state = indexState
+            changesPending = pendingChanges
+            fingerprintedFiles = if (pendingChanges) emptyList else indexState.resourceDescriptions.allURIs.filter [
+                !openedDocumentsContentProvider.hasContent(it) && !unvalidatedFiles.contains(it) && !unbuiltFiles.contains(it)
+            ].toList
+            issues = new HashMap(validationIssues)
+        } finally {
+            lock.readLock.unlock
+        }
+        val uriConverter = resourceSetProvider.get.URIConverter
+        val newFingerprints = <URI, FileFingerprint>newHashMap
+        for (uri : fingerprintedFiles) {
+            operationCanceledManager.checkCanceled(cancelIndicator)
+            val fingerprint = projectStatePersister.getFingerprint(uri, fingerprints.get(uri), uriConverter)
+            if (fingerprint !== null)
+                newFingerprints.put(uri, fingerprint)
+        }
+        val persistedState = new PersistedState(state, newFingerprints, issues)
+        projectStatePersister.writeProjectState(projectDescription.name, baseDir, persistedState, cancelIndicator)
+        fingerprints = newFingerprints
+        persistedIndexState = if (changesPending) null else state
+    }
 
     def Result doBuild(List<URI> dirtyFiles, List<URI> deletedFiles, List<IResourceDescription.Delta> externalDeltas, CancelIndicator cancelIndicator) {
-        val request = newBuildRequest(dirtyFiles, deletedFiles, externalDeltas, cancelIndicator)
-        val result = incrementalBuilder.build(request, [
-            languagesRegistry.getResourceServiceProvider(it)
-        ])
-        indexState = result.indexState
-        resourceSet = request.resourceSet
-        indexProvider.get.put(projectDescription.name, indexState.resourceDescriptions)
-        return result;
+        return doBuild(dirtyFiles, deletedFiles, externalDeltas, false, cancelIndicator)
+    }
+    
+    /**
+     * Updates the index for the given changes without validating and generating the affected files. They are
+     * validated by the next {@link #doValidateAndGenerate(CancelIndicator)} or by a regular build.
+     * @since 2.13
+     */
+    def Result doIndexBuild(List<URI> dirtyFiles, List<URI> deletedFiles, List<IResourceDescription.Delta> externalDeltas, CancelIndicator cancelIndicator) {
+        return doBuild(dirtyFiles, deletedFiles, externalDeltas, true, cancelIndicator)
+    }
+    
+    /**
+     * @since 2.13
+     */
+    protected def Result doBuild(List<URI> dirtyFiles, List<URI> deletedFiles, List<IResourceDescription.Delta> externalDeltas, boolean indexOnly, CancelIndicator cancelIndicator) {
+        buildLock.lock
+        lock.writeLock.lock
+        try {
+            validationIssues.keySet.removeAll(deletedFiles)
+            val request = newBuildRequest(dirtyFiles, deletedFiles, externalDeltas, cancelIndicator)
+            request.indexOnly = indexOnly
+            val result = incrementalBuilder.build(request, [
+                languagesRegistry.getResourceServiceProvider(it)
+            ])
+            indexState = result.indexState
+            resourceSet = request.resourceSet
+            indexProvider.get.put(projectDescription.name, indexState.resourceDescriptions)
+            unvalidatedFiles -= deletedFiles
+            for (delta : result.affectedResources) {
+                if (indexOnly && delta.^new !== null)
+                    unvalidatedFiles += delta.uri
+                else
+                    unvalidatedFiles -= delta.uri
+            }
+            pendingChanges = false
+            return result;
+        } finally {
+            lock.writeLock.unlock
+            buildLock.unlock
+        }
+    }
+    
+    /**
+     * Validates and generates the files that have been indexed by {@link #doIndexBuild index only builds} but have
+     * not been validated since. The files are validated under the read lock, so reads of this project are not
+     * blocked. The validation uses a new resource set and a copy of the index, since the resource set of this
+     * project is not thread-safe. Builds of this project wait until the validation has finished and its result has
+     * been published under the write lock, so the generated files and the published issues always match the
+     * current index state. If a build of this project has been cancelled, the files are validated after the next
+     * build.
+     * @since 2.13
+     */
+    def void doValidateAndGenerate(CancelIndicator cancelIndicator) {
+        if (unvalidatedFiles.empty)
+            return;
+        buildLock.lock
+        try {
+            var BuildRequest request
+            var Result result
+            lock.readLock.lock
+            try {
+                if (pendingChanges)
+                    return;
+                request = newBuildRequest(unvalidatedFiles.toList, emptyList, emptyList, [createNewResourceSet(it)], cancelIndicator)
+                result = incrementalBuilder.validateAndGenerate(request, [
+                    languagesRegistry.getResourceServiceProvider(it)
+                ])
+            } finally {
+                lock.readLock.unlock
+            }
+            lock.writeLock.lock
+            try {
+                indexState = result.indexState
+                resourceSet = request.resourceSet
+                indexProvider.get.put(projectDescription.name, indexState.resourceDescriptions)
+                unvalidatedFiles -= request.dirtyFiles
+            } finally {
+                lock.writeLock.unlock
+            }
+        } finally {
+            buildLock.unlock
+        }
+    }
+    
+    /**
+     * Announces changes to this project that are about to be built. Reads of this project wait until the build
+     * {@link #unlockAfterChanges() has finished}, even if it has not {@link #lockForChanges() locked} the project yet.
+     * @since 2.13
+     */
+    def void announceChanges() {
+        synchronized (lock) {
+            announcedChanges = true
+        }
+    }
+    
+    /**
+     * Locks this project for the build of the announced changes. The lock has to be released by
+     * {@link #unlockAfterChanges()} on the same thread.
+     * @since 2.13
+     */
+    def void lockForChanges() {
+        buildLock.lock
+        lock.writeLock.lock
+        pendingChanges = true
+    }
+    
+    /**
+     * Releases the lock that was acquired by {@link #lockForChanges()} and lets the waiting reads run.
+     * @since 2.13
+     */
+    def void unlockAfterChanges() {
+        synchronized (lock) {
+            announcedChanges = false
+            lock.notifyAll
+        }
+        lock.writeLock.unlock
+        buildLock.unlock
+    }
+    
+    /**
+     * Runs the given work while this project is not built. If the build of announced changes has been cancelled,
+     * the resource set does not reflect a consistent state, and the work is cancelled as well.
+     * @since 2.13
+     */
+    def <T> T doRead(()=>T work) {
+        synchronized (lock) {
+            while (announcedChanges && !lock.writeLockedByCurrentThread) {
+                lock.wait
+            }
+        }
+        lock.readLock.lock
+        try {
+            if (pendingChanges && !lock.writeLockedByCurrentThread)
+                throw new CancellationException("The project " + projectDescription.name + " has unbuilt changes.")
+            return work.apply
+        } finally {
+            lock.readLock.unlock
+        }
     }
 
     protected def BuildRequest newBuildRequest(List<URI> changedFiles, List<URI> deletedFiles, List<IResourceDescription.Delta> externalDeltas, CancelIndicator cancelIndicator) {
+        return newBuildRequest(changedFiles, deletedFiles, externalDeltas, [createFreshResourceSet(it)], cancelIndicator)
+    }
+
+    /**
+     * Creates a build request on a copy of the index state. Its resource set is obtained from the given function for
+     * the copied index.
+     * @since 2.13
+     */
+    protected def BuildRequest newBuildRequest(List<URI> changedFiles, List<URI> deletedFiles, List<IResourceDescription.Delta> externalDeltas, (ResourceDescriptionsData)=>XtextResourceSet resourceSetFactory, CancelIndicator cancelIndicator) {
         new BuildRequest => [
             it.baseDir = baseDir
             it.state = new IndexState(indexState.resourceDescriptions.copy, indexState.fileMappings.copy)
-            it.resourceSet = createFreshResourceSet(state.resourceDescriptions)
+            it.resourceSet = resourceSetFactory.apply(state.resourceDescriptions)
             it.dirtyFiles = changedFiles
             it.deletedFiles = deletedFiles
             it.externalDeltas = externalDeltas
             afterValidate = [ uri, issues |
                 issueAcceptor.apply(uri, issues)
+                if (projectStatePersister.enabled) {
+                    if (issues.empty)
+                        validationIssues.remove(uri)
+                    else
+                        validationIssues.put(uri, issues.toList)
+                }
                 return true
             ]
             it.cancelIndicator = cancelIndicator
+            if (parallelBuildExecutor !== null) {
+                val newIndex = state.resourceDescriptions
+                it.executorService = parallelBuildExecutor
+                it.workerResourceSetProvider = [createNewResourceSet(newIndex)]
+            }
         ]
     }
 
     protected def XtextResourceSet createFreshResourceSet(ResourceDescriptionsData newIndex) {
         if (this.resourceSet === null) {
-            this.resourceSet = resourceSetProvider.get => [
-                projectDescription.attachToEmfObject(it)
-                ProjectConfigAdapter.install(it, projectConfig)
-                val index = new ChunkedResourceDescriptions(indexProvider.get, it)
-                index.setContainer(projectDescription.name, newIndex)
-                externalContentSupport.configureResourceSet(it, openedDocumentsContentProvider)
-            ]
+            this.resourceSet = createNewResourceSet(newIndex)
         } else {
             val resDescs = ChunkedResourceDescriptions.findInEmfObject(this.resourceSet);
             // update index with possible upstream changes
@@ -126,6 +438,20 @@ class ProjectManager {
         return this.resourceSet;
     }
     
+    /**
+     * Creates a resource set that is configured for this project and uses the given index.
+     * @since 2.13
+     */
+    protected def XtextResourceSet createNewResourceSet(ResourceDescriptionsData newIndex) {
+        resourceSetProvider.get => [
+            projectDescription.attachToEmfObject(it)
+            ProjectConfigAdapter.install(it, projectConfig)
+            val index = new ChunkedResourceDescriptions(indexProvider.get, it)
+            index.setContainer(projectDescription.name, newIndex)
+            externalContentSupport.configureResourceSet(it, openedDocumentsContentProvider)
+        ]
+    }
+    
     def Resource getResource(URI uri) {
         val resource = resourceSet.getResource(uri, true)
         // initialize
@@ -0,0 +1,363 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.ide.server
+
+import com.google.common.annotations.Beta
+import com.google.common.hash.Hashing
+import com.google.common.io.ByteStreams
+import com.google.inject.Inject
+import com.google.inject.name.Named
+import java.io.BufferedInputStream
+import java.io.BufferedOutputStream
+import java.io.File
+import java.io.FileInputStream
+import java.io.FileOutputStream
+import java.io.IOException
+import java.io.ObjectInput
+import java.io.ObjectInputStream
+import java.io.ObjectOutput
+import java.io.ObjectOutputStream
+import java.io.Serializable
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.util.List
+import java.util.Map
+import java.util.concurrent.CancellationException
+import java.util.zip.GZIPInputStream
+import java.util.zip.GZIPOutputStream
+import org.eclipse.emf.common.util.URI
+import org.eclipse.emf.ecore.resource.URIConverter
+import org.eclipse.xtend.lib.annotations.Accessors
+import org.eclipse.xtend.lib.annotations.FinalFieldsConstructor
+import org.eclipse.xtext.build.IndexState
+import org.eclipse.xtext.build.Source2GeneratedMapping
+import org.eclipse.xtext.diagnostics.Severity
+import org.eclipse.xtext.resource.IResourceDescription
+import org.eclipse.xtext.resource.impl.PersistentResourceDescriptionsData
+import org.eclipse.xtext.resource.persistence.SerializableResourceDescription
+import org.eclipse.xtext.service.OperationCanceledManager
+import org.eclipse.xtext.util.CancelIndicator
+import org.eclipse.xtext.util.internal.Log
+import org.eclipse.xtext.validation.CheckType
+import org.eclipse.xtext.validation.Issue
+
+/**
+ * Stores the index state of a project in a compact binary file and restores it when the language server is started
+ * again. Together with the fingerprints of the source files, this allows to rebuild only the files that have been
+ * added, changed or removed in the meantime.
+ *
+ * The persistence is disabled unless a {@link #STATE_DIRECTORY state directory} is bound.
+ *
+ * @since 2.13
+ */
+@Beta
+@Log class ProjectStatePersister {
+
+	/**
+	 * The name of an optional {@link String} binding that denotes the directory where the project states are stored.
+	 */
+	public static val String STATE_DIRECTORY = 'org.eclipse.xtext.ide.server.ProjectStatePersister.stateDirectory'
+
+	static val int VERSION = 3
+
+	@Inject(optional=true) @Named(STATE_DIRECTORY) String stateDirectory
+
+	@Inject OperationCanceledManager operationCanceledManager
+
+	def boolean isEnabled() {
+		return stateDirectory !== null
+	}
+
+	/**
+	 * Reads the state that has been written for the given project. Returns <code>null</code> if there is no such
+	 * state or if it cannot be read, e.g. because it was written by an incompatible version.
+	 */
+	def PersistedState readProjectState(String projectName, URI baseDir) {
+		if (!enabled)
+			return null
+		val file = getStateFile(projectName, baseDir)
+		if (!file.exists)
+			return null
+		try {
+			val in = new ObjectInputStream(new GZIPInputStream(new BufferedInputStream(new FileInputStream(file))))
+			try {
+				if (in.readInt != VERSION)
+					return null
+				return readState(in)
+			} finally {
+				in.close
+			}
+		} catch (Exception e) {
+			LOG.warn('Cannot read the persisted state of project ' + projectName, e)
+			return null
+		}
+	}
+
+	def void writeProjectState(String projectName, URI baseDir, PersistedState state) {
+		writeProjectState(projectName, baseDir, state, CancelIndicator.NullImpl)
+	}
+
+	/**
+	 * Writes the state of the given project. The previously written state is replaced atomically, so it is kept if
+	 * the writing fails or is cancelled.
+	 */
+	def void writeProjectState(String projectName, URI baseDir, PersistedState state, CancelIndicator cancelIndicator) {
+		if (!enabled)
+			return;
+		val file = getStateFile(projectName, baseDir)
+		var File tmpFile = null
+		try {
+			file.parentFile.mkdirs
+			tmpFile = File.createTempFile(file.name, '.tmp', file.parentFile)
+			val out = new ObjectOutputStream(new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile))))
+			try {
+				out.writeInt(VERSION)
+				writeState(out, state, cancelIndicator)
+			} finally {
+				out.close
+			}
+			operationCanceledManager.checkCanceled(cancelIndicator)
+			Files.move(tmpFile.toPath, file.toPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+		} catch (Exception e) {
+			if (e instanceof CancellationException)
+				throw e
+			operationCanceledManager.propagateIfCancelException(e)
+			LOG.warn('Cannot persist the state of project ' + projectName, e)
+		} finally {
+			tmpFile?.delete
+		}
+	}
+
+	/**
+	 * Computes the fingerprint of the given file. Returns <code>null</code> if the file cannot be read.
+	 */
+	def FileFingerprint getFingerprint(URI uri, URIConverter uriConverter) {
+		return getFingerprint(uri, null, uriConverter)
+	}
+
+	/**
+	 * Computes the fingerprint of the given file. The content hash of the previous fingerprint is reused if the time
+	 * stamp of the file has not changed, so only modified files are read. Returns <code>null</code> if the file cannot
+	 * be read.
+	 */
+	def FileFingerprint getFingerprint(URI uri, FileFingerprint previous, URIConverter uriConverter) {
+		try {
+			val timeStamp = getTimeStamp(uri, uriConverter)
+			if (previous !== null && timeStamp != FileFingerprint.UNKNOWN_TIME_STAMP && timeStamp == previous.timeStamp)
+				return previous
+			return new FileFingerprint(timeStamp, getContentHash(uri, uriConverter))
+		} catch (IOException e) {
+			return null
+		}
+	}
+
+	/**
+	 * Whether the given file still matches the fingerprint. The content is only hashed if the time stamp differs.
+	 */
+	def boolean isUpToDate(URI uri, FileFingerprint fingerprint, URIConverter uriConverter) {
+		if (fingerprint === null)
+			return false
+		try {
+			val timeStamp = getTimeStamp(uri, uriConverter)
+			if (timeStamp != FileFingerprint.UNKNOWN_TIME_STAMP && timeStamp == fingerprint.timeStamp)
+				return true
+			return getContentHash(uri, uriConverter) == fingerprint.contentHash
+		} catch (IOException e) {
+			return false
+		}
+	}
+
+	protected def long getTimeStamp(URI uri, URIConverter uriConverter) {
+		val options = #{URIConverter.OPTION_REQUESTED_ATTRIBUTES -> #{URIConverter.ATTRIBUTE_TIME_STAMP}}
+		val timeStamp = uriConverter.getAttributes(uri, options).get(URIConverter.ATTRIBUTE_TIME_STAMP)
+		if (timeStamp instanceof Long)
+			return timeStamp
+		return FileFingerprint.UNKNOWN_TIME_STAMP
+	}
+
+	protected def String getContentHash(URI uri, URIConverter uriConverter) throws IOException {
+		val in = uriConverter.createInputStream(uri)
+		try {
+			return Hashing.murmur3_128.hashBytes(ByteStreams.toByteArray(in)).toString
+		} finally {
+			in.close
+		}
+	}
+
+	protected def File getStateFile(String projectName, URI baseDir) {
+		val hash = Hashing.murmur3_32.hashString(String.valueOf(baseDir), StandardCharsets.UTF_8)
+		return new File(stateDirectory, projectName.replaceAll('[^\\w.-]', '_') + '-' + hash + '.index')
+	}
+
+	protected def void writeState(ObjectOutput out, PersistedState state, CancelIndicator cancelIndicator) throws IOException {
+		val descriptions = state.indexState.resourceDescriptions.allResourceDescriptions.toList
+		out.writeInt(descriptions.size)
+		for (description : descriptions) {
+			operationCanceledManager.checkCanceled(cancelIndicator)
+			if (description instanceof Serializable)
+				out.writeObject(description)
+			else
+				out.writeObject(SerializableResourceDescription.createCopy(description))
+		}
+		state.indexState.fileMappings.writeExternal(out)
+		out.writeInt(state.fingerprints.size)
+		for (entry : state.fingerprints.entrySet) {
+			writeString(out, entry.key.toString)
+			out.writeLong(entry.value.timeStamp)
+			writeString(out, entry.value.contentHash)
+		}
+		out.writeInt(state.validationIssues.size)
+		for (entry : state.validationIssues.entrySet) {
+			writeString(out, entry.key.toString)
+			out.writeInt(entry.value.size)
+			for (issue : entry.value) {
+				writeIssue(out, issue)
+			}
+		}
+	}
+
+	protected def PersistedState readState(ObjectInput in) throws IOException, ClassNotFoundException {
+		val numDescriptions = in.readInt
+		val descriptions = newArrayList
+		for (i : 0 ..< numDescriptions) {
+			descriptions.add(in.readObject as IResourceDescription)
+		}
+		val fileMappings = new Source2GeneratedMapping
+		fileMappings.readExternal(in)
+		val numFingerprints = in.readInt
+		val fingerprints = <URI, FileFingerprint>newHashMap
+		for (i : 0 ..< numFingerprints) {
+			fingerprints.put(URI.createURI(readString(in)), new FileFingerprint(in.readLong, readString(in)))
+		}
+		val numIssueEntries = in.readInt
+		val validationIssues = <URI, List<Issue>>newHashMap
+		for (i : 0 ..< numIssueEntries) {
+			val uri = URI.createURI(readString(in))
+			val numIssues = in.readInt
+			val issues = newArrayList
+			for (j : 0 ..< numIssues) {
+				issues.add(readIssue(in))
+			}
+			validationIssues.put(uri, issues)
+		}
+		val indexState = new IndexState(new PersistentResourceDescriptionsData(descriptions), fileMappings)
+		return new PersistedState(indexState, fingerprints, validationIssues)
+	}
+
+	protected def void writeIssue(ObjectOutput out, Issue issue) throws IOException {
+		writeString(out, issue.severity.name)
+		writeNullable(out, issue.message)
+		writeNullable(out, issue.code)
+		writeNullable(out, issue.type?.name)
+		writeNullable(out, issue.uriToProblem?.toString)
+		writeNullable(out, issue.lineNumber)
+		writeNullable(out, issue.column)
+		writeNullable(out, issue.offset)
+		writeNullable(out, issue.length)
+		out.writeBoolean(issue.syntaxError)
+		val data = issue.data
+		out.writeInt(if (data === null) -1 else data.length)
+		if (data !== null) {
+			for (value : data) {
+				writeString(out, value)
+			}
+		}
+	}
+
+	protected def Issue readIssue(ObjectInput in) throws IOException {
+		val result = new Issue.IssueImpl
+		result.severity = Severity.valueOf(readString(in))
+		result.message = readNullableString(in)
+		result.code = readNullableString(in)
+		val type = readNullableString(in)
+		if (type !== null)
+			result.type = CheckType.valueOf(type)
+		val uriToProblem = readNullableString(in)
+		if (uriToProblem !== null)
+			result.uriToProblem = URI.createURI(uriToProblem)
+		result.lineNumber = readNullableInteger(in)
+		result.column = readNullableInteger(in)
+		result.offset = readNullableInteger(in)
+		result.length = readNullableInteger(in)
+		result.syntaxError = in.readBoolean
+		val dataLength = in.readInt
+		if (dataLength >= 0) {
+			val String[] data = newArrayOfSize(dataLength)
+			for (i : 0 ..< dataLength) {
+				data.set(i, readString(in))
+			}
+			result.data = data
+		}
+		return result
+	}
+
+	/**
+	 * Writes the string as length-prefixed UTF-8, since {@link ObjectOutput#writeUTF(String)} is limited to 64KB.
+	 */
+	private def void writeString(ObjectOutput out, String value) throws IOException {
+		val bytes = value.getBytes(StandardCharsets.UTF_8)
+		out.writeInt(bytes.length)
+		out.write(bytes)
+	}
+
+	private def String readString(ObjectInput in) throws IOException {
+		val bytes = newByteArrayOfSize(in.readInt)
+		in.readFully(bytes)
+		return new String(bytes, StandardCharsets.UTF_8)
+	}
+
+	private def void writeNullable(ObjectOutput out, String value) throws IOException {
+		out.writeBoolean(value !== null)
+		if (value !== null)
+			writeString(out, value)
+	}
+
+	private def void writeNullable(ObjectOutput out, Integer value) throws IOException {
+		out.writeBoolean(value !== null)
+		if (value !== null)
+			out.writeInt(value)
+	}
+
+	private def String readNullableString(ObjectInput in) throws IOException {
+		if (in.readBoolean)
+			return readString(in)
+		return null
+	}
+
+	private def Integer readNullableInteger(ObjectInput in) throws IOException {
+		if (in.readBoolean)
+			return in.readInt
+		return null
+	}
+
+	/**
+	 * The persisted state of a project.
+	 */
+	@FinalFieldsConstructor
+	@Accessors(PUBLIC_GETTER)
+	static class PersistedState {
+		val IndexState indexState
+		/**
+		 * The fingerprints of the source files the index state has been computed from.
+		 */
+		val Map<URI, FileFingerprint> fingerprints
+		val Map<URI, List<Issue>> validationIssues
+	}
+
+	/**
+	 * Identifies the content of a file. The time stamp allows to skip the hashing of unmodified files.
+	 */
+	@FinalFieldsConstructor
+	@Accessors(PUBLIC_GETTER)
+	static class FileFingerprint {
+		public static val long UNKNOWN_TIME_STAMP = -1
+		val long timeStamp
+		val String contentHash
+	}
+}
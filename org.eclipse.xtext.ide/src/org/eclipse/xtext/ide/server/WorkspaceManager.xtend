@@ -14,6 +14,7 @@ import java.util.HashSet
 import java.util.List
 import java.util.Map
 import java.util.Set
+import java.util.concurrent.ConcurrentHashMap
 import org.eclipse.emf.common.util.URI
 import org.eclipse.lsp4j.TextEdit
 import org.eclipse.lsp4j.jsonrpc.ResponseErrorException
@@ -56,7 +57,10 @@ import org.eclipse.xtext.workspace.IWorkspaceConfig
 		this.buildListeners += listener
 	}
 
-	Map<String, ResourceDescriptionsData> fullIndex = newHashMap()
+	/**
+	 * Each project publishes its index when it has been built, which may happen concurrently to reads.
+	 */
+	Map<String, ResourceDescriptionsData> fullIndex = new ConcurrentHashMap()
 
 	Map<URI, Document> openDocuments = newHashMap()
 
@@ -166,6 +170,35 @@ import org.eclipse.xtext.workspace.IWorkspaceConfig
 		new ArrayList(projectName2ProjectManager.values)
 	}
 
+	/**
+	 * Persists the state of all projects, see {@link #persistProjectStates(CancelIndicator)}.
+	 * @since 2.13
+	 */
+	def void persistProjectStates() {
+		persistProjectStates(CancelIndicator.NullImpl)
+	}
+
+	/**
+	 * Persists the state of all projects, see {@link ProjectManager#persistProjectState(Set, CancelIndicator)}. The
+	 * files whose changes are still queued in the build manager are rebuilt after a restart.
+	 * @since 2.13
+	 */
+	def void persistProjectStates(CancelIndicator cancelIndicator) {
+		val unbuiltFiles = buildManager.unbuiltFiles
+		for (projectManager : projectName2ProjectManager.values) {
+			projectManager.persistProjectState(unbuiltFiles, cancelIndicator)
+		}
+	}
+
+	/**
+	 * Persists the state of all projects once no change has been submitted for a while, see
+	 * {@link BuildManager#persistWhenIdle(CancelIndicator)}.
+	 * @since 2.13
+	 */
+	def void persistProjectStatesWhenIdle(CancelIndicator cancelIndicator) {
+		buildManager.persistWhenIdle(cancelIndicator)
+	}
+
 	def didChange(URI uri, int version, Iterable<TextEdit> changes, CancelIndicator cancelIndicator) {
 		didChange(uri, version, changes).build(cancelIndicator)
 	}
@@ -211,12 +244,17 @@ import org.eclipse.xtext.workspace.IWorkspaceConfig
 	def <T> T doRead(URI uri, (Document, XtextResource)=>T work) {
 		val resourceURI = uri.trimFragment
 		val projectMnr = getProjectManager(resourceURI)
-		val resource = projectMnr?.getResource(resourceURI) as XtextResource
-		if (resource === null) {
+		if (projectMnr === null) {
 			return work.apply(null, null)
 		}
-		var doc = getDocument(resource)
-		return work.apply(doc, projectMnr.getResource(resourceURI) as XtextResource)
+		return projectMnr.doRead [
+			val resource = projectMnr.getResource(resourceURI) as XtextResource
+			if (resource === null) {
+				return work.apply(null, null)
+			}
+			var doc = getDocument(resource)
+			return work.apply(doc, projectMnr.getResource(resourceURI) as XtextResource)
+		]
 	}
 
 	protected def Document getDocument(XtextResource resource) {
@@ -9,6 +9,7 @@ package org.eclipse.xtext.ide.server.commands
 
 import com.google.common.collect.HashMultimap
 import com.google.common.collect.Multimap
+import com.google.inject.Inject
 import java.util.UUID
 import org.eclipse.lsp4j.ClientCapabilities
 import org.eclipse.lsp4j.ExecuteCommandOptions
@@ -35,6 +36,8 @@ import org.eclipse.xtext.util.internal.Log
 	
 	LanguageClient client
 	
+	@Inject MetricsCommandService metricsCommandService
+	
 	def void initialize(Iterable<? extends IResourceServiceProvider> allLanguages, ClientCapabilities capabilites, LanguageClient client) {
 		this.client = client
 		registeredCommands = HashMultimap.create
@@ -42,17 +45,27 @@ import org.eclipse.xtext.util.internal.Log
 		for (lang : allLanguages) {
 			val service = lang.get(IExecutableCommandService)
 			if (service !== null) {
-				val commands = service.initialize()
-				for (c : commands) {
-					registeredCommands.put(c, service)
-				}
-				if (hasDynamicRegistration) {
-					service.initializeDynamicRegistration[ command |
-						this.register(command, service)
-					]
-				}
+				initialize(service, hasDynamicRegistration)
 			}
 		}
+		if (metricsCommandService !== null) {
+			initialize(metricsCommandService, hasDynamicRegistration)
+		}
+	}
+	
+	/**
+	 * @since 2.13
+	 */
+	protected def void initialize(IExecutableCommandService service, boolean hasDynamicRegistration) {
+		val commands = service.initialize()
+		for (c : commands) {
+			registeredCommands.put(c, service)
+		}
+		if (hasDynamicRegistration) {
+			service.initializeDynamicRegistration[ command |
+				this.register(command, service)
+			]
+		}
 	}
 	
 	protected def IDisposable register(String command, IExecutableCommandService service) {
@@ -0,0 +1,33 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.ide.server.commands
+
+import org.eclipse.lsp4j.ExecuteCommandParams
+import org.eclipse.xtext.ide.server.ILanguageServerAccess
+import org.eclipse.xtext.util.CancelIndicator
+import org.eclipse.xtext.util.Metrics
+
+/**
+ * Provides the command that returns the {@link Metrics#getSnapshots() recorded metrics} of the language server. It is
+ * registered by the {@link ExecutableCommandRegistry} independently of the languages.
+ * 
+ * @since 2.13
+ */
+class MetricsCommandService implements IExecutableCommandService {
+
+	public static val COMMAND = 'xtext.metrics'
+
+	override initialize() {
+		return #[COMMAND]
+	}
+
+	override execute(ExecuteCommandParams params, ILanguageServerAccess access, CancelIndicator cancelIndicator) {
+		return Metrics.snapshots
+	}
+
+}
@@ -9,6 +9,9 @@ package org.eclipse.xtext.ide.server.concurrent
 
 import java.util.concurrent.CancellationException
 import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
 import org.eclipse.lsp4j.jsonrpc.CancelChecker
 import org.eclipse.xtend.lib.annotations.FinalFieldsConstructor
 import org.eclipse.xtext.util.CancelIndicator
@@ -36,5 +39,21 @@ class RequestCancelIndicator implements CancelIndicator, CancelChecker, Cancella
 			throw new CancellationException()
 		}
 	}
+	
+	/**
+	 * Waits until the request is cancelled or completed, but at most for the given number of milliseconds.
+	 * @since 2.13
+	 */
+	def void await(long milliseconds) {
+		try {
+			requestFuture.get(milliseconds, TimeUnit.MILLISECONDS)
+		} catch (TimeoutException e) {
+			// the time has elapsed
+		} catch (CancellationException e) {
+			// the request has been cancelled
+		} catch (ExecutionException e) {
+			// the request has failed
+		}
+	}
 
 }
@@ -26,7 +26,9 @@ import org.eclipse.xtext.util.CancelIndicator
  * <ul>
  *  <li>requests are processed in an insertion order;</li>
  * 	<li>write requests are executed exclusive;</li>
- *  <li>read requests are executed in parallel.</li>
+ *  <li>read requests are executed in parallel;</li>
+ *  <li>the cancellable part of a {@link #runWriteWithConcurrentReads write with concurrent reads}
+ *  is executed in parallel to read requests, but exclusive to other write requests.</li>
  * </ul>
  * </p>
  * 
@@ -46,6 +48,11 @@ class RequestManager {
 
 	val toCancel = new CopyOnWriteArrayList<Cancellable>
 
+	/**
+	 * The cancellable parts of the running write requests.
+	 */
+	val writesToCancel = new CopyOnWriteArrayList<Cancellable>
+
 	def void shutdown() {
 		parallel.shutdown()
 		cancel()
@@ -89,18 +96,70 @@ class RequestManager {
 				
 				// run the cancelable work
 				toCancel += cancelIndicator
+				writesToCancel += cancelIndicator
 				cancelIndicator.checkCanceled
 				result.complete(request.apply(cancelIndicator, intermediateResult))
 			} catch (Throwable e) {
 				result.completeExceptionally(e)
 			} finally {
 				toCancel -= cancelIndicator
+				writesToCancel -= cancelIndicator
 				w.unlock
 			}
 		]
 		return result
 	}
 
+	/**
+	 * Runs a write request whose cancellable part does not need exclusive access. The non-cancellable part is
+	 * executed exclusively, like in {@link #runWrite}. Afterwards the write only keeps other
+	 * writes from running, and reads that are submitted in the meantime are executed concurrently with the
+	 * cancellable part. The cancellable part has to guard the state that it modifies against these reads itself.
+	 * <p>
+	 * Running reads are not cancelled by such a write, only previous writes are.
+	 * </p>
+	 * <p>
+	 * Once the non-cancellable part has been executed, the cancellable part is executed even if the write has been
+	 * cancelled in the meantime, so it can release what the non-cancellable part has acquired. It has to check the
+	 * cancel indicator itself.
+	 * </p>
+	 * @since 2.13
+	 */
+	def <U, V> CompletableFuture<V> runWriteWithConcurrentReads(()=>U nonCancellable, (CancelIndicator, U)=>V request) {
+		val result = new CompletableFuture<V>()
+		val localWritePending = new CompletableFuture<Void>()
+		this.writePending = localWritePending
+		parallel.submit[
+			val cancelIndicator = new RequestCancelIndicator(result)
+			try {
+				cancelWrites()
+				w.lock
+				val intermediateResult = try {
+					// run the non-cancelable work exclusively
+					nonCancellable.apply()
+				} finally {
+					// downgrade the lock, so that reads can run concurrently with the cancelable work
+					r.lock
+					w.unlock
+					localWritePending.complete(null)
+				}
+				
+				// run the cancelable work, even if it has been cancelled, so it can release what the
+				// non-cancelable work has acquired
+				toCancel += cancelIndicator
+				writesToCancel += cancelIndicator
+				result.complete(request.apply(cancelIndicator, intermediateResult))
+			} catch (Throwable e) {
+				result.completeExceptionally(e)
+			} finally {
+				toCancel -= cancelIndicator
+				writesToCancel -= cancelIndicator
+				r.unlock
+			}
+		]
+		return result
+	}
+
 	protected def void cancel() {
 		for (cancellable : toCancel) {
 			cancellable.cancel
@@ -108,6 +167,18 @@ class RequestManager {
 		}
 	}
 
+	/**
+	 * Cancels the running write requests, but not the read requests.
+	 * @since 2.13
+	 */
+	protected def void cancelWrites() {
+		for (cancellable : writesToCancel) {
+			cancellable.cancel
+			writesToCancel -= cancellable
+			toCancel -= cancellable
+		}
+	}
+
 	protected def boolean isCancelException(Throwable t) {
 		if(t === null) return false;
 		val cause = if(t instanceof CompletionException) t.cause else t
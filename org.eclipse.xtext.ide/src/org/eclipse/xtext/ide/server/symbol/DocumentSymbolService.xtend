@@ -232,15 +232,29 @@ class DocumentSymbolService {
 		val symbols = newLinkedList
 		for (description : resourceDescription.exportedObjects) {
 			operationCanceledManager.checkCanceled(cancelIndicator)
-			if (description.filter(query)) {
-				description.createSymbol(resourceAccess) [ symbol |
-					symbols += symbol
-				]
-			}
+			description.getSymbols(query, resourceAccess) [ symbol |
+				symbols += symbol
+			]
 		}
 		return symbols
 	}
 
+	/**
+	 * Creates the symbols of the given exported object if it matches the query.
+	 * 
+	 * @since 2.13
+	 */
+	def void getSymbols(
+		IEObjectDescription description,
+		String query,
+		IResourceAccess resourceAccess,
+		(SymbolInformation)=>void acceptor
+	) {
+		if (description.filter(query)) {
+			description.createSymbol(resourceAccess, acceptor)
+		}
+	}
+
 	protected def boolean filter(IEObjectDescription description, String query) {
 		return description.qualifiedName.toLowerCase.toString.contains(query.toLowerCase)
 	}
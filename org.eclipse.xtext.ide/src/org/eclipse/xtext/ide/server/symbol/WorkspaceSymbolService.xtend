@@ -9,11 +9,19 @@ package org.eclipse.xtext.ide.server.symbol
 
 import com.google.inject.Inject
 import com.google.inject.Singleton
+import java.util.ArrayList
+import java.util.Comparator
 import java.util.List
+import java.util.PriorityQueue
+import org.eclipse.emf.ecore.EcorePackage
 import org.eclipse.lsp4j.SymbolInformation
 import org.eclipse.xtext.findReferences.IReferenceFinder.IResourceAccess
+import org.eclipse.xtext.naming.QualifiedName
+import org.eclipse.xtext.resource.IResourceDescription
 import org.eclipse.xtext.resource.IResourceDescriptions
 import org.eclipse.xtext.resource.IResourceServiceProvider
+import org.eclipse.xtext.resource.impl.ChunkedResourceDescriptions
+import org.eclipse.xtext.resource.impl.ResourceDescriptionsData
 import org.eclipse.xtext.service.OperationCanceledManager
 import org.eclipse.xtext.util.CancelIndicator
 
@@ -24,28 +32,178 @@ import org.eclipse.xtext.util.CancelIndicator
 @Singleton
 class WorkspaceSymbolService {
 
+	/**
+	 * @since 2.13
+	 */
+	public static val DEFAULT_SYMBOLS_LIMIT = 1000
+
 	@Inject
 	extension IResourceServiceProvider.Registry
 
 	@Inject
 	OperationCanceledManager operationCanceledManager
 
+	/**
+	 * Returns the symbols whose qualified name contains the query. If the index provides {@link ResourceDescriptionsData
+	 * indexed data}, the matching names are looked up in its {@link ResourceDescriptionsData#findExportedNames(String)
+	 * name index}. Only the resources of the best matching names are asked for their symbols, until the
+	 * {@link #getSymbolsLimit() limit} is reached.
+	 */
 	def List<? extends SymbolInformation> getSymbols(
 		String query,
 		IResourceAccess resourceAccess,
 		IResourceDescriptions indexData,
 		CancelIndicator cancelIndicator
+	) {
+		val containers = getIndexedContainers(indexData)
+		if (containers === null) {
+			return getSymbolsOfAllResources(query, resourceAccess, indexData, cancelIndicator)
+		}
+		val result = newArrayList
+		val resourceURIs = newHashSet
+		val names = findNames(query, containers, cancelIndicator).iterator
+		while (names.hasNext && result.size < symbolsLimit) {
+			operationCanceledManager.checkCanceled(cancelIndicator)
+			val name = names.next
+			for (container : containers) {
+				for (description : container.getExportedObjects(EcorePackage.Literals.EOBJECT, name, true)) {
+					val resourceURI = description.EObjectURI.trimFragment
+					if (result.size < symbolsLimit && resourceURIs.add(resourceURI)) {
+						result += getSymbols(container.getResourceDescription(resourceURI), query, resourceAccess, cancelIndicator)
+					}
+				}
+			}
+		}
+		val lowerCaseQuery = query.toLowerCase
+		result.sortInplace [ a, b |
+			compareMatches(a.name.toLowerCase, b.name.toLowerCase, lowerCaseQuery)
+		]
+		if (result.size > symbolsLimit) {
+			return result.subList(0, symbolsLimit)
+		}
+		return result
+	}
+
+	/**
+	 * Asks the service of each resource for its matching symbols. Used if the index does not provide indexed data.
+	 * 
+	 * @since 2.13
+	 */
+	protected def List<? extends SymbolInformation> getSymbolsOfAllResources(
+		String query,
+		IResourceAccess resourceAccess,
+		IResourceDescriptions indexData,
+		CancelIndicator cancelIndicator
 	) {
 		val result = newLinkedList
 		for (resourceDescription : indexData.allResourceDescriptions) {
 			operationCanceledManager.checkCanceled(cancelIndicator)
-			val resourceServiceProvider = resourceDescription.URI.resourceServiceProvider
-			val documentSymbolService = resourceServiceProvider?.get(DocumentSymbolService)
-			if (documentSymbolService !== null) {
-				result += documentSymbolService.getSymbols(resourceDescription, query, resourceAccess, cancelIndicator)
+			result += getSymbols(resourceDescription, query, resourceAccess, cancelIndicator)
+		}
+		return result
+	}
+
+	/**
+	 * Asks the {@link DocumentSymbolService} of the given resource for its matching symbols.
+	 * 
+	 * @since 2.13
+	 */
+	protected def List<? extends SymbolInformation> getSymbols(
+		IResourceDescription resourceDescription,
+		String query,
+		IResourceAccess resourceAccess,
+		CancelIndicator cancelIndicator
+	) {
+		val resourceServiceProvider = resourceDescription.URI.resourceServiceProvider
+		val documentSymbolService = resourceServiceProvider?.get(DocumentSymbolService)
+		if (documentSymbolService === null) {
+			return emptyList
+		}
+		return documentSymbolService.getSymbols(resourceDescription, query, resourceAccess, cancelIndicator)
+	}
+
+	/**
+	 * Returns the indexed chunks of the given index, or <code>null</code> if it does not provide indexed data.
+	 * 
+	 * @since 2.13
+	 */
+	protected def Iterable<ResourceDescriptionsData> getIndexedContainers(IResourceDescriptions indexData) {
+		switch indexData {
+			ResourceDescriptionsData: #[indexData]
+			ChunkedResourceDescriptions: indexData.containers
+			default: null
+		}
+	}
+
+	/**
+	 * Returns the lower-case names that contain the query, at most {@link #getSymbolsLimit()} many and ordered by
+	 * {@link #compareMatches(String, String, String) relevance}.
+	 * 
+	 * @since 2.13
+	 */
+	protected def List<QualifiedName> findNames(
+		String query,
+		Iterable<ResourceDescriptionsData> containers,
+		CancelIndicator cancelIndicator
+	) {
+		val lowerCaseQuery = query.toLowerCase
+		val Comparator<QualifiedName> comparator = [ a, b |
+			compareMatches(a.toString, b.toString, lowerCaseQuery)
+		]
+		val bestMatches = new PriorityQueue<QualifiedName>(symbolsLimit + 1, comparator.reversed)
+		val names = newHashSet
+		for (container : containers) {
+			operationCanceledManager.checkCanceled(cancelIndicator)
+			for (name : container.findExportedNames(lowerCaseQuery)) {
+				if (names.add(name)) {
+					bestMatches.add(name)
+					if (bestMatches.size > symbolsLimit) {
+						bestMatches.poll
+					}
+				}
 			}
 		}
+		val result = new ArrayList(bestMatches)
+		result.sortInplace(comparator)
 		return result
 	}
 
+	/**
+	 * Orders lower-case names: names that equal the query or whose last segment equals the query come first.
+	 * Then names where the query occurs earlier, shorter names and finally names in alphabetical order. Names that do
+	 * not contain the query come last.
+	 * 
+	 * @since 2.13
+	 */
+	protected def int compareMatches(String a, String b, String lowerCaseQuery) {
+		val exactA = isExactMatch(a, lowerCaseQuery)
+		val exactB = isExactMatch(b, lowerCaseQuery)
+		if (exactA != exactB) {
+			return if (exactA) -1 else 1
+		}
+		// a missing match has the index -1, which is the largest unsigned value
+		val result = Integer.compareUnsigned(a.indexOf(lowerCaseQuery), b.indexOf(lowerCaseQuery))
+		if (result != 0) {
+			return result
+		}
+		val lengthResult = Integer.compare(a.length, b.length)
+		if (lengthResult != 0) {
+			return lengthResult
+		}
+		return a.compareTo(b)
+	}
+
+	protected def boolean isExactMatch(String name, String lowerCaseQuery) {
+		return name == lowerCaseQuery || name.endsWith('.' + lowerCaseQuery)
+	}
+
+	/**
+	 * The maximum number of symbols that are returned for a query.
+	 * 
+	 * @since 2.13
+	 */
+	protected def int getSymbolsLimit() {
+		return DEFAULT_SYMBOLS_LIMIT
+	}
+
 }
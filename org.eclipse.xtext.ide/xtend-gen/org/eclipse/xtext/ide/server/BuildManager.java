@@ -11,11 +11,13 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Iterables;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
+import com.google.inject.name.Named;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.xtend.lib.annotations.AccessorType;
 import org.eclipse.xtend.lib.annotations.Accessors;
@@ -23,12 +25,16 @@ import org.eclipse.xtend.lib.annotations.Data;
 import org.eclipse.xtext.build.IncrementalBuilder;
 import org.eclipse.xtext.diagnostics.Severity;
 import org.eclipse.xtext.ide.server.ProjectManager;
+import org.eclipse.xtext.ide.server.ProjectStatePersister;
 import org.eclipse.xtext.ide.server.TopologicalSorter;
 import org.eclipse.xtext.ide.server.WorkspaceManager;
+import org.eclipse.xtext.ide.server.concurrent.RequestCancelIndicator;
 import org.eclipse.xtext.resource.IResourceDescription;
 import org.eclipse.xtext.resource.impl.ProjectDescription;
+import org.eclipse.xtext.service.OperationCanceledManager;
 import org.eclipse.xtext.util.CancelIndicator;
 import org.eclipse.xtext.xbase.lib.CollectionLiterals;
+import org.eclipse.xtext.xbase.lib.Exceptions;
 import org.eclipse.xtext.xbase.lib.Functions.Function1;
 import org.eclipse.xtext.xbase.lib.IterableExtensions;
 import org.eclipse.xtext.xbase.lib.ListExtensions;
@@ -113,25 +119,181 @@ public class BuildManager {
   
   public final static String CYCLIC_PROJECT_DEPENDENCIES = (BuildManager.class.getCanonicalName() + ".cyclicProjectDependencies");
   
+  /**
+   * The name of an optional {@link Long} binding that denotes the time in milliseconds to wait after the index has
+   * been updated before the changed files are validated and generated. Changes that arrive in the meantime cancel
+   * the pending validation, so a sequence of fast edits is only validated once.
+   * @since 2.13
+   */
+  public final static String VALIDATION_DELAY = "org.eclipse.xtext.ide.server.BuildManager.validationDelay";
+  
+  /**
+   * The name of an optional {@link Long} binding that denotes the time in milliseconds that no change has to be
+   * submitted before the project states are {@link #persistWhenIdle(CancelIndicator) persisted}.
+   * @since 2.13
+   */
+  public final static String PERSISTENCE_DELAY = "org.eclipse.xtext.ide.server.BuildManager.persistenceDelay";
+  
+  /**
+   * @since 2.13
+   */
+  public final static long DEFAULT_PERSISTENCE_DELAY = 5000;
+  
   @Accessors(AccessorType.PUBLIC_SETTER)
   private WorkspaceManager workspaceManager;
   
   @Inject
   private Provider<TopologicalSorter> sorterProvider;
   
+  @Inject
+  private OperationCanceledManager operationCanceledManager;
+  
+  @Inject(optional = true)
+  @Named(BuildManager.VALIDATION_DELAY)
+  private long validationDelay;
+  
+  @Inject(optional = true)
+  @Named(BuildManager.PERSISTENCE_DELAY)
+  private long persistenceDelay = BuildManager.DEFAULT_PERSISTENCE_DELAY;
+  
+  @Inject
+  private ProjectStatePersister projectStatePersister;
+  
   private final LinkedHashSet<URI> dirtyFiles = CollectionLiterals.<URI>newLinkedHashSet();
   
   private final LinkedHashSet<URI> deletedFiles = CollectionLiterals.<URI>newLinkedHashSet();
   
+  /**
+   * Queues the given changes and returns a buildable that builds all queued changes, including the ones of
+   * buildables that have not been built successfully.
+   * 
+   * The build has two phases. First, the index is updated for the changed and the affected files without
+   * validating them. The projects of the queued files are {@link ProjectManager#announceChanges() announced}, so
+   * reads of these projects wait until this phase is finished. Then, after the {@link #VALIDATION_DELAY}, the
+   * indexed files are validated and generated. If this phase is cancelled, e.g. by a new change, the files are
+   * validated by the next build. The buildable has to be built even if its request has been cancelled, otherwise
+   * the reads keep waiting. Once the files have been validated, the project states are
+   * {@link #persistWhenIdle(CancelIndicator) persisted when no further changes arrive}.
+   */
   public BuildManager.Buildable submit(final List<URI> dirtyFiles, final List<URI> deletedFiles) {
     this.queue(this.dirtyFiles, deletedFiles, dirtyFiles);
     this.queue(this.deletedFiles, dirtyFiles, deletedFiles);
+    final Set<ProjectManager> announcedProjects = this.announceQueuedProjects();
     final BuildManager.Buildable _function = (CancelIndicator cancelIndicator) -> {
-      return this.internalBuild(cancelIndicator);
+      try {
+        final ArrayList<ProjectManager> lockedProjects = CollectionLiterals.<ProjectManager>newArrayList();
+        List<IResourceDescription.Delta> _xtrycatchfinallyexpression = null;
+        try {
+          for (final ProjectManager projectManager : announcedProjects) {
+            {
+              projectManager.lockForChanges();
+              lockedProjects.add(projectManager);
+            }
+          }
+          _xtrycatchfinallyexpression = this.internalBuild(cancelIndicator);
+        } finally {
+          for (final ProjectManager projectManager : lockedProjects) {
+            projectManager.unlockAfterChanges();
+          }
+        }
+        final List<IResourceDescription.Delta> result = _xtrycatchfinallyexpression;
+        try {
+          this.awaitValidationDelay(cancelIndicator);
+          this.validateAndGenerate(cancelIndicator);
+          this.persistWhenIdle(cancelIndicator);
+        } catch (final Throwable _t) {
+          if (_t instanceof Throwable) {
+            final Throwable t = (Throwable)_t;
+            boolean _isCancelException = this.isCancelException(t);
+            boolean _not = (!_isCancelException);
+            if (_not) {
+              throw t;
+            }
+          } else {
+            throw Exceptions.sneakyThrow(_t);
+          }
+        }
+        return result;
+      } catch (Throwable _e) {
+        throw Exceptions.sneakyThrow(_e);
+      }
     };
     return _function;
   }
   
+  /**
+   * Waits for the {@link #VALIDATION_DELAY} unless the build is cancelled in the meantime. Only the builds of
+   * {@link RequestCancelIndicator requests} are delayed, because only they are cancelled by later changes.
+   * @since 2.13
+   */
+  protected void awaitValidationDelay(final CancelIndicator cancelIndicator) {
+    if (((this.validationDelay > 0) && (cancelIndicator instanceof RequestCancelIndicator))) {
+      ((RequestCancelIndicator) cancelIndicator).await(this.validationDelay);
+    }
+    this.operationCanceledManager.checkCanceled(cancelIndicator);
+  }
+  
+  /**
+   * Waits until no change has been submitted for the {@link #PERSISTENCE_DELAY} and then
+   * {@link WorkspaceManager#persistProjectStates(CancelIndicator) persists} the project states. Later changes cancel
+   * the waiting as well as the persistence. Only the builds of {@link RequestCancelIndicator requests} persist the
+   * project states, because only they are cancelled by later changes. Otherwise the states are persisted on
+   * shutdown.
+   * @since 2.13
+   */
+  public void persistWhenIdle(final CancelIndicator cancelIndicator) {
+    if (((!this.projectStatePersister.isEnabled()) || (!(cancelIndicator instanceof RequestCancelIndicator)))) {
+      return;
+    }
+    ((RequestCancelIndicator) cancelIndicator).await(this.persistenceDelay);
+    this.operationCanceledManager.checkCanceled(cancelIndicator);
+    this.workspaceManager.persistProjectStates(cancelIndicator);
+  }
+  
+  /**
+   * Validates and generates the files that have been indexed but not validated yet.
+   * @since 2.13
+   */
+  protected void validateAndGenerate(final CancelIndicator cancelIndicator) {
+    List<ProjectManager> _projectManagers = this.workspaceManager.getProjectManagers();
+    for (final ProjectManager projectManager : _projectManagers) {
+      projectManager.doValidateAndGenerate(cancelIndicator);
+    }
+  }
+  
+  /**
+   * @since 2.13
+   */
+  protected boolean isCancelException(final Throwable t) {
+    return ((t instanceof CancellationException) || this.operationCanceledManager.isOperationCanceledException(t));
+  }
+  
+  /**
+   * Announces the changes to the projects of all queued files.
+   * @since 2.13
+   */
+  protected Set<ProjectManager> announceQueuedProjects() {
+    final LinkedHashSet<ProjectManager> result = CollectionLiterals.<ProjectManager>newLinkedHashSet();
+    Iterable<URI> _plus = Iterables.<URI>concat(this.dirtyFiles, this.deletedFiles);
+    for (final URI uri : _plus) {
+      {
+        final ProjectManager projectManager = this.workspaceManager.getProjectManager(uri);
+        if (((projectManager != null) && result.add(projectManager))) {
+          projectManager.announceChanges();
+        }
+      }
+    }
+    return result;
+  }
+  
+  /**
+   * The files whose changes have been queued but not built yet.
+   * @since 2.13
+   */
+  public Set<URI> getUnbuiltFiles() {
+    return IterableExtensions.<URI>toSet(Iterables.<URI>concat(this.dirtyFiles, this.deletedFiles));
+  }
+  
   public List<IResourceDescription.Delta> doBuild(final List<URI> dirtyFiles, final List<URI> deletedFiles, final CancelIndicator cancelIndicator) {
     return this.submit(dirtyFiles, deletedFiles).build(cancelIndicator);
   }
@@ -146,7 +308,7 @@ public class BuildManager {
     final ArrayList<IResourceDescription.Delta> result = CollectionLiterals.<IResourceDescription.Delta>newArrayList();
     for (final ProjectDescription description : sortedDescriptions) {
       {
-        final IncrementalBuilder.Result partialresult = this.workspaceManager.getProjectManager(description.getName()).doInitialBuild(indicator);
+        final IncrementalBuilder.Result partialresult = this.workspaceManager.getProjectManager(description.getName()).doInitialBuild(result, indicator);
         result.addAll(partialresult.getAffectedResources());
       }
     }
@@ -179,7 +341,7 @@ public class BuildManager {
         final ProjectManager projectManager = this.workspaceManager.getProjectManager(it.getName());
         final List<URI> projectDirty = IterableExtensions.<URI>toList(project2dirty.get(it));
         final List<URI> projectDeleted = IterableExtensions.<URI>toList(project2deleted.get(it));
-        final IncrementalBuilder.Result partialResult = projectManager.doBuild(projectDirty, projectDeleted, result, cancelIndicator);
+        final IncrementalBuilder.Result partialResult = projectManager.doIndexBuild(projectDirty, projectDeleted, result, cancelIndicator);
         final Function1<IResourceDescription.Delta, URI> _function = (IResourceDescription.Delta it_1) -> {
           return it_1.getUri();
         };
@@ -7,10 +7,12 @@
  */
 package org.eclipse.xtext.ide.server;
 
+import java.util.Arrays;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.TextEdit;
 import org.eclipse.xtend.lib.annotations.Data;
+import org.eclipse.xtext.ide.server.PieceTable;
 import org.eclipse.xtext.xbase.lib.Pure;
 import org.eclipse.xtext.xbase.lib.util.ToStringBuilder;
 
@@ -25,27 +27,38 @@ public class Document {
   
   private final String contents;
   
+  /**
+   * The offsets of the line breaks in the contents. Lazily computed.
+   */
+  private volatile transient int[] lineBreaks;
+  
   public int getOffSet(final Position position) {
-    final int l = this.contents.length();
-    final char NL = '\n';
-    int line = 0;
-    int column = 0;
-    for (int i = 0; (i < l); i++) {
-      {
-        final char ch = this.contents.charAt(i);
-        if (((position.getLine() == line) && (position.getCharacter() == column))) {
-          return i;
-        }
-        if ((ch == NL)) {
-          line++;
-          column = 0;
-        } else {
-          column++;
-        }
+    final int[] lineBreaks = this.getLineBreaks();
+    final int line = position.getLine();
+    if ((((line >= 0) && (line <= lineBreaks.length)) && (position.getCharacter() >= 0))) {
+      int _xifexpression = (int) 0;
+      if ((line == 0)) {
+        _xifexpression = 0;
+      } else {
+        int _get = lineBreaks[(line - 1)];
+        _xifexpression = (_get + 1);
+      }
+      final int lineStart = _xifexpression;
+      int _xifexpression_1 = (int) 0;
+      int _length = lineBreaks.length;
+      boolean _lessThan = (line < _length);
+      if (_lessThan) {
+        _xifexpression_1 = lineBreaks[line];
+      } else {
+        _xifexpression_1 = this.contents.length();
+      }
+      final int lineEnd = _xifexpression_1;
+      int _character = position.getCharacter();
+      boolean _lessEqualsThan = (_character <= (lineEnd - lineStart));
+      if (_lessEqualsThan) {
+        int _character_1 = position.getCharacter();
+        return (lineStart + _character_1);
       }
-    }
-    if (((position.getLine() == line) && (position.getCharacter() == column))) {
-      return l;
     }
     String _string = position.toString();
     String _plus = (_string + " text was : ");
@@ -60,24 +73,36 @@ public class Document {
       String _plus_1 = (_plus + this.contents);
       throw new IndexOutOfBoundsException(_plus_1);
     }
-    final char NL = '\n';
-    int line = 0;
-    int column = 0;
-    for (int i = 0; (i < l); i++) {
-      {
-        final char ch = this.contents.charAt(i);
-        if ((i == offset)) {
-          return new Position(line, column);
-        }
-        if ((ch == NL)) {
-          line++;
-          column = 0;
-        } else {
-          column++;
-        }
-      }
+    final int[] lineBreaks = this.getLineBreaks();
+    final int index = Arrays.binarySearch(lineBreaks, offset);
+    int _xifexpression = (int) 0;
+    if ((index >= 0)) {
+      _xifexpression = index;
+    } else {
+      _xifexpression = (-(index + 1));
+    }
+    final int line = _xifexpression;
+    int _xifexpression_1 = (int) 0;
+    if ((line == 0)) {
+      _xifexpression_1 = 0;
+    } else {
+      int _get = lineBreaks[(line - 1)];
+      _xifexpression_1 = (_get + 1);
+    }
+    final int lineStart = _xifexpression_1;
+    return new Position(line, (offset - lineStart));
+  }
+  
+  /**
+   * @since 2.13
+   */
+  protected int[] getLineBreaks() {
+    int[] result = this.lineBreaks;
+    if ((result == null)) {
+      result = PieceTable.computeLineBreaks(this.contents);
+      this.lineBreaks = result;
     }
-    return new Position(line, column);
+    return result;
   }
   
   public String getSubstring(final Range range) {
@@ -86,25 +111,26 @@ public class Document {
     return this.contents.substring(start, end);
   }
   
+  /**
+   * Applies the given changes one after the other, i.e. the range of a change refers to the text that results
+   * from the previous changes.
+   */
   public Document applyChanges(final Iterable<? extends TextEdit> changes) {
-    String newContent = this.contents;
+    int[] _lineBreaks = this.getLineBreaks();
+    final PieceTable newContent = new PieceTable(this.contents, _lineBreaks);
     for (final TextEdit change : changes) {
       Range _range = change.getRange();
       boolean _tripleEquals = (_range == null);
       if (_tripleEquals) {
-        newContent = change.getNewText();
+        newContent.setText(change.getNewText());
       } else {
-        final int start = this.getOffSet(change.getRange().getStart());
-        final int end = this.getOffSet(change.getRange().getEnd());
-        String _substring = newContent.substring(0, start);
-        String _newText = change.getNewText();
-        String _plus = (_substring + _newText);
-        String _substring_1 = newContent.substring(end);
-        String _plus_1 = (_plus + _substring_1);
-        newContent = _plus_1;
+        final int start = newContent.getOffSet(change.getRange().getStart());
+        final int end = newContent.getOffSet(change.getRange().getEnd());
+        newContent.replace(start, end, change.getNewText());
       }
     }
-    return new Document((this.version + 1), newContent);
+    String _string = newContent.toString();
+    return new Document((this.version + 1), _string);
   }
   
   public Document(final int version, final String contents) {
@@ -289,10 +289,19 @@ public class LanguageServerImpl implements LanguageServer, WorkspaceService, Tex
     final Function2<CancelIndicator, Object, Object> _function_2 = (CancelIndicator $0, Object $1) -> {
       return null;
     };
-    final Function<Object, InitializeResult> _function_3 = (Object it) -> {
+    final CompletableFuture<Object> initialized = this.requestManager.<Object, Object>runWrite(_function_1, _function_2);
+    final Function0<Object> _function_3 = () -> {
+      return null;
+    };
+    final Function2<CancelIndicator, Object, Object> _function_4 = (CancelIndicator cancelIndicator, Object nothing) -> {
+      this.workspaceManager.persistProjectStatesWhenIdle(cancelIndicator);
+      return null;
+    };
+    this.requestManager.<Object, Object>runWriteWithConcurrentReads(_function_3, _function_4);
+    final Function<Object, InitializeResult> _function_5 = (Object it) -> {
       return result;
     };
-    return this.requestManager.<Object, Object>runWrite(_function_1, _function_2).<InitializeResult>thenApply(_function_3);
+    return initialized.<InitializeResult>thenApply(_function_5);
   }
   
   @Deprecated
@@ -325,8 +334,14 @@ public class LanguageServerImpl implements LanguageServer, WorkspaceService, Tex
   
   @Override
   public CompletableFuture<Object> shutdown() {
-    Object _object = new Object();
-    return CompletableFuture.<Object>completedFuture(_object);
+    final Function0<Object> _function = () -> {
+      this.workspaceManager.persistProjectStates();
+      return new Object();
+    };
+    final Function2<CancelIndicator, Object, Object> _function_1 = (CancelIndicator cancelIndicator, Object result) -> {
+      return result;
+    };
+    return this.requestManager.<Object, Object>runWrite(_function, _function_1);
   }
   
   @Override
@@ -347,7 +362,7 @@ public class LanguageServerImpl implements LanguageServer, WorkspaceService, Tex
     final Function2<CancelIndicator, BuildManager.Buildable, List<IResourceDescription.Delta>> _function_1 = (CancelIndicator cancelIndicator, BuildManager.Buildable buildable) -> {
       return buildable.build(cancelIndicator);
     };
-    this.requestManager.<BuildManager.Buildable, List<IResourceDescription.Delta>>runWrite(_function, _function_1);
+    this.requestManager.<BuildManager.Buildable, List<IResourceDescription.Delta>>runWriteWithConcurrentReads(_function, _function_1);
   }
   
   @Override
@@ -363,7 +378,7 @@ public class LanguageServerImpl implements LanguageServer, WorkspaceService, Tex
     final Function2<CancelIndicator, BuildManager.Buildable, List<IResourceDescription.Delta>> _function_1 = (CancelIndicator cancelIndicator, BuildManager.Buildable buildable) -> {
       return buildable.build(cancelIndicator);
     };
-    this.requestManager.<BuildManager.Buildable, List<IResourceDescription.Delta>>runWrite(_function, _function_1);
+    this.requestManager.<BuildManager.Buildable, List<IResourceDescription.Delta>>runWriteWithConcurrentReads(_function, _function_1);
   }
   
   @Override
@@ -374,7 +389,7 @@ public class LanguageServerImpl implements LanguageServer, WorkspaceService, Tex
     final Function2<CancelIndicator, BuildManager.Buildable, List<IResourceDescription.Delta>> _function_1 = (CancelIndicator cancelIndicator, BuildManager.Buildable buildable) -> {
       return buildable.build(cancelIndicator);
     };
-    this.requestManager.<BuildManager.Buildable, List<IResourceDescription.Delta>>runWrite(_function, _function_1);
+    this.requestManager.<BuildManager.Buildable, List<IResourceDescription.Delta>>runWriteWithConcurrentReads(_function, _function_1);
   }
   
   @Override
@@ -407,7 +422,7 @@ public class LanguageServerImpl implements LanguageServer, WorkspaceService, Tex
     final Function2<CancelIndicator, BuildManager.Buildable, List<IResourceDescription.Delta>> _function_1 = (CancelIndicator cancelIndicator, BuildManager.Buildable buildable) -> {
       return buildable.build(cancelIndicator);
     };
-    this.requestManager.<BuildManager.Buildable, List<IResourceDescription.Delta>>runWrite(_function, _function_1);
+    this.requestManager.<BuildManager.Buildable, List<IResourceDescription.Delta>>runWriteWithConcurrentReads(_function, _function_1);
   }
   
   @Override
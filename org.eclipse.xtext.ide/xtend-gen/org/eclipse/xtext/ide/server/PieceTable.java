@@ -0,0 +1,250 @@
+/**
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.xtext.ide.server;
+
+import java.util.Arrays;
+import java.util.List;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.xtend.lib.annotations.FinalFieldsConstructor;
+import org.eclipse.xtext.xbase.lib.CollectionLiterals;
+
+/**
+ * Applies a sequence of edits to a text without copying the text for each edit. The text is represented as a list
+ * of pieces that refer to the original text or to the inserted texts. Each of these texts knows the offsets of its
+ * line breaks, so positions are resolved without scanning the text. The positions of an edit refer to the text
+ * that results from the previous edits.
+ */
+@SuppressWarnings("all")
+class PieceTable {
+  /**
+   * A text together with the sorted offsets of its line breaks.
+   */
+  @FinalFieldsConstructor
+  public static class Buffer {
+    private final String text;
+    
+    private final int[] lineBreaks;
+    
+    /**
+     * Returns the number of line breaks before the given offset.
+     */
+    public int countLineBreaks(final int offset) {
+      final int index = Arrays.binarySearch(this.lineBreaks, offset);
+      int _xifexpression = (int) 0;
+      if ((index >= 0)) {
+        _xifexpression = index;
+      } else {
+        _xifexpression = (-(index + 1));
+      }
+      return _xifexpression;
+    }
+    
+    public Buffer(final String text, final int[] lineBreaks) {
+      super();
+      this.text = text;
+      this.lineBreaks = lineBreaks;
+    }
+  }
+  
+  @FinalFieldsConstructor
+  public static class Piece {
+    private final PieceTable.Buffer buffer;
+    
+    private final int start;
+    
+    private final int end;
+    
+    public int length() {
+      return (this.end - this.start);
+    }
+    
+    public int lineBreakCount() {
+      int _countLineBreaks = this.buffer.countLineBreaks(this.end);
+      int _countLineBreaks_1 = this.buffer.countLineBreaks(this.start);
+      return (_countLineBreaks - _countLineBreaks_1);
+    }
+    
+    /**
+     * Returns the offset of the line break with the given index relative to the start of this piece.
+     */
+    public int getLineBreak(final int index) {
+      int _countLineBreaks = this.buffer.countLineBreaks(this.start);
+      int _plus = (_countLineBreaks + index);
+      int _get = this.buffer.lineBreaks[_plus];
+      return (_get - this.start);
+    }
+    
+    public Piece(final PieceTable.Buffer buffer, final int start, final int end) {
+      super();
+      this.buffer = buffer;
+      this.start = start;
+      this.end = end;
+    }
+  }
+  
+  /**
+   * Returns the offsets of the line breaks in the given text.
+   */
+  public static int[] computeLineBreaks(final String text) {
+    int count = 0;
+    for (int i = text.indexOf("\n"); (i != (-1)); i = text.indexOf("\n", (i + 1))) {
+      count++;
+    }
+    final int[] result = new int[count];
+    int index = 0;
+    for (int i = text.indexOf("\n"); (i != (-1)); i = text.indexOf("\n", (i + 1))) {
+      int _plusPlus = index++;
+      result[_plusPlus] = i;
+    }
+    return result;
+  }
+  
+  private final List<PieceTable.Piece> pieces = CollectionLiterals.<PieceTable.Piece>newArrayList();
+  
+  private int length;
+  
+  public PieceTable(final String text, final int[] lineBreaks) {
+    PieceTable.Buffer _buffer = new PieceTable.Buffer(text, lineBreaks);
+    this.setText(_buffer);
+  }
+  
+  public void setText(final String text) {
+    int[] _computeLineBreaks = PieceTable.computeLineBreaks(text);
+    PieceTable.Buffer _buffer = new PieceTable.Buffer(text, _computeLineBreaks);
+    this.setText(_buffer);
+  }
+  
+  private void setText(final PieceTable.Buffer buffer) {
+    this.pieces.clear();
+    boolean _isEmpty = buffer.text.isEmpty();
+    boolean _not = (!_isEmpty);
+    if (_not) {
+      int _length = buffer.text.length();
+      PieceTable.Piece _piece = new PieceTable.Piece(buffer, 0, _length);
+      this.pieces.add(_piece);
+    }
+    this.length = buffer.text.length();
+  }
+  
+  public int getOffSet(final Position position) {
+    if (((position.getLine() >= 0) && (position.getCharacter() >= 0))) {
+      final int lineStart = this.getLineStart(position.getLine());
+      if ((lineStart != (-1))) {
+        int _line = position.getLine();
+        int _plus = (_line + 1);
+        final int nextLineStart = this.getLineStart(_plus);
+        int _xifexpression = (int) 0;
+        if ((nextLineStart == (-1))) {
+          _xifexpression = this.length;
+        } else {
+          _xifexpression = (nextLineStart - 1);
+        }
+        final int lineEnd = _xifexpression;
+        int _character = position.getCharacter();
+        boolean _lessEqualsThan = (_character <= (lineEnd - lineStart));
+        if (_lessEqualsThan) {
+          int _character_1 = position.getCharacter();
+          return (lineStart + _character_1);
+        }
+      }
+    }
+    String _string = position.toString();
+    String _plus_1 = (_string + " text was : ");
+    String _string_1 = this.toString();
+    String _plus_2 = (_plus_1 + _string_1);
+    throw new IndexOutOfBoundsException(_plus_2);
+  }
+  
+  /**
+   * Returns the offset of the first character of the given line, or <code>-1</code> if there is no such line.
+   */
+  private int getLineStart(final int line) {
+    if ((line == 0)) {
+      return 0;
+    }
+    int remaining = line;
+    int offset = 0;
+    for (final PieceTable.Piece piece : this.pieces) {
+      {
+        final int count = piece.lineBreakCount();
+        if ((remaining <= count)) {
+          int _lineBreak = piece.getLineBreak((remaining - 1));
+          int _plus = (offset + _lineBreak);
+          return (_plus + 1);
+        }
+        int _remaining = remaining;
+        remaining = (_remaining - count);
+        int _offset = offset;
+        int _length = piece.length();
+        offset = (_offset + _length);
+      }
+    }
+    return (-1);
+  }
+  
+  public void replace(final int start, final int end, final String text) {
+    if ((((start < 0) || (end < start)) || (end > this.length))) {
+      String _string = this.toString();
+      String _plus = (((("[" + Integer.valueOf(start)) + ", ") + Integer.valueOf(end)) + "] text was : ");
+      String _plus_1 = (_plus + _string);
+      throw new IndexOutOfBoundsException(_plus_1);
+    }
+    final int startIndex = this.split(start);
+    final int endIndex = this.split(end);
+    this.pieces.subList(startIndex, endIndex).clear();
+    boolean _isEmpty = text.isEmpty();
+    boolean _not = (!_isEmpty);
+    if (_not) {
+      int[] _computeLineBreaks = PieceTable.computeLineBreaks(text);
+      PieceTable.Buffer _buffer = new PieceTable.Buffer(text, _computeLineBreaks);
+      int _length = text.length();
+      PieceTable.Piece _piece = new PieceTable.Piece(_buffer, 0, _length);
+      this.pieces.add(startIndex, _piece);
+    }
+    int _length_1 = this.length;
+    int _length_2 = text.length();
+    int _minus = (_length_2 - (end - start));
+    this.length = (_length_1 + _minus);
+  }
+  
+  /**
+   * Splits the piece that contains the given offset and returns the index of the piece that starts at the offset.
+   */
+  private int split(final int offset) {
+    int pieceStart = 0;
+    for (int i = 0; (i < this.pieces.size()); i++) {
+      {
+        if ((offset == pieceStart)) {
+          return i;
+        }
+        final PieceTable.Piece piece = this.pieces.get(i);
+        int _length = piece.length();
+        final int pieceEnd = (pieceStart + _length);
+        if ((offset < pieceEnd)) {
+          final int splitOffset = ((piece.start + offset) - pieceStart);
+          PieceTable.Piece _piece = new PieceTable.Piece(piece.buffer, piece.start, splitOffset);
+          this.pieces.set(i, _piece);
+          PieceTable.Piece _piece_1 = new PieceTable.Piece(piece.buffer, splitOffset, piece.end);
+          this.pieces.add((i + 1), _piece_1);
+          return (i + 1);
+        }
+        pieceStart = pieceEnd;
+      }
+    }
+    return this.pieces.size();
+  }
+  
+  @Override
+  public String toString() {
+    final StringBuilder result = new StringBuilder(this.length);
+    for (final PieceTable.Piece piece : this.pieces) {
+      result.append(piece.buffer.text, piece.start, piece.end);
+    }
+    return result.toString();
+  }
+}
@@ -7,16 +7,27 @@
  */
 package org.eclipse.xtext.ide.server;
 
+import com.google.common.collect.Iterables;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
+import com.google.inject.name.Named;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.URIConverter;
 import org.eclipse.xtend.lib.annotations.AccessorType;
 import org.eclipse.xtend.lib.annotations.Accessors;
 import org.eclipse.xtext.build.BuildRequest;
@@ -24,6 +35,7 @@ import org.eclipse.xtext.build.IncrementalBuilder;
 import org.eclipse.xtext.build.IndexState;
 import org.eclipse.xtext.build.Source2GeneratedMapping;
 import org.eclipse.xtext.diagnostics.Severity;
+import org.eclipse.xtext.ide.server.ProjectStatePersister;
 import org.eclipse.xtext.resource.IExternalContentSupport;
 import org.eclipse.xtext.resource.IResourceDescription;
 import org.eclipse.xtext.resource.IResourceServiceProvider;
@@ -31,6 +43,7 @@ import org.eclipse.xtext.resource.XtextResourceSet;
 import org.eclipse.xtext.resource.impl.ChunkedResourceDescriptions;
 import org.eclipse.xtext.resource.impl.ProjectDescription;
 import org.eclipse.xtext.resource.impl.ResourceDescriptionsData;
+import org.eclipse.xtext.service.OperationCanceledManager;
 import org.eclipse.xtext.util.CancelIndicator;
 import org.eclipse.xtext.util.IAcceptor;
 import org.eclipse.xtext.util.IFileSystemScanner;
@@ -39,7 +52,10 @@ import org.eclipse.xtext.workspace.IProjectConfig;
 import org.eclipse.xtext.workspace.ISourceFolder;
 import org.eclipse.xtext.workspace.ProjectConfigAdapter;
 import org.eclipse.xtext.xbase.lib.CollectionLiterals;
+import org.eclipse.xtext.xbase.lib.Exceptions;
+import org.eclipse.xtext.xbase.lib.Functions.Function0;
 import org.eclipse.xtext.xbase.lib.Functions.Function1;
+import org.eclipse.xtext.xbase.lib.IterableExtensions;
 import org.eclipse.xtext.xbase.lib.ObjectExtensions;
 import org.eclipse.xtext.xbase.lib.Procedures.Procedure1;
 import org.eclipse.xtext.xbase.lib.Procedures.Procedure2;
@@ -51,6 +67,13 @@ import org.eclipse.xtext.xbase.lib.Pure;
  */
 @SuppressWarnings("all")
 public class ProjectManager {
+  /**
+   * The name of an optional {@link ExecutorService} binding. If present, builds load, validate and generate
+   * independent resources in parallel on it.
+   * @since 2.13
+   */
+  public final static String PARALLEL_BUILD_EXECUTOR = "org.eclipse.xtext.ide.server.ProjectManager.parallelBuildExecutor";
+  
   @Inject
   protected IncrementalBuilder incrementalBuilder;
   
@@ -66,6 +89,25 @@ public class ProjectManager {
   @Inject
   protected IExternalContentSupport externalContentSupport;
   
+  /**
+   * @since 2.13
+   */
+  @Inject(optional = true)
+  @Named(ProjectManager.PARALLEL_BUILD_EXECUTOR)
+  protected ExecutorService parallelBuildExecutor;
+  
+  /**
+   * @since 2.13
+   */
+  @Inject
+  protected ProjectStatePersister projectStatePersister;
+  
+  /**
+   * @since 2.13
+   */
+  @Inject
+  protected OperationCanceledManager operationCanceledManager;
+  
   @Accessors(AccessorType.PUBLIC_GETTER)
   private IndexState indexState = new IndexState();
   
@@ -78,6 +120,12 @@ public class ProjectManager {
   
   private IExternalContentSupport.IExternalContentProvider openedDocumentsContentProvider;
   
+  /**
+   * The issues of the files that have not been validated successfully. Only recorded if the project state is
+   * persisted.
+   */
+  private final Map<URI, List<Issue>> validationIssues = new ConcurrentHashMap<URI, List<Issue>>();
+  
   @Accessors(AccessorType.PUBLIC_GETTER)
   private XtextResourceSet resourceSet;
   
@@ -86,6 +134,46 @@ public class ProjectManager {
   
   private IProjectConfig projectConfig;
   
+  /**
+   * Guards the resource set and the index state of this project. Builds hold the write lock, reads hold the read
+   * lock.
+   */
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  
+  /**
+   * Serializes the builds and the validations of this project. It is acquired before the lock and held by a
+   * validation until its result has been published, so no build can change the index state in between.
+   */
+  private final ReentrantLock buildLock = new ReentrantLock();
+  
+  /**
+   * Whether changes to this project have been locked for a build that has not finished successfully. Guarded by
+   * the lock.
+   */
+  private boolean pendingChanges;
+  
+  /**
+   * Whether changes to this project have been {@link #announceChanges() announced} whose build has not finished.
+   * Guarded by the monitor of the lock.
+   */
+  private boolean announcedChanges;
+  
+  /**
+   * The files that have been indexed by {@link #doIndexBuild index only builds} but have not been validated since.
+   */
+  private final Set<URI> unvalidatedFiles = ConcurrentHashMap.<URI>newKeySet();
+  
+  /**
+   * The index state that has been {@link #persistProjectState persisted} last.
+   */
+  private IndexState persistedIndexState;
+  
+  /**
+   * The fingerprints that have been persisted or restored last. Their content hashes are reused for files whose
+   * time stamp has not changed.
+   */
+  private Map<URI, ProjectStatePersister.FileFingerprint> fingerprints = CollectionLiterals.<URI, ProjectStatePersister.FileFingerprint>emptyMap();
+  
   public void initialize(final ProjectDescription description, final IProjectConfig projectConfig, final Procedure2<? super URI, ? super Iterable<Issue>> acceptor, final IExternalContentSupport.IExternalContentProvider openedDocumentsContentProvider, final Provider<Map<String, ResourceDescriptionsData>> indexProvider, final CancelIndicator cancelIndicator) {
     this.projectDescription = description;
     this.projectConfig = projectConfig;
@@ -96,6 +184,16 @@ public class ProjectManager {
   }
   
   public IncrementalBuilder.Result doInitialBuild(final CancelIndicator cancelIndicator) {
+    return this.doInitialBuild(CollectionLiterals.<IResourceDescription.Delta>emptyList(), cancelIndicator);
+  }
+  
+  /**
+   * Builds all files of this project. If the {@link ProjectStatePersister persisted state} of a previous session
+   * is available, it is restored instead and only the files that have been changed in the meantime are rebuilt,
+   * along with the files that are affected by these changes or by the given external deltas.
+   * @since 2.13
+   */
+  public IncrementalBuilder.Result doInitialBuild(final List<IResourceDescription.Delta> externalDeltas, final CancelIndicator cancelIndicator) {
     final ArrayList<URI> uris = CollectionLiterals.<URI>newArrayList();
     final Consumer<ISourceFolder> _function = (ISourceFolder it) -> {
       final IAcceptor<URI> _function_1 = (URI it_1) -> {
@@ -104,22 +202,291 @@ public class ProjectManager {
       this.fileSystemScanner.scan(it.getPath(), _function_1);
     };
     this.projectConfig.getSourceFolders().forEach(_function);
-    return this.doBuild(uris, CollectionLiterals.<URI>emptyList(), CollectionLiterals.<IResourceDescription.Delta>emptyList(), cancelIndicator);
+    final ProjectStatePersister.PersistedState persistedState = this.projectStatePersister.readProjectState(this.projectDescription.getName(), this.baseDir);
+    if ((persistedState != null)) {
+      return this.doRestoredBuild(uris, persistedState, externalDeltas, cancelIndicator);
+    }
+    return this.doBuild(uris, CollectionLiterals.<URI>emptyList(), externalDeltas, cancelIndicator);
   }
   
-  public IncrementalBuilder.Result doBuild(final List<URI> dirtyFiles, final List<URI> deletedFiles, final List<IResourceDescription.Delta> externalDeltas, final CancelIndicator cancelIndicator) {
-    final BuildRequest request = this.newBuildRequest(dirtyFiles, deletedFiles, externalDeltas, cancelIndicator);
-    final Function1<URI, IResourceServiceProvider> _function = (URI it) -> {
-      return this.languagesRegistry.getResourceServiceProvider(it);
-    };
-    final IncrementalBuilder.Result result = this.incrementalBuilder.build(request, _function);
-    this.indexState = result.getIndexState();
-    this.resourceSet = request.getResourceSet();
+  /**
+   * Restores the persisted state and rebuilds the files that have been added, changed or deleted since it was
+   * written. The persisted issues of the remaining files are reported again.
+   * @since 2.13
+   */
+  protected IncrementalBuilder.Result doRestoredBuild(final List<URI> allFiles, final ProjectStatePersister.PersistedState persistedState, final List<IResourceDescription.Delta> externalDeltas, final CancelIndicator cancelIndicator) {
+    this.indexState = persistedState.getIndexState();
+    this.fingerprints = persistedState.getFingerprints();
     this.indexProvider.get().put(this.projectDescription.getName(), this.indexState.getResourceDescriptions());
-    return result;
+    final URIConverter uriConverter = this.resourceSetProvider.get().getURIConverter();
+    final HashSet<URI> existingFiles = new HashSet<URI>(allFiles);
+    final LinkedHashSet<URI> dirtyFiles = CollectionLiterals.<URI>newLinkedHashSet();
+    for (final URI uri : allFiles) {
+      boolean _isUpToDate = this.projectStatePersister.isUpToDate(uri, persistedState.getFingerprints().get(uri), uriConverter);
+      boolean _not = (!_isUpToDate);
+      if (_not) {
+        dirtyFiles.add(uri);
+      }
+    }
+    final Function1<URI, Boolean> _function = (URI it) -> {
+      boolean _contains = existingFiles.contains(it);
+      return Boolean.valueOf((!_contains));
+    };
+    final List<URI> deletedFiles = IterableExtensions.<URI>toList(IterableExtensions.<URI>filter(this.indexState.getResourceDescriptions().getAllURIs(), _function));
+    Set<Map.Entry<URI, List<Issue>>> _entrySet = persistedState.getValidationIssues().entrySet();
+    for (final Map.Entry<URI, List<Issue>> entry : _entrySet) {
+      if ((existingFiles.contains(entry.getKey()) && (!dirtyFiles.contains(entry.getKey())))) {
+        this.validationIssues.put(entry.getKey(), entry.getValue());
+        this.issueAcceptor.apply(entry.getKey(), entry.getValue());
+      }
+    }
+    return this.doBuild(IterableExtensions.<URI>toList(dirtyFiles), deletedFiles, externalDeltas, cancelIndicator);
+  }
+  
+  /**
+   * Writes the current state of this project, so that a later session can {@link #doRestoredBuild restore} it
+   * instead of building the project from scratch. Open documents are not fingerprinted because their content may
+   * differ from the files on disk, so they are rebuilt after a restart. The same holds for files that have not
+   * been validated yet and for the given files, whose changes have not been built yet. If a build of this project
+   * has been cancelled, no file is fingerprinted, since the unbuilt changes of upstream projects may affect any of
+   * them. Nothing is written if the index state has not changed since the last call.
+   * 
+   * The state is only captured under the read lock. The files are fingerprinted and the state is written afterwards,
+   * and only the files whose time stamp has changed since the last call are hashed. If the cancel indicator is
+   * cancelled in the meantime, the previously written state is kept.
+   * @since 2.13
+   */
+  public void persistProjectState(final Set<URI> unbuiltFiles, final CancelIndicator cancelIndicator) {
+    boolean _isEnabled = this.projectStatePersister.isEnabled();
+    boolean _not = (!_isEnabled);
+    if (_not) {
+      return;
+    }
+    IndexState state = null;
+    boolean changesPending = false;
+    List<URI> fingerprintedFiles = null;
+    Map<URI, List<Issue>> issues = null;
+    this.lock.readLock().lock();
+    try {
+      if (((this.resourceSet == null) || ((this.indexState == this.persistedIndexState) && (!this.pendingChanges)))) {
+        return;
+      }
+      state = this.indexState;
+      changesPending = this.pendingChanges;
+      List<URI> _xifexpression = null;
+      if (this.pendingChanges) {
+        _xifexpression = CollectionLiterals.<URI>emptyList();
+      } else {
+        final Function1<URI, Boolean> _function = (URI it) -> {
+          return Boolean.valueOf((((!this.openedDocumentsContentProvider.hasContent(it)) && (!this.unvalidatedFiles.contains(it))) && (!unbuiltFiles.contains(it))));
+        };
+        _xifexpression = IterableExtensions.<URI>toList(IterableExtensions.<URI>filter(this.indexState.getResourceDescriptions().getAllURIs(), _function));
+      }
+      fingerprintedFiles = _xifexpression;
+      HashMap<URI, List<Issue>> _hashMap = new HashMap<URI, List<Issue>>(this.validationIssues);
+      issues = _hashMap;
+    } finally {
+      this.lock.readLock().unlock();
+    }
+    final URIConverter uriConverter = this.resourceSetProvider.get().getURIConverter();
+    final HashMap<URI, ProjectStatePersister.FileFingerprint> newFingerprints = CollectionLiterals.<URI, ProjectStatePersister.FileFingerprint>newHashMap();
+    for (final URI uri : fingerprintedFiles) {
+      {
+        this.operationCanceledManager.checkCanceled(cancelIndicator);
+        final ProjectStatePersister.FileFingerprint fingerprint = this.projectStatePersister.getFingerprint(uri, this.fingerprints.get(uri), uriConverter);
+        if ((fingerprint != null)) {
+          newFingerprints.put(uri, fingerprint);
+        }
+      }
+    }
+    final ProjectStatePersister.PersistedState persistedState = new ProjectStatePersister.PersistedState(state, newFingerprints, issues);
+    this.projectStatePersister.writeProjectState(this.projectDescription.getName(), this.baseDir, persistedState, cancelIndicator);
+    this.fingerprints = newFingerprints;
+    IndexState _xifexpression_1 = null;
+    if (changesPending) {
+      _xifexpression_1 = null;
+    } else {
+      _xifexpression_1 = state;
+    }
+    this.persistedIndexState = _xifexpression_1;
+  }
+  
+  public IncrementalBuilder.Result doBuild(final List<URI> dirtyFiles, final List<URI> deletedFiles, final List<IResourceDescription.Delta> externalDeltas, final CancelIndicator cancelIndicator) {
+    return this.doBuild(dirtyFiles, deletedFiles, externalDeltas, false, cancelIndicator);
+  }
+  
+  /**
+   * Updates the index for the given changes without validating and generating the affected files. They are
+   * validated by the next {@link #doValidateAndGenerate(CancelIndicator)} or by a regular build.
+   * @since 2.13
+   */
+  public IncrementalBuilder.Result doIndexBuild(final List<URI> dirtyFiles, final List<URI> deletedFiles, final List<IResourceDescription.Delta> externalDeltas, final CancelIndicator cancelIndicator) {
+    return this.doBuild(dirtyFiles, deletedFiles, externalDeltas, true, cancelIndicator);
+  }
+  
+  /**
+   * @since 2.13
+   */
+  protected IncrementalBuilder.Result doBuild(final List<URI> dirtyFiles, final List<URI> deletedFiles, final List<IResourceDescription.Delta> externalDeltas, final boolean indexOnly, final CancelIndicator cancelIndicator) {
+    this.buildLock.lock();
+    this.lock.writeLock().lock();
+    try {
+      this.validationIssues.keySet().removeAll(deletedFiles);
+      final BuildRequest request = this.newBuildRequest(dirtyFiles, deletedFiles, externalDeltas, cancelIndicator);
+      request.setIndexOnly(indexOnly);
+      final Function1<URI, IResourceServiceProvider> _function = (URI it) -> {
+        return this.languagesRegistry.getResourceServiceProvider(it);
+      };
+      final IncrementalBuilder.Result result = this.incrementalBuilder.build(request, _function);
+      this.indexState = result.getIndexState();
+      this.resourceSet = request.getResourceSet();
+      this.indexProvider.get().put(this.projectDescription.getName(), this.indexState.getResourceDescriptions());
+      Iterables.removeAll(this.unvalidatedFiles, deletedFiles);
+      List<IResourceDescription.Delta> _affectedResources = result.getAffectedResources();
+      for (final IResourceDescription.Delta delta : _affectedResources) {
+        if ((indexOnly && (delta.getNew() != null))) {
+          URI _uri = delta.getUri();
+          this.unvalidatedFiles.add(_uri);
+        } else {
+          URI _uri_1 = delta.getUri();
+          this.unvalidatedFiles.remove(_uri_1);
+        }
+      }
+      this.pendingChanges = false;
+      return result;
+    } finally {
+      this.lock.writeLock().unlock();
+      this.buildLock.unlock();
+    }
+  }
+  
+  /**
+   * Validates and generates the files that have been indexed by {@link #doIndexBuild index only builds} but have
+   * not been validated since. The files are validated under the read lock, so reads of this project are not
+   * blocked. The validation uses a new resource set and a copy of the index, since the resource set of this
+   * project is not thread-safe. Builds of this project wait until the validation has finished and its result has
+   * been published under the write lock, so the generated files and the published issues always match the
+   * current index state. If a build of this project has been cancelled, the files are validated after the next
+   * build.
+   * @since 2.13
+   */
+  public void doValidateAndGenerate(final CancelIndicator cancelIndicator) {
+    boolean _isEmpty = this.unvalidatedFiles.isEmpty();
+    if (_isEmpty) {
+      return;
+    }
+    this.buildLock.lock();
+    try {
+      BuildRequest request = null;
+      IncrementalBuilder.Result result = null;
+      this.lock.readLock().lock();
+      try {
+        if (this.pendingChanges) {
+          return;
+        }
+        final Function1<ResourceDescriptionsData, XtextResourceSet> _function = (ResourceDescriptionsData it) -> {
+          return this.createNewResourceSet(it);
+        };
+        request = this.newBuildRequest(IterableExtensions.<URI>toList(this.unvalidatedFiles), CollectionLiterals.<URI>emptyList(), CollectionLiterals.<IResourceDescription.Delta>emptyList(), _function, cancelIndicator);
+        final Function1<URI, IResourceServiceProvider> _function_1 = (URI it) -> {
+          return this.languagesRegistry.getResourceServiceProvider(it);
+        };
+        result = this.incrementalBuilder.validateAndGenerate(request, _function_1);
+      } finally {
+        this.lock.readLock().unlock();
+      }
+      this.lock.writeLock().lock();
+      try {
+        this.indexState = result.getIndexState();
+        this.resourceSet = request.getResourceSet();
+        this.indexProvider.get().put(this.projectDescription.getName(), this.indexState.getResourceDescriptions());
+        List<URI> _dirtyFiles = request.getDirtyFiles();
+        Iterables.removeAll(this.unvalidatedFiles, _dirtyFiles);
+      } finally {
+        this.lock.writeLock().unlock();
+      }
+    } finally {
+      this.buildLock.unlock();
+    }
+  }
+  
+  /**
+   * Announces changes to this project that are about to be built. Reads of this project wait until the build
+   * {@link #unlockAfterChanges() has finished}, even if it has not {@link #lockForChanges() locked} the project yet.
+   * @since 2.13
+   */
+  public void announceChanges() {
+    synchronized (this.lock) {
+      this.announcedChanges = true;
+    }
+  }
+  
+  /**
+   * Locks this project for the build of the announced changes. The lock has to be released by
+   * {@link #unlockAfterChanges()} on the same thread.
+   * @since 2.13
+   */
+  public void lockForChanges() {
+    this.buildLock.lock();
+    this.lock.writeLock().lock();
+    this.pendingChanges = true;
+  }
+  
+  /**
+   * Releases the lock that was acquired by {@link #lockForChanges()} and lets the waiting reads run.
+   * @since 2.13
+   */
+  public void unlockAfterChanges() {
+    synchronized (this.lock) {
+      this.announcedChanges = false;
+      this.lock.notifyAll();
+    }
+    this.lock.writeLock().unlock();
+    this.buildLock.unlock();
+  }
+  
+  /**
+   * Runs the given work while this project is not built. If the build of announced changes has been cancelled,
+   * the resource set does not reflect a consistent state, and the work is cancelled as well.
+   * @since 2.13
+   */
+  public <T extends Object> T doRead(final Function0<? extends T> work) {
+    try {
+      synchronized (this.lock) {
+        while ((this.announcedChanges && (!this.lock.isWriteLockedByCurrentThread()))) {
+          this.lock.wait();
+        }
+      }
+      this.lock.readLock().lock();
+      try {
+        if ((this.pendingChanges && (!this.lock.isWriteLockedByCurrentThread()))) {
+          String _name = this.projectDescription.getName();
+          String _plus = ("The project " + _name);
+          String _plus_1 = (_plus + " has unbuilt changes.");
+          throw new CancellationException(_plus_1);
+        }
+        return work.apply();
+      } finally {
+        this.lock.readLock().unlock();
+      }
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
   }
   
   protected BuildRequest newBuildRequest(final List<URI> changedFiles, final List<URI> deletedFiles, final List<IResourceDescription.Delta> externalDeltas, final CancelIndicator cancelIndicator) {
+    final Function1<ResourceDescriptionsData, XtextResourceSet> _function = (ResourceDescriptionsData it) -> {
+      return this.createFreshResourceSet(it);
+    };
+    return this.newBuildRequest(changedFiles, deletedFiles, externalDeltas, _function, cancelIndicator);
+  }
+  
+  /**
+   * Creates a build request on a copy of the index state. Its resource set is obtained from the given function for
+   * the copied index.
+   * @since 2.13
+   */
+  protected BuildRequest newBuildRequest(final List<URI> changedFiles, final List<URI> deletedFiles, final List<IResourceDescription.Delta> externalDeltas, final Function1<? super ResourceDescriptionsData, ? extends XtextResourceSet> resourceSetFactory, final CancelIndicator cancelIndicator) {
     BuildRequest _buildRequest = new BuildRequest();
     final Procedure1<BuildRequest> _function = (BuildRequest it) -> {
       it.setBaseDir(this.baseDir);
@@ -127,33 +494,40 @@ public class ProjectManager {
       Source2GeneratedMapping _copy_1 = this.indexState.getFileMappings().copy();
       IndexState _indexState = new IndexState(_copy, _copy_1);
       it.setState(_indexState);
-      it.setResourceSet(this.createFreshResourceSet(it.getState().getResourceDescriptions()));
+      it.setResourceSet(resourceSetFactory.apply(it.getState().getResourceDescriptions()));
       it.setDirtyFiles(changedFiles);
       it.setDeletedFiles(deletedFiles);
       it.setExternalDeltas(externalDeltas);
       final BuildRequest.IPostValidationCallback _function_1 = (URI uri, Iterable<Issue> issues) -> {
         this.issueAcceptor.apply(uri, issues);
+        boolean _isEnabled = this.projectStatePersister.isEnabled();
+        if (_isEnabled) {
+          boolean _isEmpty = IterableExtensions.isEmpty(issues);
+          if (_isEmpty) {
+            this.validationIssues.remove(uri);
+          } else {
+            this.validationIssues.put(uri, IterableExtensions.<Issue>toList(issues));
+          }
+        }
         return true;
       };
       it.setAfterValidate(_function_1);
       it.setCancelIndicator(cancelIndicator);
+      if ((this.parallelBuildExecutor != null)) {
+        final ResourceDescriptionsData newIndex = it.getState().getResourceDescriptions();
+        it.setExecutorService(this.parallelBuildExecutor);
+        final Function0<XtextResourceSet> _function_2 = () -> {
+          return this.createNewResourceSet(newIndex);
+        };
+        it.setWorkerResourceSetProvider(_function_2);
+      }
     };
     return ObjectExtensions.<BuildRequest>operator_doubleArrow(_buildRequest, _function);
   }
   
   protected XtextResourceSet createFreshResourceSet(final ResourceDescriptionsData newIndex) {
     if ((this.resourceSet == null)) {
-      XtextResourceSet _get = this.resourceSetProvider.get();
-      final Procedure1<XtextResourceSet> _function = (XtextResourceSet it) -> {
-        this.projectDescription.attachToEmfObject(it);
-        ProjectConfigAdapter.install(it, this.projectConfig);
-        Map<String, ResourceDescriptionsData> _get_1 = this.indexProvider.get();
-        final ChunkedResourceDescriptions index = new ChunkedResourceDescriptions(_get_1, it);
-        index.setContainer(this.projectDescription.getName(), newIndex);
-        this.externalContentSupport.configureResourceSet(it, this.openedDocumentsContentProvider);
-      };
-      XtextResourceSet _doubleArrow = ObjectExtensions.<XtextResourceSet>operator_doubleArrow(_get, _function);
-      this.resourceSet = _doubleArrow;
+      this.resourceSet = this.createNewResourceSet(newIndex);
     } else {
       final ChunkedResourceDescriptions resDescs = ChunkedResourceDescriptions.findInEmfObject(this.resourceSet);
       Set<Map.Entry<String, ResourceDescriptionsData>> _entrySet = this.indexProvider.get().entrySet();
@@ -165,6 +539,23 @@ public class ProjectManager {
     return this.resourceSet;
   }
   
+  /**
+   * Creates a resource set that is configured for this project and uses the given index.
+   * @since 2.13
+   */
+  protected XtextResourceSet createNewResourceSet(final ResourceDescriptionsData newIndex) {
+    XtextResourceSet _get = this.resourceSetProvider.get();
+    final Procedure1<XtextResourceSet> _function = (XtextResourceSet it) -> {
+      this.projectDescription.attachToEmfObject(it);
+      ProjectConfigAdapter.install(it, this.projectConfig);
+      Map<String, ResourceDescriptionsData> _get_1 = this.indexProvider.get();
+      final ChunkedResourceDescriptions index = new ChunkedResourceDescriptions(_get_1, it);
+      index.setContainer(this.projectDescription.getName(), newIndex);
+      this.externalContentSupport.configureResourceSet(it, this.openedDocumentsContentProvider);
+    };
+    return ObjectExtensions.<XtextResourceSet>operator_doubleArrow(_get, _function);
+  }
+  
   public Resource getResource(final URI uri) {
     final Resource resource = this.resourceSet.getResource(uri, true);
     resource.getContents();
@@ -0,0 +1,529 @@
+/**
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.xtext.ide.server;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Objects;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.log4j.Logger;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.xtend.lib.annotations.AccessorType;
+import org.eclipse.xtend.lib.annotations.Accessors;
+import org.eclipse.xtend.lib.annotations.FinalFieldsConstructor;
+import org.eclipse.xtext.build.IndexState;
+import org.eclipse.xtext.build.Source2GeneratedMapping;
+import org.eclipse.xtext.diagnostics.Severity;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.resource.impl.PersistentResourceDescriptionsData;
+import org.eclipse.xtext.resource.persistence.SerializableResourceDescription;
+import org.eclipse.xtext.service.OperationCanceledManager;
+import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.util.internal.Log;
+import org.eclipse.xtext.validation.CheckType;
+import org.eclipse.xtext.validation.Issue;
+import org.eclipse.xtext.xbase.lib.CollectionLiterals;
+import org.eclipse.xtext.xbase.lib.Exceptions;
+import org.eclipse.xtext.xbase.lib.ExclusiveRange;
+import org.eclipse.xtext.xbase.lib.IterableExtensions;
+import org.eclipse.xtext.xbase.lib.Pair;
+import org.eclipse.xtext.xbase.lib.Pure;
+
+/**
+ * Stores the index state of a project in a compact binary file and restores it when the language server is started
+ * again. Together with the fingerprints of the source files, this allows to rebuild only the files that have been
+ * added, changed or removed in the meantime.
+ *
+ * The persistence is disabled unless a {@link #STATE_DIRECTORY state directory} is bound.
+ *
+ * @since 2.13
+ */
+@Beta
+@Log
+@SuppressWarnings("all")
+public class ProjectStatePersister {
+  /**
+   * The persisted state of a project.
+   */
+  @FinalFieldsConstructor
+  @Accessors(AccessorType.PUBLIC_GETTER)
+  public static class PersistedState {
+    private final IndexState indexState;
+    
+    /**
+     * The fingerprints of the source files the index state has been computed from.
+     */
+    private final Map<URI, ProjectStatePersister.FileFingerprint> fingerprints;
+    
+    private final Map<URI, List<Issue>> validationIssues;
+    
+    public PersistedState(final IndexState indexState, final Map<URI, ProjectStatePersister.FileFingerprint> fingerprints, final Map<URI, List<Issue>> validationIssues) {
+      super();
+      this.indexState = indexState;
+      this.fingerprints = fingerprints;
+      this.validationIssues = validationIssues;
+    }
+    
+    @Pure
+    public IndexState getIndexState() {
+      return this.indexState;
+    }
+    
+    /**
+     * The fingerprints of the source files the index state has been computed from.
+     */
+    @Pure
+    public Map<URI, ProjectStatePersister.FileFingerprint> getFingerprints() {
+      return this.fingerprints;
+    }
+    
+    @Pure
+    public Map<URI, List<Issue>> getValidationIssues() {
+      return this.validationIssues;
+    }
+  }
+  
+  /**
+   * Identifies the content of a file. The time stamp allows to skip the hashing of unmodified files.
+   */
+  @FinalFieldsConstructor
+  @Accessors(AccessorType.PUBLIC_GETTER)
+  public static class FileFingerprint {
+    public final static long UNKNOWN_TIME_STAMP = (-1);
+    
+    private final long timeStamp;
+    
+    private final String contentHash;
+    
+    public FileFingerprint(final long timeStamp, final String contentHash) {
+      super();
+      this.timeStamp = timeStamp;
+      this.contentHash = contentHash;
+    }
+    
+    @Pure
+    public long getTimeStamp() {
+      return this.timeStamp;
+    }
+    
+    @Pure
+    public String getContentHash() {
+      return this.contentHash;
+    }
+  }
+  
+  /**
+   * The name of an optional {@link String} binding that denotes the directory where the project states are stored.
+   */
+  public final static String STATE_DIRECTORY = "org.eclipse.xtext.ide.server.ProjectStatePersister.stateDirectory";
+  
+  private final static int VERSION = 3;
+  
+  @Inject(optional = true)
+  @Named(ProjectStatePersister.STATE_DIRECTORY)
+  private String stateDirectory;
+  
+  @Inject
+  private OperationCanceledManager operationCanceledManager;
+  
+  public boolean isEnabled() {
+    return (this.stateDirectory != null);
+  }
+  
+  /**
+   * Reads the state that has been written for the given project. Returns <code>null</code> if there is no such
+   * state or if it cannot be read, e.g. because it was written by an incompatible version.
+   */
+  public ProjectStatePersister.PersistedState readProjectState(final String projectName, final URI baseDir) {
+    boolean _isEnabled = this.isEnabled();
+    boolean _not = (!_isEnabled);
+    if (_not) {
+      return null;
+    }
+    final File file = this.getStateFile(projectName, baseDir);
+    boolean _exists = file.exists();
+    boolean _not_1 = (!_exists);
+    if (_not_1) {
+      return null;
+    }
+    try {
+      FileInputStream _fileInputStream = new FileInputStream(file);
+      BufferedInputStream _bufferedInputStream = new BufferedInputStream(_fileInputStream);
+      GZIPInputStream _gZIPInputStream = new GZIPInputStream(_bufferedInputStream);
+      final ObjectInputStream in = new ObjectInputStream(_gZIPInputStream);
+      try {
+        int _readInt = in.readInt();
+        boolean _notEquals = (_readInt != ProjectStatePersister.VERSION);
+        if (_notEquals) {
+          return null;
+        }
+        return this.readState(in);
+      } finally {
+        in.close();
+      }
+    } catch (final Throwable _t) {
+      if (_t instanceof Exception) {
+        final Exception e = (Exception)_t;
+        ProjectStatePersister.LOG.warn(("Cannot read the persisted state of project " + projectName), e);
+        return null;
+      } else {
+        throw Exceptions.sneakyThrow(_t);
+      }
+    }
+  }
+  
+  public void writeProjectState(final String projectName, final URI baseDir, final ProjectStatePersister.PersistedState state) {
+    this.writeProjectState(projectName, baseDir, state, CancelIndicator.NullImpl);
+  }
+  
+  /**
+   * Writes the state of the given project. The previously written state is replaced atomically, so it is kept if
+   * the writing fails or is cancelled.
+   */
+  public void writeProjectState(final String projectName, final URI baseDir, final ProjectStatePersister.PersistedState state, final CancelIndicator cancelIndicator) {
+    boolean _isEnabled = this.isEnabled();
+    boolean _not = (!_isEnabled);
+    if (_not) {
+      return;
+    }
+    final File file = this.getStateFile(projectName, baseDir);
+    File tmpFile = null;
+    try {
+      file.getParentFile().mkdirs();
+      tmpFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+      FileOutputStream _fileOutputStream = new FileOutputStream(tmpFile);
+      BufferedOutputStream _bufferedOutputStream = new BufferedOutputStream(_fileOutputStream);
+      GZIPOutputStream _gZIPOutputStream = new GZIPOutputStream(_bufferedOutputStream);
+      final ObjectOutputStream out = new ObjectOutputStream(_gZIPOutputStream);
+      try {
+        out.writeInt(ProjectStatePersister.VERSION);
+        this.writeState(out, state, cancelIndicator);
+      } finally {
+        out.close();
+      }
+      this.operationCanceledManager.checkCanceled(cancelIndicator);
+      Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (final Throwable _t) {
+      if (_t instanceof Exception) {
+        final Exception e = (Exception)_t;
+        if ((e instanceof CancellationException)) {
+          throw ((CancellationException)e);
+        }
+        this.operationCanceledManager.propagateIfCancelException(e);
+        ProjectStatePersister.LOG.warn(("Cannot persist the state of project " + projectName), e);
+      } else {
+        throw Exceptions.sneakyThrow(_t);
+      }
+    } finally {
+      if (tmpFile!=null) {
+        tmpFile.delete();
+      }
+    }
+  }
+  
+  /**
+   * Computes the fingerprint of the given file. Returns <code>null</code> if the file cannot be read.
+   */
+  public ProjectStatePersister.FileFingerprint getFingerprint(final URI uri, final URIConverter uriConverter) {
+    return this.getFingerprint(uri, null, uriConverter);
+  }
+  
+  /**
+   * Computes the fingerprint of the given file. The content hash of the previous fingerprint is reused if the time
+   * stamp of the file has not changed, so only modified files are read. Returns <code>null</code> if the file cannot
+   * be read.
+   */
+  public ProjectStatePersister.FileFingerprint getFingerprint(final URI uri, final ProjectStatePersister.FileFingerprint previous, final URIConverter uriConverter) {
+    try {
+      final long timeStamp = this.getTimeStamp(uri, uriConverter);
+      if ((((previous != null) && (timeStamp != ProjectStatePersister.FileFingerprint.UNKNOWN_TIME_STAMP)) && (timeStamp == previous.getTimeStamp()))) {
+        return previous;
+      }
+      String _contentHash = this.getContentHash(uri, uriConverter);
+      return new ProjectStatePersister.FileFingerprint(timeStamp, _contentHash);
+    } catch (final Throwable _t) {
+      if (_t instanceof IOException) {
+        return null;
+      } else {
+        throw Exceptions.sneakyThrow(_t);
+      }
+    }
+  }
+  
+  /**
+   * Whether the given file still matches the fingerprint. The content is only hashed if the time stamp differs.
+   */
+  public boolean isUpToDate(final URI uri, final ProjectStatePersister.FileFingerprint fingerprint, final URIConverter uriConverter) {
+    if ((fingerprint == null)) {
+      return false;
+    }
+    try {
+      final long timeStamp = this.getTimeStamp(uri, uriConverter);
+      if (((timeStamp != ProjectStatePersister.FileFingerprint.UNKNOWN_TIME_STAMP) && (timeStamp == fingerprint.getTimeStamp()))) {
+        return true;
+      }
+      String _contentHash = this.getContentHash(uri, uriConverter);
+      String _contentHash_1 = fingerprint.getContentHash();
+      return Objects.equal(_contentHash, _contentHash_1);
+    } catch (final Throwable _t) {
+      if (_t instanceof IOException) {
+        return false;
+      } else {
+        throw Exceptions.sneakyThrow(_t);
+      }
+    }
+  }
+  
+  protected long getTimeStamp(final URI uri, final URIConverter uriConverter) {
+    Set<String> _unmodifiableSet = Collections.<String>unmodifiableSet(CollectionLiterals.<String>newHashSet(URIConverter.ATTRIBUTE_TIME_STAMP));
+    Pair<String, Set<String>> _mappedTo = Pair.<String, Set<String>>of(URIConverter.OPTION_REQUESTED_ATTRIBUTES, _unmodifiableSet);
+    final Map<String, Set<String>> options = Collections.<String, Set<String>>unmodifiableMap(CollectionLiterals.<String, Set<String>>newHashMap(_mappedTo));
+    final Object timeStamp = uriConverter.getAttributes(uri, options).get(URIConverter.ATTRIBUTE_TIME_STAMP);
+    if ((timeStamp instanceof Long)) {
+      return ((Long)timeStamp).longValue();
+    }
+    return ProjectStatePersister.FileFingerprint.UNKNOWN_TIME_STAMP;
+  }
+  
+  protected String getContentHash(final URI uri, final URIConverter uriConverter) throws IOException {
+    final InputStream in = uriConverter.createInputStream(uri);
+    try {
+      return Hashing.murmur3_128().hashBytes(ByteStreams.toByteArray(in)).toString();
+    } finally {
+      in.close();
+    }
+  }
+  
+  protected File getStateFile(final String projectName, final URI baseDir) {
+    final HashCode hash = Hashing.murmur3_32().hashString(String.valueOf(baseDir), StandardCharsets.UTF_8);
+    String _replaceAll = projectName.replaceAll("[^\\w.-]", "_");
+    String _plus = (_replaceAll + "-");
+    String _plus_1 = (_plus + hash);
+    String _plus_2 = (_plus_1 + ".index");
+    return new File(this.stateDirectory, _plus_2);
+  }
+  
+  protected void writeState(final ObjectOutput out, final ProjectStatePersister.PersistedState state, final CancelIndicator cancelIndicator) throws IOException {
+    final List<IResourceDescription> descriptions = IterableExtensions.<IResourceDescription>toList(state.getIndexState().getResourceDescriptions().getAllResourceDescriptions());
+    out.writeInt(descriptions.size());
+    for (final IResourceDescription description : descriptions) {
+      {
+        this.operationCanceledManager.checkCanceled(cancelIndicator);
+        if ((description instanceof Serializable)) {
+          out.writeObject(description);
+        } else {
+          out.writeObject(SerializableResourceDescription.createCopy(description));
+        }
+      }
+    }
+    state.getIndexState().getFileMappings().writeExternal(out);
+    out.writeInt(state.getFingerprints().size());
+    Set<Map.Entry<URI, ProjectStatePersister.FileFingerprint>> _entrySet = state.getFingerprints().entrySet();
+    for (final Map.Entry<URI, ProjectStatePersister.FileFingerprint> entry : _entrySet) {
+      {
+        this.writeString(out, entry.getKey().toString());
+        out.writeLong(entry.getValue().getTimeStamp());
+        this.writeString(out, entry.getValue().getContentHash());
+      }
+    }
+    out.writeInt(state.getValidationIssues().size());
+    Set<Map.Entry<URI, List<Issue>>> _entrySet_1 = state.getValidationIssues().entrySet();
+    for (final Map.Entry<URI, List<Issue>> entry_1 : _entrySet_1) {
+      {
+        this.writeString(out, entry_1.getKey().toString());
+        out.writeInt(entry_1.getValue().size());
+        List<Issue> _value = entry_1.getValue();
+        for (final Issue issue : _value) {
+          this.writeIssue(out, issue);
+        }
+      }
+    }
+  }
+  
+  protected ProjectStatePersister.PersistedState readState(final ObjectInput in) throws IOException, ClassNotFoundException {
+    final int numDescriptions = in.readInt();
+    final ArrayList<IResourceDescription> descriptions = CollectionLiterals.<IResourceDescription>newArrayList();
+    ExclusiveRange _doubleDotLessThan = new ExclusiveRange(0, numDescriptions, true);
+    for (final Integer i : _doubleDotLessThan) {
+      Object _readObject = in.readObject();
+      descriptions.add(((IResourceDescription) _readObject));
+    }
+    final Source2GeneratedMapping fileMappings = new Source2GeneratedMapping();
+    fileMappings.readExternal(in);
+    final int numFingerprints = in.readInt();
+    final HashMap<URI, ProjectStatePersister.FileFingerprint> fingerprints = CollectionLiterals.<URI, ProjectStatePersister.FileFingerprint>newHashMap();
+    ExclusiveRange _doubleDotLessThan_1 = new ExclusiveRange(0, numFingerprints, true);
+    for (final Integer i_1 : _doubleDotLessThan_1) {
+      URI _createURI = URI.createURI(this.readString(in));
+      long _readLong = in.readLong();
+      String _readString = this.readString(in);
+      ProjectStatePersister.FileFingerprint _fileFingerprint = new ProjectStatePersister.FileFingerprint(_readLong, _readString);
+      fingerprints.put(_createURI, _fileFingerprint);
+    }
+    final int numIssueEntries = in.readInt();
+    final HashMap<URI, List<Issue>> validationIssues = CollectionLiterals.<URI, List<Issue>>newHashMap();
+    ExclusiveRange _doubleDotLessThan_2 = new ExclusiveRange(0, numIssueEntries, true);
+    for (final Integer i_2 : _doubleDotLessThan_2) {
+      {
+        final URI uri = URI.createURI(this.readString(in));
+        final int numIssues = in.readInt();
+        final ArrayList<Issue> issues = CollectionLiterals.<Issue>newArrayList();
+        ExclusiveRange _doubleDotLessThan_3 = new ExclusiveRange(0, numIssues, true);
+        for (final Integer j : _doubleDotLessThan_3) {
+          issues.add(this.readIssue(in));
+        }
+        validationIssues.put(uri, issues);
+      }
+    }
+    PersistentResourceDescriptionsData _persistentResourceDescriptionsData = new PersistentResourceDescriptionsData(descriptions);
+    final IndexState indexState = new IndexState(_persistentResourceDescriptionsData, fileMappings);
+    return new ProjectStatePersister.PersistedState(indexState, fingerprints, validationIssues);
+  }
+  
+  protected void writeIssue(final ObjectOutput out, final Issue issue) throws IOException {
+    this.writeString(out, issue.getSeverity().name());
+    this.writeNullable(out, issue.getMessage());
+    this.writeNullable(out, issue.getCode());
+    CheckType _type = issue.getType();
+    String _name = null;
+    if (_type!=null) {
+      _name=_type.name();
+    }
+    this.writeNullable(out, _name);
+    URI _uriToProblem = issue.getUriToProblem();
+    String _string = null;
+    if (_uriToProblem!=null) {
+      _string=_uriToProblem.toString();
+    }
+    this.writeNullable(out, _string);
+    this.writeNullable(out, issue.getLineNumber());
+    this.writeNullable(out, issue.getColumn());
+    this.writeNullable(out, issue.getOffset());
+    this.writeNullable(out, issue.getLength());
+    out.writeBoolean(issue.isSyntaxError());
+    final String[] data = issue.getData();
+    int _xifexpression = (int) 0;
+    if ((data == null)) {
+      _xifexpression = (-1);
+    } else {
+      _xifexpression = data.length;
+    }
+    out.writeInt(_xifexpression);
+    if ((data != null)) {
+      for (final String value : data) {
+        this.writeString(out, value);
+      }
+    }
+  }
+  
+  protected Issue readIssue(final ObjectInput in) throws IOException {
+    final Issue.IssueImpl result = new Issue.IssueImpl();
+    result.setSeverity(Severity.valueOf(this.readString(in)));
+    result.setMessage(this.readNullableString(in));
+    result.setCode(this.readNullableString(in));
+    final String type = this.readNullableString(in);
+    if ((type != null)) {
+      result.setType(CheckType.valueOf(type));
+    }
+    final String uriToProblem = this.readNullableString(in);
+    if ((uriToProblem != null)) {
+      result.setUriToProblem(URI.createURI(uriToProblem));
+    }
+    result.setLineNumber(this.readNullableInteger(in));
+    result.setColumn(this.readNullableInteger(in));
+    result.setOffset(this.readNullableInteger(in));
+    result.setLength(this.readNullableInteger(in));
+    result.setSyntaxError(in.readBoolean());
+    final int dataLength = in.readInt();
+    if ((dataLength >= 0)) {
+      final String[] data = new String[dataLength];
+      ExclusiveRange _doubleDotLessThan = new ExclusiveRange(0, dataLength, true);
+      for (final Integer i : _doubleDotLessThan) {
+        data[(i).intValue()] = this.readString(in);
+      }
+      result.setData(data);
+    }
+    return result;
+  }
+  
+  /**
+   * Writes the string as length-prefixed UTF-8, since {@link ObjectOutput#writeUTF(String)} is limited to 64KB.
+   */
+  private void writeString(final ObjectOutput out, final String value) throws IOException {
+    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+  
+  private String readString(final ObjectInput in) throws IOException {
+    int _readInt = in.readInt();
+    final byte[] bytes = new byte[_readInt];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+  
+  private void writeNullable(final ObjectOutput out, final String value) throws IOException {
+    out.writeBoolean((value != null));
+    if ((value != null)) {
+      this.writeString(out, value);
+    }
+  }
+  
+  private void writeNullable(final ObjectOutput out, final Integer value) throws IOException {
+    out.writeBoolean((value != null));
+    if ((value != null)) {
+      out.writeInt((value).intValue());
+    }
+  }
+  
+  private String readNullableString(final ObjectInput in) throws IOException {
+    boolean _readBoolean = in.readBoolean();
+    if (_readBoolean) {
+      return this.readString(in);
+    }
+    return null;
+  }
+  
+  private Integer readNullableInteger(final ObjectInput in) throws IOException {
+    boolean _readBoolean = in.readBoolean();
+    if (_readBoolean) {
+      return Integer.valueOf(in.readInt());
+    }
+    return null;
+  }
+  
+  private final static Logger LOG = Logger.getLogger(ProjectStatePersister.class);
+}
@@ -16,6 +16,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import org.apache.log4j.Logger;
 import org.eclipse.emf.common.util.URI;
@@ -44,6 +45,7 @@ import org.eclipse.xtext.validation.Issue;
 import org.eclipse.xtext.workspace.IProjectConfig;
 import org.eclipse.xtext.workspace.IWorkspaceConfig;
 import org.eclipse.xtext.xbase.lib.CollectionLiterals;
+import org.eclipse.xtext.xbase.lib.Functions.Function0;
 import org.eclipse.xtext.xbase.lib.Functions.Function2;
 import org.eclipse.xtext.xbase.lib.Procedures.Procedure2;
 
@@ -79,7 +81,10 @@ public class WorkspaceManager {
     this.buildListeners.add(listener);
   }
   
-  private Map<String, ResourceDescriptionsData> fullIndex = CollectionLiterals.<String, ResourceDescriptionsData>newHashMap();
+  /**
+   * Each project publishes its index when it has been built, which may happen concurrently to reads.
+   */
+  private Map<String, ResourceDescriptionsData> fullIndex = new ConcurrentHashMap<String, ResourceDescriptionsData>();
   
   private Map<URI, Document> openDocuments = CollectionLiterals.<URI, Document>newHashMap();
   
@@ -213,6 +218,36 @@ public class WorkspaceManager {
     return new ArrayList<ProjectManager>(_values);
   }
   
+  /**
+   * Persists the state of all projects, see {@link #persistProjectStates(CancelIndicator)}.
+   * @since 2.13
+   */
+  public void persistProjectStates() {
+    this.persistProjectStates(CancelIndicator.NullImpl);
+  }
+  
+  /**
+   * Persists the state of all projects, see {@link ProjectManager#persistProjectState(Set, CancelIndicator)}. The
+   * files whose changes are still queued in the build manager are rebuilt after a restart.
+   * @since 2.13
+   */
+  public void persistProjectStates(final CancelIndicator cancelIndicator) {
+    final Set<URI> unbuiltFiles = this.buildManager.getUnbuiltFiles();
+    Collection<ProjectManager> _values = this.projectName2ProjectManager.values();
+    for (final ProjectManager projectManager : _values) {
+      projectManager.persistProjectState(unbuiltFiles, cancelIndicator);
+    }
+  }
+  
+  /**
+   * Persists the state of all projects once no change has been submitted for a while, see
+   * {@link BuildManager#persistWhenIdle(CancelIndicator)}.
+   * @since 2.13
+   */
+  public void persistProjectStatesWhenIdle(final CancelIndicator cancelIndicator) {
+    this.buildManager.persistWhenIdle(cancelIndicator);
+  }
+  
   public List<IResourceDescription.Delta> didChange(final URI uri, final int version, final Iterable<TextEdit> changes, final CancelIndicator cancelIndicator) {
     return this.didChange(uri, version, changes).build(cancelIndicator);
   }
@@ -271,17 +306,20 @@ public class WorkspaceManager {
   public <T extends Object> T doRead(final URI uri, final Function2<? super Document, ? super XtextResource, ? extends T> work) {
     final URI resourceURI = uri.trimFragment();
     final ProjectManager projectMnr = this.getProjectManager(resourceURI);
-    Resource _resource = null;
-    if (projectMnr!=null) {
-      _resource=projectMnr.getResource(resourceURI);
-    }
-    final XtextResource resource = ((XtextResource) _resource);
-    if ((resource == null)) {
+    if ((projectMnr == null)) {
       return work.apply(null, null);
     }
-    Document doc = this.getDocument(resource);
-    Resource _resource_1 = projectMnr.getResource(resourceURI);
-    return work.apply(doc, ((XtextResource) _resource_1));
+    final Function0<T> _function = () -> {
+      Resource _resource = projectMnr.getResource(resourceURI);
+      final XtextResource resource = ((XtextResource) _resource);
+      if ((resource == null)) {
+        return work.apply(null, null);
+      }
+      Document doc = this.getDocument(resource);
+      Resource _resource_1 = projectMnr.getResource(resourceURI);
+      return work.apply(doc, ((XtextResource) _resource_1));
+    };
+    return projectMnr.<T>doRead(_function);
   }
   
   protected Document getDocument(final XtextResource resource) {
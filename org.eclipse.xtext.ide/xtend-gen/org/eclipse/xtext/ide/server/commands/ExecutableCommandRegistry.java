@@ -9,6 +9,7 @@ package org.eclipse.xtext.ide.server.commands;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
+import com.google.inject.Inject;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -25,6 +26,7 @@ import org.eclipse.lsp4j.services.LanguageClient;
 import org.eclipse.xtend2.lib.StringConcatenation;
 import org.eclipse.xtext.ide.server.ILanguageServerAccess;
 import org.eclipse.xtext.ide.server.commands.IExecutableCommandService;
+import org.eclipse.xtext.ide.server.commands.MetricsCommandService;
 import org.eclipse.xtext.resource.IResourceServiceProvider;
 import org.eclipse.xtext.util.CancelIndicator;
 import org.eclipse.xtext.util.IDisposable;
@@ -47,6 +49,9 @@ public class ExecutableCommandRegistry {
   
   private LanguageClient client;
   
+  @Inject
+  private MetricsCommandService metricsCommandService;
+  
   public void initialize(final Iterable<? extends IResourceServiceProvider> allLanguages, final ClientCapabilities capabilites, final LanguageClient client) {
     this.client = client;
     this.registeredCommands = HashMultimap.<String, IExecutableCommandService>create();
@@ -55,19 +60,29 @@ public class ExecutableCommandRegistry {
       {
         final IExecutableCommandService service = lang.<IExecutableCommandService>get(IExecutableCommandService.class);
         if ((service != null)) {
-          final List<String> commands = service.initialize();
-          for (final String c : commands) {
-            this.registeredCommands.put(c, service);
-          }
-          if ((hasDynamicRegistration).booleanValue()) {
-            final Function1<String, IDisposable> _function = (String command) -> {
-              return this.register(command, service);
-            };
-            service.initializeDynamicRegistration(_function);
-          }
+          this.initialize(service, (hasDynamicRegistration).booleanValue());
         }
       }
     }
+    if ((this.metricsCommandService != null)) {
+      this.initialize(this.metricsCommandService, (hasDynamicRegistration).booleanValue());
+    }
+  }
+  
+  /**
+   * @since 2.13
+   */
+  protected void initialize(final IExecutableCommandService service, final boolean hasDynamicRegistration) {
+    final List<String> commands = service.initialize();
+    for (final String c : commands) {
+      this.registeredCommands.put(c, service);
+    }
+    if (hasDynamicRegistration) {
+      final Function1<String, IDisposable> _function = (String command) -> {
+        return this.register(command, service);
+      };
+      service.initializeDynamicRegistration(_function);
+    }
   }
   
   protected IDisposable register(final String command, final IExecutableCommandService service) {
@@ -0,0 +1,38 @@
+/**
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.xtext.ide.server.commands;
+
+import java.util.Collections;
+import java.util.List;
+import org.eclipse.lsp4j.ExecuteCommandParams;
+import org.eclipse.xtext.ide.server.ILanguageServerAccess;
+import org.eclipse.xtext.ide.server.commands.IExecutableCommandService;
+import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.util.Metrics;
+import org.eclipse.xtext.xbase.lib.CollectionLiterals;
+
+/**
+ * Provides the command that returns the {@link Metrics#getSnapshots() recorded metrics} of the language server. It is
+ * registered by the {@link ExecutableCommandRegistry} independently of the languages.
+ * 
+ * @since 2.13
+ */
+@SuppressWarnings("all")
+public class MetricsCommandService implements IExecutableCommandService {
+  public final static String COMMAND = "xtext.metrics";
+  
+  @Override
+  public List<String> initialize() {
+    return Collections.<String>unmodifiableList(CollectionLiterals.<String>newArrayList(MetricsCommandService.COMMAND));
+  }
+  
+  @Override
+  public Object execute(final ExecuteCommandParams params, final ILanguageServerAccess access, final CancelIndicator cancelIndicator) {
+    return Metrics.getSnapshots();
+  }
+}
@@ -9,10 +9,14 @@ package org.eclipse.xtext.ide.server.concurrent;
 
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
 import org.eclipse.xtend.lib.annotations.FinalFieldsConstructor;
 import org.eclipse.xtext.ide.server.concurrent.Cancellable;
 import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.xbase.lib.Exceptions;
 
 /**
  * @author kosyakov - Initial contribution and API
@@ -42,6 +46,27 @@ public class RequestCancelIndicator implements CancelIndicator, CancelChecker, C
     }
   }
   
+  /**
+   * Waits until the request is cancelled or completed, but at most for the given number of milliseconds.
+   * @since 2.13
+   */
+  public void await(final long milliseconds) {
+    try {
+      try {
+        this.requestFuture.get(milliseconds, TimeUnit.MILLISECONDS);
+      } catch (final Throwable _t) {
+        if (_t instanceof TimeoutException) {
+        } else if (_t instanceof CancellationException) {
+        } else if (_t instanceof ExecutionException) {
+        } else {
+          throw Exceptions.sneakyThrow(_t);
+        }
+      }
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
   public RequestCancelIndicator(final CompletableFuture<?> requestFuture) {
     super();
     this.requestFuture = requestFuture;
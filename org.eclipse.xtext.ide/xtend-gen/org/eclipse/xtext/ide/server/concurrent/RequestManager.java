@@ -33,7 +33,9 @@ import org.eclipse.xtext.xbase.lib.Functions.Function2;
  * <ul>
  *  <li>requests are processed in an insertion order;</li>
  * 	<li>write requests are executed exclusive;</li>
- *  <li>read requests are executed in parallel.</li>
+ *  <li>read requests are executed in parallel;</li>
+ *  <li>the cancellable part of a {@link #runWriteWithConcurrentReads write with concurrent reads}
+ *  is executed in parallel to read requests, but exclusive to other write requests.</li>
  * </ul>
  * </p>
  * 
@@ -56,6 +58,11 @@ public class RequestManager {
   
   private final CopyOnWriteArrayList<Cancellable> toCancel = new CopyOnWriteArrayList<Cancellable>();
   
+  /**
+   * The cancellable parts of the running write requests.
+   */
+  private final CopyOnWriteArrayList<Cancellable> writesToCancel = new CopyOnWriteArrayList<Cancellable>();
+  
   public void shutdown() {
     this.parallel.shutdown();
     this.cancel();
@@ -118,6 +125,7 @@ public class RequestManager {
             localWritePending.complete(null);
             final U intermediateResult = nonCancellable.apply();
             this.toCancel.add(cancelIndicator);
+            this.writesToCancel.add(cancelIndicator);
             cancelIndicator.checkCanceled();
             _xblockexpression_1 = result.complete(request.apply(cancelIndicator, intermediateResult));
           }
@@ -131,6 +139,7 @@ public class RequestManager {
           }
         } finally {
           this.toCancel.remove(cancelIndicator);
+          this.writesToCancel.remove(cancelIndicator);
           this.w.unlock();
         }
         _xblockexpression = _xtrycatchfinallyexpression;
@@ -141,6 +150,69 @@ public class RequestManager {
     return result;
   }
   
+  /**
+   * Runs a write request whose cancellable part does not need exclusive access. The non-cancellable part is
+   * executed exclusively, like in {@link #runWrite}. Afterwards the write only keeps other
+   * writes from running, and reads that are submitted in the meantime are executed concurrently with the
+   * cancellable part. The cancellable part has to guard the state that it modifies against these reads itself.
+   * <p>
+   * Running reads are not cancelled by such a write, only previous writes are.
+   * </p>
+   * <p>
+   * Once the non-cancellable part has been executed, the cancellable part is executed even if the write has been
+   * cancelled in the meantime, so it can release what the non-cancellable part has acquired. It has to check the
+   * cancel indicator itself.
+   * </p>
+   * @since 2.13
+   */
+  public <U extends Object, V extends Object> CompletableFuture<V> runWriteWithConcurrentReads(final Function0<? extends U> nonCancellable, final Function2<? super CancelIndicator, ? super U, ? extends V> request) {
+    final CompletableFuture<V> result = new CompletableFuture<V>();
+    final CompletableFuture<Void> localWritePending = new CompletableFuture<Void>();
+    this.writePending = localWritePending;
+    final Callable<Boolean> _function = () -> {
+      boolean _xblockexpression = false;
+      {
+        final RequestCancelIndicator cancelIndicator = new RequestCancelIndicator(result);
+        boolean _xtrycatchfinallyexpression = false;
+        try {
+          boolean _xblockexpression_1 = false;
+          {
+            this.cancelWrites();
+            this.w.lock();
+            U _xtrycatchfinallyexpression_1 = null;
+            try {
+              _xtrycatchfinallyexpression_1 = nonCancellable.apply();
+            } finally {
+              this.r.lock();
+              this.w.unlock();
+              localWritePending.complete(null);
+            }
+            final U intermediateResult = _xtrycatchfinallyexpression_1;
+            this.toCancel.add(cancelIndicator);
+            this.writesToCancel.add(cancelIndicator);
+            _xblockexpression_1 = result.complete(request.apply(cancelIndicator, intermediateResult));
+          }
+          _xtrycatchfinallyexpression = _xblockexpression_1;
+        } catch (final Throwable _t) {
+          if (_t instanceof Throwable) {
+            final Throwable e = (Throwable)_t;
+            _xtrycatchfinallyexpression = result.completeExceptionally(e);
+          } else {
+            throw Exceptions.sneakyThrow(_t);
+          }
+        } finally {
+          this.toCancel.remove(cancelIndicator);
+          this.writesToCancel.remove(cancelIndicator);
+          this.r.unlock();
+        }
+        _xblockexpression = _xtrycatchfinallyexpression;
+      }
+      return Boolean.valueOf(_xblockexpression);
+    };
+    this.parallel.<Boolean>submit(_function);
+    return result;
+  }
+  
   protected void cancel() {
     for (final Cancellable cancellable : this.toCancel) {
       {
@@ -150,6 +222,20 @@ public class RequestManager {
     }
   }
   
+  /**
+   * Cancels the running write requests, but not the read requests.
+   * @since 2.13
+   */
+  protected void cancelWrites() {
+    for (final Cancellable cancellable : this.writesToCancel) {
+      {
+        cancellable.cancel();
+        this.writesToCancel.remove(cancellable);
+        this.toCancel.remove(cancellable);
+      }
+    }
+  }
+  
   protected boolean isCancelException(final Throwable t) {
     if ((t == null)) {
       return false;
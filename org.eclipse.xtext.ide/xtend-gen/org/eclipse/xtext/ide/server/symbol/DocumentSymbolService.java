@@ -226,18 +226,27 @@ public class DocumentSymbolService {
     for (final IEObjectDescription description : _exportedObjects) {
       {
         this.operationCanceledManager.checkCanceled(cancelIndicator);
-        boolean _filter = this.filter(description, query);
-        if (_filter) {
-          final Procedure1<SymbolInformation> _function = (SymbolInformation symbol) -> {
-            symbols.add(symbol);
-          };
-          this.createSymbol(description, resourceAccess, _function);
-        }
+        final Procedure1<SymbolInformation> _function = (SymbolInformation symbol) -> {
+          symbols.add(symbol);
+        };
+        this.getSymbols(description, query, resourceAccess, _function);
       }
     }
     return symbols;
   }
   
+  /**
+   * Creates the symbols of the given exported object if it matches the query.
+   * 
+   * @since 2.13
+   */
+  public void getSymbols(final IEObjectDescription description, final String query, final IReferenceFinder.IResourceAccess resourceAccess, final Procedure1<? super SymbolInformation> acceptor) {
+    boolean _filter = this.filter(description, query);
+    if (_filter) {
+      this.createSymbol(description, resourceAccess, acceptor);
+    }
+  }
+  
   protected boolean filter(final IEObjectDescription description, final String query) {
     return description.getQualifiedName().toLowerCase().toString().contains(query.toLowerCase());
   }
@@ -7,21 +7,35 @@
  */
 package org.eclipse.xtext.ide.server.symbol;
 
+import com.google.common.base.Objects;
 import com.google.common.collect.Iterables;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.PriorityQueue;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EcorePackage;
 import org.eclipse.lsp4j.SymbolInformation;
 import org.eclipse.xtext.findReferences.IReferenceFinder;
 import org.eclipse.xtext.ide.server.symbol.DocumentSymbolService;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.resource.IEObjectDescription;
 import org.eclipse.xtext.resource.IResourceDescription;
 import org.eclipse.xtext.resource.IResourceDescriptions;
 import org.eclipse.xtext.resource.IResourceServiceProvider;
+import org.eclipse.xtext.resource.impl.ChunkedResourceDescriptions;
+import org.eclipse.xtext.resource.impl.ResourceDescriptionsData;
 import org.eclipse.xtext.service.OperationCanceledManager;
 import org.eclipse.xtext.util.CancelIndicator;
 import org.eclipse.xtext.xbase.lib.CollectionLiterals;
 import org.eclipse.xtext.xbase.lib.Extension;
+import org.eclipse.xtext.xbase.lib.ListExtensions;
 
 /**
  * @author kosyakov - Initial contribution and API
@@ -30,6 +44,11 @@ import org.eclipse.xtext.xbase.lib.Extension;
 @Singleton
 @SuppressWarnings("all")
 public class WorkspaceSymbolService {
+  /**
+   * @since 2.13
+   */
+  public final static int DEFAULT_SYMBOLS_LIMIT = 1000;
+  
   @Inject
   @Extension
   private IResourceServiceProvider.Registry _registry;
@@ -37,24 +56,192 @@ public class WorkspaceSymbolService {
   @Inject
   private OperationCanceledManager operationCanceledManager;
   
+  /**
+   * Returns the symbols whose qualified name contains the query. If the index provides {@link ResourceDescriptionsData
+   * indexed data}, the matching names are looked up in its {@link ResourceDescriptionsData#findExportedNames(String)
+   * name index}. Only the resources of the best matching names are asked for their symbols, until the
+   * {@link #getSymbolsLimit() limit} is reached.
+   */
   public List<? extends SymbolInformation> getSymbols(final String query, final IReferenceFinder.IResourceAccess resourceAccess, final IResourceDescriptions indexData, final CancelIndicator cancelIndicator) {
+    final Iterable<ResourceDescriptionsData> containers = this.getIndexedContainers(indexData);
+    if ((containers == null)) {
+      return this.getSymbolsOfAllResources(query, resourceAccess, indexData, cancelIndicator);
+    }
+    final ArrayList<SymbolInformation> result = CollectionLiterals.<SymbolInformation>newArrayList();
+    final HashSet<URI> resourceURIs = CollectionLiterals.<URI>newHashSet();
+    final Iterator<QualifiedName> names = this.findNames(query, containers, cancelIndicator).iterator();
+    while ((names.hasNext() && (result.size() < this.getSymbolsLimit()))) {
+      {
+        this.operationCanceledManager.checkCanceled(cancelIndicator);
+        final QualifiedName name = names.next();
+        for (final ResourceDescriptionsData container : containers) {
+          Iterable<IEObjectDescription> _exportedObjects = container.getExportedObjects(EcorePackage.Literals.EOBJECT, name, true);
+          for (final IEObjectDescription description : _exportedObjects) {
+            {
+              final URI resourceURI = description.getEObjectURI().trimFragment();
+              if (((result.size() < this.getSymbolsLimit()) && resourceURIs.add(resourceURI))) {
+                List<? extends SymbolInformation> _symbols = this.getSymbols(container.getResourceDescription(resourceURI), query, resourceAccess, cancelIndicator);
+                Iterables.<SymbolInformation>addAll(result, _symbols);
+              }
+            }
+          }
+        }
+      }
+    }
+    final String lowerCaseQuery = query.toLowerCase();
+    final Comparator<SymbolInformation> _function = (SymbolInformation a, SymbolInformation b) -> {
+      return this.compareMatches(a.getName().toLowerCase(), b.getName().toLowerCase(), lowerCaseQuery);
+    };
+    ListExtensions.<SymbolInformation>sortInplace(result, _function);
+    int _size = result.size();
+    int _symbolsLimit = this.getSymbolsLimit();
+    boolean _greaterThan = (_size > _symbolsLimit);
+    if (_greaterThan) {
+      return result.subList(0, this.getSymbolsLimit());
+    }
+    return result;
+  }
+  
+  /**
+   * Asks the service of each resource for its matching symbols. Used if the index does not provide indexed data.
+   * 
+   * @since 2.13
+   */
+  protected List<? extends SymbolInformation> getSymbolsOfAllResources(final String query, final IReferenceFinder.IResourceAccess resourceAccess, final IResourceDescriptions indexData, final CancelIndicator cancelIndicator) {
     final LinkedList<SymbolInformation> result = CollectionLiterals.<SymbolInformation>newLinkedList();
     Iterable<IResourceDescription> _allResourceDescriptions = indexData.getAllResourceDescriptions();
     for (final IResourceDescription resourceDescription : _allResourceDescriptions) {
       {
         this.operationCanceledManager.checkCanceled(cancelIndicator);
-        final IResourceServiceProvider resourceServiceProvider = this._registry.getResourceServiceProvider(resourceDescription.getURI());
-        DocumentSymbolService _get = null;
-        if (resourceServiceProvider!=null) {
-          _get=resourceServiceProvider.<DocumentSymbolService>get(DocumentSymbolService.class);
-        }
-        final DocumentSymbolService documentSymbolService = _get;
-        if ((documentSymbolService != null)) {
-          List<? extends SymbolInformation> _symbols = documentSymbolService.getSymbols(resourceDescription, query, resourceAccess, cancelIndicator);
-          Iterables.<SymbolInformation>addAll(result, _symbols);
+        List<? extends SymbolInformation> _symbols = this.getSymbols(resourceDescription, query, resourceAccess, cancelIndicator);
+        Iterables.<SymbolInformation>addAll(result, _symbols);
+      }
+    }
+    return result;
+  }
+  
+  /**
+   * Asks the {@link DocumentSymbolService} of the given resource for its matching symbols.
+   * 
+   * @since 2.13
+   */
+  protected List<? extends SymbolInformation> getSymbols(final IResourceDescription resourceDescription, final String query, final IReferenceFinder.IResourceAccess resourceAccess, final CancelIndicator cancelIndicator) {
+    final IResourceServiceProvider resourceServiceProvider = this._registry.getResourceServiceProvider(resourceDescription.getURI());
+    DocumentSymbolService _get = null;
+    if (resourceServiceProvider!=null) {
+      _get=resourceServiceProvider.<DocumentSymbolService>get(DocumentSymbolService.class);
+    }
+    final DocumentSymbolService documentSymbolService = _get;
+    if ((documentSymbolService == null)) {
+      return CollectionLiterals.<SymbolInformation>emptyList();
+    }
+    return documentSymbolService.getSymbols(resourceDescription, query, resourceAccess, cancelIndicator);
+  }
+  
+  /**
+   * Returns the indexed chunks of the given index, or <code>null</code> if it does not provide indexed data.
+   * 
+   * @since 2.13
+   */
+  protected Iterable<ResourceDescriptionsData> getIndexedContainers(final IResourceDescriptions indexData) {
+    Iterable<ResourceDescriptionsData> _switchResult = null;
+    boolean _matched = false;
+    if (indexData instanceof ResourceDescriptionsData) {
+      _matched=true;
+      _switchResult = Collections.<ResourceDescriptionsData>unmodifiableList(CollectionLiterals.<ResourceDescriptionsData>newArrayList(((ResourceDescriptionsData)indexData)));
+    }
+    if (!_matched) {
+      if (indexData instanceof ChunkedResourceDescriptions) {
+        _matched=true;
+        _switchResult = ((ChunkedResourceDescriptions)indexData).getContainers();
+      }
+    }
+    if (!_matched) {
+      _switchResult = null;
+    }
+    return _switchResult;
+  }
+  
+  /**
+   * Returns the lower-case names that contain the query, at most {@link #getSymbolsLimit()} many and ordered by
+   * {@link #compareMatches(String, String, String) relevance}.
+   * 
+   * @since 2.13
+   */
+  protected List<QualifiedName> findNames(final String query, final Iterable<ResourceDescriptionsData> containers, final CancelIndicator cancelIndicator) {
+    final String lowerCaseQuery = query.toLowerCase();
+    final Comparator<QualifiedName> _function = (QualifiedName a, QualifiedName b) -> {
+      return this.compareMatches(a.toString(), b.toString(), lowerCaseQuery);
+    };
+    final Comparator<QualifiedName> comparator = _function;
+    int _symbolsLimit = this.getSymbolsLimit();
+    int _plus = (_symbolsLimit + 1);
+    Comparator<QualifiedName> _reversed = comparator.reversed();
+    final PriorityQueue<QualifiedName> bestMatches = new PriorityQueue<QualifiedName>(_plus, _reversed);
+    final HashSet<QualifiedName> names = CollectionLiterals.<QualifiedName>newHashSet();
+    for (final ResourceDescriptionsData container : containers) {
+      {
+        this.operationCanceledManager.checkCanceled(cancelIndicator);
+        List<QualifiedName> _findExportedNames = container.findExportedNames(lowerCaseQuery);
+        for (final QualifiedName name : _findExportedNames) {
+          boolean _add = names.add(name);
+          if (_add) {
+            bestMatches.add(name);
+            int _size = bestMatches.size();
+            int _symbolsLimit_1 = this.getSymbolsLimit();
+            boolean _greaterThan = (_size > _symbolsLimit_1);
+            if (_greaterThan) {
+              bestMatches.poll();
+            }
+          }
         }
       }
     }
+    final ArrayList<QualifiedName> result = new ArrayList<QualifiedName>(bestMatches);
+    ListExtensions.<QualifiedName>sortInplace(result, comparator);
     return result;
   }
+  
+  /**
+   * Orders lower-case names: names that equal the query or whose last segment equals the query come first.
+   * Then names where the query occurs earlier, shorter names and finally names in alphabetical order. Names that do
+   * not contain the query come last.
+   * 
+   * @since 2.13
+   */
+  protected int compareMatches(final String a, final String b, final String lowerCaseQuery) {
+    final boolean exactA = this.isExactMatch(a, lowerCaseQuery);
+    final boolean exactB = this.isExactMatch(b, lowerCaseQuery);
+    if ((exactA != exactB)) {
+      int _xifexpression = (int) 0;
+      if (exactA) {
+        _xifexpression = (-1);
+      } else {
+        _xifexpression = 1;
+      }
+      return _xifexpression;
+    }
+    final int result = Integer.compareUnsigned(a.indexOf(lowerCaseQuery), b.indexOf(lowerCaseQuery));
+    if ((result != 0)) {
+      return result;
+    }
+    final int lengthResult = Integer.compare(a.length(), b.length());
+    if ((lengthResult != 0)) {
+      return lengthResult;
+    }
+    return a.compareTo(b);
+  }
+  
+  protected boolean isExactMatch(final String name, final String lowerCaseQuery) {
+    return (Objects.equal(name, lowerCaseQuery) || name.endsWith(("." + lowerCaseQuery)));
+  }
+  
+  /**
+   * The maximum number of symbols that are returned for a query.
+   * 
+   * @since 2.13
+   */
+  protected int getSymbolsLimit() {
+    return WorkspaceSymbolService.DEFAULT_SYMBOLS_LIMIT;
+  }
 }
@@ -129,6 +129,10 @@ abstract class AbstractLanguageServerTest implements Endpoint {
 					}
 					return result
 				}
+				
+				override <U,V> runWriteWithConcurrentReads(()=>U nonCancellable, (CancelIndicator, U)=>V request) {
+					return runWrite(nonCancellable, request)
+				}
 			})
 		])
 	}
@@ -26,6 +26,7 @@ import org.eclipse.xtext.resource.IResourceServiceProvider
 import org.eclipse.xtext.resource.XtextResourceSet
 import org.eclipse.xtext.resource.impl.ChunkedResourceDescriptions
 import org.eclipse.xtext.resource.impl.ProjectDescription
+import org.eclipse.xtext.resource.impl.ResourceDescriptionsData
 import org.eclipse.xtext.testing.util.InMemoryURIHandler
 import org.eclipse.xtext.validation.Issue
 import org.junit.Before
@@ -80,18 +81,7 @@ abstract class AbstractIncrementalBuilderTest {
 		val result = new BuildRequest => [
 			val newIndex = indexState.resourceDescriptions.copy()
 			baseDir = "".uri
-			resourceSet = resourceSetProvider.get => [
-				getURIConverter.getURIHandlers.clear
-				getURIConverter.getURIHandlers += inMemoryURIHandler
-				classpathURIContext = AbstractIncrementalBuilderTest.classLoader
-				
-				val projectDescription = new ProjectDescription => [
-					name = 'test-project'
-				]
-				projectDescription.attachToEmfObject(it)
-				val index = new ChunkedResourceDescriptions(emptyMap, it)
-				index.setContainer(projectDescription.name, newIndex)
-			]
+			resourceSet = createResourceSet(newIndex)
 			dirtyFiles = #[]
 			deletedFiles = #[]
 			
@@ -114,6 +104,24 @@ abstract class AbstractIncrementalBuilderTest {
 		return result
 	}
 	
+	/**
+	 * @since 2.13
+	 */
+	protected def XtextResourceSet createResourceSet(ResourceDescriptionsData newIndex) {
+		return resourceSetProvider.get => [
+			getURIConverter.getURIHandlers.clear
+			getURIConverter.getURIHandlers += inMemoryURIHandler
+			classpathURIContext = AbstractIncrementalBuilderTest.classLoader
+			
+			val projectDescription = new ProjectDescription => [
+				name = 'test-project'
+			]
+			projectDescription.attachToEmfObject(it)
+			val index = new ChunkedResourceDescriptions(emptyMap, it)
+			index.setContainer(projectDescription.name, newIndex)
+		]
+	}
+	
 	protected def URI delete(URI uri) {
 		inMemoryURIHandler.delete(uri, emptyMap)
 		return uri
@@ -238,6 +238,11 @@ public abstract class AbstractLanguageServerTest implements Endpoint {
           }
           return result;
         }
+        
+        @Override
+        public <U extends Object, V extends Object> CompletableFuture<V> runWriteWithConcurrentReads(final Function0<? extends U> nonCancellable, final Function2<? super CancelIndicator, ? super U, ? extends V> request) {
+          return this.<U, V>runWrite(nonCancellable, request);
+        }
       });
     };
     return Modules2.mixin(_serverModule, _function);
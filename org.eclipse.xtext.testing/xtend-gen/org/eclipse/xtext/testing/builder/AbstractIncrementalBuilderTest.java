@@ -124,39 +124,22 @@ public abstract class AbstractIncrementalBuilderTest {
     final Procedure1<BuildRequest> _function = (BuildRequest it) -> {
       final ResourceDescriptionsData newIndex = this.indexState.getResourceDescriptions().copy();
       it.setBaseDir(this.uri(""));
-      XtextResourceSet _get = this.resourceSetProvider.get();
-      final Procedure1<XtextResourceSet> _function_1 = (XtextResourceSet it_1) -> {
-        it_1.getURIConverter().getURIHandlers().clear();
-        EList<URIHandler> _uRIHandlers = it_1.getURIConverter().getURIHandlers();
-        _uRIHandlers.add(this.inMemoryURIHandler);
-        it_1.setClasspathURIContext(AbstractIncrementalBuilderTest.class.getClassLoader());
-        ProjectDescription _projectDescription = new ProjectDescription();
-        final Procedure1<ProjectDescription> _function_2 = (ProjectDescription it_2) -> {
-          it_2.setName("test-project");
-        };
-        final ProjectDescription projectDescription = ObjectExtensions.<ProjectDescription>operator_doubleArrow(_projectDescription, _function_2);
-        projectDescription.attachToEmfObject(it_1);
-        Map<String, ResourceDescriptionsData> _emptyMap = CollectionLiterals.<String, ResourceDescriptionsData>emptyMap();
-        final ChunkedResourceDescriptions index = new ChunkedResourceDescriptions(_emptyMap, it_1);
-        index.setContainer(projectDescription.getName(), newIndex);
-      };
-      XtextResourceSet _doubleArrow = ObjectExtensions.<XtextResourceSet>operator_doubleArrow(_get, _function_1);
-      it.setResourceSet(_doubleArrow);
+      it.setResourceSet(this.createResourceSet(newIndex));
       it.setDirtyFiles(Collections.<URI>unmodifiableList(CollectionLiterals.<URI>newArrayList()));
       it.setDeletedFiles(Collections.<URI>unmodifiableList(CollectionLiterals.<URI>newArrayList()));
-      final BuildRequest.IPostValidationCallback _function_2 = (URI uri, Iterable<Issue> issues) -> {
+      final BuildRequest.IPostValidationCallback _function_1 = (URI uri, Iterable<Issue> issues) -> {
         Iterables.<Issue>addAll(this.issues, issues);
         return IterableExtensions.isEmpty(issues);
       };
-      it.setAfterValidate(_function_2);
-      final Procedure1<URI> _function_3 = (URI it_1) -> {
+      it.setAfterValidate(_function_1);
+      final Procedure1<URI> _function_2 = (URI it_1) -> {
         this.deleted.add(it_1);
       };
-      it.setAfterDeleteFile(_function_3);
-      final Procedure2<URI, URI> _function_4 = (URI source, URI target) -> {
+      it.setAfterDeleteFile(_function_2);
+      final Procedure2<URI, URI> _function_3 = (URI source, URI target) -> {
         this.generated.put(source, target);
       };
-      it.setAfterGenerateFile(_function_4);
+      it.setAfterGenerateFile(_function_3);
       Source2GeneratedMapping _copy = this.indexState.getFileMappings().copy();
       IndexState _indexState = new IndexState(newIndex, _copy);
       it.setState(_indexState);
@@ -166,6 +149,29 @@ public abstract class AbstractIncrementalBuilderTest {
     return result;
   }
   
+  /**
+   * @since 2.13
+   */
+  protected XtextResourceSet createResourceSet(final ResourceDescriptionsData newIndex) {
+    XtextResourceSet _get = this.resourceSetProvider.get();
+    final Procedure1<XtextResourceSet> _function = (XtextResourceSet it) -> {
+      it.getURIConverter().getURIHandlers().clear();
+      EList<URIHandler> _uRIHandlers = it.getURIConverter().getURIHandlers();
+      _uRIHandlers.add(this.inMemoryURIHandler);
+      it.setClasspathURIContext(AbstractIncrementalBuilderTest.class.getClassLoader());
+      ProjectDescription _projectDescription = new ProjectDescription();
+      final Procedure1<ProjectDescription> _function_1 = (ProjectDescription it_1) -> {
+        it_1.setName("test-project");
+      };
+      final ProjectDescription projectDescription = ObjectExtensions.<ProjectDescription>operator_doubleArrow(_projectDescription, _function_1);
+      projectDescription.attachToEmfObject(it);
+      Map<String, ResourceDescriptionsData> _emptyMap = CollectionLiterals.<String, ResourceDescriptionsData>emptyMap();
+      final ChunkedResourceDescriptions index = new ChunkedResourceDescriptions(_emptyMap, it);
+      index.setContainer(projectDescription.getName(), newIndex);
+    };
+    return ObjectExtensions.<XtextResourceSet>operator_doubleArrow(_get, _function);
+  }
+  
   protected URI delete(final URI uri) {
     try {
       this.inMemoryURIHandler.delete(uri, CollectionLiterals.<Object, Object>emptyMap());
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.build;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.emf.ecore.resource.impl.ExtensibleURIConverterImpl;
+import org.eclipse.xtext.testing.util.InMemoryURIHandler;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.ByteStreams;
+
+public class GeneratedFileWriterTest {
+
+	private URIConverter converter;
+
+	private BuildRequest request;
+
+	@Before
+	public void setUp() {
+		converter = new ExtensibleURIConverterImpl();
+		converter.getURIHandlers().clear();
+		converter.getURIHandlers().add(new InMemoryURIHandler());
+		request = new BuildRequest();
+	}
+
+	@Test
+	public void testUnchangedFilesAreSkipped() throws Exception {
+		GeneratedFileWriter writer = new GeneratedFileWriter(request);
+		writer.write(converter, uri("A.txt"), bytes("a"));
+		writer.write(converter, uri("A.txt"), bytes("a"));
+		writer.close();
+		assertEquals(1, writer.getWrittenFiles());
+		assertEquals(1, writer.getSkippedFiles());
+		assertEquals("a", read(uri("A.txt")));
+	}
+
+	@Test
+	public void testChangedFilesAreWritten() throws Exception {
+		GeneratedFileWriter writer = new GeneratedFileWriter(request);
+		writer.write(converter, uri("A.txt"), bytes("a"));
+		writer.write(converter, uri("A.txt"), bytes("b"));
+		writer.close();
+		assertEquals(2, writer.getWrittenFiles());
+		assertEquals("b", read(uri("A.txt")));
+	}
+
+	@Test
+	public void testFilesChangedOnDiskAreWritten() throws Exception {
+		GeneratedFileWriter writer = new GeneratedFileWriter(request);
+		writer.write(converter, uri("A.txt"), bytes("a"));
+		write(uri("A.txt"), "modified");
+		writer.write(converter, uri("A.txt"), bytes("a"));
+		converter.delete(uri("A.txt"), null);
+		writer.write(converter, uri("A.txt"), bytes("a"));
+		writer.close();
+		assertEquals(3, writer.getWrittenFiles());
+		assertEquals(0, writer.getSkippedFiles());
+		assertEquals("a", read(uri("A.txt")));
+	}
+
+	@Test
+	public void testWriteBehind() throws Exception {
+		request.setWriteBehind(true);
+		GeneratedFileWriter writer = new GeneratedFileWriter(request);
+		int files = GeneratedFileWriter.CAPACITY * 3;
+		for (int i = 0; i < files; i++)
+			writer.write(converter, uri(i + ".txt"), bytes("content " + i));
+		writer.write(converter, uri("0.txt"), bytes("content 0"));
+		writer.close();
+		assertEquals(files, writer.getWrittenFiles());
+		assertEquals(1, writer.getSkippedFiles());
+		for (int i = 0; i < files; i++)
+			assertEquals("content " + i, read(uri(i + ".txt")));
+	}
+
+	@Test
+	public void testWriteBehindFailure() throws Exception {
+		request.setWriteBehind(true);
+		GeneratedFileWriter writer = new GeneratedFileWriter(request);
+		writer.write(new ExtensibleURIConverterImpl(), URI.createURI("unknown:/A.txt"), bytes("a"));
+		try {
+			writer.close();
+			fail();
+		} catch (Exception e) {
+			assertTrue(e.toString(), e instanceof IOException);
+		}
+	}
+
+	@Test
+	public void testContentHashIsPersisted() throws Exception {
+		Source2GeneratedMapping mapping = new Source2GeneratedMapping();
+		mapping.addSource2Generated(uri("A.src"), uri("A.txt"));
+		mapping.addSource2Generated(uri("A.src"), uri("B.txt"));
+		mapping.setContentHash(uri("A.txt"), 42L);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		mapping.writeExternal(out);
+		out.close();
+		Source2GeneratedMapping copy = new Source2GeneratedMapping();
+		copy.readExternal(new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		assertEquals(Long.valueOf(42L), copy.getContentHash(uri("A.txt")));
+		assertNull(copy.getContentHash(uri("B.txt")));
+		copy.deleteGenerated(uri("A.txt"));
+		assertNull(copy.getContentHash(uri("A.txt")));
+		assertEquals(Long.valueOf(42L), mapping.getContentHash(uri("A.txt")));
+	}
+
+	@Test
+	public void testMappingWithoutContentHashesIsRead() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeInt(1);
+		out.writeUTF(uri("A.src").toString());
+		out.writeInt(1);
+		out.writeUTF(uri("A.txt").toString());
+		out.writeUTF("DEFAULT_OUTPUT");
+		out.close();
+		Source2GeneratedMapping mapping = new Source2GeneratedMapping();
+		mapping.readExternal(new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		assertEquals(Collections.singletonList(uri("A.txt")), mapping.getGenerated(uri("A.src")));
+		assertNull(mapping.getContentHash(uri("A.txt")));
+	}
+
+	protected URI uri(String path) {
+		return URI.createURI(InMemoryURIHandler.SCHEME + ":/src-gen/" + path);
+	}
+
+	protected byte[] bytes(String content) {
+		return content.getBytes(Charsets.UTF_8);
+	}
+
+	protected void write(URI uri, String content) throws IOException {
+		OutputStream out = converter.createOutputStream(uri);
+		try {
+			out.write(bytes(content));
+		} finally {
+			out.close();
+		}
+	}
+
+	protected String read(URI uri) throws IOException {
+		InputStream in = converter.createInputStream(uri);
+		try {
+			return new String(ByteStreams.toByteArray(in), Charsets.UTF_8);
+		} finally {
+			in.close();
+		}
+	}
+
+}
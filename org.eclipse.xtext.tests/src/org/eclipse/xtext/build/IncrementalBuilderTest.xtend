@@ -73,6 +73,31 @@ class IncrementalBuilderTest extends AbstractIncrementalBuilderTest {
 		
 	}
 	
+	@Test def void testValidateAndGenerateAfterIndexOnlyBuild() {
+		val buildRequest = newBuildRequest [
+			dirtyFiles = #[
+				'src/MyFile.indextestlanguage' - '''
+					foo {
+						entity B {}
+						entity A { foo.B myReference }
+					}
+				'''
+			]
+			indexOnly = true
+		]
+		build(buildRequest)
+		assertTrue(generated.isEmpty)
+		assertNotNull(indexState.resourceDescriptions.getResourceDescription(uri('src/MyFile.indextestlanguage')))
+		
+		val validationRequest = newBuildRequest [
+			dirtyFiles = #[uri('src/MyFile.indextestlanguage')]
+		]
+		incrementalBuilder.validateAndGenerate(validationRequest, [languages.getResourceServiceProvider(it)])
+		assertTrue(issues.toString, issues.isEmpty)
+		assertEquals(2, generated.size)
+		assertTrue(generated.values.containsSuffix('src-gen/B.txt', 'src-gen/A.txt'))
+	}
+	
 	@Test def void testGeneratedOnceBuild() {
 		val buildRequest = newBuildRequest [
 			withOutputConfig [
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.build
+
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import org.eclipse.xtext.generator.OutputConfigurationAdapter
+import org.eclipse.xtext.index.IndexTestLanguageInjectorProvider
+import org.eclipse.xtext.testing.InjectWith
+import org.eclipse.xtext.testing.XtextRunner
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+
+import static org.junit.Assert.*
+
+/**
+ * Runs the {@link IncrementalBuilderTest incremental builder tests} with parallel builds.
+ */
+@RunWith(XtextRunner)
+@InjectWith(IndexTestLanguageInjectorProvider)
+class ParallelIncrementalBuilderTest extends IncrementalBuilderTest {
+
+	ExecutorService executorService
+
+	@Before def void createExecutorService() {
+		executorService = Executors.newFixedThreadPool(4)
+	}
+
+	@After def void shutdownExecutorService() {
+		executorService.shutdown
+	}
+
+	override protected newBuildRequest((BuildRequest)=>void init) {
+		val result = super.newBuildRequest(init)
+		result.executorService = executorService
+		result.workerResourceSetProvider = [
+			createResourceSet(result.state.resourceDescriptions) => [
+				eAdapters += result.resourceSet.eAdapters.filter(OutputConfigurationAdapter).toList
+			]
+		]
+		return result
+	}
+
+	@Test def void testDeltasAreOrdered() {
+		val files = (0 ..< 50).map [
+			'src/File' + it + '.indextestlanguage' - '''
+				foo {
+					entity Ait { foo.A(it + 1) % 50 reference }
+				}
+			'''
+		].toList
+		val result = incrementalBuilder.build(newBuildRequest [
+			dirtyFiles = files
+		], [languages.getResourceServiceProvider(it)])
+		assertTrue(issues.toString, issues.isEmpty)
+		assertEquals(files, result.affectedResources.map[uri])
+		assertEquals(50, generated.size)
+		assertEquals(50, result.indexState.resourceDescriptions.allResourceDescriptions.size)
+	}
+}
@@ -21,8 +21,12 @@ import static org.junit.Assert.*
  */
 class RegionSetTest {
 
+	def protected TextSegmentSet<ITextSegment> createTextSegmentSet() {
+		new ArrayListTextSegmentSet(Functions.identity, Functions.toStringFunction, true)
+	}
+
 	def private void test(CharSequence expectation, (TestableTextSegmentSet)=>void test) {
-		val set = new TestableTextSegmentSet(new ArrayListTextSegmentSet(Functions.identity, Functions.toStringFunction, true))
+		val set = new TestableTextSegmentSet(createTextSegmentSet)
 		try {
 			test.apply(set)
 		} catch (Throwable t) {
@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.formatting2.internal
+
+import com.google.common.base.Functions
+import java.util.Random
+import org.eclipse.xtext.formatting2.regionaccess.ITextSegment
+import org.eclipse.xtext.formatting2.regionaccess.internal.TextSegment
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class TreeRegionSetTest extends RegionSetTest {
+
+	override protected TextSegmentSet<ITextSegment> createTextSegmentSet() {
+		new TreeTextSegmentSet(Functions.identity, Functions.toStringFunction, true)
+	}
+
+	@Test def void testSameAsArrayList() {
+		val random = new Random(42)
+		val expected = new TestableTextSegmentSet(super.createTextSegmentSet)
+		val actual = new TestableTextSegmentSet(createTextSegmentSet)
+		for (i : 0 ..< 2000) {
+			val segment = new TextSegment(null, random.nextInt(1000), random.nextInt(4))
+			expected.add(segment)
+			actual.add(segment)
+		}
+		assertEquals(expected.toString, actual.toString)
+	}
+
+	@Test def void testIteratorAfter() {
+		val set = createTextSegmentSet
+		for (i : 0 ..< 10) {
+			set.add(new TextSegment(null, 90 - i * 10, 1))
+		}
+		val iterator = set.iteratorAfter(new TextSegment(null, 40, 1))
+		assertEquals(50, iterator.next.offset)
+		assertEquals(60, iterator.next.offset)
+		assertFalse(set.iteratorAfter(new TextSegment(null, 45, 1)).hasNext)
+	}
+}
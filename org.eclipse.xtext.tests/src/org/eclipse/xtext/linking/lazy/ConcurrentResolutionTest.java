@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.linking.lazy;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.util.InternalEList;
+import org.eclipse.xtext.linking.impl.ImportedNamesAdapter;
+import org.eclipse.xtext.linking.lazy.lazyLinking.LazyLinkingPackage;
+import org.eclipse.xtext.linking.lazy.lazyLinking.Model;
+import org.eclipse.xtext.linking.lazy.lazyLinking.Property;
+import org.eclipse.xtext.linking.lazy.lazyLinking.Type;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.scoping.IScope;
+import org.eclipse.xtext.scoping.impl.AbstractGlobalScopeDelegatingScopeProvider;
+import org.eclipse.xtext.tests.AbstractXtextTests;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class ConcurrentResolutionTest extends AbstractXtextTests {
+
+	private static final int TYPES = 200;
+
+	private static final int THREADS = 4;
+
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		with(new LazyLinkingTestLanguageStandaloneSetup());
+	}
+
+	@Test public void testConcurrentResolution() throws Exception {
+		StringBuilder model = new StringBuilder();
+		for (int i = 0; i < TYPES; i++) {
+			model.append("type T").append(i).append(" { T").append((i + 1) % TYPES).append(" next; Unknown unknown; }\n");
+		}
+		final LazyLinkingResource resource = (LazyLinkingResource) getResourceFromStringAndExpect(model.toString(), TYPES);
+		resource.setConcurrentResolution(true);
+		resource.relink();
+		assertTrue(resource.getErrors().isEmpty());
+		final List<Property> properties = Lists.newArrayList();
+		for (Type type : ((Model) resource.getContents().get(0)).getTypes()) {
+			properties.addAll(type.getProperties());
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<List<EObject>>> futures = Lists.newArrayList();
+			for (int i = 0; i < THREADS; i++) {
+				futures.add(executor.submit(new Callable<List<EObject>>() {
+					@Override
+					public List<EObject> call() throws Exception {
+						List<EObject> result = Lists.newArrayList();
+						for (Property property : properties) {
+							String fragment = ((InternalEObject) getFirstType(property)).eProxyURI().fragment();
+							result.add(resource.getEObject(fragment));
+						}
+						return result;
+					}
+				}));
+			}
+			List<Type> types = ((Model) resource.getContents().get(0)).getTypes();
+			for (Future<List<EObject>> future : futures) {
+				List<EObject> resolved = future.get();
+				for (int i = 0; i < TYPES; i++) {
+					assertSame(types.get((i + 1) % TYPES), resolved.get(2 * i));
+					assertNull(resolved.get(2 * i + 1));
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(TYPES, resource.getErrors().size());
+	}
+
+	@Test public void testConcurrentImportedNames() throws Exception {
+		StringBuilder model = new StringBuilder();
+		for (int i = 0; i < TYPES; i++) {
+			model.append("type T").append(i).append(" { U").append(i).append(" unknown; }\n");
+		}
+		final LazyLinkingResource resource = (LazyLinkingResource) getResourceFromStringAndExpect(model.toString(), TYPES);
+		resource.setConcurrentResolution(true);
+		resource.relink();
+		ImportedNamesAdapter adapter = ImportedNamesAdapter.find(resource);
+		adapter.clear();
+		final List<Type> types = ((Model) resource.getContents().get(0)).getTypes();
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<?>> futures = Lists.newArrayList();
+			for (int i = 0; i < THREADS; i++) {
+				final int thread = i;
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						// each name is only looked up by one thread
+						for (int j = thread; j < TYPES; j += THREADS) {
+							Property property = types.get(j).getProperties().get(0);
+							resource.getEObject(((InternalEObject) getFirstType(property)).eProxyURI().fragment());
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		for (int i = 0; i < TYPES; i++) {
+			assertTrue("u" + i, adapter.getImportedNames().contains(QualifiedName.create("u" + i)));
+		}
+	}
+
+	@Test public void testScopeWrapperPerThread() throws Exception {
+		final AbstractGlobalScopeDelegatingScopeProvider scopeProvider = new AbstractGlobalScopeDelegatingScopeProvider() {
+			@Override
+			public IScope getScope(EObject context, EReference reference) {
+				return wrap(IScope.NULLSCOPE);
+			}
+		};
+		scopeProvider.setWrapper(new ImportedNamesAdapter());
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					scopeProvider.setWrapper(new ImportedNamesAdapter());
+					scopeProvider.setWrapper(null);
+					return null;
+				}
+			}).get();
+		} finally {
+			executor.shutdown();
+		}
+		assertTrue(scopeProvider.getScope(null, null) instanceof ImportedNamesAdapter.WrappingScope);
+	}
+
+	protected EObject getFirstType(Property property) {
+		@SuppressWarnings("unchecked")
+		InternalEList<EObject> types = (InternalEList<EObject>) property.eGet(LazyLinkingPackage.Literals.PROPERTY__TYPE, false);
+		return types.basicGet(0);
+	}
+
+}
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.linking.lazy;
+
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.util.InternalEList;
+import org.eclipse.xtext.linking.lazy.lazyLinking.LazyLinkingPackage;
+import org.eclipse.xtext.linking.lazy.lazyLinking.Model;
+import org.eclipse.xtext.linking.lazy.lazyLinking.Property;
+import org.eclipse.xtext.linking.lazy.lazyLinking.Type;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.resource.EObjectDescription;
+import org.eclipse.xtext.resource.IEObjectDescription;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.scoping.IScope;
+import org.eclipse.xtext.scoping.IScopeProvider;
+import org.eclipse.xtext.scoping.impl.SimpleScope;
+import org.eclipse.xtext.tests.AbstractXtextTests;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+public class IncrementalLinkingTest extends AbstractXtextTests {
+
+	private static final String MODEL = "type A {}\ntype B {}\ntype C { A a; }\ntype D { B b; }\n";
+
+	/**
+	 * Only the types of properties do not affect any scope.
+	 */
+	public static class IncrementalLinkingResource extends LazyLinkingResource {
+		@Override
+		protected boolean isScopeRelevant(EReference reference) {
+			return reference != LazyLinkingPackage.Literals.PROPERTY__TYPE;
+		}
+	}
+
+	/**
+	 * Also provides the properties of the indirect super types.
+	 */
+	public static class InheritingScopeProvider extends LazyLinkingTestLanguageScopeProvider {
+		@Override
+		public IScope scope_Property(Type t, EReference ref) {
+			List<IEObjectDescription> properties = Lists.newArrayList();
+			Set<Type> visited = Sets.newHashSet();
+			for (Type type = t.getExtends(); type != null && visited.add(type); type = type.getExtends()) {
+				for (Property property : type.getProperties())
+					properties.add(EObjectDescription.create(QualifiedName.create(property.getName()), property));
+			}
+			return new SimpleScope(IScope.NULLSCOPE, properties);
+		}
+	}
+
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		with(new LazyLinkingTestLanguageStandaloneSetup() {
+			@Override
+			public Injector createInjector() {
+				return Guice.createInjector(new LazyLinkingTestLanguageRuntimeModule() {
+					@Override
+					public Class<? extends XtextResource> bindXtextResource() {
+						return IncrementalLinkingResource.class;
+					}
+
+					@Override
+					public Class<? extends IScopeProvider> bindIScopeProvider() {
+						return InheritingScopeProvider.class;
+					}
+				});
+			}
+		});
+	}
+
+	@Override
+	protected boolean shouldTestSerializer(XtextResource resource) {
+		return false;
+	}
+
+	@Test public void testUnchangedReferencesAreKept() throws Exception {
+		LazyLinkingResource resource = getIncrementalResource(MODEL);
+		Model model = (Model) resource.getContents().get(0);
+		Type a = model.getTypes().get(0);
+		resource.update(MODEL.indexOf("B b;"), 1, "A");
+		assertSame(model, resource.getContents().get(0));
+		Property unchanged = model.getTypes().get(2).getProperties().get(0);
+		EObject unchangedType = getFirstType(unchanged);
+		assertFalse(unchangedType.eIsProxy());
+		assertSame(a, unchangedType);
+		Property changed = model.getTypes().get(3).getProperties().get(0);
+		assertTrue(getFirstType(changed).eIsProxy());
+		assertSame(a, changed.getType().get(0));
+		assertTrue(resource.getErrors().isEmpty());
+	}
+
+	@Test public void testUnresolvedReferencesAreReported() throws Exception {
+		LazyLinkingResource resource = getIncrementalResource(MODEL);
+		Model model = (Model) resource.getContents().get(0);
+		resource.update(MODEL.indexOf("B b;"), 1, "X");
+		Property changed = model.getTypes().get(3).getProperties().get(0);
+		assertTrue(changed.getType().get(0).eIsProxy());
+		assertEquals(1, resource.getErrors().size());
+		assertFalse(getFirstType(model.getTypes().get(2).getProperties().get(0)).eIsProxy());
+	}
+
+	@Test public void testChangedNamesRelinkAll() throws Exception {
+		LazyLinkingResource resource = getIncrementalResource(MODEL);
+		Model model = (Model) resource.getContents().get(0);
+		resource.update(MODEL.indexOf("b;"), 1, "c");
+		assertTrue(getFirstType(model.getTypes().get(2).getProperties().get(0)).eIsProxy());
+		EcoreUtil.resolveAll(resource);
+		assertTrue(resource.getErrors().isEmpty());
+	}
+
+	@Test public void testChangedSuperTypeRelinksAll() throws Exception {
+		String model = "type A { A a; }\ntype D { D d; }\ntype B extends A.a {}\ntype C extends B.a {}\ntype E extends C.a {}\n";
+		LazyLinkingResource resource = getIncrementalResource(model);
+		resource.update(model.indexOf("A.a"), 3, "D.d");
+		EcoreUtil.resolveAll(resource);
+		List<Type> types = ((Model) resource.getContents().get(0)).getTypes();
+		assertFalse(types.get(2).getParentId().eIsProxy());
+		assertTrue(types.get(3).getParentId().eIsProxy());
+		// E does not refer to B, but its scope contains the properties of B's super type
+		assertTrue(types.get(4).getParentId().eIsProxy());
+		assertEquals(2, resource.getErrors().size());
+	}
+
+	@Test public void testProxyInformationIsReused() throws Exception {
+		LazyLinkingResource resource = getIncrementalResource(MODEL);
+		LazyURIEncoder encoder = new LazyURIEncoder() {
+			@Override
+			public boolean isUseIndexFragment(Resource context) {
+				return true;
+			}
+		};
+		getInjector().injectMembers(encoder);
+		resource.setEncoder(encoder);
+		((LazyLinker) resource.getLinker()).setEncoder(encoder);
+		Model model = (Model) resource.getContents().get(0);
+		int offset = MODEL.indexOf("B b;");
+		resource.update(offset, 1, "A");
+		String fragment = EcoreUtil.getURI(getFirstType(model.getTypes().get(3).getProperties().get(0))).fragment();
+		for (int i = 0; i < 10; i++) {
+			resource.update(offset, 1, i % 2 == 0 ? "B" : "A");
+		}
+		assertEquals(fragment, EcoreUtil.getURI(getFirstType(model.getTypes().get(3).getProperties().get(0))).fragment());
+		EcoreUtil.resolveAll(resource);
+		assertSame(model.getTypes().get(0), model.getTypes().get(3).getProperties().get(0).getType().get(0));
+		assertTrue(resource.getErrors().isEmpty());
+	}
+
+	@Test public void testDisabledByDefault() throws Exception {
+		LazyLinkingResource resource = (LazyLinkingResource) getResourceFromString(MODEL);
+		assertFalse(resource.isIncrementalLinking());
+		EcoreUtil.resolveAll(resource);
+		Model model = (Model) resource.getContents().get(0);
+		resource.update(MODEL.indexOf("B b;"), 1, "A");
+		assertTrue(getFirstType(model.getTypes().get(2).getProperties().get(0)).eIsProxy());
+	}
+
+	protected LazyLinkingResource getIncrementalResource(String model) throws Exception {
+		LazyLinkingResource resource = (LazyLinkingResource) getResourceFromString(model);
+		resource.setIncrementalLinking(true);
+		EcoreUtil.resolveAll(resource);
+		assertTrue(resource.getErrors().isEmpty());
+		return resource;
+	}
+
+	protected EObject getFirstType(Property property) {
+		@SuppressWarnings("unchecked")
+		InternalEList<EObject> types = (InternalEList<EObject>) property.eGet(LazyLinkingPackage.Literals.PROPERTY__TYPE, false);
+		return types.basicGet(0);
+	}
+
+}
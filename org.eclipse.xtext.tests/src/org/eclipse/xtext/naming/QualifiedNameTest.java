@@ -222,4 +222,44 @@ public class QualifiedNameTest extends Assert {
 		assertEquals(null, wrapper.apply(null));
 		assertEquals("foo", wrapper.apply("foo").getLastSegment());
 	}
+	
+	@Test public void testIntern() {
+		// a name that is not interned by other tests
+		QualifiedName first = QualifiedName.create("testIntern", new String("First"));
+		QualifiedName second = QualifiedName.create("testIntern", new String("First"));
+		String firstSegment = first.getLastSegment();
+		QualifiedName canonical = first.intern();
+		assertNotSame(first, canonical);
+		// the interned instance is a copy
+		assertSame(firstSegment, first.getLastSegment());
+		assertSame(canonical, first.intern());
+		assertSame(canonical, second.intern());
+		assertSame(canonical, canonical.intern());
+		assertEquals(second, canonical);
+		assertEquals(canonical, second);
+		assertSame(QualifiedName.EMPTY, QualifiedName.create(Collections.<String>emptyList()).intern());
+	}
+	
+	@Test public void testInternSharesSegments() {
+		QualifiedName canonical = QualifiedName.create("x", new String("y")).intern();
+		QualifiedName other = QualifiedName.create(new String("y"), "z").intern();
+		assertSame(canonical.getLastSegment(), other.getFirstSegment());
+	}
+	
+	@Test public void testInternLowerCase() {
+		QualifiedName canonical = QualifiedName.create("Foo", "Bar").intern();
+		QualifiedName lowerCase = canonical.toLowerCase();
+		assertSame(lowerCase, QualifiedName.create("foo", "bar").intern());
+		assertSame(lowerCase, QualifiedName.create("FOO", "BAR").intern().toLowerCase());
+		QualifiedName uncached = QualifiedName.create("Baz");
+		uncached.toLowerCase();
+		assertSame(QualifiedName.create("baz").intern(), uncached.intern().toLowerCase());
+	}
+	
+	@Test public void testEqualsCanonicalAndNonCanonical() {
+		QualifiedName canonical = QualifiedName.create("a", "b").intern();
+		assertFalse(canonical.equals(QualifiedName.create("a", "c").intern()));
+		assertTrue(canonical.equals(QualifiedName.create("a", "b")));
+		assertTrue(QualifiedName.create("a", "b").equals(canonical));
+	}
 }
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.nodemodel;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.xtext.XtextStandaloneSetup;
+import org.eclipse.xtext.nodemodel.impl.CompactNodeModel;
+import org.eclipse.xtext.nodemodel.impl.RootNode;
+import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.tests.AbstractXtextTests;
+import org.junit.Test;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+
+public class CompactNodeModelTest extends AbstractXtextTests {
+
+	private static final String GRAMMAR = "grammar foo.Bar with org.eclipse.xtext.common.Terminals\n"
+			+ "generate foo 'http://foo'\n"
+			+ "// a comment\n"
+			+ "Model : elements+=Element* ;\n"
+			+ "Element : Named | {Element} 'element' value=INT ;\n"
+			+ "/* another comment */\n"
+			+ "Named returns Element : (name=ID | name=STRING) ('(' ref=[Element] ')')? ;\n"
+			+ "terminal FOO : 'a'..'z'+ ;\r\n"
+			+ "enum Kind : A | B='b' ;";
+
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		with(new XtextStandaloneSetup());
+	}
+
+	@Test public void testSameNodes() throws Exception {
+		assertCompactNodeModel(GRAMMAR);
+	}
+
+	@Test public void testSameNodesWithSyntaxErrors() throws Exception {
+		assertCompactNodeModel(GRAMMAR.replace("value=INT ;", "value=INT  ;; ##").replace(" | B", " B"));
+	}
+
+	@Test public void testEmptyModel() throws Exception {
+		assertCompactNodeModel("");
+	}
+
+	@Test public void testUpdateCompactResource() throws Exception {
+		XtextResource resource = getResourceFromStringAndExpect(GRAMMAR, UNKNOWN_EXPECTATION);
+		resource.compactNodeModel();
+		int offset = GRAMMAR.indexOf("Named returns");
+		resource.update(offset, "Named".length(), "Other");
+		assertTrue(resource.getParseResult().getRootNode() instanceof RootNode);
+		XtextResource expected = getResourceFromStringAndExpect(GRAMMAR.replace("Named returns", "Other returns"), UNKNOWN_EXPECTATION);
+		assertEqualNodeModels(expected, resource);
+	}
+
+	@Test public void testCompactNodeModelEnabled() throws Exception {
+		XtextResource resource = getResourceFromStringAndExpect(GRAMMAR, UNKNOWN_EXPECTATION);
+		assertFalse(resource.isCompactNodeModelEnabled());
+		assertTrue(resource.getParseResult().getRootNode() instanceof RootNode);
+		resource.setCompactNodeModelEnabled(true);
+		resource.reparse(GRAMMAR);
+		assertTrue(resource.getParseResult().getRootNode() instanceof CompactNodeModel.AbstractNodeView);
+		XtextResource expected = getResourceFromStringAndExpect(GRAMMAR, UNKNOWN_EXPECTATION);
+		assertEqualNodeModels(expected, resource);
+	}
+
+	protected void assertCompactNodeModel(String model) throws Exception {
+		XtextResource expected = getResourceFromStringAndExpect(model, UNKNOWN_EXPECTATION);
+		XtextResource actual = getResourceFromStringAndExpect(model, UNKNOWN_EXPECTATION);
+		actual.compactNodeModel();
+		assertTrue(actual.getParseResult().getRootNode() instanceof CompactNodeModel.AbstractNodeView);
+		assertEqualNodeModels(expected, actual);
+	}
+
+	protected void assertEqualNodeModels(XtextResource expected, XtextResource actual) {
+		List<EObject> expectedObjects = Lists.newArrayList(expected.getAllContents());
+		List<EObject> actualObjects = Lists.newArrayList(actual.getAllContents());
+		assertEquals(expectedObjects.size(), actualObjects.size());
+		ICompositeNode expectedRoot = expected.getParseResult().getRootNode();
+		ICompositeNode actualRoot = actual.getParseResult().getRootNode();
+		Iterator<INode> expectedNodes = expectedRoot.getAsTreeIterable().iterator();
+		Iterator<INode> actualNodes = actualRoot.getAsTreeIterable().iterator();
+		while (expectedNodes.hasNext()) {
+			assertTrue(actualNodes.hasNext());
+			assertEqualNodes(expectedNodes.next(), actualNodes.next(), expectedObjects, actualObjects);
+		}
+		assertFalse(actualNodes.hasNext());
+		for (int i = 0; i < expectedObjects.size(); i++) {
+			assertEqualNodes(NodeModelUtils.getNode(expectedObjects.get(i)), NodeModelUtils.getNode(actualObjects.get(i)),
+					expectedObjects, actualObjects);
+			assertEqualNodes(NodeModelUtils.findActualNodeFor(expectedObjects.get(i)),
+					NodeModelUtils.findActualNodeFor(actualObjects.get(i)), expectedObjects, actualObjects);
+		}
+		for (int offset = 0; offset <= expectedRoot.getTotalLength(); offset++) {
+			assertEqualNodes(NodeModelUtils.findLeafNodeAtOffset(expectedRoot, offset),
+					NodeModelUtils.findLeafNodeAtOffset(actualRoot, offset), expectedObjects, actualObjects);
+			assertEquals(NodeModelUtils.getLineAndColumn(expectedRoot, offset),
+					NodeModelUtils.getLineAndColumn(actualRoot, offset));
+		}
+		assertEquals(Iterables.size(expected.getParseResult().getSyntaxErrors()),
+				Iterables.size(actual.getParseResult().getSyntaxErrors()));
+		assertEquals(NodeModelUtils.compactDump(expectedRoot, true), NodeModelUtils.compactDump(actualRoot, true));
+	}
+
+	protected void assertEqualNodes(INode expected, INode actual, List<EObject> expectedObjects,
+			List<EObject> actualObjects) {
+		if (expected == null) {
+			assertNull(actual);
+			return;
+		}
+		assertNotNull(actual);
+		assertEquals(expected instanceof ILeafNode, actual instanceof ILeafNode);
+		assertEquals(expected.getTotalOffset(), actual.getTotalOffset());
+		assertEquals(expected.getTotalLength(), actual.getTotalLength());
+		assertEquals(expected.getOffset(), actual.getOffset());
+		assertEquals(expected.getLength(), actual.getLength());
+		assertEquals(expected.getEndOffset(), actual.getEndOffset());
+		assertEquals(expected.getTotalStartLine(), actual.getTotalStartLine());
+		assertEquals(expected.getTotalEndLine(), actual.getTotalEndLine());
+		assertEquals(expected.getStartLine(), actual.getStartLine());
+		assertEquals(expected.getEndLine(), actual.getEndLine());
+		assertEquals(expected.getTextRegionWithLineInformation(), actual.getTextRegionWithLineInformation());
+		assertEquals(expected.getTotalTextRegionWithLineInformation(), actual.getTotalTextRegionWithLineInformation());
+		assertEquals(expected.getText(), actual.getText());
+		assertSame(expected.getGrammarElement(), actual.getGrammarElement());
+		assertEquals(expectedObjects.indexOf(expected.getSemanticElement()), actualObjects.indexOf(actual.getSemanticElement()));
+		assertEquals(expected.hasDirectSemanticElement(), actual.hasDirectSemanticElement());
+		assertEquals(String.valueOf(expected.getSyntaxErrorMessage()), String.valueOf(actual.getSyntaxErrorMessage()));
+		assertEquals(expected.hasSiblings(), actual.hasSiblings());
+		assertEquals(expected.hasPreviousSibling(), actual.hasPreviousSibling());
+		assertEquals(expected.hasNextSibling(), actual.hasNextSibling());
+		assertEquals(expected.getParent() == null, actual.getParent() == null);
+		assertEquals(expected.getRootNode() == null, actual.getRootNode() == null);
+		assertEquals(Iterables.size(expected.getLeafNodes()), Iterables.size(actual.getLeafNodes()));
+		if (actual.hasNextSibling()) {
+			assertEquals(actual, actual.getNextSibling().getPreviousSibling());
+		}
+		if (actual.getParent() != null) {
+			assertTrue(Iterables.contains(actual.getParent().getChildren(), actual));
+		}
+		if (expected instanceof ILeafNode) {
+			assertEquals(((ILeafNode) expected).isHidden(), ((ILeafNode) actual).isHidden());
+		} else {
+			ICompositeNode expectedComposite = (ICompositeNode) expected;
+			ICompositeNode actualComposite = (ICompositeNode) actual;
+			assertEquals(expectedComposite.getLookAhead(), actualComposite.getLookAhead());
+			assertEquals(expectedComposite.hasChildren(), actualComposite.hasChildren());
+			assertEquals(Iterables.size(expectedComposite.getChildren()), Iterables.size(actualComposite.getChildren()));
+			if (actualComposite.hasChildren()) {
+				assertEquals(actualComposite, actualComposite.getLastChild().getParent());
+				assertEquals(actualComposite, actualComposite.getFirstChild().getParent());
+			}
+		}
+	}
+
+}
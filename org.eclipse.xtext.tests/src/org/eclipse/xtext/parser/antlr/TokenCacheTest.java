@@ -0,0 +1,218 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.parser.antlr;
+
+import java.util.List;
+import java.util.Random;
+
+import org.antlr.runtime.ANTLRStringStream;
+import org.antlr.runtime.CommonToken;
+import org.antlr.runtime.Token;
+import org.antlr.runtime.TokenSource;
+import org.eclipse.xtext.linking.lazy.LazyLinkingTestLanguageStandaloneSetup;
+import org.eclipse.xtext.linking.lazy.parser.antlr.internal.InternalLazyLinkingTestLanguageLexer;
+import org.eclipse.xtext.nodemodel.ICompositeNode;
+import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
+import org.eclipse.xtext.parser.IParser;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.tests.AbstractXtextTests;
+import org.eclipse.xtext.util.ReplaceRegion;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.name.Names;
+
+public class TokenCacheTest extends AbstractXtextTests {
+
+	private static final String MODEL = "type A {\n\tB b;\n\tC c;\n}\n/* comment */\ntype B extends A.b {\n\t// line comment\n\tA a;\n}\ntype C {}\n";
+
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		with(new LazyLinkingTestLanguageStandaloneSetup());
+	}
+
+	@Test public void testCreate() {
+		TokenCache tokens = TokenCache.create(createLexer(), MODEL);
+		assertEquals(MODEL, tokens.getText());
+		assertSameTokens(MODEL, tokens);
+	}
+
+	@Test public void testUpdate() {
+		TokenCache tokens = TokenCache.create(createLexer(), MODEL);
+		assertUpdate(tokens, new ReplaceRegion(MODEL.indexOf("C c"), 1, "Foo"));
+		assertUpdate(tokens, new ReplaceRegion(MODEL.indexOf("comment"), 0, "\n\n"));
+		assertUpdate(tokens, new ReplaceRegion(0, 0, "type X {}"));
+		assertUpdate(tokens, new ReplaceRegion(MODEL.length(), 0, " type"));
+		assertUpdate(tokens, new ReplaceRegion(MODEL.indexOf("extends"), 7, ""));
+		assertUpdate(tokens, new ReplaceRegion(0, MODEL.length(), ""));
+	}
+
+	@Test public void testUpdateText() {
+		TokenCache tokens = TokenCache.create(createLexer(), MODEL);
+		String text = MODEL.replace("C c", "Foo c").replace("type C", "type D");
+		TokenCache updated = tokens.update(createLexer(), text);
+		assertEquals(text, updated.getText());
+		assertSameTokens(text, updated);
+		assertSame(updated, updated.update(createLexer(), text));
+	}
+
+	@Test public void testUpdateUnterminatedComment() {
+		TokenCache tokens = TokenCache.create(createLexer(), MODEL);
+		TokenCache updated = assertUpdate(tokens, new ReplaceRegion(MODEL.indexOf("*/"), 2, ""));
+		assertUpdate(updated, new ReplaceRegion(MODEL.indexOf("*/"), 0, "*/"));
+	}
+
+	@Test public void testUpdateInvalidTokens() {
+		TokenCache tokens = TokenCache.create(createLexer(), MODEL);
+		TokenCache updated = assertUpdate(tokens, new ReplaceRegion(MODEL.indexOf("B b"), 0, "#"));
+		assertUpdate(updated, new ReplaceRegion(0, 0, "\n"));
+	}
+
+	@Test public void testRandomUpdates() {
+		Random random = new Random(42);
+		String[] snippets = { "", " ", "\n", "type", "{", "}", ";", "/*", "*/", "//", "\"", "x", "A.b" };
+		TokenCache tokens = TokenCache.create(createLexer(), MODEL);
+		for (int i = 0; i < 500; i++) {
+			String text = tokens.getText();
+			int offset = random.nextInt(text.length() + 1);
+			int length = random.nextInt(Math.min(5, text.length() - offset) + 1);
+			tokens = assertUpdate(tokens, new ReplaceRegion(offset, length, snippets[random.nextInt(snippets.length)]));
+		}
+	}
+
+	@Test public void testOnlyChangedTokensAreLexed() {
+		StringBuilder model = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			model.append("type T").append(i).append(" {\n\tT0 t;\n}\n");
+		}
+		TokenCache tokens = TokenCache.create(createLexer(), model.toString());
+		int offset = model.indexOf("T500 {");
+		TokenCache updated = assertUpdate(tokens, new ReplaceRegion(offset, 4, "Renamed"));
+		assertTrue(String.valueOf(updated.getRelexedTokenCount()), updated.getRelexedTokenCount() < 10);
+		updated = assertUpdate(updated, new ReplaceRegion(offset, 0, "\n\n"));
+		assertTrue(String.valueOf(updated.getRelexedTokenCount()), updated.getRelexedTokenCount() < 10);
+	}
+
+	@Test public void testReparse() throws Exception {
+		AbstractAntlrParser parser = (AbstractAntlrParser) get(IParser.class);
+		parser.setTokenCache(true);
+		disableSerializerTest();
+		try {
+			XtextResource resource = getResourceFromString(MODEL);
+			resource.update(MODEL.indexOf("C c"), 1, "B");
+			assertEquals(MODEL.replace("C c", "B c"), resource.getParseResult().getRootNode().getText());
+			resource.update(MODEL.indexOf("type B"), 0, "} ");
+			assertTrue(resource.getParseResult().hasSyntaxErrors());
+			resource.update(MODEL.indexOf("type B"), 2, "");
+			assertEquals(MODEL.replace("C c", "B c"), resource.getParseResult().getRootNode().getText());
+			assertFalse(resource.getParseResult().hasSyntaxErrors());
+			XtextResource expected = getResourceFromString(MODEL.replace("C c", "B c"));
+			assertEquals(NodeModelUtils.compactDump(expected.getParseResult().getRootNode(), true),
+					NodeModelUtils.compactDump(resource.getParseResult().getRootNode(), true));
+		} finally {
+			parser.setTokenCache(false);
+		}
+	}
+
+	@Test public void testOnlyChangedTokensAreLexedOnReparse() throws Exception {
+		StringBuilder model = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			model.append("type T").append(i).append(" {\n\tT0 t;\n}\n");
+		}
+		disableSerializerTest();
+		XtextResource resource = getResourceFromString(model.toString());
+		AbstractAntlrParser parser = (AbstractAntlrParser) resource.getParser();
+		Provider<Lexer> lexerProvider = parser.getLexerProvider();
+		final int[] lexedTokens = { 0 };
+		parser.setLexerProvider(new Provider<Lexer>() {
+			@Override
+			public Lexer get() {
+				return new InternalLazyLinkingTestLanguageLexer() {
+					@Override
+					public Token nextToken() {
+						lexedTokens[0]++;
+						return super.nextToken();
+					}
+				};
+			}
+		});
+		parser.setTokenCache(true);
+		try {
+			// a partial reparse only lexes the reparsed type
+			ICompositeNode rootNode = resource.getParseResult().getRootNode();
+			resource.update(model.indexOf("T0 t", model.indexOf("T500 {")), 2, "T1");
+			assertSame(rootNode, resource.getParseResult().getRootNode());
+			assertTrue(String.valueOf(lexedTokens[0]), lexedTokens[0] < 100);
+			// the first complete reparse lexes the whole document
+			lexedTokens[0] = 0;
+			resource.update(model.indexOf("type T600"), 0, "} ");
+			assertTrue(resource.getParseResult().hasSyntaxErrors());
+			assertNotSame(rootNode, resource.getParseResult().getRootNode());
+			assertTrue(String.valueOf(lexedTokens[0]), lexedTokens[0] > 10000);
+			// the next one only the changed tokens
+			lexedTokens[0] = 0;
+			rootNode = resource.getParseResult().getRootNode();
+			resource.update(model.indexOf("type T700") + 2, 0, "} ");
+			assertNotSame(rootNode, resource.getParseResult().getRootNode());
+			assertTrue(String.valueOf(lexedTokens[0]), lexedTokens[0] < 100);
+		} finally {
+			parser.setTokenCache(false);
+			parser.setLexerProvider(lexerProvider);
+		}
+	}
+
+	protected TokenCache assertUpdate(TokenCache tokens, ReplaceRegion region) {
+		StringBuilder expected = new StringBuilder(tokens.getText());
+		region.applyTo(expected);
+		TokenCache result = tokens.update(createLexer(), region);
+		assertEquals(expected.toString(), result.getText());
+		assertSameTokens(expected.toString(), result);
+		return result;
+	}
+
+	protected void assertSameTokens(String text, TokenCache tokens) {
+		List<String> expected = toStrings(createLexer(text), null);
+		TokenSource tokenSource = tokens.createTokenSource();
+		assertEquals(text, expected, toStrings(tokenSource, new XtextTokenStream(tokenSource, Token.DEFAULT_CHANNEL)));
+	}
+
+	protected List<String> toStrings(TokenSource tokenSource, XtextTokenStream stream) {
+		List<String> result = Lists.newArrayList();
+		Token token = tokenSource.nextToken();
+		while (token.getType() != Token.EOF) {
+			CommonToken commonToken = (CommonToken) token;
+			String error = null;
+			if (token.getType() == Token.INVALID_TOKEN_TYPE) {
+				if (stream != null) {
+					error = stream.getLexerErrorMessage(token);
+				} else {
+					error = ((Lexer) tokenSource).getErrorMessage(token);
+				}
+			}
+			result.add(token.getType() + ":" + token.getChannel() + ":" + commonToken.getStartIndex() + "-"
+					+ commonToken.getStopIndex() + "@" + token.getLine() + ":" + token.getCharPositionInLine() + " "
+					+ token.getText() + (error != null ? " " + error : ""));
+			token = tokenSource.nextToken();
+		}
+		return result;
+	}
+
+	protected Lexer createLexer(String text) {
+		Lexer result = createLexer();
+		result.setCharStream(new ANTLRStringStream(text));
+		return result;
+	}
+
+	protected Lexer createLexer() {
+		return getInjector().getInstance(Key.get(Lexer.class, Names.named(LexerBindings.RUNTIME)));
+	}
+
+}
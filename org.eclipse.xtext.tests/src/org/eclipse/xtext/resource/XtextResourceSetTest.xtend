@@ -288,6 +288,66 @@ abstract class AbstractXtextResourceSetTest extends AbstractResourceSetTest {
 		assertTrue(resource.eAdapters.empty)
 		assertEquals(0, rs.URIResourceMap.size)
 	}
+	
+	@Test
+	def void testAliasesAreRemoved() {
+		val rs = createEmptyResourceSet
+		
+		val resource = new XtextResource
+		resource.URI = URI::createURI('/a/../foo')
+		rs.resources += resource
+		
+		rs.URIConverter.URIMap.put(URI::createURI('alias:/foo'), rs.URIConverter.normalize(resource.URI))
+		assertSame(resource, rs.getResource(URI::createURI('alias:/foo'), false))
+		assertEquals(2, rs.getNormalizationMap.size)
+		
+		rs.resources.remove(resource)
+		
+		assertEquals(0, rs.URIResourceMap.size)
+		assertEquals(0, rs.getNormalizationMap.size)
+	}
+	
+	@Test
+	def void testEntriesOfClientsAreRemoved() {
+		val rs = createEmptyResourceSet
+		
+		val resource = new XtextResource
+		resource.URI = URI::createFileURI(new File('foo').absolutePath)
+		rs.resources += resource
+		val other = new XtextResource
+		other.URI = URI::createFileURI(new File('bar').absolutePath)
+		rs.resources += other
+		rs.URIResourceMap.put(URI::createURI('alias'), resource)
+		
+		assertEquals(3, rs.URIResourceMap.size)
+		
+		rs.resources.remove(resource)
+		
+		assertEquals(1, rs.URIResourceMap.size)
+		assertSame(other, rs.URIResourceMap.get(other.URI))
+		
+		rs.resources.remove(other)
+		
+		assertEquals(0, rs.URIResourceMap.size)
+	}
+	
+	@Test
+	def void testEntriesOfInitialMapAreRemoved() {
+		val rs = createEmptyResourceSet
+		
+		val resource = new XtextResource
+		resource.URI = URI::createFileURI(new File('foo').absolutePath)
+		val map = <URI, Resource>newHashMap
+		map.put(URI::createURI('alias'), resource)
+		rs.URIResourceMap = map
+		rs.resources += resource
+		
+		assertEquals(2, rs.URIResourceMap.size)
+		
+		rs.resources.remove(resource)
+		
+		assertEquals(0, rs.URIResourceMap.size)
+	}
 }
 
 class NullResource extends ResourceImpl {
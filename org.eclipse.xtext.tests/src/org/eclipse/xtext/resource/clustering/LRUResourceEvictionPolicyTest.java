@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.resource.clustering;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.xtext.parser.IParseResult;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.resource.persistence.StorageAwareResource;
+import org.eclipse.xtext.xbase.lib.Functions.Function0;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LRUResourceEvictionPolicyTest {
+
+	private static class LoadedResource extends ResourceImpl {
+		@Override
+		public void load(Map<?, ?> options) {
+			if (!isLoaded)
+				setLoaded(true);
+		}
+	}
+
+	private static class DeferredResource extends StorageAwareResource {
+		@Override
+		public void load(Map<?, ?> options) {
+			if (!isLoaded) {
+				isLoaded = true;
+				setDeferredParseResult(new Function0<IParseResult>() {
+					@Override
+					public IParseResult apply() {
+						return null;
+					}
+				}, 8);
+			}
+		}
+	}
+
+	private XtextResourceSet resourceSet;
+
+	private LRUResourceEvictionPolicy policy;
+
+	@Before
+	public void setUp() {
+		resourceSet = new XtextResourceSet();
+		resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put("test", new Resource.Factory() {
+			@Override
+			public Resource createResource(URI uri) {
+				LoadedResource result = new LoadedResource();
+				result.setURI(uri);
+				return result;
+			}
+		});
+		resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put("stored", new Resource.Factory() {
+			@Override
+			public Resource createResource(URI uri) {
+				DeferredResource result = new DeferredResource();
+				result.setURI(uri);
+				return result;
+			}
+		});
+		policy = new LRUResourceEvictionPolicy() {
+			@Override
+			protected long getSize(Resource resource) {
+				return resource.getURI().trimFileExtension().lastSegment().length();
+			}
+		};
+	}
+
+	@Test
+	public void testDisabledByDefault() {
+		assertFalse(new LRUResourceEvictionPolicy().isEnabled());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedAreEvicted() {
+		policy.setMaximumResources(2);
+		Resource a = load("a");
+		Resource b = load("b");
+		assertFalse(policy.isExceeded(resourceSet));
+		load("c");
+		assertTrue(policy.isExceeded(resourceSet));
+		policy.evict(resourceSet);
+		assertFalse(policy.isExceeded(resourceSet));
+		assertFalse(resourceSet.getResources().contains(a));
+		assertFalse(a.isLoaded());
+		assertSame(b, load("b"));
+		load("d");
+		policy.evict(resourceSet);
+		assertEquals(2, resourceSet.getResources().size());
+		assertTrue(resourceSet.getResources().contains(b));
+		assertNull(resourceSet.getResource(uri("c"), false));
+		assertEquals(1, policy.getHits());
+		assertEquals(4, policy.getMisses());
+		assertEquals(2, policy.getEvictions());
+	}
+
+	@Test
+	public void testDependenciesAreTracked() {
+		policy.setMaximumResources(2);
+		load("a");
+		Resource dependency = resourceSet.getResource(uri("dependency"), true);
+		load("b");
+		policy.evict(resourceSet);
+		assertEquals(2, resourceSet.getResources().size());
+		assertNull(resourceSet.getResource(uri("a"), false));
+		assertSame(dependency, resourceSet.getResource(uri("dependency"), false));
+	}
+
+	@Test
+	public void testSizeBudget() {
+		policy.setMaximumSize(10);
+		load("aaaa");
+		load("bbbb");
+		assertFalse(policy.isExceeded(resourceSet));
+		load("cccc");
+		assertTrue(policy.isExceeded(resourceSet));
+		policy.evict(resourceSet);
+		assertEquals(2, resourceSet.getResources().size());
+		assertNull(resourceSet.getResource(uri("aaaa"), false));
+	}
+
+	@Test
+	public void testDeferredResourcesAreEstimated() {
+		policy = new LRUResourceEvictionPolicy();
+		policy.setMaximumSize(10);
+		StorageAwareResource a = (StorageAwareResource) policy.getResource(resourceSet, URI.createURI("file:/a.stored"));
+		assertFalse(policy.isExceeded(resourceSet));
+		policy.getResource(resourceSet, URI.createURI("file:/b.stored"));
+		assertTrue(policy.isExceeded(resourceSet));
+		assertTrue(a.hasDeferredParseResult());
+		a.getParseResult();
+		assertFalse(policy.isExceeded(resourceSet));
+	}
+
+	@Test
+	public void testRemovedResourcesAreForgotten() {
+		policy.setMaximumResources(2);
+		Resource a = load("a");
+		load("b");
+		resourceSet.getResources().remove(a);
+		load("c");
+		assertFalse(policy.isExceeded(resourceSet));
+	}
+
+	protected Resource load(String name) {
+		return policy.getResource(resourceSet, uri(name));
+	}
+
+	protected URI uri(String name) {
+		return URI.createURI("file:/" + name + ".test");
+	}
+
+}
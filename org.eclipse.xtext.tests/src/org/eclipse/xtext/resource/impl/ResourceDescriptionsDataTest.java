@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.resource.impl;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.resource.EObjectDescription;
+import org.eclipse.xtext.resource.IEObjectDescription;
+import org.eclipse.xtext.resource.IReferenceDescription;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.resource.IResourceDescription.Delta;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+public class ResourceDescriptionsDataTest extends Assert {
+
+	static class TestResDesc extends AbstractResourceDescription {
+
+		private final URI uri;
+		List<IEObjectDescription> exported = Lists.newArrayList();
+		Set<QualifiedName> imported = Sets.newHashSet();
+		List<IReferenceDescription> references = Lists.newArrayList();
+
+		TestResDesc(String uri) {
+			this.uri = URI.createURI(uri);
+		}
+
+		TestResDesc exports(String name) {
+			exported.add(EObjectDescription.create(QualifiedName.create(name), EcorePackage.Literals.EANNOTATION));
+			return this;
+		}
+
+		TestResDesc imports(String name) {
+			imported.add(QualifiedName.create(name));
+			return this;
+		}
+
+		TestResDesc references(String targetURI) {
+			references.add(new DefaultReferenceDescription(uri.appendFragment("/"), URI.createURI(targetURI).appendFragment("/"),
+					EcorePackage.Literals.ECLASS__ESUPER_TYPES, -1, null));
+			return this;
+		}
+
+		@Override
+		public Iterable<QualifiedName> getImportedNames() {
+			return imported;
+		}
+
+		@Override
+		public URI getURI() {
+			return uri;
+		}
+
+		@Override
+		public Iterable<IReferenceDescription> getReferenceDescriptions() {
+			return references;
+		}
+
+		@Override
+		protected List<IEObjectDescription> computeExportedObjects() {
+			return exported;
+		}
+	}
+
+	static class PreliminaryResDesc extends TestResDesc {
+
+		PreliminaryResDesc(String uri) {
+			super(uri);
+		}
+
+		@Override
+		public Iterable<QualifiedName> getImportedNames() {
+			throw new IllegalStateException("getImportedNames " + getURI());
+		}
+
+		@Override
+		public Iterable<IReferenceDescription> getReferenceDescriptions() {
+			throw new IllegalStateException("getReferenceDescriptions " + getURI());
+		}
+	}
+
+	private static Delta delta(IResourceDescription oldDesc, IResourceDescription newDesc) {
+		return new DefaultResourceDescriptionDelta(oldDesc, newDesc);
+	}
+
+	private static Set<URI> uris(String... uris) {
+		Set<URI> result = Sets.newLinkedHashSet();
+		for (String uri : uris) {
+			result.add(URI.createURI(uri));
+		}
+		return result;
+	}
+
+	@Test public void testDependentsByImportedName() {
+		TestResDesc a = new TestResDesc("test:/a").exports("Foo");
+		TestResDesc b = new TestResDesc("test:/b").imports("foo");
+		TestResDesc c = new TestResDesc("test:/c").imports("bar");
+		ResourceDescriptionsData data = new ResourceDescriptionsData(Lists.<IResourceDescription>newArrayList(a, b, c));
+		TestResDesc newA = new TestResDesc("test:/a");
+		Set<URI> dependents = data.getDependentURIs(Collections.singleton(delta(a, newA)));
+		assertEquals(uris("test:/b"), dependents);
+	}
+
+	@Test public void testDependentsByReference() {
+		TestResDesc a = new TestResDesc("test:/a").exports("foo");
+		TestResDesc b = new TestResDesc("test:/b").references("test:/a");
+		TestResDesc c = new TestResDesc("test:/c").references("test:/b");
+		ResourceDescriptionsData data = new ResourceDescriptionsData(Lists.<IResourceDescription>newArrayList(a, b, c));
+		Set<URI> dependents = data.getDependentURIs(Collections.singleton(delta(a, new TestResDesc("test:/a"))));
+		assertEquals(uris("test:/b"), dependents);
+	}
+
+	@Test public void testUnchangedDelta() {
+		TestResDesc a = new TestResDesc("test:/a").exports("foo");
+		TestResDesc b = new TestResDesc("test:/b").imports("foo").references("test:/a");
+		ResourceDescriptionsData data = new ResourceDescriptionsData(Lists.<IResourceDescription>newArrayList(a, b));
+		Set<URI> dependents = data.getDependentURIs(Collections.singleton(delta(a, new TestResDesc("test:/a").exports("foo"))));
+		assertTrue(dependents.isEmpty());
+	}
+
+	@Test public void testIncrementalUpdate() {
+		TestResDesc a = new TestResDesc("test:/a").exports("foo");
+		TestResDesc b = new TestResDesc("test:/b").imports("foo");
+		ResourceDescriptionsData data = new ResourceDescriptionsData(Lists.<IResourceDescription>newArrayList(a, b));
+		Delta changeA = delta(a, new TestResDesc("test:/a"));
+		assertEquals(uris("test:/b"), data.getDependentURIs(Collections.singleton(changeA)));
+
+		ResourceDescriptionsData copy = data.copy();
+		copy.addDescription(b.getURI(), new TestResDesc("test:/b").imports("bar"));
+		TestResDesc c = new TestResDesc("test:/c").imports("foo");
+		copy.addDescription(c.getURI(), c);
+		assertEquals(uris("test:/c"), copy.getDependentURIs(Collections.singleton(changeA)));
+		copy.removeDescription(c.getURI());
+		assertTrue(copy.getDependentURIs(Collections.singleton(changeA)).isEmpty());
+
+		// the original is not affected by changes to the copy
+		assertEquals(uris("test:/b"), data.getDependentURIs(Collections.singleton(changeA)));
+	}
+
+	@Test public void testDeltaURIsAreNotInspected() {
+		TestResDesc a = new TestResDesc("test:/a").exports("foo");
+		TestResDesc b = new TestResDesc("test:/b").imports("foo");
+		TestResDesc c = new TestResDesc("test:/c").imports("foo");
+		ResourceDescriptionsData data = new ResourceDescriptionsData(Lists.<IResourceDescription>newArrayList(a, b, c));
+		PreliminaryResDesc newA = new PreliminaryResDesc("test:/a");
+		PreliminaryResDesc newB = new PreliminaryResDesc("test:/b");
+		Delta changeA = delta(a, newA);
+		Delta changeB = delta(b, newB);
+		data.register(changeA);
+		data.register(changeB);
+		assertEquals(uris("test:/c"), data.getDependentURIs(Lists.newArrayList(changeA, changeB)));
+	}
+
+	@Test public void testPersistentCopiesAreIndependent() {
+		TestResDesc a = new TestResDesc("test:/a").exports("foo");
+		TestResDesc b = new TestResDesc("test:/b").exports("foo").imports("foo");
+		TestResDesc c = new TestResDesc("test:/c").exports("foo");
+		ResourceDescriptionsData data = new PersistentResourceDescriptionsData(Lists.<IResourceDescription>newArrayList(a, b));
+		Delta changeA = delta(a, new TestResDesc("test:/a"));
+		assertEquals(uris("test:/b"), data.getDependentURIs(Collections.singleton(changeA)));
+
+		ResourceDescriptionsData copy = data.copy();
+		copy.addDescription(c.getURI(), c);
+		copy.removeDescription(a.getURI());
+		copy.addDescription(b.getURI(), new TestResDesc("test:/b").exports("bar"));
+		assertEquals(1, Iterables.size(copy.getExportedObjects(EcorePackage.Literals.ECLASS, QualifiedName.create("foo"), false)));
+		assertEquals(uris("test:/b", "test:/c"), Sets.newHashSet(copy.getAllURIs()));
+		assertTrue(copy.getDependentURIs(Collections.singleton(changeA)).isEmpty());
+
+		assertEquals(uris("test:/a", "test:/b"), Sets.newHashSet(data.getAllURIs()));
+		assertEquals(2, Iterables.size(data.getExportedObjects(EcorePackage.Literals.ECLASS, QualifiedName.create("foo"), false)));
+		assertEquals(uris("test:/b"), data.getDependentURIs(Collections.singleton(changeA)));
+	}
+
+	private static Set<QualifiedName> names(String... names) {
+		Set<QualifiedName> result = Sets.newHashSet();
+		for (String name : names) {
+			result.add(QualifiedName.create(name));
+		}
+		return result;
+	}
+
+	@Test public void testFindExportedNames() {
+		TestResDesc a = new TestResDesc("test:/a").exports("foo.Bar").exports("foo.Baz");
+		TestResDesc b = new TestResDesc("test:/b").exports("Qux").exports("foo.Bar");
+		ResourceDescriptionsData data = new ResourceDescriptionsData(Lists.<IResourceDescription>newArrayList(a, b));
+		assertEquals(names("foo.bar", "foo.baz"), Sets.newHashSet(data.findExportedNames("Ba")));
+		assertEquals(names("foo.bar", "foo.baz"), Sets.newHashSet(data.findExportedNames("o.ba")));
+		assertEquals(names("foo.baz"), Sets.newHashSet(data.findExportedNames("BAZ")));
+		assertEquals(names("foo.bar", "foo.baz", "qux"), Sets.newHashSet(data.findExportedNames("")));
+		assertTrue(data.findExportedNames("barz").isEmpty());
+	}
+
+	@Test public void testFindExportedNamesIncrementally() {
+		TestResDesc a = new TestResDesc("test:/a").exports("foo.Bar");
+		TestResDesc b = new TestResDesc("test:/b").exports("foo.Bar").exports("foo.Baz");
+		ResourceDescriptionsData data = new PersistentResourceDescriptionsData(Lists.<IResourceDescription>newArrayList(a, b));
+		assertEquals(names("foo.bar", "foo.baz"), Sets.newHashSet(data.findExportedNames("foo")));
+
+		ResourceDescriptionsData copy = data.copy();
+		copy.removeDescription(b.getURI());
+		copy.addDescription(URI.createURI("test:/c"), new TestResDesc("test:/c").exports("Food"));
+		assertEquals(names("foo.bar", "food"), Sets.newHashSet(copy.findExportedNames("foo")));
+		copy.removeDescription(a.getURI());
+		assertEquals(names("food"), Sets.newHashSet(copy.findExportedNames("foo")));
+
+		// the original is not affected by changes to the copy
+		assertEquals(names("foo.bar", "foo.baz"), Sets.newHashSet(data.findExportedNames("foo")));
+	}
+
+	@Test public void testReferencingResources() {
+		TestResDesc a = new TestResDesc("test:/a").exports("foo");
+		TestResDesc b = new TestResDesc("test:/b").references("test:/a");
+		TestResDesc c = new TestResDesc("test:/c").references("test:/a").references("test:/b");
+		ResourceDescriptionsData data = new PersistentResourceDescriptionsData(Lists.<IResourceDescription>newArrayList(a, b, c));
+		assertEquals(uris("test:/b", "test:/c"), data.getReferencingResourceURIs(uris("test:/a#/")));
+		assertEquals(uris("test:/c"), data.getReferencingResourceURIs(uris("test:/b#/", "test:/d#/")));
+		assertTrue(data.getReferencingResourceURIs(uris("test:/a")).isEmpty());
+
+		ResourceDescriptionsData copy = data.copy();
+		copy.addDescription(b.getURI(), new TestResDesc("test:/b"));
+		copy.removeDescription(c.getURI());
+		TestResDesc d = new TestResDesc("test:/d").references("test:/a");
+		copy.addDescription(d.getURI(), d);
+		assertEquals(uris("test:/d"), copy.getReferencingResourceURIs(uris("test:/a#/")));
+
+		// the original is not affected by changes to the copy
+		assertEquals(uris("test:/b", "test:/c"), data.getReferencingResourceURIs(uris("test:/a#/")));
+	}
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.resource.persistence
+
+import com.google.common.io.Files
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.File
+import java.io.FileOutputStream
+import java.nio.ByteBuffer
+import org.eclipse.emf.common.util.URI
+import org.eclipse.xtext.linking.LangATestLanguageStandaloneSetup
+import org.eclipse.xtext.linking.langATestLanguage.Main
+import org.eclipse.xtext.nodemodel.util.NodeModelUtils
+import org.eclipse.xtext.resource.XtextResourceSet
+import org.eclipse.xtext.tests.AbstractXtextTests
+import org.junit.Test
+
+class IndexedResourceStorageTest extends AbstractXtextTests {
+
+	IndexedResourceStorageFacade facade
+
+	File tempDir
+
+	override setUp() throws Exception {
+		super.setUp()
+		with(new LangATestLanguageStandaloneSetup())
+		facade = get(IndexedResourceStorageFacade)
+		tempDir = Files.createTempDir
+	}
+
+	override tearDown() throws Exception {
+		org.eclipse.xtext.util.Files.cleanFolder(tempDir, null, true, true)
+		super.tearDown()
+	}
+
+	@Test def void testRoundTrip() {
+		val resourceSet = get(XtextResourceSet)
+		val resourceA = loadResource(resourceSet, "hubba:/bubba.langatestlanguage", "type A type B extends A")
+		val bout = new ByteArrayOutputStream
+		facade.createResourceStorageWritable(bout).writeResource(resourceA)
+		val loadable = facade.createResourceStorageLoadable(new ByteArrayInputStream(bout.toByteArray))
+		assertTrue((loadable as IndexedResourceStorageLoadable).isIndexed)
+
+		val resourceC = resourceSet.createResource(URI.createURI("hubba:/bubba2.langatestlanguage")) as StorageAwareResource
+		resourceC.loadFromStorage(loadable)
+		val types = (resourceC.contents.head as Main).types
+		assertEquals(#['A', 'B'], types.map[name])
+		assertEquals('A', types.last.extends.name)
+		assertEquals(#['A', 'B'], resourceC.resourceDescription.exportedObjects.map[name.toString].toList)
+	}
+
+	@Test def void testReadZipStorage() {
+		val resourceSet = get(XtextResourceSet)
+		val resourceA = loadResource(resourceSet, "hubba:/bubba.langatestlanguage", "type A")
+		val bout = new ByteArrayOutputStream
+		new ResourceStorageWritable(bout, false).writeResource(resourceA)
+		val loadable = new IndexedResourceStorageLoadable(ByteBuffer.wrap(bout.toByteArray), false)
+		assertFalse(loadable.isIndexed)
+
+		val resourceC = resourceSet.createResource(URI.createURI("hubba:/bubba2.langatestlanguage")) as StorageAwareResource
+		resourceC.loadFromStorage(loadable)
+		assertEquals('A', (resourceC.contents.head as Main).types.head.name)
+		assertEquals('A', resourceC.resourceDescription.exportedObjects.head.name.toString)
+	}
+
+	@Test def void testMappedStorageWithDeferredNodeModel() {
+		facade.storeNodeModel = true
+		val text = "type A type B extends A"
+		val sourceFile = new File(tempDir, 'mapped.langatestlanguage')
+		Files.write(text.bytes, sourceFile)
+		val sourceURI = URI.createFileURI(sourceFile.absolutePath)
+		val resourceA = get(XtextResourceSet).getResource(sourceURI, true) as StorageAwareResource
+		val out = new FileOutputStream(new File(tempDir, '.mapped.langatestlanguagebin'))
+		facade.createResourceStorageWritable(out).writeResource(resourceA)
+
+		val resourceC = get(XtextResourceSet).createResource(sourceURI) as StorageAwareResource
+		val loadable = facade.getOrCreateResourceStorageLoadable(resourceC)
+		assertTrue((loadable as IndexedResourceStorageLoadable).isIndexed)
+		resourceC.loadFromStorage(loadable)
+		val main = resourceC.contents.head as Main
+		assertEquals(#['A', 'B'], main.types.map[name])
+		assertTrue(resourceC.hasDeferredParseResult)
+
+		assertEquals('type B extends A', NodeModelUtils.findActualNodeFor(main.types.last).text.trim)
+		assertFalse(resourceC.hasDeferredParseResult)
+		assertEquals(text, resourceC.parseResult.rootNode.text)
+		assertSame(main, resourceC.parseResult.rootASTElement)
+		assertSame(resourceC.parseResult.rootNode, NodeModelUtils.getNode(main))
+	}
+
+	@Test def void testTruncatedStorageWithDeferredNodeModel() {
+		facade.storeNodeModel = true
+		val sourceFile = new File(tempDir, 'truncated.langatestlanguage')
+		Files.write("type A type B extends A".bytes, sourceFile)
+		val sourceURI = URI.createFileURI(sourceFile.absolutePath)
+		val resourceA = get(XtextResourceSet).getResource(sourceURI, true) as StorageAwareResource
+		val storageFile = new File(tempDir, '.truncated.langatestlanguagebin')
+		facade.createResourceStorageWritable(new FileOutputStream(storageFile)).writeResource(resourceA)
+
+		val resourceC = get(XtextResourceSet).createResource(sourceURI) as StorageAwareResource
+		resourceC.loadFromStorage(facade.getOrCreateResourceStorageLoadable(resourceC))
+		assertTrue(resourceC.hasDeferredParseResult)
+		// the storage is rewritten before the node model is read
+		new FileOutputStream(storageFile).close
+		val main = resourceC.contents.head as Main
+		assertEquals('type B extends A', NodeModelUtils.findActualNodeFor(main.types.last).text.trim)
+	}
+
+	def private StorageAwareResource loadResource(XtextResourceSet resourceSet, String uri, String text) {
+		val resource = resourceSet.createResource(URI.createURI(uri)) as StorageAwareResource
+		resource.load(getAsStream(text), null)
+		return resource
+	}
+}
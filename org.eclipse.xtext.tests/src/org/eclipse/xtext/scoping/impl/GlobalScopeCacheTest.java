@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.scoping.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.index.IndexTestLanguageRuntimeModule;
+import org.eclipse.xtext.index.IndexTestLanguageStandaloneSetup;
+import org.eclipse.xtext.index.indexTestLanguage.IndexTestLanguagePackage;
+import org.eclipse.xtext.linking.impl.ImportedNamesAdapter;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.resource.IContainer;
+import org.eclipse.xtext.resource.IEObjectDescription;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.resource.ISelectable;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.resource.impl.ChunkedResourceDescriptions;
+import org.eclipse.xtext.resource.impl.DefaultResourceDescriptionDelta;
+import org.eclipse.xtext.resource.impl.ProjectDescription;
+import org.eclipse.xtext.resource.impl.ResourceDescriptionsData;
+import org.eclipse.xtext.resource.persistence.SerializableResourceDescription;
+import org.eclipse.xtext.scoping.IScope;
+import org.eclipse.xtext.scoping.IScopeProvider;
+import org.eclipse.xtext.tests.AbstractXtextTests;
+import org.eclipse.xtext.util.StringInputStream;
+import org.junit.Test;
+
+import com.google.common.collect.Maps;
+import com.google.inject.Binder;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Singleton;
+import com.google.inject.name.Names;
+
+public class GlobalScopeCacheTest extends AbstractXtextTests {
+
+	/**
+	 * Imports the namespace <code>lib</code> implicitly and counts the implicit import scopes.
+	 */
+	@Singleton
+	public static class ImplicitImportScopeProvider extends ImportedNamespaceAwareLocalScopeProvider {
+		private int implicitImportScopes;
+
+		@Override
+		protected List<ImportNormalizer> getImplicitImports(boolean ignoreCase) {
+			return Collections.singletonList(new ImportNormalizer(QualifiedName.create("lib"), true, ignoreCase));
+		}
+
+		@Override
+		protected ImportScope createImportScope(IScope parent, List<ImportNormalizer> namespaceResolvers,
+				ISelectable importFrom, EClass type, boolean ignoreCase) {
+			if (namespaceResolvers.equals(getImplicitImports(ignoreCase)))
+				implicitImportScopes++;
+			return super.createImportScope(parent, namespaceResolvers, importFrom, type, ignoreCase);
+		}
+	}
+
+	private static final QualifiedName LIB = QualifiedName.create("lib", "Lib");
+
+	private XtextResourceSet resourceSet;
+
+	private ResourceDescriptionsData libData;
+
+	private Resource app;
+
+	private Resource otherApp;
+
+	private DefaultGlobalScopeProvider globalScopeProvider;
+
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		with(new IndexTestLanguageStandaloneSetup());
+		resourceSet = get(XtextResourceSet.class);
+		ProjectDescription project = new ProjectDescription();
+		project.setName("app");
+		project.getDependencies().add("lib");
+		project.attachToEmfObject(resourceSet);
+		Resource lib = load("lib.indextestlanguage", "lib { entity Lib {} }");
+		app = load("app.indextestlanguage", "app { entity A { lib.Lib lib } }");
+		otherApp = load("other.indextestlanguage", "other { entity B { app.A a } }");
+		libData = new ResourceDescriptionsData(Collections.singleton(describe(lib)));
+		ResourceDescriptionsData appData = new ResourceDescriptionsData(Arrays.asList(describe(app), describe(otherApp)));
+		Map<String, ResourceDescriptionsData> chunks = Maps.newHashMap();
+		chunks.put("app", appData);
+		chunks.put("lib", libData);
+		new ChunkedResourceDescriptions(chunks, resourceSet);
+		resourceSet.getResources().remove(lib);
+		// describing the resources resolves their references and caches the containers of the flat index
+		((XtextResource) app).getCache().clear(app);
+		((XtextResource) otherApp).getCache().clear(otherApp);
+		globalScopeProvider = get(DefaultGlobalScopeProvider.class);
+		globalScopeProvider.setSharedScopeCache(true);
+	}
+
+	@Override
+	public void tearDown() throws Exception {
+		resourceSet = null;
+		libData = null;
+		app = null;
+		otherApp = null;
+		globalScopeProvider = null;
+		super.tearDown();
+	}
+
+	@Test public void testSharedScopes() throws Exception {
+		IScope appScope = getScope(app);
+		IScope otherScope = getScope(otherApp);
+		assertNotNull(GlobalScopeCache.findInEmfObject(resourceSet));
+		assertNotNull(appScope.getSingleElement(LIB));
+		assertNotNull(otherScope.getSingleElement(LIB));
+		// the objects of the resource itself are not part of its global scope
+		assertNull(appScope.getSingleElement(QualifiedName.create("app", "A")));
+		assertNotNull(otherScope.getSingleElement(QualifiedName.create("app", "A")));
+		assertNull(otherScope.getSingleElement(QualifiedName.create("other", "B")));
+		assertNotNull(appScope.getSingleElement(QualifiedName.create("other", "B")));
+	}
+
+	@Test public void testQueriesAreCached() throws Exception {
+		getScope(app);
+		GlobalScopeCache cache = GlobalScopeCache.findInEmfObject(resourceSet);
+		IContainer container = cache.getContainer(libData);
+		assertTrue(cache.isShared(container));
+		Iterable<IEObjectDescription> first = container.getExportedObjects(IndexTestLanguagePackage.Literals.TYPE, LIB, false);
+		assertSame(first, container.getExportedObjects(IndexTestLanguagePackage.Literals.TYPE, LIB, false));
+		assertSame(container.getExportedObjectsByType(IndexTestLanguagePackage.Literals.TYPE),
+				container.getExportedObjectsByType(IndexTestLanguagePackage.Literals.TYPE));
+	}
+
+	@Test public void testInvalidatedByDeltas() throws Exception {
+		IScope scope = getScope(app);
+		assertNotNull(scope.getSingleElement(LIB));
+		assertNull(scope.getSingleElement(QualifiedName.create("lib", "Lib2")));
+		IResourceDescription oldDescription = libData.getAllResourceDescriptions().iterator().next();
+		Resource newLib = load("lib.indextestlanguage", "lib { entity Lib2 {} }");
+		IResourceDescription.Delta delta = new DefaultResourceDescriptionDelta(oldDescription, describe(newLib));
+		resourceSet.getResources().remove(newLib);
+		libData.register(delta);
+		GlobalScopeCache.invalidate(resourceSet, Collections.singletonList(delta));
+		assertNull(scope.getSingleElement(LIB));
+		assertNotNull(scope.getSingleElement(QualifiedName.create("lib", "Lib2")));
+	}
+
+	@Test public void testConcurrentInvalidationIsNotCached() throws Exception {
+		final GlobalScopeCache cache = new GlobalScopeCache();
+		final IResourceDescription description = libData.getAllResourceDescriptions().iterator().next();
+		ResourceDescriptionsData data = new ResourceDescriptionsData(Collections.singleton(description)) {
+			private boolean invalidated;
+
+			@Override
+			public Iterable<IEObjectDescription> getExportedObjects(EClass type, QualifiedName name, boolean ignoreCase) {
+				Iterable<IEObjectDescription> result = super.getExportedObjects(type, name, ignoreCase);
+				if (!invalidated) {
+					invalidated = true;
+					cache.invalidate(Collections.singletonList(new DefaultResourceDescriptionDelta(description, null)));
+				}
+				return result;
+			}
+		};
+		IContainer container = cache.getContainer(data);
+		Iterable<IEObjectDescription> first = container.getExportedObjects(IndexTestLanguagePackage.Literals.TYPE, LIB, false);
+		Iterable<IEObjectDescription> second = container.getExportedObjects(IndexTestLanguagePackage.Literals.TYPE, LIB, false);
+		assertNotSame(first, second);
+		assertSame(second, container.getExportedObjects(IndexTestLanguagePackage.Literals.TYPE, LIB, false));
+	}
+
+	@Test public void testImplicitImportScopesAreSharedDuringLinking() throws Exception {
+		with(new IndexTestLanguageStandaloneSetup() {
+			@Override
+			public Injector createInjector() {
+				return Guice.createInjector(new IndexTestLanguageRuntimeModule() {
+					@Override
+					public Class<? extends IScopeProvider> bindIScopeProvider() {
+						return ImplicitImportScopeProvider.class;
+					}
+
+					@SuppressWarnings("unused")
+					public void configureSharedScopeCache(Binder binder) {
+						binder.bindConstant().annotatedWith(Names.named(DefaultGlobalScopeProvider.SHARED_SCOPE_CACHE)).to(true);
+					}
+				});
+			}
+		});
+		resourceSet = get(XtextResourceSet.class);
+		ProjectDescription project = new ProjectDescription();
+		project.setName("app");
+		project.getDependencies().add("lib");
+		project.attachToEmfObject(resourceSet);
+		Map<String, ResourceDescriptionsData> chunks = Maps.newHashMap();
+		chunks.put("app", new ResourceDescriptionsData(Collections.<IResourceDescription>emptyList()));
+		chunks.put("lib", libData);
+		new ChunkedResourceDescriptions(chunks, resourceSet);
+		Resource first = load("first.indextestlanguage", "first { entity A { Lib lib } }");
+		Resource second = load("second.indextestlanguage", "second { entity B { Lib lib } }");
+		EcoreUtil.resolveAll(first);
+		EcoreUtil.resolveAll(second);
+		assertTrue(first.getErrors().isEmpty());
+		assertTrue(second.getErrors().isEmpty());
+		assertEquals(1, get(ImplicitImportScopeProvider.class).implicitImportScopes);
+		// the names that are resolved by the shared scope are still recorded
+		QualifiedName importedName = LIB.toLowerCase();
+		assertTrue(ImportedNamesAdapter.find(first).getImportedNames().contains(importedName));
+		assertTrue(ImportedNamesAdapter.find(second).getImportedNames().contains(importedName));
+	}
+
+	@Test public void testDisabledByDefault() throws Exception {
+		DefaultGlobalScopeProvider provider = get(DefaultGlobalScopeProvider.class);
+		assertFalse(provider.isSharedScopeCache());
+		assertNotNull(provider.getScope(app, IndexTestLanguagePackage.Literals.PROPERTY__TYPE, null).getSingleElement(LIB));
+		assertNull(GlobalScopeCache.findInEmfObject(resourceSet));
+	}
+
+	protected IScope getScope(Resource resource) {
+		return globalScopeProvider.getScope(resource, IndexTestLanguagePackage.Literals.PROPERTY__TYPE, null);
+	}
+
+	protected Resource load(String name, String model) throws Exception {
+		Resource result = resourceSet.createResource(URI.createURI("file:/" + name));
+		result.load(new StringInputStream(model), null);
+		return result;
+	}
+
+	protected IResourceDescription describe(Resource resource) {
+		IResourceDescription description = get(IResourceDescription.Manager.class).getResourceDescription(resource);
+		return SerializableResourceDescription.createCopy(description);
+	}
+
+}
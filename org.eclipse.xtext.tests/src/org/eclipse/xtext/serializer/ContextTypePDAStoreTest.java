@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.xtext.AbstractElement;
+import org.eclipse.xtext.Grammar;
+import org.eclipse.xtext.RuleCall;
+import org.eclipse.xtext.XtextStandaloneSetup;
+import org.eclipse.xtext.grammaranalysis.impl.GrammarElementTitleSwitch;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.serializer.analysis.ContextTypePDAStore;
+import org.eclipse.xtext.serializer.analysis.IContextTypePDAProvider;
+import org.eclipse.xtext.serializer.analysis.ISerState;
+import org.eclipse.xtext.serializer.analysis.SerializationContextMap;
+import org.eclipse.xtext.serializer.analysis.SerializationContextMap.Entry;
+import org.eclipse.xtext.services.XtextGrammarAccess;
+import org.eclipse.xtext.tests.AbstractXtextTests;
+import org.eclipse.xtext.util.formallang.Pda;
+import org.eclipse.xtext.util.formallang.PdaListFormatter;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Function;
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+
+public class ContextTypePDAStoreTest extends AbstractXtextTests {
+	private static class ToStr implements Function<ISerState, String> {
+		private Function<AbstractElement, String> ts = new GrammarElementTitleSwitch().showAssignments()
+				.hideCardinality().showQualified();
+
+		@Override
+		public String apply(ISerState from) {
+			switch (from.getType()) {
+				case START:
+					return "start";
+				case STOP:
+					return "stop";
+				default:
+					return ts.apply(from.getGrammarElement());
+			}
+		}
+	}
+
+	final static String HEADER = "grammar org.eclipse.xtext.serializer.ContextTypePDAStoreTestLanguage"
+			+ " with org.eclipse.xtext.common.Terminals "
+			+ "generate contextTypePDAStoreTest \"http://www.eclipse.org/2017/tmf/xtext/ContextTypePDAStore\"  ";
+
+	final static String BODY = "Model: 'model' elements+=Element*;\n"
+			+ "Element: Expression | Decl<true>;\n"
+			+ "Expression: Primary ({Add.left=current} '+' right=Primary)*;\n"
+			+ "Primary returns Expression: {Num} value=INT | '(' Expression ')';\n"
+			+ "Decl<Named>: 'decl' (<Named> name=ID | <!Named> '_') Body?;\n"
+			+ "fragment Body: '{' elements+=Element* '}';\n";
+
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		with(XtextStandaloneSetup.class);
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		Grammar grammar = (Grammar) getModel(HEADER + BODY);
+		SerializationContextMap<Pda<ISerState, RuleCall>> pdas = get(IContextTypePDAProvider.class).getContextTypePDAs(grammar);
+		SerializationContextMap<Pda<ISerState, RuleCall>> loaded = roundTrip(grammar, grammar, pdas);
+		assertNotNull(loaded);
+		assertEquals(format(pdas), format(loaded));
+		for (Entry<Pda<ISerState, RuleCall>> entry : pdas.values()) {
+			for (ISerializationContext context : entry.getContexts()) {
+				assertNotNull(context.toString(), loaded.get(context));
+			}
+		}
+	}
+
+	@Test
+	public void testRoundTripOfBinaryGrammar() throws Exception {
+		Grammar grammar = get(XtextGrammarAccess.class).getGrammar();
+		SerializationContextMap<Pda<ISerState, RuleCall>> pdas = get(IContextTypePDAProvider.class).getContextTypePDAs(grammar);
+		SerializationContextMap<Pda<ISerState, RuleCall>> loaded = roundTrip(grammar, grammar, pdas);
+		assertNotNull(loaded);
+		assertEquals(format(pdas), format(loaded));
+	}
+
+	@Test
+	public void testChangedGrammarIsIgnored() throws Exception {
+		Grammar grammar = (Grammar) getModel(HEADER + BODY);
+		Grammar changed = (Grammar) getModel(HEADER + BODY.replace("'decl'", "'declare'"));
+		SerializationContextMap<Pda<ISerState, RuleCall>> pdas = get(IContextTypePDAProvider.class).getContextTypePDAs(grammar);
+		assertNull(roundTrip(grammar, changed, pdas));
+	}
+
+	@Test
+	public void testLoadFromFileNextToGrammar() throws Exception {
+		File dir = Files.createTempDir();
+		try {
+			File grammarFile = new File(dir, "Test.xtext");
+			Files.write(HEADER + BODY, grammarFile, Charsets.UTF_8);
+			XtextResourceSet resourceSet = get(XtextResourceSet.class);
+			Resource resource = resourceSet.getResource(URI.createFileURI(grammarFile.getAbsolutePath()), true);
+			Grammar grammar = (Grammar) resource.getContents().get(0);
+			ContextTypePDAStore store = get(ContextTypePDAStore.class);
+			SerializationContextMap<Pda<ISerState, RuleCall>> pdas = get(IContextTypePDAProvider.class).getContextTypePDAs(grammar);
+			OutputStream out = new FileOutputStream(new File(dir, "Test." + ContextTypePDAStore.FILE_EXTENSION));
+			try {
+				store.write(grammar, pdas, out);
+			} finally {
+				out.close();
+			}
+			SerializationContextMap<Pda<ISerState, RuleCall>> loaded = store.load(grammar);
+			assertNotNull(loaded);
+			assertEquals(format(pdas), format(loaded));
+		} finally {
+			for (File file : dir.listFiles())
+				file.delete();
+			dir.delete();
+		}
+	}
+
+	@Test
+	public void testMissingFile() throws Exception {
+		Grammar grammar = (Grammar) getModel(HEADER + BODY);
+		assertNull(get(ContextTypePDAStore.class).load(grammar));
+	}
+
+	protected SerializationContextMap<Pda<ISerState, RuleCall>> roundTrip(Grammar written, Grammar read,
+			SerializationContextMap<Pda<ISerState, RuleCall>> pdas) throws Exception {
+		ContextTypePDAStore store = get(ContextTypePDAStore.class);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		store.write(written, pdas, out);
+		return store.read(read, new ByteArrayInputStream(out.toByteArray()));
+	}
+
+	protected String format(SerializationContextMap<Pda<ISerState, RuleCall>> pdas) {
+		List<String> result = Lists.newArrayList();
+		PdaListFormatter<ISerState, RuleCall> formatter = new PdaListFormatter<ISerState, RuleCall>();
+		formatter.setStateFormatter(new ToStr());
+		formatter.setStackitemFormatter(new GrammarElementTitleSwitch().showAssignments().hideCardinality());
+		formatter.sortFollowers();
+		for (Entry<Pda<ISerState, RuleCall>> ctx : pdas.sortedCopy().values()) {
+			result.add(Joiner.on(", ").join(ctx.getContexts()) + ":");
+			result.add("  " + formatter.format(ctx.getValue()).replace("\n", "\n  "));
+		}
+		return Joiner.on("\n").join(result);
+	}
+
+}
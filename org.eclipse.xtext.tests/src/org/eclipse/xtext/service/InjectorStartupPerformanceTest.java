@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.service;
+
+import java.io.StringReader;
+
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.xtext.Grammar;
+import org.eclipse.xtext.IGrammarAccess;
+import org.eclipse.xtext.XtextRuntimeModule;
+import org.eclipse.xtext.XtextStandaloneSetup;
+import org.eclipse.xtext.parser.IParseResult;
+import org.eclipse.xtext.parser.IParser;
+import org.eclipse.xtext.resource.IResourceFactory;
+import org.eclipse.xtext.resource.SaveOptions;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.serializer.ISerializer;
+import org.eclipse.xtext.tests.AbstractXtextTests;
+import org.eclipse.xtext.util.Modules2;
+import org.eclipse.xtext.util.StringInputStream;
+import org.junit.Test;
+
+import com.google.inject.Binder;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.name.Names;
+
+/**
+ * Creates many injectors for the same language, as tests and build tools do.
+ */
+public class InjectorStartupPerformanceTest extends AbstractXtextTests {
+
+	private static int LOOPS = 20 /* 0 */;
+
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		with(XtextStandaloneSetup.class);
+	}
+
+	@Test public void testCreateInjectors() {
+		Grammar first = null;
+		for (int i = 0; i < LOOPS; i++) {
+			Injector injector = createInjector(false);
+			Grammar grammar = injector.getInstance(IGrammarAccess.class).getGrammar();
+			if (first == null)
+				first = grammar;
+			else
+				assertNotSame(first, grammar);
+		}
+	}
+
+	@Test public void testCreateInjectorsWithSharedGrammar() {
+		Grammar first = null;
+		for (int i = 0; i < LOOPS; i++) {
+			Injector injector = createInjector(true);
+			Grammar grammar = injector.getInstance(IGrammarAccess.class).getGrammar();
+			if (first == null)
+				first = grammar;
+			else
+				assertSame(first, grammar);
+		}
+	}
+
+	@Test public void testParseWithSharedGrammar() {
+		for (int i = 0; i < 2; i++) {
+			IParser parser = createInjector(true).getInstance(IParser.class);
+			IParseResult result = parser.parse(new StringReader(
+					"grammar foo.Bar with org.eclipse.xtext.common.Terminals generate bar 'http://bar' Model: name=ID;"));
+			assertFalse(result.hasSyntaxErrors());
+		}
+	}
+
+	@Test public void testAdaptersOfSharedGrammar() throws Exception {
+		int adapters = -1;
+		for (int i = 0; i < 3; i++) {
+			Injector injector = createInjector(true);
+			XtextResourceSet resourceSet = injector.getInstance(XtextResourceSet.class);
+			resourceSet.setClasspathURIContext(getClass());
+			Resource resource = injector.getInstance(IResourceFactory.class).createResource(URI.createURI("foo.xtext"));
+			resourceSet.getResources().add(resource);
+			resource.load(new StringInputStream(
+					"grammar foo.Bar with org.eclipse.xtext.common.Terminals generate bar 'http://bar' Model: name=ID;"), null);
+			String serialized = injector.getInstance(ISerializer.class).serialize(resource.getContents().get(0),
+					SaveOptions.newBuilder().format().getOptions());
+			assertTrue(serialized, serialized.contains("Model"));
+			int count = countAdapters(injector.getInstance(IGrammarAccess.class).getGrammar());
+			if (adapters == -1)
+				adapters = count;
+			else
+				assertEquals(adapters, count);
+		}
+	}
+
+	protected int countAdapters(Grammar grammar) {
+		int result = 0;
+		for (Resource resource : grammar.eResource().getResourceSet().getResources()) {
+			result += resource.eAdapters().size();
+			TreeIterator<EObject> iterator = resource.getAllContents();
+			while (iterator.hasNext())
+				result += iterator.next().eAdapters().size();
+		}
+		return result;
+	}
+
+	protected Injector createInjector(final boolean sharedGrammar) {
+		return Guice.createInjector(Modules2.mixin(new XtextRuntimeModule(), new Module() {
+			@Override
+			public void configure(Binder binder) {
+				binder.bind(Boolean.TYPE).annotatedWith(Names.named(GrammarProvider.SHARED_GRAMMAR)).toInstance(sharedGrammar);
+			}
+		}));
+	}
+
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.util;
+
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetricsTest extends Assert {
+
+	private boolean wasEnabled;
+
+	@Before
+	public void setUp() {
+		wasEnabled = Metrics.isEnabled();
+		Metrics.setEnabled(true);
+		Metrics.reset();
+	}
+
+	@After
+	public void tearDown() {
+		Metrics.reset();
+		Metrics.setEnabled(wasEnabled);
+	}
+
+	@Test public void testRecord() {
+		for (int i = 1; i <= 100; i++) {
+			Metrics.record(Metrics.CLUSTER_SIZE, "tag", i, URI.createURI("file:/" + i + ".mydsl"));
+		}
+		List<Metrics.Snapshot> snapshots = Metrics.getSnapshots();
+		assertEquals(1, snapshots.size());
+		Metrics.Snapshot snapshot = snapshots.get(0);
+		assertEquals(Metrics.CLUSTER_SIZE, snapshot.getName());
+		assertEquals("tag", snapshot.getTag());
+		assertEquals(100, snapshot.getCount());
+		assertEquals(5050, snapshot.getTotal());
+		assertEquals(50, snapshot.getMean());
+		assertEquals(1, snapshot.getMin());
+		assertEquals(100, snapshot.getMax());
+		assertEquals("file:/100.mydsl", snapshot.getMaxSource());
+		assertEquals(50, snapshot.getP50(), 50 / 4);
+		assertEquals(90, snapshot.getP90(), 90 / 4);
+		assertTrue(snapshot.getP99() <= 100);
+		assertTrue(snapshot.getP50() <= snapshot.getP90());
+		assertTrue(snapshot.getP90() <= snapshot.getP99());
+		assertEquals(-1, snapshot.getAllocatedBytes());
+	}
+
+	@Test public void testTimer() {
+		Metrics.Timer timer = Metrics.start(Metrics.PARSE, URI.createURI("file:/foo.mydsl"));
+		timer.stop();
+		timer.stop();
+		Metrics.start(Metrics.PARSE, URI.createURI("file:/bar.other")).stop();
+		List<Metrics.Snapshot> snapshots = Metrics.getSnapshots();
+		assertEquals(2, snapshots.size());
+		assertEquals("mydsl", snapshots.get(0).getTag());
+		assertEquals(1, snapshots.get(0).getCount());
+		assertEquals("file:/foo.mydsl", snapshots.get(0).getMaxSource());
+		assertEquals("other", snapshots.get(1).getTag());
+	}
+
+	@Test public void testDisabled() {
+		Metrics.setEnabled(false);
+		Metrics.start(Metrics.PARSE, URI.createURI("file:/foo.mydsl")).stop();
+		Metrics.record(Metrics.CLUSTER_SIZE, null, 1, null);
+		assertTrue(Metrics.getSnapshots().isEmpty());
+	}
+
+	@Test public void testToJson() {
+		Metrics.record(Metrics.VALIDATE, "my\"dsl", 42, null);
+		String json = Metrics.toJson();
+		assertTrue(json, json.contains("\"name\": \"validate\""));
+		assertTrue(json, json.contains("\"tag\": \"my\\\"dsl\""));
+		assertTrue(json, json.contains("\"max\": 42"));
+		assertTrue(json, json.contains("\"maxSource\": null"));
+		Metrics.reset();
+		assertEquals("[\n]", Metrics.toJson());
+	}
+
+}
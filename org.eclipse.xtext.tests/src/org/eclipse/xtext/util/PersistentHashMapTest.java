@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.util;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PersistentHashMapTest extends Assert {
+
+	/**
+	 * A key with a configurable hash code to provoke collisions.
+	 */
+	static class Key {
+		final String name;
+		final int hash;
+
+		Key(String name, int hash) {
+			this.name = name;
+			this.hash = hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key && ((Key) obj).name.equals(name);
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	@Test public void testPutGetRemove() {
+		PersistentHashMap<String, Integer> map = new PersistentHashMap<String, Integer>();
+		assertNull(map.put("a", 1));
+		assertNull(map.put("b", 2));
+		assertEquals(Integer.valueOf(1), map.put("a", 3));
+		assertEquals(2, map.size());
+		assertEquals(Integer.valueOf(3), map.get("a"));
+		assertEquals(Integer.valueOf(2), map.remove("b"));
+		assertNull(map.remove("b"));
+		assertEquals(1, map.size());
+		assertFalse(map.containsKey("b"));
+	}
+
+	@Test public void testCopiesAreIndependent() {
+		PersistentHashMap<String, Integer> map = new PersistentHashMap<String, Integer>();
+		for (int i = 0; i < 1000; i++) {
+			map.put("k" + i, i);
+		}
+		PersistentHashMap<String, Integer> copy = map.copy();
+		copy.put("k1", -1);
+		copy.remove("k2");
+		copy.put("new", 1);
+		map.put("k3", -3);
+		assertEquals(Integer.valueOf(1), map.get("k1"));
+		assertEquals(Integer.valueOf(2), map.get("k2"));
+		assertFalse(map.containsKey("new"));
+		assertEquals(Integer.valueOf(-1), copy.get("k1"));
+		assertFalse(copy.containsKey("k2"));
+		assertEquals(Integer.valueOf(3), copy.get("k3"));
+		assertEquals(1000, map.size());
+		assertEquals(1000, copy.size());
+	}
+
+	@Test public void testCollisions() {
+		PersistentHashMap<Key, String> map = new PersistentHashMap<Key, String>();
+		Key a = new Key("a", 17);
+		Key b = new Key("b", 17);
+		Key c = new Key("c", 17 + (1 << 20));
+		map.put(a, "a");
+		map.put(b, "b");
+		map.put(c, "c");
+		PersistentHashMap<Key, String> copy = map.copy();
+		assertEquals("b", copy.remove(b));
+		assertEquals(3, map.size());
+		assertEquals("a", copy.get(a));
+		assertEquals("b", map.get(b));
+		assertEquals("c", copy.get(c));
+		assertNull(copy.get(new Key("d", 17)));
+	}
+
+	@Test public void testIteratorRemove() {
+		PersistentHashMap<String, Integer> map = new PersistentHashMap<String, Integer>();
+		for (int i = 0; i < 100; i++) {
+			map.put("k" + i, i);
+		}
+		PersistentHashMap<String, Integer> copy = map.copy();
+		Iterator<Map.Entry<String, Integer>> iterator = copy.entrySet().iterator();
+		int count = 0;
+		while (iterator.hasNext()) {
+			if (iterator.next().getValue() % 2 == 0) {
+				iterator.remove();
+			}
+			count++;
+		}
+		assertEquals(100, count);
+		assertEquals(50, copy.size());
+		assertEquals(100, map.size());
+	}
+
+	@Test public void testRandomOperations() {
+		Random random = new Random(42);
+		PersistentHashMap<Key, Integer> map = new PersistentHashMap<Key, Integer>();
+		Map<Key, Integer> expected = new HashMap<Key, Integer>();
+		PersistentHashMap<Key, Integer> snapshot = null;
+		Map<Key, Integer> expectedSnapshot = null;
+		for (int i = 0; i < 20000; i++) {
+			int k = random.nextInt(2000);
+			// few distinct hashes to exercise the collision nodes, too
+			Key key = new Key("k" + k, k % 3 == 0 ? k % 7 : k * 31);
+			if (random.nextInt(3) == 0) {
+				assertEquals(expected.remove(key), map.remove(key));
+			} else {
+				assertEquals(expected.put(key, i), map.put(key, i));
+			}
+			if (i % 5000 == 0) {
+				snapshot = map.copy();
+				expectedSnapshot = new HashMap<Key, Integer>(expected);
+			}
+		}
+		assertEquals(expected, map);
+		assertEquals(expected.size(), map.size());
+		assertEquals(expectedSnapshot, snapshot);
+		assertEquals(expectedSnapshot.size(), snapshot.size());
+	}
+
+	@Test public void testSetCopy() {
+		PersistentHashSet<String> set = new PersistentHashSet<String>();
+		assertTrue(set.add("a"));
+		assertFalse(set.add("a"));
+		PersistentHashSet<String> copy = set.copy();
+		copy.add("b");
+		assertTrue(set.remove("a"));
+		assertTrue(set.isEmpty());
+		assertEquals(2, copy.size());
+		assertTrue(copy.contains("a"));
+	}
+}
@@ -343,4 +343,66 @@ public class DeclarativeValidatorTest extends Assert {
 		
 	}
 
+	@Test public void testPrivateAndStaticCheckMethods() {
+		AbstractDeclarativeValidator test = new AbstractDeclarativeValidator() {
+			@Check
+			private void privateCheck(EClass x) {
+				error("private", EcorePackage.Literals.ENAMED_ELEMENT__NAME);
+			}
+		};
+		TestChain chain = helper.chain();
+		test.validate(EcorePackage.eINSTANCE.getEClass(), chain, null);
+		helper.assertMatch(chain, EcorePackage.Literals.ENAMED_ELEMENT__NAME);
+		chain = helper.chain();
+		StaticCheckValidator.staticInvocations = 0;
+		new StaticCheckValidator().validate(EcorePackage.eINSTANCE.getEClass(), chain, null);
+		helper.assertMatch(chain, EcorePackage.Literals.ECLASS__ABSTRACT);
+		assertEquals(1, StaticCheckValidator.staticInvocations);
+	}
+
+	@Test public void testExceptionsOfCheckMethods() {
+		AbstractDeclarativeValidator test = new AbstractDeclarativeValidator() {
+			@Check
+			public void npe(EClass x) {
+				throw new NullPointerException();
+			}
+		};
+		TestChain chain = helper.chain();
+		test.validate(EcorePackage.eINSTANCE.getEClass(), chain, null);
+		assertTrue(chain.isEmpty());
+		test = new AbstractDeclarativeValidator() {
+			@Check
+			public void fail(EClass x) {
+				throw new UnsupportedOperationException();
+			}
+		};
+		try {
+			test.validate(EcorePackage.eINSTANCE.getEClass(), chain, null);
+			fail("expected exception");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		// the state has been released, so the check is invoked again
+		try {
+			test.validate(EcorePackage.eINSTANCE.getEClass(), chain, null);
+			fail("expected exception");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+	}
+
+	public static class StaticCheckValidator extends AbstractDeclarativeValidator {
+		private static int staticInvocations;
+
+		@Check
+		public static void staticCheck(EClass x) {
+			staticInvocations++;
+		}
+
+		@Check
+		public void instanceCheck(EClass x) {
+			error("instance", EcorePackage.Literals.ECLASS__ABSTRACT);
+		}
+	}
+
 }
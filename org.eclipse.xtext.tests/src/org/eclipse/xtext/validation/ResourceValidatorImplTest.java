@@ -9,6 +9,8 @@ package org.eclipse.xtext.validation;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.emf.common.util.BasicDiagnostic;
 import org.eclipse.emf.common.util.Diagnostic;
@@ -17,12 +19,15 @@ import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EDataType;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EValidator;
+import org.eclipse.emf.ecore.util.EObjectValidator;
 import org.eclipse.xtext.diagnostics.Severity;
 import org.eclipse.xtext.linking.LangATestLanguageStandaloneSetup;
 import org.eclipse.xtext.linking.langATestLanguage.LangATestLanguagePackage;
 import org.eclipse.xtext.linking.langATestLanguage.Type;
 import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.service.OperationCanceledError;
 import org.eclipse.xtext.tests.AbstractXtextTests;
+import org.eclipse.xtext.util.CancelIndicator;
 import org.eclipse.xtext.util.StringInputStream;
 import org.junit.Test;
 
@@ -93,6 +98,57 @@ public class ResourceValidatorImplTest extends AbstractXtextTests {
 		assertEquals(Severity.WARNING, list.get(0).getSeverity());
 	}
 	
+	@Test public void testParallelValidation() throws Exception {
+		StringBuilder model = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			model.append("type Foo type Bar type Baz").append(i).append('\n');
+		}
+		XtextResource resource = getResourceAndExpect(new StringInputStream(model.toString()), 0);
+		List<Issue> sequential = getValidator().validate(resource, CheckMode.NORMAL_AND_FAST, null);
+		ResourceValidatorImpl validator = get(ResourceValidatorImpl.class);
+		validator.setParallelValidation(true);
+		List<Issue> parallel = validator.validate(resource, CheckMode.NORMAL_AND_FAST, null);
+		assertEquals(200, parallel.size());
+		assertEquals(sequential.size(), parallel.size());
+		for (int i = 0; i < parallel.size(); i++) {
+			assertEquals(i % 2 == 0 ? Severity.ERROR : Severity.WARNING, parallel.get(i).getSeverity());
+			assertEquals(sequential.get(i).getSeverity(), parallel.get(i).getSeverity());
+			assertEquals(sequential.get(i).getUriToProblem(), parallel.get(i).getUriToProblem());
+		}
+	}
+
+	@Test public void testParallelValidationIsCanceled() throws Exception {
+		StringBuilder model = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			model.append("type Foo").append(i).append('\n');
+		}
+		XtextResource resource = getResourceAndExpect(new StringInputStream(model.toString()), 0);
+		ResourceValidatorImpl validator = get(ResourceValidatorImpl.class);
+		validator.setParallelValidation(true);
+		final AtomicBoolean canceled = new AtomicBoolean();
+		final AtomicInteger validated = new AtomicInteger();
+		EValidator.Registry.INSTANCE.put(LangATestLanguagePackage.eINSTANCE, new EObjectValidator() {
+			@Override
+			public boolean validate(EClass eClass, EObject eObject, DiagnosticChain diagnostics, Map<Object, Object> context) {
+				if (eObject instanceof Type && validated.incrementAndGet() == 50)
+					canceled.set(true);
+				return true;
+			}
+		});
+		try {
+			validator.validate(resource, CheckMode.NORMAL_AND_FAST, new CancelIndicator() {
+				@Override
+				public boolean isCanceled() {
+					return canceled.get();
+				}
+			});
+			fail("expected cancellation");
+		} catch (OperationCanceledError e) {
+			// expected
+		}
+		assertTrue(validated.get() < 100);
+	}
+
 	private IResourceValidator getValidator() {
 		return get(IResourceValidator.class);
 	}
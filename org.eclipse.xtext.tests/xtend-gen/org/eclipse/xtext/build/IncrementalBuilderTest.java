@@ -26,6 +26,7 @@ import org.eclipse.xtext.testing.builder.AbstractIncrementalBuilderTest;
 import org.eclipse.xtext.util.CancelIndicator;
 import org.eclipse.xtext.validation.Issue;
 import org.eclipse.xtext.xbase.lib.CollectionLiterals;
+import org.eclipse.xtext.xbase.lib.Functions.Function1;
 import org.eclipse.xtext.xbase.lib.IterableExtensions;
 import org.eclipse.xtext.xbase.lib.Procedures.Procedure1;
 import org.eclipse.xtext.xbase.lib.Procedures.Procedure2;
@@ -112,6 +113,43 @@ public class IncrementalBuilderTest extends AbstractIncrementalBuilderTest {
     Assert.assertTrue(this.containsSuffix(this.generated.values(), "src-gen/A.txt"));
   }
   
+  @Test
+  public void testValidateAndGenerateAfterIndexOnlyBuild() {
+    final Procedure1<BuildRequest> _function = (BuildRequest it) -> {
+      StringConcatenation _builder = new StringConcatenation();
+      _builder.append("foo {");
+      _builder.newLine();
+      _builder.append("\t");
+      _builder.append("entity B {}");
+      _builder.newLine();
+      _builder.append("\t");
+      _builder.append("entity A { foo.B myReference }");
+      _builder.newLine();
+      _builder.append("}");
+      _builder.newLine();
+      URI _minus = this.operator_minus(
+        "src/MyFile.indextestlanguage", _builder.toString());
+      it.setDirtyFiles(Collections.<URI>unmodifiableList(CollectionLiterals.<URI>newArrayList(_minus)));
+      it.setIndexOnly(true);
+    };
+    final BuildRequest buildRequest = this.newBuildRequest(_function);
+    this.build(buildRequest);
+    Assert.assertTrue(this.generated.isEmpty());
+    Assert.assertNotNull(this.indexState.getResourceDescriptions().getResourceDescription(this.uri("src/MyFile.indextestlanguage")));
+    final Procedure1<BuildRequest> _function_1 = (BuildRequest it) -> {
+      URI _uri = this.uri("src/MyFile.indextestlanguage");
+      it.setDirtyFiles(Collections.<URI>unmodifiableList(CollectionLiterals.<URI>newArrayList(_uri)));
+    };
+    final BuildRequest validationRequest = this.newBuildRequest(_function_1);
+    final Function1<URI, IResourceServiceProvider> _function_2 = (URI it) -> {
+      return this.getLanguages().getResourceServiceProvider(it);
+    };
+    this.incrementalBuilder.validateAndGenerate(validationRequest, _function_2);
+    Assert.assertTrue(this.issues.toString(), this.issues.isEmpty());
+    Assert.assertEquals(2, this.generated.size());
+    Assert.assertTrue(this.containsSuffix(this.generated.values(), "src-gen/B.txt", "src-gen/A.txt"));
+  }
+  
   @Test
   public void testGeneratedOnceBuild() {
     final Procedure1<BuildRequest> _function = (BuildRequest it) -> {
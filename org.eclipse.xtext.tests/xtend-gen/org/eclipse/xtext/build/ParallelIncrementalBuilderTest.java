@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.xtext.build;
+
+import com.google.common.collect.Iterables;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.xtend2.lib.StringConcatenation;
+import org.eclipse.xtext.build.BuildRequest;
+import org.eclipse.xtext.build.IncrementalBuilder;
+import org.eclipse.xtext.build.IncrementalBuilderTest;
+import org.eclipse.xtext.generator.OutputConfigurationAdapter;
+import org.eclipse.xtext.index.IndexTestLanguageInjectorProvider;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.resource.IResourceServiceProvider;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.XtextRunner;
+import org.eclipse.xtext.xbase.lib.ExclusiveRange;
+import org.eclipse.xtext.xbase.lib.Functions.Function0;
+import org.eclipse.xtext.xbase.lib.Functions.Function1;
+import org.eclipse.xtext.xbase.lib.IterableExtensions;
+import org.eclipse.xtext.xbase.lib.ListExtensions;
+import org.eclipse.xtext.xbase.lib.ObjectExtensions;
+import org.eclipse.xtext.xbase.lib.Procedures.Procedure1;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Runs the {@link IncrementalBuilderTest incremental builder tests} with parallel builds.
+ */
+@RunWith(XtextRunner.class)
+@InjectWith(IndexTestLanguageInjectorProvider.class)
+@SuppressWarnings("all")
+public class ParallelIncrementalBuilderTest extends IncrementalBuilderTest {
+  private ExecutorService executorService;
+  
+  @Before
+  public void createExecutorService() {
+    this.executorService = Executors.newFixedThreadPool(4);
+  }
+  
+  @After
+  public void shutdownExecutorService() {
+    this.executorService.shutdown();
+  }
+  
+  @Override
+  protected BuildRequest newBuildRequest(final Procedure1<? super BuildRequest> init) {
+    final BuildRequest result = super.newBuildRequest(init);
+    result.setExecutorService(this.executorService);
+    final Function0<XtextResourceSet> _function = () -> {
+      XtextResourceSet _createResourceSet = this.createResourceSet(result.getState().getResourceDescriptions());
+      final Procedure1<XtextResourceSet> _function_1 = (XtextResourceSet it) -> {
+        EList<Adapter> _eAdapters = it.eAdapters();
+        List<OutputConfigurationAdapter> _list = IterableExtensions.<OutputConfigurationAdapter>toList(Iterables.<OutputConfigurationAdapter>filter(result.getResourceSet().eAdapters(), OutputConfigurationAdapter.class));
+        Iterables.<Adapter>addAll(_eAdapters, _list);
+      };
+      return ObjectExtensions.<XtextResourceSet>operator_doubleArrow(_createResourceSet, _function_1);
+    };
+    result.setWorkerResourceSetProvider(_function);
+    return result;
+  }
+  
+  @Test
+  public void testDeltasAreOrdered() {
+    final Function1<Integer, URI> _function = (Integer it) -> {
+      StringConcatenation _builder = new StringConcatenation();
+      _builder.append("foo {");
+      _builder.newLine();
+      _builder.append("\t");
+      _builder.append("entity A");
+      _builder.append(it, "\t");
+      _builder.append(" { foo.A");
+      _builder.append((((it).intValue() + 1) % 50), "\t");
+      _builder.append(" reference }");
+      _builder.newLineIfNotEmpty();
+      _builder.append("}");
+      _builder.newLine();
+      return this.operator_minus((("src/File" + it) + ".indextestlanguage"), _builder.toString());
+    };
+    final List<URI> files = IterableExtensions.<URI>toList(IterableExtensions.<Integer, URI>map(new ExclusiveRange(0, 50, true), _function));
+    final Procedure1<BuildRequest> _function_1 = (BuildRequest it) -> {
+      it.setDirtyFiles(files);
+    };
+    final Function1<URI, IResourceServiceProvider> _function_2 = (URI it) -> {
+      return this.getLanguages().getResourceServiceProvider(it);
+    };
+    final IncrementalBuilder.Result result = this.incrementalBuilder.build(this.newBuildRequest(_function_1), _function_2);
+    Assert.assertTrue(this.issues.toString(), this.issues.isEmpty());
+    final Function1<IResourceDescription.Delta, URI> _function_3 = (IResourceDescription.Delta it) -> {
+      return it.getUri();
+    };
+    Assert.assertEquals(files, ListExtensions.<IResourceDescription.Delta, URI>map(result.getAffectedResources(), _function_3));
+    Assert.assertEquals(50, this.generated.size());
+    Assert.assertEquals(50, IterableExtensions.size(result.getIndexState().getResourceDescriptions().getAllResourceDescriptions()));
+  }
+}
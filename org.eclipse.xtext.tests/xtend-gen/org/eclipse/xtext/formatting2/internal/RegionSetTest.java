@@ -12,6 +12,7 @@ import com.google.common.base.Functions;
 import org.eclipse.xtend2.lib.StringConcatenation;
 import org.eclipse.xtext.formatting2.internal.ArrayListTextSegmentSet;
 import org.eclipse.xtext.formatting2.internal.TestableTextSegmentSet;
+import org.eclipse.xtext.formatting2.internal.TextSegmentSet;
 import org.eclipse.xtext.formatting2.regionaccess.ITextSegment;
 import org.eclipse.xtext.formatting2.regionaccess.internal.TextSegment;
 import org.eclipse.xtext.xbase.lib.Exceptions;
@@ -24,11 +25,15 @@ import org.junit.Test;
  */
 @SuppressWarnings("all")
 public class RegionSetTest {
-  private void test(final CharSequence expectation, final Procedure1<? super TestableTextSegmentSet> test) {
+  protected TextSegmentSet<ITextSegment> createTextSegmentSet() {
     Function<ITextSegment, ITextSegment> _identity = Functions.<ITextSegment>identity();
     Function<Object, String> _stringFunction = Functions.toStringFunction();
-    ArrayListTextSegmentSet<ITextSegment> _arrayListTextSegmentSet = new ArrayListTextSegmentSet<ITextSegment>(_identity, _stringFunction, true);
-    final TestableTextSegmentSet set = new TestableTextSegmentSet(_arrayListTextSegmentSet);
+    return new ArrayListTextSegmentSet<ITextSegment>(_identity, _stringFunction, true);
+  }
+  
+  private void test(final CharSequence expectation, final Procedure1<? super TestableTextSegmentSet> test) {
+    TextSegmentSet<ITextSegment> _createTextSegmentSet = this.createTextSegmentSet();
+    final TestableTextSegmentSet set = new TestableTextSegmentSet(_createTextSegmentSet);
     try {
       test.apply(set);
     } catch (final Throwable _t) {
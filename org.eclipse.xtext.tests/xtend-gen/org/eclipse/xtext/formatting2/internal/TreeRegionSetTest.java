@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.xtext.formatting2.internal;
+
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+import java.util.Iterator;
+import java.util.Random;
+import org.eclipse.xtext.formatting2.internal.RegionSetTest;
+import org.eclipse.xtext.formatting2.internal.TestableTextSegmentSet;
+import org.eclipse.xtext.formatting2.internal.TextSegmentSet;
+import org.eclipse.xtext.formatting2.internal.TreeTextSegmentSet;
+import org.eclipse.xtext.formatting2.regionaccess.ITextSegment;
+import org.eclipse.xtext.formatting2.regionaccess.internal.TextSegment;
+import org.eclipse.xtext.xbase.lib.ExclusiveRange;
+import org.junit.Assert;
+import org.junit.Test;
+
+@SuppressWarnings("all")
+public class TreeRegionSetTest extends RegionSetTest {
+  @Override
+  protected TextSegmentSet<ITextSegment> createTextSegmentSet() {
+    Function<ITextSegment, ITextSegment> _identity = Functions.<ITextSegment>identity();
+    Function<Object, String> _stringFunction = Functions.toStringFunction();
+    return new TreeTextSegmentSet<ITextSegment>(_identity, _stringFunction, true);
+  }
+  
+  @Test
+  public void testSameAsArrayList() {
+    final Random random = new Random(42);
+    TextSegmentSet<ITextSegment> _createTextSegmentSet = super.createTextSegmentSet();
+    final TestableTextSegmentSet expected = new TestableTextSegmentSet(_createTextSegmentSet);
+    TextSegmentSet<ITextSegment> _createTextSegmentSet_1 = this.createTextSegmentSet();
+    final TestableTextSegmentSet actual = new TestableTextSegmentSet(_createTextSegmentSet_1);
+    ExclusiveRange _doubleDotLessThan = new ExclusiveRange(0, 2000, true);
+    for (final Integer i : _doubleDotLessThan) {
+      {
+        int _nextInt = random.nextInt(1000);
+        int _nextInt_1 = random.nextInt(4);
+        final TextSegment segment = new TextSegment(null, _nextInt, _nextInt_1);
+        expected.add(segment);
+        actual.add(segment);
+      }
+    }
+    Assert.assertEquals(expected.toString(), actual.toString());
+  }
+  
+  @Test
+  public void testIteratorAfter() {
+    final TextSegmentSet<ITextSegment> set = this.createTextSegmentSet();
+    ExclusiveRange _doubleDotLessThan = new ExclusiveRange(0, 10, true);
+    for (final Integer i : _doubleDotLessThan) {
+      TextSegment _textSegment = new TextSegment(null, (90 - ((i).intValue() * 10)), 1);
+      set.add(_textSegment);
+    }
+    TextSegment _textSegment = new TextSegment(null, 40, 1);
+    final Iterator<ITextSegment> iterator = set.iteratorAfter(_textSegment);
+    Assert.assertEquals(50, iterator.next().getOffset());
+    Assert.assertEquals(60, iterator.next().getOffset());
+    TextSegment _textSegment_1 = new TextSegment(null, 45, 1);
+    Assert.assertFalse(set.iteratorAfter(_textSegment_1).hasNext());
+  }
+}
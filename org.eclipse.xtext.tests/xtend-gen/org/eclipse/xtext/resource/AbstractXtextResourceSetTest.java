@@ -10,6 +10,7 @@ package org.eclipse.xtext.resource;
 import com.google.common.collect.Iterables;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.Resource;
@@ -205,4 +206,57 @@ public abstract class AbstractXtextResourceSetTest extends AbstractResourceSetTe
     Assert.assertTrue(resource.eAdapters().isEmpty());
     Assert.assertEquals(0, rs.getURIResourceMap().size());
   }
+  
+  @Test
+  public void testAliasesAreRemoved() {
+    final XtextResourceSet rs = this.createEmptyResourceSet();
+    final XtextResource resource = new XtextResource();
+    resource.setURI(URI.createURI("/a/../foo"));
+    EList<Resource> _resources = rs.getResources();
+    _resources.add(resource);
+    rs.getURIConverter().getURIMap().put(URI.createURI("alias:/foo"), rs.getURIConverter().normalize(resource.getURI()));
+    Assert.assertSame(resource, rs.getResource(URI.createURI("alias:/foo"), false));
+    Assert.assertEquals(2, rs.getNormalizationMap().size());
+    rs.getResources().remove(resource);
+    Assert.assertEquals(0, rs.getURIResourceMap().size());
+    Assert.assertEquals(0, rs.getNormalizationMap().size());
+  }
+  
+  @Test
+  public void testEntriesOfClientsAreRemoved() {
+    final XtextResourceSet rs = this.createEmptyResourceSet();
+    final XtextResource resource = new XtextResource();
+    String _absolutePath = new File("foo").getAbsolutePath();
+    resource.setURI(URI.createFileURI(_absolutePath));
+    EList<Resource> _resources = rs.getResources();
+    _resources.add(resource);
+    final XtextResource other = new XtextResource();
+    String _absolutePath_1 = new File("bar").getAbsolutePath();
+    other.setURI(URI.createFileURI(_absolutePath_1));
+    EList<Resource> _resources_1 = rs.getResources();
+    _resources_1.add(other);
+    rs.getURIResourceMap().put(URI.createURI("alias"), resource);
+    Assert.assertEquals(3, rs.getURIResourceMap().size());
+    rs.getResources().remove(resource);
+    Assert.assertEquals(1, rs.getURIResourceMap().size());
+    Assert.assertSame(other, rs.getURIResourceMap().get(other.getURI()));
+    rs.getResources().remove(other);
+    Assert.assertEquals(0, rs.getURIResourceMap().size());
+  }
+  
+  @Test
+  public void testEntriesOfInitialMapAreRemoved() {
+    final XtextResourceSet rs = this.createEmptyResourceSet();
+    final XtextResource resource = new XtextResource();
+    String _absolutePath = new File("foo").getAbsolutePath();
+    resource.setURI(URI.createFileURI(_absolutePath));
+    final HashMap<URI, Resource> map = CollectionLiterals.<URI, Resource>newHashMap();
+    map.put(URI.createURI("alias"), resource);
+    rs.setURIResourceMap(map);
+    EList<Resource> _resources = rs.getResources();
+    _resources.add(resource);
+    Assert.assertEquals(2, rs.getURIResourceMap().size());
+    rs.getResources().remove(resource);
+    Assert.assertEquals(0, rs.getURIResourceMap().size());
+  }
 }
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.xtext.resource.persistence;
+
+import com.google.common.io.Files;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.xtext.linking.LangATestLanguageStandaloneSetup;
+import org.eclipse.xtext.linking.langATestLanguage.Main;
+import org.eclipse.xtext.linking.langATestLanguage.Type;
+import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
+import org.eclipse.xtext.resource.IEObjectDescription;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.resource.persistence.IndexedResourceStorageFacade;
+import org.eclipse.xtext.resource.persistence.IndexedResourceStorageLoadable;
+import org.eclipse.xtext.resource.persistence.ResourceStorageLoadable;
+import org.eclipse.xtext.resource.persistence.ResourceStorageWritable;
+import org.eclipse.xtext.resource.persistence.StorageAwareResource;
+import org.eclipse.xtext.tests.AbstractXtextTests;
+import org.eclipse.xtext.xbase.lib.CollectionLiterals;
+import org.eclipse.xtext.xbase.lib.Exceptions;
+import org.eclipse.xtext.xbase.lib.Functions.Function1;
+import org.eclipse.xtext.xbase.lib.IterableExtensions;
+import org.eclipse.xtext.xbase.lib.ListExtensions;
+import org.junit.Assert;
+import org.junit.Test;
+
+@SuppressWarnings("all")
+public class IndexedResourceStorageTest extends AbstractXtextTests {
+  private IndexedResourceStorageFacade facade;
+  
+  private File tempDir;
+  
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    LangATestLanguageStandaloneSetup _langATestLanguageStandaloneSetup = new LangATestLanguageStandaloneSetup();
+    this.with(_langATestLanguageStandaloneSetup);
+    this.facade = this.<IndexedResourceStorageFacade>get(IndexedResourceStorageFacade.class);
+    this.tempDir = Files.createTempDir();
+  }
+  
+  @Override
+  public void tearDown() throws Exception {
+    org.eclipse.xtext.util.Files.cleanFolder(this.tempDir, null, true, true);
+    super.tearDown();
+  }
+  
+  @Test
+  public void testRoundTrip() {
+    try {
+      final XtextResourceSet resourceSet = this.<XtextResourceSet>get(XtextResourceSet.class);
+      final StorageAwareResource resourceA = this.loadResource(resourceSet, "hubba:/bubba.langatestlanguage", "type A type B extends A");
+      final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+      this.facade.createResourceStorageWritable(bout).writeResource(resourceA);
+      byte[] _byteArray = bout.toByteArray();
+      ByteArrayInputStream _byteArrayInputStream = new ByteArrayInputStream(_byteArray);
+      final ResourceStorageLoadable loadable = this.facade.createResourceStorageLoadable(_byteArrayInputStream);
+      Assert.assertTrue(((IndexedResourceStorageLoadable) loadable).isIndexed());
+      Resource _createResource = resourceSet.createResource(URI.createURI("hubba:/bubba2.langatestlanguage"));
+      final StorageAwareResource resourceC = ((StorageAwareResource) _createResource);
+      resourceC.loadFromStorage(loadable);
+      EObject _head = IterableExtensions.<EObject>head(resourceC.getContents());
+      final EList<Type> types = ((Main) _head).getTypes();
+      final Function1<Type, String> _function = (Type it) -> {
+        return it.getName();
+      };
+      Assert.assertEquals(Collections.<String>unmodifiableList(CollectionLiterals.<String>newArrayList("A", "B")), ListExtensions.<Type, String>map(types, _function));
+      Assert.assertEquals("A", IterableExtensions.<Type>last(types).getExtends().getName());
+      final Function1<IEObjectDescription, String> _function_1 = (IEObjectDescription it) -> {
+        return it.getName().toString();
+      };
+      Assert.assertEquals(Collections.<String>unmodifiableList(CollectionLiterals.<String>newArrayList("A", "B")), IterableExtensions.<String>toList(IterableExtensions.<IEObjectDescription, String>map(resourceC.getResourceDescription().getExportedObjects(), _function_1)));
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  @Test
+  public void testReadZipStorage() {
+    try {
+      final XtextResourceSet resourceSet = this.<XtextResourceSet>get(XtextResourceSet.class);
+      final StorageAwareResource resourceA = this.loadResource(resourceSet, "hubba:/bubba.langatestlanguage", "type A");
+      final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+      new ResourceStorageWritable(bout, false).writeResource(resourceA);
+      ByteBuffer _wrap = ByteBuffer.wrap(bout.toByteArray());
+      final IndexedResourceStorageLoadable loadable = new IndexedResourceStorageLoadable(_wrap, false);
+      Assert.assertFalse(loadable.isIndexed());
+      Resource _createResource = resourceSet.createResource(URI.createURI("hubba:/bubba2.langatestlanguage"));
+      final StorageAwareResource resourceC = ((StorageAwareResource) _createResource);
+      resourceC.loadFromStorage(loadable);
+      EObject _head = IterableExtensions.<EObject>head(resourceC.getContents());
+      Assert.assertEquals("A", IterableExtensions.<Type>head(((Main) _head).getTypes()).getName());
+      Assert.assertEquals("A", IterableExtensions.<IEObjectDescription>head(resourceC.getResourceDescription().getExportedObjects()).getName().toString());
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  @Test
+  public void testMappedStorageWithDeferredNodeModel() {
+    try {
+      this.facade.setStoreNodeModel(true);
+      final String text = "type A type B extends A";
+      final File sourceFile = new File(this.tempDir, "mapped.langatestlanguage");
+      Files.write(text.getBytes(), sourceFile);
+      final URI sourceURI = URI.createFileURI(sourceFile.getAbsolutePath());
+      Resource _resource = this.<XtextResourceSet>get(XtextResourceSet.class).getResource(sourceURI, true);
+      final StorageAwareResource resourceA = ((StorageAwareResource) _resource);
+      File _file = new File(this.tempDir, ".mapped.langatestlanguagebin");
+      final FileOutputStream out = new FileOutputStream(_file);
+      this.facade.createResourceStorageWritable(out).writeResource(resourceA);
+      Resource _createResource = this.<XtextResourceSet>get(XtextResourceSet.class).createResource(sourceURI);
+      final StorageAwareResource resourceC = ((StorageAwareResource) _createResource);
+      final ResourceStorageLoadable loadable = this.facade.getOrCreateResourceStorageLoadable(resourceC);
+      Assert.assertTrue(((IndexedResourceStorageLoadable) loadable).isIndexed());
+      resourceC.loadFromStorage(loadable);
+      EObject _head = IterableExtensions.<EObject>head(resourceC.getContents());
+      final Main main = ((Main) _head);
+      final Function1<Type, String> _function = (Type it) -> {
+        return it.getName();
+      };
+      Assert.assertEquals(Collections.<String>unmodifiableList(CollectionLiterals.<String>newArrayList("A", "B")), ListExtensions.<Type, String>map(main.getTypes(), _function));
+      Assert.assertTrue(resourceC.hasDeferredParseResult());
+      Assert.assertEquals("type B extends A", NodeModelUtils.findActualNodeFor(IterableExtensions.<Type>last(main.getTypes())).getText().trim());
+      Assert.assertFalse(resourceC.hasDeferredParseResult());
+      Assert.assertEquals(text, resourceC.getParseResult().getRootNode().getText());
+      Assert.assertSame(main, resourceC.getParseResult().getRootASTElement());
+      Assert.assertSame(resourceC.getParseResult().getRootNode(), NodeModelUtils.getNode(main));
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  @Test
+  public void testTruncatedStorageWithDeferredNodeModel() {
+    try {
+      this.facade.setStoreNodeModel(true);
+      final File sourceFile = new File(this.tempDir, "truncated.langatestlanguage");
+      Files.write("type A type B extends A".getBytes(), sourceFile);
+      final URI sourceURI = URI.createFileURI(sourceFile.getAbsolutePath());
+      Resource _resource = this.<XtextResourceSet>get(XtextResourceSet.class).getResource(sourceURI, true);
+      final StorageAwareResource resourceA = ((StorageAwareResource) _resource);
+      final File storageFile = new File(this.tempDir, ".truncated.langatestlanguagebin");
+      FileOutputStream _fileOutputStream = new FileOutputStream(storageFile);
+      this.facade.createResourceStorageWritable(_fileOutputStream).writeResource(resourceA);
+      Resource _createResource = this.<XtextResourceSet>get(XtextResourceSet.class).createResource(sourceURI);
+      final StorageAwareResource resourceC = ((StorageAwareResource) _createResource);
+      resourceC.loadFromStorage(this.facade.getOrCreateResourceStorageLoadable(resourceC));
+      Assert.assertTrue(resourceC.hasDeferredParseResult());
+      new FileOutputStream(storageFile).close();
+      EObject _head = IterableExtensions.<EObject>head(resourceC.getContents());
+      final Main main = ((Main) _head);
+      Assert.assertEquals("type B extends A", NodeModelUtils.findActualNodeFor(IterableExtensions.<Type>last(main.getTypes())).getText().trim());
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  private StorageAwareResource loadResource(final XtextResourceSet resourceSet, final String uri, final String text) {
+    try {
+      Resource _createResource = resourceSet.createResource(URI.createURI(uri));
+      final StorageAwareResource resource = ((StorageAwareResource) _createResource);
+      resource.load(this.getAsStream(text), null);
+      return resource;
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+}
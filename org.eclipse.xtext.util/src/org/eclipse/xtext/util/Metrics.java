@@ -0,0 +1,476 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.emf.common.util.URI;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * Records how long the phases of processing a resource take, e.g. parsing, linking or validation, and other numeric
+ * values such as the sizes of the clusters of a build. Recording is disabled by default. It is enabled with
+ * {@link #setEnabled(boolean)} or the system property <code>org.eclipse.xtext.metrics</code>.
+ *
+ * Each metric is identified by its name and a tag, usually the file extension of the processed resource, i.e. its
+ * language. A metric keeps the distribution of its values in a histogram with a relative error of at most 25%, the
+ * total and the maximum value together with the URI of the resource that caused it. Durations are measured in
+ * nanoseconds. If {@link #setAllocationTracking(boolean) allocation tracking} is enabled and supported by the JVM,
+ * the bytes that the measuring thread allocated are recorded, too. All recorders are lock-free.
+ *
+ * The recorded metrics are available as {@link #getSnapshots() snapshots} or {@link #toJson() JSON}.
+ *
+ * @since 2.13
+ */
+@Beta
+public final class Metrics {
+
+	public static final String PARSE = "parse";
+	public static final String LINK = "link";
+	public static final String INDEX = "index";
+	public static final String VALIDATE = "validate";
+	public static final String GENERATE = "generate";
+	public static final String SERIALIZE = "serialize";
+	public static final String FORMAT = "format";
+	public static final String LOAD_STORAGE = "loadStorage";
+	public static final String CLUSTER_SIZE = "clusterSize";
+
+	/**
+	 * A running measurement of a duration.
+	 */
+	public interface Timer {
+		/**
+		 * Records the time since the timer has been started. Only the first call has an effect.
+		 */
+		void stop();
+	}
+
+	/**
+	 * The recorded values of a metric at a point in time.
+	 */
+	public static final class Snapshot {
+		private final String name;
+		private final String tag;
+		private final long count;
+		private final long total;
+		private final long min;
+		private final long max;
+		private final String maxSource;
+		private final long p50;
+		private final long p90;
+		private final long p99;
+		private final long allocatedBytes;
+
+		private Snapshot(String name, String tag, long count, long total, long min, long max, String maxSource,
+				long p50, long p90, long p99, long allocatedBytes) {
+			this.name = name;
+			this.tag = tag;
+			this.count = count;
+			this.total = total;
+			this.min = min;
+			this.max = max;
+			this.maxSource = maxSource;
+			this.p50 = p50;
+			this.p90 = p90;
+			this.p99 = p99;
+			this.allocatedBytes = allocatedBytes;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getTag() {
+			return tag;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public long getTotal() {
+			return total;
+		}
+
+		public long getMin() {
+			return min;
+		}
+
+		public long getMax() {
+			return max;
+		}
+
+		/**
+		 * The URI of the resource that caused the maximum value, or <code>null</code>.
+		 */
+		public String getMaxSource() {
+			return maxSource;
+		}
+
+		public long getMean() {
+			return count == 0 ? 0 : total / count;
+		}
+
+		public long getP50() {
+			return p50;
+		}
+
+		public long getP90() {
+			return p90;
+		}
+
+		public long getP99() {
+			return p99;
+		}
+
+		/**
+		 * The bytes allocated by all measurements, or <code>-1</code> if allocations have not been tracked.
+		 */
+		public long getAllocatedBytes() {
+			return allocatedBytes;
+		}
+
+		@Override
+		public String toString() {
+			return name + "[" + tag + "]: count=" + count + ", total=" + total + ", mean=" + getMean() + ", p50=" + p50
+					+ ", p90=" + p90 + ", p99=" + p99 + ", max=" + max + " (" + maxSource + ")";
+		}
+	}
+
+	private static final class Key {
+		private final String name;
+		private final String tag;
+
+		private Key(String name, String tag) {
+			this.name = name;
+			this.tag = tag;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * name.hashCode() + tag.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return name.equals(other.name) && tag.equals(other.tag);
+		}
+	}
+
+	private static final class Sample {
+		private final long value;
+		private final URI source;
+
+		private Sample(long value, URI source) {
+			this.value = value;
+			this.source = source;
+		}
+	}
+
+	/**
+	 * The histogram has four buckets per power of two. Values below four have a bucket of their own.
+	 */
+	private static final int BUCKETS = 4 + 61 * 4;
+
+	private static final class Recorder {
+		private final LongAdder total = new LongAdder();
+		private final LongAdder allocatedBytes = new LongAdder();
+		private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+		private final AtomicReference<Sample> min = new AtomicReference<Sample>();
+		private final AtomicReference<Sample> max = new AtomicReference<Sample>();
+		private volatile boolean allocationsRecorded;
+
+		private void record(long value, URI source, long allocated) {
+			total.add(value);
+			buckets.incrementAndGet(bucketIndex(value));
+			if (allocated >= 0) {
+				allocatedBytes.add(allocated);
+				allocationsRecorded = true;
+			}
+			Sample sample = null;
+			for (Sample current = max.get(); current == null || value > current.value; current = max.get()) {
+				if (sample == null)
+					sample = new Sample(value, source);
+				if (max.compareAndSet(current, sample))
+					break;
+			}
+			for (Sample current = min.get(); current == null || value < current.value; current = min.get()) {
+				if (sample == null)
+					sample = new Sample(value, source);
+				if (min.compareAndSet(current, sample))
+					break;
+			}
+		}
+
+		private Snapshot snapshot(Key key) {
+			long[] counts = new long[BUCKETS];
+			long snapshotCount = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				counts[i] = buckets.get(i);
+				snapshotCount += counts[i];
+			}
+			Sample minSample = min.get();
+			Sample maxSample = max.get();
+			long minValue = minSample != null ? minSample.value : 0;
+			long maxValue = maxSample != null ? maxSample.value : 0;
+			String maxSource = maxSample != null && maxSample.source != null ? maxSample.source.toString() : null;
+			return new Snapshot(key.name, key.tag, snapshotCount, total.sum(), minValue, maxValue, maxSource,
+					percentile(counts, snapshotCount, 0.5, maxValue), percentile(counts, snapshotCount, 0.9, maxValue),
+					percentile(counts, snapshotCount, 0.99, maxValue),
+					allocationsRecorded ? allocatedBytes.sum() : -1);
+		}
+	}
+
+	private static int bucketIndex(long value) {
+		if (value < 4)
+			return value < 0 ? 0 : (int) value;
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - 2)) & 3;
+		return 4 + (exponent - 2) * 4 + subBucket;
+	}
+
+	private static long bucketUpperBound(int index) {
+		if (index < 4)
+			return index;
+		int exponent = (index - 4) / 4 + 2;
+		int subBucket = (index - 4) % 4;
+		return ((4L + subBucket + 1) << (exponent - 2)) - 1;
+	}
+
+	private static long percentile(long[] counts, long count, double percentile, long max) {
+		if (count == 0)
+			return 0;
+		long rank = (long) Math.ceil(percentile * count);
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank)
+				return Math.min(bucketUpperBound(i), max);
+		}
+		return max;
+	}
+
+	private static final class Measurement implements Timer {
+		private final Recorder recorder;
+		private final URI source;
+		private final long startAllocated;
+		private long startNanos;
+
+		private Measurement(Recorder recorder, URI source) {
+			this.recorder = recorder;
+			this.source = source;
+			this.startAllocated = currentThreadAllocatedBytes();
+			this.startNanos = System.nanoTime();
+		}
+
+		@Override
+		public void stop() {
+			if (startNanos == Long.MIN_VALUE)
+				return;
+			long duration = System.nanoTime() - startNanos;
+			startNanos = Long.MIN_VALUE;
+			long allocated = startAllocated >= 0 ? currentThreadAllocatedBytes() - startAllocated : -1;
+			recorder.record(duration, source, allocated);
+		}
+	}
+
+	/**
+	 * Loaded on first use only, since the allocation counter is not available in every JVM.
+	 */
+	private static final class AllocationCounter {
+		private static final com.sun.management.ThreadMXBean BEAN = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+
+		private static long get() {
+			return BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+	}
+
+	private static final Timer NULL_TIMER = new Timer() {
+		@Override
+		public void stop() {
+		}
+	};
+
+	private static final ConcurrentMap<Key, Recorder> recorders = new ConcurrentHashMap<Key, Recorder>();
+
+	private static volatile boolean enabled = Boolean.getBoolean("org.eclipse.xtext.metrics");
+
+	private static volatile boolean allocationTracking = false;
+
+	private Metrics() {
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	public static void setEnabled(boolean enabled) {
+		Metrics.enabled = enabled;
+	}
+
+	public static boolean isAllocationTracking() {
+		return allocationTracking;
+	}
+
+	/**
+	 * Enables recording the allocated bytes of timed measurements. Has no effect if the JVM does not support it.
+	 */
+	public static void setAllocationTracking(boolean allocationTracking) {
+		Metrics.allocationTracking = allocationTracking;
+	}
+
+	/**
+	 * Starts a timer for the given resource. The file extension of the URI is used as tag.
+	 */
+	public static Timer start(String name, URI uri) {
+		if (!enabled)
+			return NULL_TIMER;
+		return new Measurement(getRecorder(name, getTag(uri)), uri);
+	}
+
+	/**
+	 * Starts a timer.
+	 *
+	 * @param uri
+	 *            the URI of the measured resource, or <code>null</code>.
+	 */
+	public static Timer start(String name, String tag, URI uri) {
+		if (!enabled)
+			return NULL_TIMER;
+		return new Measurement(getRecorder(name, tag), uri);
+	}
+
+	/**
+	 * Records a value that is not a duration, e.g. a size.
+	 *
+	 * @param uri
+	 *            the URI of the resource that caused the value, or <code>null</code>.
+	 */
+	public static void record(String name, String tag, long value, URI uri) {
+		if (!enabled)
+			return;
+		getRecorder(name, tag).record(value, uri, -1);
+	}
+
+	/**
+	 * Returns the current state of all metrics, ordered by name and tag.
+	 */
+	public static List<Snapshot> getSnapshots() {
+		List<Key> keys = new ArrayList<Key>(recorders.keySet());
+		Collections.sort(keys, new Comparator<Key>() {
+			@Override
+			public int compare(Key o1, Key o2) {
+				int result = o1.name.compareTo(o2.name);
+				return result != 0 ? result : o1.tag.compareTo(o2.tag);
+			}
+		});
+		List<Snapshot> result = new ArrayList<Snapshot>(keys.size());
+		for (Key key : keys) {
+			Recorder recorder = recorders.get(key);
+			if (recorder != null)
+				result.add(recorder.snapshot(key));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the {@link #getSnapshots() snapshots} as a JSON array of objects.
+	 */
+	public static String toJson() {
+		StringBuilder result = new StringBuilder("[");
+		for (Snapshot snapshot : getSnapshots()) {
+			if (result.length() > 1)
+				result.append(",");
+			result.append("\n  {");
+			appendJson(result, "name", snapshot.getName()).append(", ");
+			appendJson(result, "tag", snapshot.getTag()).append(", ");
+			result.append("\"count\": ").append(snapshot.getCount()).append(", ");
+			result.append("\"total\": ").append(snapshot.getTotal()).append(", ");
+			result.append("\"mean\": ").append(snapshot.getMean()).append(", ");
+			result.append("\"min\": ").append(snapshot.getMin()).append(", ");
+			result.append("\"p50\": ").append(snapshot.getP50()).append(", ");
+			result.append("\"p90\": ").append(snapshot.getP90()).append(", ");
+			result.append("\"p99\": ").append(snapshot.getP99()).append(", ");
+			result.append("\"max\": ").append(snapshot.getMax()).append(", ");
+			appendJson(result, "maxSource", snapshot.getMaxSource()).append(", ");
+			result.append("\"allocatedBytes\": ").append(snapshot.getAllocatedBytes());
+			result.append("}");
+		}
+		return result.append("\n]").toString();
+	}
+
+	private static StringBuilder appendJson(StringBuilder result, String key, String value) {
+		result.append('"').append(key).append("\": ");
+		if (value == null)
+			return result.append("null");
+		result.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				result.append('\\').append(c);
+			} else if (c < 0x20) {
+				result.append(String.format("\\u%04x", (int) c));
+			} else {
+				result.append(c);
+			}
+		}
+		return result.append('"');
+	}
+
+	/**
+	 * Discards all recorded values.
+	 */
+	public static void reset() {
+		recorders.clear();
+	}
+
+	private static Recorder getRecorder(String name, String tag) {
+		Key key = new Key(name, tag == null ? "" : tag);
+		Recorder recorder = recorders.get(key);
+		if (recorder == null) {
+			Recorder newRecorder = new Recorder();
+			recorder = recorders.putIfAbsent(key, newRecorder);
+			if (recorder == null)
+				recorder = newRecorder;
+		}
+		return recorder;
+	}
+
+	private static String getTag(URI uri) {
+		if (uri == null)
+			return "";
+		String fileExtension = uri.fileExtension();
+		return fileExtension != null ? fileExtension : "";
+	}
+
+	private static long currentThreadAllocatedBytes() {
+		if (!allocationTracking)
+			return -1;
+		try {
+			return AllocationCounter.get();
+		} catch (Throwable t) {
+			allocationTracking = false;
+			return -1;
+		}
+	}
+
+}
@@ -0,0 +1,503 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * A hash map whose {@link #copy() copies} share their structure with the original map. Copying is a constant time
+ * operation, and subsequent modifications of either map only copy the path from the root of the underlying hash array
+ * mapped trie to the modified entry. Nodes that were created by a map instance since it was copied the last time are
+ * updated in place, so bulk modifications do not allocate more than a regular hash map.
+ *
+ * Neither keys nor values may be <code>null</code>. Iteration order is unspecified. Instances are not thread-safe, but
+ * different copies of a map may be used concurrently since they never modify shared nodes.
+ *
+ * Keeping all state of a data structure in persistent maps and sets makes copying it a constant time operation. The
+ * values are shared between copies, though, so mutable values such as nested {@link PersistentHashSet sets} must never
+ * be modified in place. Replace them with a modified {@link PersistentHashSet#copy() copy} instead.
+ *
+ * @since 2.13
+ */
+@Beta
+public class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+
+	private static final int BITS = 5;
+	private static final int MASK = (1 << BITS) - 1;
+
+	private static class Result {
+		Object oldValue;
+		boolean sizeChanged;
+	}
+
+	private static abstract class Node {
+		Object owner;
+		Object[] array;
+
+		Node(Object owner, Object[] array) {
+			this.owner = owner;
+			this.array = array;
+		}
+
+		abstract Object find(int shift, int hash, Object key);
+
+		abstract Node put(Object owner, int shift, int hash, Object key, Object value, Result result);
+
+		abstract Node remove(Object owner, int shift, int hash, Object key, Result result);
+
+		Node set(Object owner, int index, Object value) {
+			if (this.owner == owner) {
+				array[index] = value;
+				return this;
+			}
+			Object[] newArray = array.clone();
+			newArray[index] = value;
+			return copy(owner, newArray);
+		}
+
+		abstract Node copy(Object owner, Object[] newArray);
+	}
+
+	/**
+	 * Stores pairs of keys and values, or <code>null</code> and a nested node, indexed by a bitmap of the occupied
+	 * hash fragments.
+	 */
+	private static class BitmapNode extends Node {
+		int bitmap;
+
+		BitmapNode(Object owner, int bitmap, Object[] array) {
+			super(owner, array);
+			this.bitmap = bitmap;
+		}
+
+		private int index(int bit) {
+			return Integer.bitCount(bitmap & (bit - 1));
+		}
+
+		@Override
+		Object find(int shift, int hash, Object key) {
+			int bit = bitpos(hash, shift);
+			if ((bitmap & bit) == 0) {
+				return null;
+			}
+			int idx = 2 * index(bit);
+			Object k = array[idx];
+			if (k == null) {
+				return ((Node) array[idx + 1]).find(shift + BITS, hash, key);
+			}
+			if (key.equals(k)) {
+				return array[idx + 1];
+			}
+			return null;
+		}
+
+		@Override
+		Node put(Object owner, int shift, int hash, Object key, Object value, Result result) {
+			int bit = bitpos(hash, shift);
+			int idx = 2 * index(bit);
+			if ((bitmap & bit) != 0) {
+				Object k = array[idx];
+				Object v = array[idx + 1];
+				if (k == null) {
+					Node child = (Node) v;
+					Node newChild = child.put(owner, shift + BITS, hash, key, value, result);
+					if (newChild == child) {
+						return this;
+					}
+					return set(owner, idx + 1, newChild);
+				}
+				if (key.equals(k)) {
+					result.oldValue = v;
+					if (v == value) {
+						return this;
+					}
+					return set(owner, idx + 1, value);
+				}
+				result.sizeChanged = true;
+				Node newChild = createNode(owner, shift + BITS, k, v, hash, key, value);
+				if (this.owner == owner) {
+					array[idx] = null;
+					array[idx + 1] = newChild;
+					return this;
+				}
+				Object[] newArray = array.clone();
+				newArray[idx] = null;
+				newArray[idx + 1] = newChild;
+				return new BitmapNode(owner, bitmap, newArray);
+			}
+			result.sizeChanged = true;
+			Object[] newArray = new Object[array.length + 2];
+			System.arraycopy(array, 0, newArray, 0, idx);
+			newArray[idx] = key;
+			newArray[idx + 1] = value;
+			System.arraycopy(array, idx, newArray, idx + 2, array.length - idx);
+			if (this.owner == owner) {
+				this.array = newArray;
+				this.bitmap |= bit;
+				return this;
+			}
+			return new BitmapNode(owner, bitmap | bit, newArray);
+		}
+
+		@Override
+		Node remove(Object owner, int shift, int hash, Object key, Result result) {
+			int bit = bitpos(hash, shift);
+			if ((bitmap & bit) == 0) {
+				return this;
+			}
+			int idx = 2 * index(bit);
+			Object k = array[idx];
+			if (k == null) {
+				Node child = (Node) array[idx + 1];
+				Node newChild = child.remove(owner, shift + BITS, hash, key, result);
+				if (newChild == child) {
+					return this;
+				}
+				if (newChild != null) {
+					return set(owner, idx + 1, newChild);
+				}
+			} else if (key.equals(k)) {
+				result.oldValue = array[idx + 1];
+				result.sizeChanged = true;
+			} else {
+				return this;
+			}
+			if (bitmap == bit) {
+				return null;
+			}
+			Object[] newArray = new Object[array.length - 2];
+			System.arraycopy(array, 0, newArray, 0, idx);
+			System.arraycopy(array, idx + 2, newArray, idx, newArray.length - idx);
+			if (this.owner == owner) {
+				this.array = newArray;
+				this.bitmap ^= bit;
+				return this;
+			}
+			return new BitmapNode(owner, bitmap ^ bit, newArray);
+		}
+
+		@Override
+		Node copy(Object owner, Object[] newArray) {
+			return new BitmapNode(owner, bitmap, newArray);
+		}
+	}
+
+	/**
+	 * Stores the pairs of keys and values whose keys have the very same hash.
+	 */
+	private static class CollisionNode extends Node {
+		final int hash;
+
+		CollisionNode(Object owner, int hash, Object[] array) {
+			super(owner, array);
+			this.hash = hash;
+		}
+
+		private int indexOf(Object key) {
+			for (int i = 0; i < array.length; i += 2) {
+				if (key.equals(array[i])) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		@Override
+		Object find(int shift, int hash, Object key) {
+			int idx = indexOf(key);
+			if (idx < 0) {
+				return null;
+			}
+			return array[idx + 1];
+		}
+
+		@Override
+		Node put(Object owner, int shift, int hash, Object key, Object value, Result result) {
+			if (hash != this.hash) {
+				BitmapNode parent = new BitmapNode(owner, bitpos(this.hash, shift), new Object[] { null, this });
+				return parent.put(owner, shift, hash, key, value, result);
+			}
+			int idx = indexOf(key);
+			if (idx >= 0) {
+				result.oldValue = array[idx + 1];
+				if (array[idx + 1] == value) {
+					return this;
+				}
+				return set(owner, idx + 1, value);
+			}
+			result.sizeChanged = true;
+			Object[] newArray = new Object[array.length + 2];
+			System.arraycopy(array, 0, newArray, 0, array.length);
+			newArray[array.length] = key;
+			newArray[array.length + 1] = value;
+			if (this.owner == owner) {
+				this.array = newArray;
+				return this;
+			}
+			return new CollisionNode(owner, hash, newArray);
+		}
+
+		@Override
+		Node remove(Object owner, int shift, int hash, Object key, Result result) {
+			int idx = indexOf(key);
+			if (idx < 0) {
+				return this;
+			}
+			result.oldValue = array[idx + 1];
+			result.sizeChanged = true;
+			if (array.length == 2) {
+				return null;
+			}
+			Object[] newArray = new Object[array.length - 2];
+			System.arraycopy(array, 0, newArray, 0, idx);
+			System.arraycopy(array, idx + 2, newArray, idx, newArray.length - idx);
+			if (this.owner == owner) {
+				this.array = newArray;
+				return this;
+			}
+			return new CollisionNode(owner, hash, newArray);
+		}
+
+		@Override
+		Node copy(Object owner, Object[] newArray) {
+			return new CollisionNode(owner, hash, newArray);
+		}
+	}
+
+	private static int bitpos(int hash, int shift) {
+		return 1 << ((hash >>> shift) & MASK);
+	}
+
+	private static int hash(Object key) {
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private static Node createNode(Object owner, int shift, Object key1, Object value1, int hash2, Object key2,
+			Object value2) {
+		int hash1 = hash(key1);
+		if (hash1 == hash2) {
+			return new CollisionNode(owner, hash1, new Object[] { key1, value1, key2, value2 });
+		}
+		Result ignore = new Result();
+		return new BitmapNode(owner, 0, new Object[0])
+				.put(owner, shift, hash1, key1, value1, ignore)
+				.put(owner, shift, hash2, key2, value2, ignore);
+	}
+
+	private Node root;
+
+	private int size;
+
+	private Object owner = new Object();
+
+	private int modCount;
+
+	public PersistentHashMap() {
+	}
+
+	public PersistentHashMap(Map<? extends K, ? extends V> content) {
+		putAll(content);
+	}
+
+	private PersistentHashMap(Node root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	/**
+	 * Creates a copy of this map in constant time. Modifications of the copy do not affect this map and vice versa.
+	 */
+	public PersistentHashMap<K, V> copy() {
+		// neither this instance nor the copy may update the current nodes in place anymore
+		owner = new Object();
+		return new PersistentHashMap<K, V>(root, size);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V get(Object key) {
+		if (root == null || key == null) {
+			return null;
+		}
+		return (V) root.find(0, hash(key), key);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V put(K key, V value) {
+		if (key == null || value == null) {
+			throw new NullPointerException();
+		}
+		if (root == null) {
+			root = new BitmapNode(owner, 0, new Object[0]);
+		}
+		Result result = new Result();
+		root = root.put(owner, 0, hash(key), key, value, result);
+		if (result.sizeChanged) {
+			size++;
+			modCount++;
+		} else if (result.oldValue != value) {
+			modCount++;
+		}
+		return (V) result.oldValue;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V remove(Object key) {
+		if (root == null || key == null) {
+			return null;
+		}
+		Result result = new Result();
+		root = root.remove(owner, 0, hash(key), key, result);
+		if (result.sizeChanged) {
+			size--;
+			modCount++;
+		}
+		return (V) result.oldValue;
+	}
+
+	@Override
+	public void clear() {
+		root = null;
+		size = 0;
+		modCount++;
+	}
+
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		return new AbstractSet<Map.Entry<K, V>>() {
+			@Override
+			public Iterator<Map.Entry<K, V>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				if (o instanceof Map.Entry<?, ?>) {
+					Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+					Object value = get(entry.getKey());
+					return value != null && value.equals(entry.getValue());
+				}
+				return false;
+			}
+
+			@Override
+			public void clear() {
+				PersistentHashMap.this.clear();
+			}
+		};
+	}
+
+	private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+
+		private Object[][] arrays = new Object[8][];
+		private int[] indexes = new int[8];
+		private int depth = -1;
+		private Map.Entry<K, V> next;
+		private K lastReturned;
+		private int expectedModCount = modCount;
+
+		EntryIterator() {
+			if (root != null) {
+				push(root.array);
+				computeNext();
+			}
+		}
+
+		private void push(Object[] array) {
+			depth++;
+			if (depth == arrays.length) {
+				arrays = java.util.Arrays.copyOf(arrays, depth * 2);
+				indexes = java.util.Arrays.copyOf(indexes, depth * 2);
+			}
+			arrays[depth] = array;
+			indexes[depth] = 0;
+		}
+
+		@SuppressWarnings("unchecked")
+		private void computeNext() {
+			next = null;
+			while (depth >= 0) {
+				Object[] array = arrays[depth];
+				int index = indexes[depth];
+				if (index >= array.length) {
+					arrays[depth] = null;
+					depth--;
+				} else {
+					indexes[depth] = index + 2;
+					Object key = array[index];
+					if (key == null) {
+						push(((Node) array[index + 1]).array);
+					} else {
+						next = new SimpleImmutableEntry<K, V>((K) key, (V) array[index + 1]);
+						return;
+					}
+				}
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public Map.Entry<K, V> next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (next == null) {
+				throw new NoSuchElementException();
+			}
+			Map.Entry<K, V> result = next;
+			lastReturned = result.getKey();
+			computeNext();
+			return result;
+		}
+
+		@Override
+		public void remove() {
+			if (lastReturned == null) {
+				throw new IllegalStateException();
+			}
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			// the iterated arrays must not be modified in place
+			owner = new Object();
+			PersistentHashMap.this.remove(lastReturned);
+			lastReturned = null;
+			expectedModCount = modCount;
+		}
+	}
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.util;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * A hash set whose {@link #copy() copies} share their structure with the original set.
+ *
+ * @see PersistentHashMap
+ * @since 2.13
+ */
+@Beta
+public class PersistentHashSet<E> extends AbstractSet<E> {
+
+	private final PersistentHashMap<E, E> map;
+
+	public PersistentHashSet() {
+		this(new PersistentHashMap<E, E>());
+	}
+
+	public PersistentHashSet(Collection<? extends E> content) {
+		this();
+		addAll(content);
+	}
+
+	private PersistentHashSet(PersistentHashMap<E, E> map) {
+		this.map = map;
+	}
+
+	/**
+	 * Creates a copy of this set in constant time. Modifications of the copy do not affect this set and vice versa.
+	 */
+	public PersistentHashSet<E> copy() {
+		return new PersistentHashSet<E>(map.copy());
+	}
+
+	@Override
+	public boolean add(E e) {
+		return map.put(e, e) == null;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		return map.remove(o) != null;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return map.containsKey(o);
+	}
+
+	@Override
+	public void clear() {
+		map.clear();
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return map.keySet().iterator();
+	}
+
+	@Override
+	public int size() {
+		return map.size();
+	}
+}
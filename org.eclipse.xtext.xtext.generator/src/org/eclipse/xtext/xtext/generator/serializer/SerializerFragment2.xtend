@@ -11,6 +11,9 @@ import com.google.common.collect.ImmutableSet
 import com.google.common.collect.LinkedHashMultimap
 import com.google.common.collect.Multimap
 import com.google.inject.Inject
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.IOException
 import java.util.List
 import java.util.Map
 import java.util.Set
@@ -42,8 +45,10 @@ import org.eclipse.xtext.parser.antlr.AbstractSplittingTokenSource
 import org.eclipse.xtext.serializer.ISerializationContext
 import org.eclipse.xtext.serializer.ISerializer
 import org.eclipse.xtext.serializer.acceptor.SequenceFeeder
+import org.eclipse.xtext.serializer.analysis.ContextTypePDAStore
 import org.eclipse.xtext.serializer.analysis.GrammarAlias.AbstractElementAlias
 import org.eclipse.xtext.serializer.analysis.IGrammarConstraintProvider
+import org.eclipse.xtext.serializer.analysis.IContextTypePDAProvider
 import org.eclipse.xtext.serializer.analysis.IGrammarConstraintProvider.IConstraint
 import org.eclipse.xtext.serializer.analysis.ISyntacticSequencerPDAProvider
 import org.eclipse.xtext.serializer.analysis.ISyntacticSequencerPDAProvider.ISynTransition
@@ -87,10 +92,20 @@ import static extension org.eclipse.xtext.xtext.generator.util.GenModelUtil2.*
 	@Inject extension IGrammarConstraintProvider
 	@Inject DebugGraphGenerator debugGraphGenerator
 	@Inject FileAccessFactory fileAccessFactory
+	@Inject IContextTypePDAProvider contextTypePDAProvider
+	@Inject ContextTypePDAStore contextTypePDAStore
 	
 	@Accessors boolean generateDebugData = false
 	@Accessors boolean generateSupportForDeprecatedContextEObject = false
 	
+	/**
+	 * Set to true to generate the analysis of the grammar that the serializer otherwise computes when it is
+	 * first used. The file is written next to the binary grammar and loaded by the {@link ContextTypePDAStore}.
+	 * 
+	 * @since 2.13
+	 */
+	@Accessors boolean generatePrecomputedAnalysis = false
+	
 	boolean detectSyntheticTerminals = true
 	
 	/**
@@ -151,6 +166,24 @@ import static extension org.eclipse.xtext.xtext.generator.util.GenModelUtil2.*
 				projectConfig.runtime.srcGen.generateFile(fileToContent.key, fileToContent.value)
 			}
 		}
+		if (generatePrecomputedAnalysis) {
+			generatePrecomputedAnalysis()
+		}
+	}
+	
+	/**
+	 * @since 2.13
+	 */
+	protected def generatePrecomputedAnalysis() {
+		val out = new ByteArrayOutputStream
+		try {
+			contextTypePDAStore.write(grammar, contextTypePDAProvider.getContextTypePDAs(grammar), out)
+		} catch (IOException e) {
+			LOG.error(e.getMessage(), e)
+			return
+		}
+		projectConfig.runtime.srcGen.generateFile(contextTypePDAStore.getClasspathRelativePath(grammar),
+			new ByteArrayInputStream(out.toByteArray))
 	}
 	
 	protected def generateSemanticSequencer() {
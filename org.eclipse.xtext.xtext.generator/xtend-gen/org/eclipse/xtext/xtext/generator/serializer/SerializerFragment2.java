@@ -13,6 +13,9 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.inject.Inject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -52,7 +55,9 @@ import org.eclipse.xtext.parser.antlr.AbstractSplittingTokenSource;
 import org.eclipse.xtext.serializer.ISerializationContext;
 import org.eclipse.xtext.serializer.ISerializer;
 import org.eclipse.xtext.serializer.acceptor.SequenceFeeder;
+import org.eclipse.xtext.serializer.analysis.ContextTypePDAStore;
 import org.eclipse.xtext.serializer.analysis.GrammarAlias;
+import org.eclipse.xtext.serializer.analysis.IContextTypePDAProvider;
 import org.eclipse.xtext.serializer.analysis.IGrammarConstraintProvider;
 import org.eclipse.xtext.serializer.analysis.ISemanticSequencerNfaProvider;
 import org.eclipse.xtext.serializer.analysis.ISyntacticSequencerPDAProvider;
@@ -67,6 +72,7 @@ import org.eclipse.xtext.serializer.sequencer.ITransientValueService;
 import org.eclipse.xtext.util.Strings;
 import org.eclipse.xtext.util.internal.Log;
 import org.eclipse.xtext.xbase.lib.CollectionLiterals;
+import org.eclipse.xtext.xbase.lib.Exceptions;
 import org.eclipse.xtext.xbase.lib.Extension;
 import org.eclipse.xtext.xbase.lib.Functions.Function1;
 import org.eclipse.xtext.xbase.lib.IterableExtensions;
@@ -135,12 +141,27 @@ public class SerializerFragment2 extends AbstractStubGeneratingFragment {
   @Inject
   private FileAccessFactory fileAccessFactory;
   
+  @Inject
+  private IContextTypePDAProvider contextTypePDAProvider;
+  
+  @Inject
+  private ContextTypePDAStore contextTypePDAStore;
+  
   @Accessors
   private boolean generateDebugData = false;
   
   @Accessors
   private boolean generateSupportForDeprecatedContextEObject = false;
   
+  /**
+   * Set to true to generate the analysis of the grammar that the serializer otherwise computes when it is
+   * first used. The file is written next to the binary grammar and loaded by the {@link ContextTypePDAStore}.
+   * 
+   * @since 2.13
+   */
+  @Accessors
+  private boolean generatePrecomputedAnalysis = false;
+  
   private boolean detectSyntheticTerminals = true;
   
   /**
@@ -221,6 +242,31 @@ public class SerializerFragment2 extends AbstractStubGeneratingFragment {
         this.getProjectConfig().getRuntime().getSrcGen().generateFile(fileToContent.getKey(), fileToContent.getValue());
       }
     }
+    if (this.generatePrecomputedAnalysis) {
+      this.generatePrecomputedAnalysis();
+    }
+  }
+  
+  /**
+   * @since 2.13
+   */
+  protected void generatePrecomputedAnalysis() {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try {
+      this.contextTypePDAStore.write(this.getGrammar(), this.contextTypePDAProvider.getContextTypePDAs(this.getGrammar()), out);
+    } catch (final Throwable _t) {
+      if (_t instanceof IOException) {
+        final IOException e = (IOException)_t;
+        SerializerFragment2.LOG.error(e.getMessage(), e);
+        return;
+      } else {
+        throw Exceptions.sneakyThrow(_t);
+      }
+    }
+    String _classpathRelativePath = this.contextTypePDAStore.getClasspathRelativePath(this.getGrammar());
+    byte[] _byteArray = out.toByteArray();
+    ByteArrayInputStream _byteArrayInputStream = new ByteArrayInputStream(_byteArray);
+    this.getProjectConfig().getRuntime().getSrcGen().generateFile(_classpathRelativePath, _byteArrayInputStream);
   }
   
   protected void generateSemanticSequencer() {
@@ -1748,4 +1794,13 @@ public class SerializerFragment2 extends AbstractStubGeneratingFragment {
   public void setGenerateSupportForDeprecatedContextEObject(final boolean generateSupportForDeprecatedContextEObject) {
     this.generateSupportForDeprecatedContextEObject = generateSupportForDeprecatedContextEObject;
   }
+  
+  @Pure
+  public boolean isGeneratePrecomputedAnalysis() {
+    return this.generatePrecomputedAnalysis;
+  }
+  
+  public void setGeneratePrecomputedAnalysis(final boolean generatePrecomputedAnalysis) {
+    this.generatePrecomputedAnalysis = generatePrecomputedAnalysis;
+  }
 }
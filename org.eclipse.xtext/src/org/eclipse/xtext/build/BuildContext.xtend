@@ -7,6 +7,7 @@
  *******************************************************************************/
 package org.eclipse.xtext.build
 
+import java.util.concurrent.ExecutorService
 import org.eclipse.emf.common.util.URI
 import org.eclipse.emf.ecore.resource.Resource
 import org.eclipse.xtend.lib.annotations.Accessors
@@ -14,6 +15,7 @@ import org.eclipse.xtend.lib.annotations.FinalFieldsConstructor
 import org.eclipse.xtext.resource.IResourceServiceProvider
 import org.eclipse.xtext.resource.XtextResourceSet
 import org.eclipse.xtext.resource.clustering.IResourceClusteringPolicy
+import org.eclipse.xtext.resource.clustering.LRUResourceEvictionPolicy
 import org.eclipse.xtext.util.CancelIndicator
 
 /**
@@ -28,14 +30,51 @@ class BuildContext {
 	@Accessors val IResourceClusteringPolicy clusteringPolicy
 	@Accessors val CancelIndicator cancelIndicator
 	
+	/**
+	 * @since 2.13
+	 */
+	@Accessors ExecutorService executorService
+	
+	/**
+	 * @since 2.13
+	 */
+	@Accessors ()=>XtextResourceSet workerResourceSetProvider
+	
+	/**
+	 * If set, only the least recently used resources are evicted when a cluster is complete, instead of clearing the
+	 * resource set.
+	 * @since 2.13
+	 */
+	@Accessors LRUResourceEvictionPolicy resourceEvictionPolicy
+	
 	ClusteringStorageAwareResourceLoader loader
 	
+	/**
+	 * Whether independent resources are processed in parallel, each worker using its own resource set.
+	 * @since 2.13
+	 */
+	def boolean isParallel() {
+		return executorService !== null && workerResourceSetProvider !== null
+	}
+	
 	def <T> Iterable<T> executeClustered(Iterable<URI> uri, (Resource)=>T operation) {
 		if(loader === null) 
 			loader = new ClusteringStorageAwareResourceLoader(this)
 		return loader.executeClustered(uri.filter[canHandle], operation)
 	}
 	
+	/**
+	 * Like {@link #executeClustered(Iterable, org.eclipse.xtext.xbase.lib.Functions.Function1) executeClustered(uri, operation)},
+	 * but in a {@link #isParallel() parallel} context the resource set of each worker is passed to the given
+	 * initializer before any resource is loaded into it.
+	 * @since 2.13
+	 */
+	def <T> Iterable<T> executeClustered(Iterable<URI> uri, (XtextResourceSet)=>void workerResourceSetInitializer, (Resource)=>T operation) {
+		if(loader === null) 
+			loader = new ClusteringStorageAwareResourceLoader(this)
+		return loader.executeClustered(uri.filter[canHandle], workerResourceSetInitializer, operation)
+	}
+	
 	protected def boolean canHandle(URI uri) {
         val resourceServiceProvider = resourceServiceProviderProvider.apply(uri)
         if (resourceServiceProvider === null)
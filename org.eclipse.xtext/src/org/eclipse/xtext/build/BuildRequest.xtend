@@ -9,6 +9,7 @@ package org.eclipse.xtext.build
 
 import java.io.File
 import java.util.List
+import java.util.concurrent.ExecutorService
 import org.eclipse.emf.common.util.URI
 import org.eclipse.xtend.lib.annotations.Accessors
 import org.eclipse.xtext.resource.IResourceDescription
@@ -53,6 +54,48 @@ class BuildRequest {
 	XtextResourceSet resourceSet
 	CancelIndicator cancelIndicator = CancelIndicator.NullImpl
 	
+	/**
+	 * If set together with a {@link #getWorkerResourceSetProvider() worker resource set provider}, independent
+	 * resources are loaded, indexed, validated and generated in parallel on this executor.
+	 * @since 2.13
+	 */
+	ExecutorService executorService
+	
+	/**
+	 * Creates the resource sets of the workers in a {@link #isParallel() parallel build}. They have to be configured
+	 * like the {@link #getResourceSet() resource set} of this request, e.g. they have to use the same index.
+	 * @since 2.13
+	 */
+	()=>XtextResourceSet workerResourceSetProvider
+	
+	/**
+	 * If set and {@link org.eclipse.xtext.util.Metrics metrics} are enabled, the recorded metrics are written to this
+	 * file as JSON after the build.
+	 * @since 2.13
+	 */
+	URI metricsFile
+	
+	/**
+	 * If set, generated files are written by a background thread while the next resources are generated. The
+	 * {@link #getAfterGenerateFile() callback} may be called before a file is written, but all files have been written
+	 * when the build returns.
+	 * @since 2.13
+	 */
+	boolean writeBehind = false
+	
+	/**
+	 * If set, the written generated files are synced to the disk in one batch at the end of the build.
+	 * @since 2.13
+	 */
+	boolean syncGeneratedFiles = false
+	
+	/**
+	 * @since 2.13
+	 */
+	def boolean isParallel() {
+		return executorService !== null && workerResourceSetProvider !== null
+	}
+	
 	interface IPostValidationCallback {
 		
 		/**
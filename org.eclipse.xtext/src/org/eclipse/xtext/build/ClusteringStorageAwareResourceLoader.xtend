@@ -7,22 +7,41 @@
  *******************************************************************************/
 package org.eclipse.xtext.build
 
+import com.google.common.collect.Lists
+import java.util.List
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Future
+import java.util.concurrent.atomic.AtomicInteger
+import org.eclipse.core.runtime.OperationCanceledException
 import org.eclipse.emf.common.util.URI
 import org.eclipse.emf.ecore.resource.Resource
+import org.eclipse.emf.ecore.resource.ResourceSet
 import org.eclipse.xtend.lib.annotations.FinalFieldsConstructor
 import org.eclipse.xtext.resource.IResourceServiceProviderExtension
+import org.eclipse.xtext.resource.XtextResourceSet
 import org.eclipse.xtext.resource.persistence.SourceLevelURIsAdapter
 import org.eclipse.xtext.resource.persistence.StorageAwareResource
+import org.eclipse.xtext.util.Metrics
+import org.eclipse.xtext.xbase.lib.Exceptions
 
 /**
  * @author Jan Koehnlein - Initial contribution and API
  */
 @FinalFieldsConstructor
 class ClusteringStorageAwareResourceLoader {
+	
+	/**
+	 * The number of chunks per worker in a parallel build. More chunks balance the load better, fewer chunks share
+	 * more of the loaded dependencies in the resource set of a worker.
+	 */
+	static val CHUNKS_PER_WORKER = 4
 
 	val extension BuildContext context
 
 	def <T> Iterable<T> executeClustered(Iterable<URI> uris, (Resource)=>T operation) {
+		if (context.isParallel) {
+			return executeClustered(uris, [], operation)
+		}
 		val loadedURIs = <URI>newArrayList
 		val sourceLevelURIs = <URI>newArrayList
 		val resources = newArrayList
@@ -30,10 +49,14 @@ class ClusteringStorageAwareResourceLoader {
 		val iter = uris.iterator
 		while (iter.hasNext) {
 			val uri = iter.next
-			if (!clusteringPolicy.continueProcessing(resourceSet, uri, loadedURIs.size)) {
+			if (!clusteringPolicy.continueProcessing(resourceSet, uri, loadedURIs.size) || resourceSet.isBudgetExceeded) {
 				result += resources.map[operation.apply(it)]
 				resources.clear
-				clearResourceSet
+				if (resourceEvictionPolicy !== null)
+					resourceEvictionPolicy.evict(resourceSet)
+				else
+					clearResourceSet
+				Metrics.record(Metrics.CLUSTER_SIZE, null, loadedURIs.size, null)
 				loadedURIs.clear
 			}
 			loadedURIs += uri
@@ -46,12 +69,139 @@ class ClusteringStorageAwareResourceLoader {
 				}
 				SourceLevelURIsAdapter.setSourceLevelUris(resourceSet, sourceLevelURIs)
 			}
-			resources += resourceSet.getResource(uri, true)
+			resources += resourceSet.loadResource(uri)
 		}
 		result += resources.map[operation.apply(it)]
 		result
 	}
 	
+	/**
+	 * @since 2.13
+	 */
+	def <T> Iterable<T> executeClustered(Iterable<URI> uris, (XtextResourceSet)=>void workerResourceSetInitializer, (Resource)=>T operation) {
+		if (!context.isParallel) {
+			return executeClustered(uris, operation)
+		}
+		return executeClusteredInParallel(uris.toList, workerResourceSetInitializer, operation)
+	}
+	
+	/**
+	 * Splits the URIs into chunks that are processed by workers on the {@link BuildContext#getExecutorService()
+	 * executor service}. Each worker loads the resources into its own resource set and applies the clustering policy
+	 * to it, so memory is bounded per worker. The results are returned in the order of the given URIs.
+	 * 
+	 * @since 2.13
+	 */
+	protected def <T> List<T> executeClusteredInParallel(List<URI> uris, (XtextResourceSet)=>void workerResourceSetInitializer, (Resource)=>T operation) {
+		val sourceLevelURIs = uris.filter[isSource].toList
+		val chunks = Lists.partition(uris, Math.max(1, uris.size / (parallelism * CHUNKS_PER_WORKER)))
+		val List<T>[] results = newArrayOfSize(chunks.size)
+		val nextChunk = new AtomicInteger
+		val workers = <Future<?>>newArrayList
+		for (i : 0 ..< Math.min(parallelism, chunks.size)) {
+			val Runnable worker = [
+				val workerResourceSet = workerResourceSetProvider.apply
+				workerResourceSetInitializer.apply(workerResourceSet)
+				SourceLevelURIsAdapter.setSourceLevelUris(workerResourceSet, sourceLevelURIs)
+				val loadedURIs = <URI>newArrayList
+				var index = nextChunk.getAndIncrement
+				while (index < chunks.size) {
+					results.set(index, executeClustered(workerResourceSet, chunks.get(index), loadedURIs, operation))
+					index = nextChunk.getAndIncrement
+				}
+			]
+			workers += executorService.submit(worker)
+		}
+		var Throwable failure = null
+		try {
+			for (worker : workers) {
+				try {
+					worker.get
+				} catch (ExecutionException e) {
+					if (failure === null) {
+						failure = e.cause
+						// the other workers stop after their current chunk
+						nextChunk.set(chunks.size)
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			nextChunk.set(chunks.size)
+			workers.forEach[cancel(true)]
+			Thread.currentThread.interrupt
+			throw new OperationCanceledException
+		}
+		if (failure !== null) {
+			throw Exceptions.sneakyThrow(failure)
+		}
+		val result = <T>newArrayList
+		for (chunkResult : results) {
+			result += chunkResult
+		}
+		return result
+	}
+	
+	/**
+	 * Applies the operation to the resources of one chunk in a parallel build. The resource set is cleared whenever
+	 * the clustering policy asks for it, <code>loadedURIs</code> tracks the URIs that were loaded since then. With a
+	 * {@link BuildContext#getResourceEvictionPolicy() resource eviction policy} only the least recently used resources
+	 * are evicted instead.
+	 * 
+	 * @since 2.13
+	 */
+	protected def <T> List<T> executeClustered(XtextResourceSet resourceSet, List<URI> uris, List<URI> loadedURIs, (Resource)=>T operation) {
+		val resources = <Resource>newArrayList
+		val result = <T>newArrayList
+		for (uri : uris) {
+			if (!clusteringPolicy.continueProcessing(resourceSet, uri, loadedURIs.size) || resourceSet.isBudgetExceeded) {
+				result += resources.map[operation.apply(it)]
+				resources.clear
+				if (resourceEvictionPolicy !== null)
+					resourceEvictionPolicy.evict(resourceSet)
+				else
+					clearResourceSet(resourceSet)
+				Metrics.record(Metrics.CLUSTER_SIZE, null, loadedURIs.size, null)
+				loadedURIs.clear
+			}
+			loadedURIs += uri
+			resources += resourceSet.loadResource(uri)
+		}
+		result += resources.map[operation.apply(it)]
+		return result
+	}
+	
+	/**
+	 * The number of workers in a parallel build.
+	 * 
+	 * @since 2.13
+	 */
+	protected def int getParallelism() {
+		return Runtime.runtime.availableProcessors
+	}
+	
+	/**
+	 * Whether the loaded resources exceed the budget of the {@link BuildContext#getResourceEvictionPolicy() resource
+	 * eviction policy}, if there is one.
+	 * 
+	 * @since 2.13
+	 */
+	protected def boolean isBudgetExceeded(ResourceSet resourceSet) {
+		return resourceEvictionPolicy !== null && resourceEvictionPolicy.isExceeded(resourceSet)
+	}
+	
+	/**
+	 * Loads the resource, through the {@link BuildContext#getResourceEvictionPolicy() resource eviction policy} if
+	 * there is one, so it is marked as recently used.
+	 * 
+	 * @since 2.13
+	 */
+	protected def Resource loadResource(ResourceSet resourceSet, URI uri) {
+		if (resourceEvictionPolicy !== null) {
+			return resourceEvictionPolicy.getResource(resourceSet, uri)
+		}
+		return resourceSet.getResource(uri, true)
+	}
+	
 	protected def isSource(URI uri) {
 		val provider = context.getResourceServiceProvider(uri)
 		return provider instanceof IResourceServiceProviderExtension &&
@@ -59,6 +209,13 @@ class ClusteringStorageAwareResourceLoader {
 	}
 
 	protected def void clearResourceSet() {
+		clearResourceSet(resourceSet)
+	}
+	
+	/**
+	 * @since 2.13
+	 */
+	protected def void clearResourceSet(ResourceSet resourceSet) {
 		val wasDeliver = resourceSet.eDeliver();
 		try {
 			resourceSet.eSetDeliver(false);
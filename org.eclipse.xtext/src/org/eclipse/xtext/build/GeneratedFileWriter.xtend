@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.build
+
+import com.google.common.annotations.Beta
+import com.google.common.hash.Hashing
+import com.google.common.io.ByteStreams
+import com.google.common.util.concurrent.ThreadFactoryBuilder
+import java.nio.channels.FileChannel
+import java.nio.file.Paths
+import java.nio.file.StandardOpenOption
+import java.util.Arrays
+import java.util.List
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.BlockingQueue
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.atomic.AtomicInteger
+import org.eclipse.core.runtime.IProgressMonitor
+import org.eclipse.core.runtime.NullProgressMonitor
+import org.eclipse.core.runtime.OperationCanceledException
+import org.eclipse.emf.common.util.URI
+import org.eclipse.emf.ecore.resource.URIConverter
+import org.eclipse.xtext.generator.FileSystemAccessQueue
+import org.eclipse.xtext.generator.FileSystemAccessRequest
+import org.eclipse.xtext.generator.URIBasedFileSystemAccess
+
+/**
+ * Writes the generated files of a build. A file is not written if its content is byte-identical to the file on
+ * disk. The {@link Source2GeneratedMapping#getContentHash(URI) content hashes} of the previously written files tell
+ * which files have to be compared at all.
+ *
+ * If the {@link BuildRequest#isWriteBehind() request asks for it}, the files are written by a background thread
+ * while the builder generates the next files. At most {@link #CAPACITY} files are queued, so the memory stays
+ * bounded if the disk is slower than the generator. The files are synced to the disk in one batch when the writer is
+ * {@link #close() closed}, if the request {@link BuildRequest#isSyncGeneratedFiles() asks for it}.
+ *
+ * @since 2.13
+ */
+@Beta
+class GeneratedFileWriter implements URIBasedFileSystemAccess.ContentWriter {
+
+	public static val int CAPACITY = 64
+
+	/**
+	 * Runs the background writers. It is not the {@link BuildRequest#getExecutorService() executor of the build},
+	 * since a writer blocks a thread for the whole build and the workers of a parallel build wait for it when the
+	 * queue is full.
+	 */
+	static val ExecutorService WRITER_EXECUTOR = Executors.newCachedThreadPool(
+		new ThreadFactoryBuilder().setDaemon(true).setNameFormat('Generated file writer %d').build)
+
+	val BuildRequest request
+	val IProgressMonitor monitor = new NullProgressMonitor
+	val List<URI> filesToSync = newArrayList
+	val AtomicInteger writtenFiles = new AtomicInteger
+	val AtomicInteger skippedFiles = new AtomicInteger
+	val FileSystemAccessRequest end = new FileSystemAccessRequest(null, [])
+
+	BlockingQueue<FileSystemAccessRequest> requests
+	FileSystemAccessQueue queue
+	Future<?> writer
+	volatile Throwable failure
+
+	new(BuildRequest request) {
+		this.request = request
+		if (request.isWriteBehind) {
+			requests = new ArrayBlockingQueue(CAPACITY)
+			queue = new FileSystemAccessQueue(requests, monitor)
+			val Runnable task = [processRequests]
+			writer = WRITER_EXECUTOR.submit(task)
+		}
+	}
+
+	override write(URIConverter converter, URI uri, byte[] content) {
+		if (queue === null) {
+			doWrite(converter, uri, content)
+			return
+		}
+		checkFailure
+		try {
+			queue.sendAsync(uri, [doWrite(converter, uri, content)])
+		} catch (OperationCanceledException e) {
+			checkFailure
+			throw e
+		}
+	}
+
+	protected def void processRequests() {
+		while (true) {
+			val next = requests.take
+			if (next === end) {
+				return
+			}
+			if (failure === null) {
+				try {
+					next.run
+				} catch (Throwable t) {
+					failure = t
+					// lets the generator fail fast
+					monitor.canceled = true
+				}
+			}
+		}
+	}
+
+	protected def void doWrite(URIConverter converter, URI uri, byte[] content) {
+		val hash = Hashing.murmur3_128.hashBytes(content).asLong
+		val previousHash = synchronized (request) {
+			request.state.fileMappings.getContentHash(uri)
+		}
+		if (previousHash !== null && previousHash.longValue == hash && isOnDisk(converter, uri, content)) {
+			skippedFiles.incrementAndGet
+			return
+		}
+		val out = converter.createOutputStream(uri)
+		try {
+			out.write(content)
+		} finally {
+			out.close
+		}
+		synchronized (request) {
+			request.state.fileMappings.setContentHash(uri, hash)
+		}
+		writtenFiles.incrementAndGet
+		if (request.isSyncGeneratedFiles) {
+			synchronized (filesToSync) {
+				filesToSync += uri
+			}
+		}
+	}
+
+	/**
+	 * Whether the file exists with exactly the given content.
+	 */
+	protected def boolean isOnDisk(URIConverter converter, URI uri, byte[] content) {
+		if (!converter.exists(uri, emptyMap)) {
+			return false
+		}
+		val in = converter.createInputStream(uri)
+		try {
+			return Arrays.equals(ByteStreams.toByteArray(in), content)
+		} finally {
+			in.close
+		}
+	}
+
+	/**
+	 * Waits until the queued files have been written and syncs them to the disk. Rethrows the first failure of the
+	 * background thread.
+	 */
+	def void close() {
+		stop
+		synchronized (filesToSync) {
+			for (uri : filesToSync.filter[isFile]) {
+				val channel = FileChannel.open(Paths.get(uri.toFileString), StandardOpenOption.WRITE)
+				try {
+					channel.force(true)
+				} finally {
+					channel.close
+				}
+			}
+			filesToSync.clear
+		}
+		checkFailure
+	}
+
+	/**
+	 * Waits until the queued files have been written and stops the background writer.
+	 */
+	def void stop() {
+		if (writer !== null) {
+			requests.put(end)
+			writer.get
+			writer = null
+			queue = null
+		}
+	}
+
+	protected def void checkFailure() {
+		if (failure !== null) {
+			throw failure
+		}
+	}
+
+	/**
+	 * The number of files that have been written.
+	 */
+	def int getWrittenFiles() {
+		return writtenFiles.get
+	}
+
+	/**
+	 * The number of files that have not been written because their content was already on disk.
+	 */
+	def int getSkippedFiles() {
+		return skippedFiles.get
+	}
+
+}
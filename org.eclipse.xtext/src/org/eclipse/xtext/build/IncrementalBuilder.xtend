@@ -7,6 +7,7 @@
  *******************************************************************************/
 package org.eclipse.xtext.build
 
+import com.google.common.base.Charsets
 import com.google.inject.Inject
 import com.google.inject.Provider
 import java.util.List
@@ -28,10 +29,13 @@ import org.eclipse.xtext.resource.IResourceDescription
 import org.eclipse.xtext.resource.IResourceServiceProvider
 import org.eclipse.xtext.resource.clustering.DisabledClusteringPolicy
 import org.eclipse.xtext.resource.clustering.IResourceClusteringPolicy
+import org.eclipse.xtext.resource.clustering.LRUResourceEvictionPolicy
 import org.eclipse.xtext.resource.persistence.SerializableResourceDescription
 import org.eclipse.xtext.resource.persistence.StorageAwareResource
+import org.eclipse.xtext.scoping.impl.GlobalScopeCache
 import org.eclipse.xtext.service.OperationCanceledManager
 import org.eclipse.xtext.util.CancelIndicator
+import org.eclipse.xtext.util.Metrics
 import org.eclipse.xtext.util.internal.Log
 import org.eclipse.xtext.validation.CheckMode
 import org.eclipse.xtext.workspace.IProjectConfigProvider
@@ -52,6 +56,11 @@ import org.eclipse.xtext.generator.GeneratorContext
 	
 		@Accessors(PROTECTED_SETTER) extension BuildContext context
 		@Accessors(PROTECTED_SETTER) BuildRequest request
+		
+		/**
+		 * @since 2.13
+		 */
+		@Accessors(PROTECTED_SETTER) GeneratedFileWriter fileWriter
 	
 		@Inject Indexer indexer
 		@Inject extension OperationCanceledManager
@@ -103,7 +112,8 @@ import org.eclipse.xtext.generator.GeneratorContext
 			// add deleted deltas
 			resolvedDeltas += result.resourceDeltas.filter[getNew === null]
 			// add changed and added as fully resolved
-			resolvedDeltas += result.resourceDeltas.filter[getNew !== null].map[uri]
+			val parallel = context.isParallel
+			val changedDeltas = result.resourceDeltas.filter[getNew !== null].map[uri]
 				.executeClustered [
 					Resource resource |
 					request.cancelIndicator.checkCanceled
@@ -112,9 +122,16 @@ import org.eclipse.xtext.generator.GeneratorContext
 					request.cancelIndicator.checkCanceled
 					val serviceProvider = context.getResourceServiceProvider(resource.getURI)
 					val manager = serviceProvider.resourceDescriptionManager
+					val indexTimer = Metrics.start(Metrics.INDEX, resource.getURI)
 					val description = manager.getResourceDescription(resource);
                     val copiedDescription = SerializableResourceDescription.createCopy(description);
-                    result.newIndex.addDescription(resource.getURI, copiedDescription)
+                    indexTimer.stop
+                    // other workers read the index concurrently, so parallel builds update it afterwards
+                    if (!parallel) {
+                        val previous = result.newIndex.getResourceDescription(resource.getURI)
+                        result.newIndex.addDescription(resource.getURI, copiedDescription)
+                        invalidateGlobalScopeCache(previous, copiedDescription, manager)
+                    }
                     request.cancelIndicator.checkCanceled
 					if (!request.indexOnly 
 						&& resource.validate 
@@ -125,10 +142,43 @@ import org.eclipse.xtext.generator.GeneratorContext
 					}
 					val old = oldState.resourceDescriptions.getResourceDescription(resource.getURI)
 					return manager.createDelta(old, copiedDescription)
-				]
+				].toList
+			if (parallel) {
+				for (delta : changedDeltas) {
+					val previous = result.newIndex.getResourceDescription(delta.uri)
+					result.newIndex.addDescription(delta.uri, delta.getNew)
+					invalidateGlobalScopeCache(previous, delta.getNew, context.getResourceServiceProvider(delta.uri).resourceDescriptionManager)
+				}
+			}
+			resolvedDeltas += changedDeltas
 			return new Result(request.state, resolvedDeltas)
 		}
 		
+		/**
+		 * Validates and generates the dirty files of the request without indexing them, e.g. because they have been
+		 * indexed by a previous {@link BuildRequest#isIndexOnly() index only} build.
+		 * @since 2.13
+		 */
+		def Result launchValidation() {
+			val newSource2GeneratedMapping = request.state.fileMappings
+			request.dirtyFiles.executeClustered [
+				Resource resource |
+				request.cancelIndicator.checkCanceled
+				resource.contents // fully initialize
+				EcoreUtil2.resolveLazyCrossReferences(resource, CancelIndicator.NullImpl)
+				request.cancelIndicator.checkCanceled
+				val serviceProvider = context.getResourceServiceProvider(resource.getURI)
+				if (resource.validate
+					&& serviceProvider.get(IShouldGenerate).shouldGenerate(resource, CancelIndicator.NullImpl)
+				) {
+					request.cancelIndicator.checkCanceled
+					resource.generate(request, newSource2GeneratedMapping)
+				}
+				return null
+			].toList
+			return new Result(request.state, emptyList)
+		}
+		
 		def protected boolean validate(Resource resource) {
 			val resourceValidator = getResourceServiceProvider(resource.getURI).getResourceValidator();
 			if (resourceValidator === null) {
@@ -136,7 +186,25 @@ import org.eclipse.xtext.generator.GeneratorContext
 			}
 			LOG.info("Starting validation for input: '" + resource.getURI.lastSegment + "'");
 			val validationResult = resourceValidator.validate(resource, CheckMode.ALL, null);
-			return request.afterValidate.afterValidate(resource.getURI, validationResult)
+			synchronized (request) {
+				// don't report to the callback after another worker was canceled
+				request.cancelIndicator.checkCanceled
+				return request.afterValidate.afterValidate(resource.getURI, validationResult)
+			}
+		}
+		
+		/**
+		 * Passes a change of the exported objects of a resource to the {@link GlobalScopeCache} of the resource set.
+		 * @since 2.13
+		 */
+		protected def void invalidateGlobalScopeCache(IResourceDescription previous, IResourceDescription current, IResourceDescription.Manager manager) {
+			if (GlobalScopeCache.findInEmfObject(context.resourceSet) === null) {
+				return
+			}
+			val delta = manager.createDelta(previous, current)
+			if (delta.haveEObjectDescriptionsChanged) {
+				GlobalScopeCache.invalidate(context.resourceSet, #[delta])
+			}
 		}
 	
 		protected def void generate(Resource resource, BuildRequest request, Source2GeneratedMapping newMappings) {
@@ -145,17 +213,24 @@ import org.eclipse.xtext.generator.GeneratorContext
 			if (generator === null) {
 				return;
 			}
-			val previous = newMappings.deleteSource(resource.getURI)
+			// the mappings and the callbacks are shared by the workers of a parallel build
+			val previous = synchronized (request) {
+				newMappings.deleteSource(resource.getURI)
+			}
 			val fileSystemAccess = createFileSystemAccess(serviceProvider, resource) => [
 				beforeWrite = [ uri, outputCfgName, contents |
-					newMappings.addSource2Generated(resource.getURI, uri, outputCfgName)
-					previous.remove(uri)
-					request.afterGenerateFile.apply(resource.getURI, uri)
+					synchronized (request) {
+						newMappings.addSource2Generated(resource.getURI, uri, outputCfgName)
+						previous.remove(uri)
+						request.afterGenerateFile.apply(resource.getURI, uri)
+					}
 					return contents
 				]
 				beforeDelete = [ uri |
-					newMappings.deleteGenerated(uri)
-					request.afterDeleteFile.apply(uri)
+					synchronized (request) {
+						newMappings.deleteGenerated(uri)
+						request.afterDeleteFile.apply(uri)
+					}
 					return true
 				]
 			]
@@ -174,7 +249,9 @@ import org.eclipse.xtext.generator.GeneratorContext
 			previous.forEach[
 				LOG.info('Deleting stale generated file ' + it)
 				context.resourceSet.getURIConverter.delete(it, emptyMap)
-				request.getAfterDeleteFile.apply(it)
+				synchronized (request) {
+					request.getAfterDeleteFile.apply(it)
+				}
 			]
 		}
 	
@@ -197,6 +274,7 @@ import org.eclipse.xtext.generator.GeneratorContext
 				baseDir = request.baseDir
 				currentSource = sourceFolder?.name
 				converter = resource.resourceSet.getURIConverter
+				contentWriter = fileWriter
 			]
 		}
 	
@@ -204,12 +282,72 @@ import org.eclipse.xtext.generator.GeneratorContext
 
 	@Inject Provider<IncrementalBuilder.InternalStatefulIncrementalBuilder> provider
 	@Inject extension OperationCanceledManager
+	@Inject LRUResourceEvictionPolicy resourceEvictionPolicy
 
 	def Result build(BuildRequest request, (URI)=>IResourceServiceProvider languages) {
 		build(request, languages, new DisabledClusteringPolicy())
 	}
 	
 	def Result build(BuildRequest request, (URI)=>IResourceServiceProvider languages, IResourceClusteringPolicy clusteringPolicy) {
+		val builder = createStatefulBuilder(request, languages, clusteringPolicy)
+		val result = builder.runAndCloseFileWriter[builder.launch]
+		writeMetrics(request)
+		return result
+	}
+	
+	/**
+	 * Closes the file writer of the builder after a successful run. If the run fails, the writer is only stopped and a
+	 * failure to stop it is added to the failure of the run.
+	 */
+	def private Result runAndCloseFileWriter(InternalStatefulIncrementalBuilder builder, ()=>Result run) {
+		var Result result = null
+		try {
+			result = run.apply
+		} catch(Throwable t) {
+			try {
+				builder.fileWriter?.stop
+			} catch(Throwable stopFailure) {
+				t.addSuppressed(stopFailure)
+			}
+			t.propagateIfCancelException
+			throw t
+		}
+		builder.fileWriter?.close
+		return result
+	}
+	
+	/**
+	 * Writes the {@link Metrics} as JSON to the {@link BuildRequest#getMetricsFile() metrics file} of the request, if
+	 * one is set and metrics are enabled.
+	 * @since 2.13
+	 */
+	protected def void writeMetrics(BuildRequest request) {
+		if (request.metricsFile === null || !Metrics.enabled) {
+			return
+		}
+		val out = request.resourceSet.getURIConverter.createOutputStream(request.metricsFile)
+		try {
+			out.write(Metrics.toJson.getBytes(Charsets.UTF_8))
+		} finally {
+			out.close
+		}
+	}
+	
+	/**
+	 * Validates and generates the {@link BuildRequest#getDirtyFiles() dirty files} of the given request without
+	 * updating the index. Their descriptions in the index state of the request have to be up to date, e.g. because
+	 * they have been built by an {@link BuildRequest#isIndexOnly() index only} build.
+	 * @since 2.13
+	 */
+	def Result validateAndGenerate(BuildRequest request, (URI)=>IResourceServiceProvider languages) {
+		val builder = createStatefulBuilder(request, languages, new DisabledClusteringPolicy())
+		return builder.runAndCloseFileWriter[builder.launchValidation]
+	}
+	
+	/**
+	 * @since 2.13
+	 */
+	protected def InternalStatefulIncrementalBuilder createStatefulBuilder(BuildRequest request, (URI)=>IResourceServiceProvider languages, IResourceClusteringPolicy clusteringPolicy) {
 		val resourceSet = request.resourceSet
 		val oldState = new IndexState(request.state.resourceDescriptions.copy, request.state.fileMappings.copy)
 		val context = new BuildContext(languages
@@ -217,14 +355,15 @@ import org.eclipse.xtext.generator.GeneratorContext
 									, oldState
 									, clusteringPolicy,
 									request.cancelIndicator)
+		context.executorService = request.executorService
+		context.workerResourceSetProvider = request.workerResourceSetProvider
+		if (resourceEvictionPolicy.isEnabled) {
+			context.resourceEvictionPolicy = resourceEvictionPolicy
+		}
 		val builder = provider.get
 		builder.context = context
 		builder.request = request
-		try {
-			return builder.launch
-		} catch(Throwable t) {
-			t.propagateIfCancelException
-			throw t
-		}
+		builder.fileWriter = new GeneratedFileWriter(request)
+		return builder
 	}
 }
@@ -9,6 +9,7 @@ package org.eclipse.xtext.build
 
 import org.eclipse.xtend.lib.annotations.Accessors
 import org.eclipse.xtend.lib.annotations.FinalFieldsConstructor
+import org.eclipse.xtext.resource.impl.PersistentResourceDescriptionsData
 import org.eclipse.xtext.resource.impl.ResourceDescriptionsData
 
 /**
@@ -20,7 +21,7 @@ import org.eclipse.xtext.resource.impl.ResourceDescriptionsData
 	val Source2GeneratedMapping fileMappings
 	
 	new () {
-		this(new ResourceDescriptionsData(emptySet), new Source2GeneratedMapping)
+		this(new PersistentResourceDescriptionsData, new Source2GeneratedMapping)
 	}
 	
 }
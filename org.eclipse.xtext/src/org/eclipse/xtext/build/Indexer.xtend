@@ -14,6 +14,7 @@ import java.util.Collection
 import java.util.HashSet
 import java.util.List
 import java.util.Map
+import java.util.Set
 import org.eclipse.emf.common.util.URI
 import org.eclipse.emf.ecore.InternalEObject
 import org.eclipse.emf.ecore.resource.Resource
@@ -29,10 +30,12 @@ import org.eclipse.xtext.resource.IResourceDescription
 import org.eclipse.xtext.resource.IResourceDescription.Delta
 import org.eclipse.xtext.resource.IResourceDescriptions
 import org.eclipse.xtext.resource.impl.AbstractResourceDescription
+import org.eclipse.xtext.resource.impl.DefaultResourceDescriptionManager
 import org.eclipse.xtext.resource.impl.DefaultResourceDescriptionDelta
 import org.eclipse.xtext.resource.impl.ResourceDescriptionsData
 import org.eclipse.xtext.util.internal.Log
 import org.eclipse.xtext.service.OperationCanceledManager
+import org.eclipse.xtext.scoping.impl.GlobalScopeCache
 import org.eclipse.xtext.resource.persistence.SerializableEObjectDescriptionProvider
 
 /**
@@ -64,6 +67,7 @@ import org.eclipse.xtext.resource.persistence.SerializableEObjectDescriptionProv
 		// update the index with the direct deltas
 		for (delta : deltas)
 			newIndex.register(delta)
+		GlobalScopeCache.invalidate(resourceSet, deltas)
 
 		// add external deltas
 		val allDeltas = new HashSet<Delta>(deltas)
@@ -73,8 +77,12 @@ import org.eclipse.xtext.resource.persistence.SerializableEObjectDescriptionProv
 		val remainingURIs = previousIndex.allResourceDescriptions.map[getURI].toSet
 		remainingURIs.removeAll(deltas.map[uri])
 
+		// the reverse index of the new state knows the dependencies of all remaining resources
+		val dependentURIs = if (remainingURIs.empty) emptySet else newIndex.getDependentURIs(allDeltas)
 		val allAffected = remainingURIs.filter [
 			val manager = getResourceServiceProvider.resourceDescriptionManager
+			if (canBeSkipped(it, manager, dependentURIs))
+				return false
 			val resourceDescription = previousIndex.getResourceDescription(it)
 			val isAffected = resourceDescription.isAffected(manager, allDeltas, allDeltas, newIndex)
 			return isAffected
@@ -104,9 +112,11 @@ import org.eclipse.xtext.resource.persistence.SerializableEObjectDescriptionProv
 		ResourceDescriptionsData oldIndex, extension BuildContext context) {
 		try {
 			compilerPhases.setIndexing(resourceSet, true)
-			return affectedUris.executeClustered [
+			return affectedUris.executeClustered([
+				compilerPhases.setIndexing(it, true)
+			], [
 				addToIndex(true, oldIndex, context)
-			].toList
+			]).toList
 		} finally {
 			compilerPhases.setIndexing(resourceSet, false)
 		}
@@ -124,6 +134,18 @@ import org.eclipse.xtext.resource.persistence.SerializableEObjectDescriptionProv
 		return delta
 	}
 
+	/**
+	 * Whether the candidate cannot be affected by the current deltas because its manager only considers
+	 * dependencies and it is not a dependent of any changed resource.
+	 * @since 2.13
+	 */
+	def protected boolean canBeSkipped(URI candidate, IResourceDescription.Manager manager, Set<URI> dependentURIs) {
+		if (manager instanceof DefaultResourceDescriptionManager) {
+			return manager.isAffectedByDependenciesOnly && !dependentURIs.contains(candidate)
+		}
+		return false
+	}
+
 	def protected boolean isAffected(IResourceDescription affectionCandidate, IResourceDescription.Manager manager,
 		Collection<IResourceDescription.Delta> newDeltas, Collection<IResourceDescription.Delta> allDeltas,
 		IResourceDescriptions resourceDescriptions) {
@@ -7,37 +7,73 @@
  *******************************************************************************/
 package org.eclipse.xtext.build
 
-import com.google.common.collect.HashMultimap
 import com.google.common.collect.Lists
 import com.google.common.collect.Multimap
 import java.io.Externalizable
 import java.io.IOException
 import java.io.ObjectInput
 import java.io.ObjectOutput
-import java.util.HashMap
 import java.util.HashSet
 import java.util.List
 import java.util.Map
 import java.util.Set
 import org.eclipse.emf.common.util.URI
-import org.eclipse.xtend.lib.annotations.FinalFieldsConstructor
 import org.eclipse.xtext.generator.IFileSystemAccess
+import org.eclipse.xtext.util.PersistentHashMap
+import org.eclipse.xtext.util.PersistentHashSet
 
 /**
+ * The mapping is backed by persistent maps, so {@link #copy() copies} are created in constant time and share
+ * their structure with the original.
+ * 
+ * It also keeps a {@link #getContentHash(URI) hash} of the content that has last been written to each generated
+ * file, so unchanged files don't have to be written again.
+ * 
  * @author Jan Koehnlein - Initial contribution and API
  */
-@FinalFieldsConstructor class Source2GeneratedMapping implements Externalizable {
+class Source2GeneratedMapping implements Externalizable {
 	
-	val Multimap<URI, URI> source2generated
-	val Multimap<URI, URI> generated2source
-	val Map<URI,String> generated2OutputConfigName
+	/**
+	 * Starts the serialized form that contains the content hashes. The serialized form of older versions starts with
+	 * the non-negative number of entries instead.
+	 */
+	static val CONTENT_HASH_FORMAT = -1
+	
+	val PersistentHashMap<URI, PersistentHashSet<URI>> source2generated
+	val PersistentHashMap<URI, PersistentHashSet<URI>> generated2source
+	val PersistentHashMap<URI, String> generated2OutputConfigName
+	val PersistentHashMap<URI, Long> generated2ContentHash
 	
 	new() {
-		this(HashMultimap.create, HashMultimap.create, newHashMap)
+		this(new PersistentHashMap, new PersistentHashMap, new PersistentHashMap, new PersistentHashMap)
+	}
+	
+	/**
+	 * Creates a mapping with the given content. The multimaps and the map are copied.
+	 */
+	new(Multimap<URI, URI> source2generated, Multimap<URI, URI> generated2source, Map<URI, String> generated2OutputConfigName) {
+		this()
+		for (entry : source2generated.entries) {
+			this.source2generated.putValue(entry.key, entry.value)
+		}
+		for (entry : generated2source.entries) {
+			this.generated2source.putValue(entry.key, entry.value)
+		}
+		for (entry : generated2OutputConfigName.entrySet) {
+			if (entry.value !== null)
+				this.generated2OutputConfigName.put(entry.key, entry.value)
+		}
+	}
+	
+	private new(PersistentHashMap<URI, PersistentHashSet<URI>> source2generated, PersistentHashMap<URI, PersistentHashSet<URI>> generated2source, PersistentHashMap<URI, String> generated2OutputConfigName, PersistentHashMap<URI, Long> generated2ContentHash) {
+		this.source2generated = source2generated
+		this.generated2source = generated2source
+		this.generated2OutputConfigName = generated2OutputConfigName
+		this.generated2ContentHash = generated2ContentHash
 	}
 	  
 	def copy() {
-		new Source2GeneratedMapping(HashMultimap.create(source2generated), HashMultimap.create(generated2source), new HashMap(generated2OutputConfigName))
+		new Source2GeneratedMapping(source2generated.copy, generated2source.copy, generated2OutputConfigName.copy, generated2ContentHash.copy)
 	}
 	
 	def void addSource2Generated(URI source, URI generated) {
@@ -45,41 +81,61 @@ import org.eclipse.xtext.generator.IFileSystemAccess
 	}
 	
 	def void addSource2Generated(URI source, URI generated, String outputCfgName) {
-		source2generated.put(source, generated)
-		generated2source.put(generated, source)
-		generated2OutputConfigName.put(generated, outputCfgName)
+		source2generated.putValue(source, generated)
+		generated2source.putValue(generated, source)
+		if (outputCfgName !== null)
+			generated2OutputConfigName.put(generated, outputCfgName)
+		else
+			generated2OutputConfigName.remove(generated)
 	}
 	
 	def void removeSource2Generated(URI source, URI generated) {
-		source2generated.remove(source, generated)
-		generated2source.remove(generated, source)
+		source2generated.removeValue(source, generated)
+		generated2source.removeValue(generated, source)
 	}
 	
 	def Set<URI> deleteSource(URI source) {
-		val generated = new HashSet<URI>(source2generated.removeAll(source))
+		val generated = new HashSet<URI>(source2generated.remove(source) ?: emptySet)
 		generated.forEach[
-			generated2source.remove(it, source)
+			generated2source.removeValue(it, source)
 		]
 		return generated
 	}
 
 	def void deleteGenerated(URI generated) {
-		generated2source.removeAll(generated).forEach[
-			source2generated.remove(it, generated)
+		(generated2source.remove(generated) ?: emptySet).forEach[
+			source2generated.removeValue(it, generated)
 		]
 		generated2OutputConfigName.remove(generated)
+		generated2ContentHash.remove(generated)
 	}
 	
 	def String getOutputConfigName(URI generated) {
 		return generated2OutputConfigName.get(generated)
 	}
 	
+	/**
+	 * The hash of the content that has last been written to the generated file, or <code>null</code> if it is not
+	 * known.
+	 * @since 2.13
+	 */
+	def Long getContentHash(URI generated) {
+		return generated2ContentHash.get(generated)
+	}
+	
+	/**
+	 * @since 2.13
+	 */
+	def void setContentHash(URI generated, long contentHash) {
+		generated2ContentHash.put(generated, contentHash)
+	}
+	
 	def List<URI> getGenerated(URI source) {
-		return Lists.newArrayList(source2generated.get(source))
+		return Lists.newArrayList(source2generated.get(source) ?: emptySet)
 	}
 
 	def List<URI> getSource(URI generated) {
-		return Lists.newArrayList(generated2source.get(generated))
+		return Lists.newArrayList(generated2source.get(generated) ?: emptySet)
 	}
 	
 	def List<URI> getAllGenerated() {
@@ -87,7 +143,11 @@ import org.eclipse.xtext.generator.IFileSystemAccess
 	}
 	
 	override readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
-		val numEntries = in.readInt
+		var numEntries = in.readInt
+		val withContentHashes = numEntries == CONTENT_HASH_FORMAT
+		if (withContentHashes) {
+			numEntries = in.readInt
+		}
 		for(i: 0..<numEntries) {
 			val source = URI.createURI(in.readUTF)
 			val numGenerated = in.readInt
@@ -95,12 +155,19 @@ import org.eclipse.xtext.generator.IFileSystemAccess
 				val generated = URI.createURI(in.readUTF)
 				val outputConfig = in.readUTF
 				addSource2Generated(source, generated, outputConfig)
+				if (withContentHashes) {
+					val contentHash = in.readLong
+					if (contentHash != 0) {
+						generated2ContentHash.put(generated, contentHash)
+					}
+				}
 			}
 		}
 	}
 	
 	override writeExternal(ObjectOutput out) throws IOException {
-		val entries = source2generated.asMap.entrySet
+		val entries = source2generated.entrySet
+		out.writeInt(CONTENT_HASH_FORMAT)
 		out.writeInt(entries.size)
 		entries.forEach [
 			out.writeUTF(key.toString)
@@ -108,7 +175,36 @@ import org.eclipse.xtext.generator.IFileSystemAccess
 			value.forEach[
 				out.writeUTF(toString)
 				out.writeUTF(generated2OutputConfigName.get(it)?:IFileSystemAccess.DEFAULT_OUTPUT)
+				out.writeLong(generated2ContentHash.get(it)?:0L)
 			]
 		]		
 	}
+	
+	/**
+	 * The value sets may be shared with copies of this mapping, so they are never modified in place.
+	 */
+	def private static void putValue(PersistentHashMap<URI, PersistentHashSet<URI>> map, URI key, URI value) {
+		val existing = map.get(key)
+		if (existing === null) {
+			map.put(key, new PersistentHashSet(#[value]))
+		} else if (!existing.contains(value)) {
+			val values = existing.copy
+			values.add(value)
+			map.put(key, values)
+		}
+	}
+	
+	def private static void removeValue(PersistentHashMap<URI, PersistentHashSet<URI>> map, URI key, URI value) {
+		val existing = map.get(key)
+		if (existing === null || !existing.contains(value)) {
+			return
+		}
+		if (existing.size == 1) {
+			map.remove(key)
+		} else {
+			val values = existing.copy
+			values.remove(value)
+			map.put(key, values)
+		}
+	}
 }
@@ -9,6 +9,8 @@ package org.eclipse.xtext.findReferences;
 
 import static com.google.common.collect.Iterables.*;
 
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -26,11 +28,13 @@ import org.eclipse.xtext.EcoreUtil2;
 import org.eclipse.xtext.resource.IReferenceDescription;
 import org.eclipse.xtext.resource.IResourceDescription;
 import org.eclipse.xtext.resource.IResourceDescriptions;
+import org.eclipse.xtext.resource.IResourceDescriptions.IReferencingResourcesAware;
 import org.eclipse.xtext.resource.IResourceServiceProvider;
 import org.eclipse.xtext.util.concurrent.IUnitOfWork;
 
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
@@ -170,11 +174,11 @@ public class ReferenceFinder implements IReferenceFinder {
 	public void findAllReferences(TargetURIs targetURIs, IResourceAccess resourceAccess,
 			IResourceDescriptions indexData, Acceptor acceptor, IProgressMonitor monitor) {
 		if (!targetURIs.isEmpty()) {
-			Iterable<IResourceDescription> allResourceDescriptions = indexData.getAllResourceDescriptions();
-			SubMonitor subMonitor = SubMonitor.convert(monitor, size(allResourceDescriptions) / MONITOR_CHUNK_SIZE + 1);
+			Iterable<IResourceDescription> candidates = getCandidateResourceDescriptions(targetURIs, indexData);
+			SubMonitor subMonitor = SubMonitor.convert(monitor, size(candidates) / MONITOR_CHUNK_SIZE + 1);
 			IProgressMonitor useMe = subMonitor.newChild(1);
 			int i = 0;
-			for (IResourceDescription resourceDescription : allResourceDescriptions) {
+			for (IResourceDescription resourceDescription : candidates) {
 				if (subMonitor.isCanceled())
 					throw new OperationCanceledException();
 				IReferenceFinder languageSpecific = getLanguageSpecificReferenceFinder(resourceDescription.getURI());
@@ -187,6 +191,31 @@ public class ReferenceFinder implements IReferenceFinder {
 		}
 	}
 
+	/**
+	 * Returns the descriptions of the resources that may contain references to the given targets. If the index data is
+	 * {@link IReferencingResourcesAware aware of the referencing resources}, these are the resources of the targets
+	 * themselves and the resources that are known to reference one of the targets. Otherwise all resource descriptions
+	 * are candidates.
+	 * 
+	 * @since 2.13
+	 */
+	protected Iterable<IResourceDescription> getCandidateResourceDescriptions(TargetURIs targetURIs,
+			IResourceDescriptions indexData) {
+		if (indexData instanceof IReferencingResourcesAware) {
+			Set<URI> candidateURIs = new LinkedHashSet<URI>(targetURIs.getTargetResourceURIs());
+			candidateURIs.addAll(((IReferencingResourcesAware) indexData).getReferencingResourceURIs(targetURIs.asSet()));
+			List<IResourceDescription> result = Lists.newArrayListWithCapacity(candidateURIs.size());
+			for (URI candidateURI : candidateURIs) {
+				IResourceDescription resourceDescription = indexData.getResourceDescription(candidateURI);
+				if (resourceDescription != null) {
+					result.add(resourceDescription);
+				}
+			}
+			return result;
+		}
+		return indexData.getAllResourceDescriptions();
+	}
+
 	protected void findLocalReferencesFromElement(
 			Predicate<URI> targetURIs, 
 			EObject sourceCandidate,
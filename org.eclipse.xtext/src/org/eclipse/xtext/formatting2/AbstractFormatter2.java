@@ -46,6 +46,7 @@ import org.eclipse.xtext.preferences.ITypedPreferenceValues;
 import org.eclipse.xtext.preferences.TypedPreferenceKey;
 import org.eclipse.xtext.resource.XtextResource;
 import org.eclipse.xtext.util.ITextRegion;
+import org.eclipse.xtext.util.Metrics;
 import org.eclipse.xtext.xbase.lib.Extension;
 
 import com.google.common.collect.Lists;
@@ -266,15 +267,20 @@ public abstract class AbstractFormatter2 implements IFormatter2 {
 		try {
 			initialize(request);
 			XtextResource xtextResource = request.getTextRegionAccess().getResource();
-			IFormattableDocument document = createFormattableRootDocument();
+			Metrics.Timer timer = Metrics.start(Metrics.FORMAT, xtextResource.getURI());
 			try {
-				format(xtextResource, document);
-			} catch (RegionTraceMissingException e) {
-				document = handleTraceMissing(document, e);
+				IFormattableDocument document = createFormattableRootDocument();
+				try {
+					format(xtextResource, document);
+				} catch (RegionTraceMissingException e) {
+					document = handleTraceMissing(document, e);
+				}
+				List<ITextReplacement> rendered = document.renderToTextReplacements();
+				List<ITextReplacement> postprocessed = postProcess(document, rendered);
+				return postprocessed;
+			} finally {
+				timer.stop();
 			}
-			List<ITextReplacement> rendered = document.renderToTextReplacements();
-			List<ITextReplacement> postprocessed = postProcess(document, rendered);
-			return postprocessed;
 		} finally {
 			reset();
 		}
@@ -28,14 +28,17 @@ public class ArrayListTextSegmentSet<T> extends TextSegmentSet<T> {
 
 	private final List<T> contents = Lists.newArrayList();
 
+	private final RegionComparator<T> comparator;
+
 	public ArrayListTextSegmentSet(Function<? super T, ? extends ITextSegment> region,
 			Function<? super T, String> title) {
-		super(region, title);
+		this(region, title, true);
 	}
 
 	public ArrayListTextSegmentSet(Function<? super T, ? extends ITextSegment> region,
 			Function<? super T, String> title, boolean trace) {
 		super(region, title, trace);
+		this.comparator = new RegionComparator<T>(region);
 	}
 
 	@Override
@@ -45,7 +48,7 @@ public class ArrayListTextSegmentSet<T> extends TextSegmentSet<T> {
 		if (contents.isEmpty()) {
 			contents.add(segment);
 		} else {
-			int searchResult = Collections.binarySearch(contents, segment, new RegionComparator<T>(getRegionAccess()));
+			int searchResult = Collections.binarySearch(contents, segment, comparator);
 			if (searchResult >= 0)
 				replaceExistingEntry(segment, searchResult, merger);
 			else
@@ -55,7 +58,7 @@ public class ArrayListTextSegmentSet<T> extends TextSegmentSet<T> {
 
 	@Override
 	public T get(T segment) {
-		int searchResult = Collections.binarySearch(contents, segment, new RegionComparator<T>(getRegionAccess()));
+		int searchResult = Collections.binarySearch(contents, segment, comparator);
 		return searchResult >= 0 ? contents.get(searchResult) : null;
 	}
 
@@ -123,7 +126,7 @@ public class ArrayListTextSegmentSet<T> extends TextSegmentSet<T> {
 
 	@Override
 	public Iterator<T> iteratorAfter(T segment) {
-		int searchResult = 1 + Collections.binarySearch(contents, segment, new RegionComparator<T>(getRegionAccess()));
+		int searchResult = 1 + Collections.binarySearch(contents, segment, comparator);
 		if (searchResult < 1) {
 			return Collections.emptyIterator();
 		}
@@ -168,7 +168,7 @@ public abstract class FormattableDocument implements IFormattableDocument {
 	}
 
 	protected TextSegmentSet<ITextReplacer> createTextReplacerSet() {
-		return new ArrayListTextSegmentSet<ITextReplacer>(ITextReplacer.GET_REGION,
+		return new TreeTextSegmentSet<ITextReplacer>(ITextReplacer.GET_REGION,
 				new Function<ITextReplacer, String>() {
 					@Override
 					public String apply(ITextReplacer input) {
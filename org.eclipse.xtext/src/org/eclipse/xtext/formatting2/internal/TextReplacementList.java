@@ -8,6 +8,7 @@
 package org.eclipse.xtext.formatting2.internal;
 
 import java.util.ArrayList;
+import java.util.Collection;
 
 import org.eclipse.xtext.formatting2.debug.TextRegionsToString;
 import org.eclipse.xtext.formatting2.regionaccess.ITextReplacement;
@@ -25,8 +26,9 @@ public class TextReplacementList<T extends ITextReplacement> extends ArrayList<T
 		super();
 	}
 
+	@SuppressWarnings("unchecked")
 	public TextReplacementList(Iterable<? extends T> c) {
-		super(Lists.newArrayList(c));
+		super(c instanceof Collection<?> ? (Collection<? extends T>) c : Lists.newArrayList(c));
 	}
 
 	public TextReplacementList(int initialCapacity) {
@@ -51,7 +51,6 @@ public class TextReplacerContext implements ITextReplacerContext {
 		this.indentation = indentation;
 		this.previous = previous;
 		this.replacer = replacer;
-		this.replacements = createTextReplacementsSet();
 	}
 
 	@Override
@@ -60,7 +59,7 @@ public class TextReplacerContext implements ITextReplacerContext {
 	}
 
 	protected TextSegmentSet<ITextReplacement> createTextReplacementsSet() {
-		return new ArrayListTextSegmentSet<ITextReplacement>(Functions.<ITextReplacement>identity(),
+		return new TreeTextSegmentSet<ITextReplacement>(Functions.<ITextReplacement>identity(),
 				new Function<ITextReplacement, String>() {
 					@Override
 					public String apply(ITextReplacement input) {
@@ -240,6 +239,8 @@ public class TextReplacerContext implements ITextReplacerContext {
 			}
 		}
 		try {
+			if (replacements == null)
+				replacements = createTextReplacementsSet();
 			replacements.add(replacement);
 		} catch (ConflictingRegionsException e) {
 			request.getExceptionHandler().accept(e);
@@ -264,7 +265,7 @@ public class TextReplacerContext implements ITextReplacerContext {
 	@Override
 	public void setAutowrap(boolean value) {
 		this.autowrap = value;
-		this.replacements = createTextReplacementsSet();
+		this.replacements = null;
 	}
 
 	@Override
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.formatting2.internal;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.eclipse.xtext.formatting2.IMerger;
+import org.eclipse.xtext.formatting2.regionaccess.ITextSegment;
+
+import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+
+/**
+ * A {@link TextSegmentSet} that keeps its segments in a balanced tree. Adding a segment, looking it up and
+ * {@link #iteratorAfter(Object) iterating} from it take logarithmic time, independent of the order in which the
+ * segments are added.
+ *
+ * The segments of the set never conflict with each other, so only the neighbors of a new segment have to be checked
+ * for conflicts.
+ *
+ * @since 2.13
+ */
+public class TreeTextSegmentSet<T> extends TextSegmentSet<T> {
+
+	private final TreeSet<T> contents;
+
+	public TreeTextSegmentSet(Function<? super T, ? extends ITextSegment> region, Function<? super T, String> title) {
+		this(region, title, true);
+	}
+
+	public TreeTextSegmentSet(Function<? super T, ? extends ITextSegment> region, Function<? super T, String> title,
+			boolean trace) {
+		super(region, title, trace);
+		this.contents = new TreeSet<T>(new RegionComparator<T>(region));
+	}
+
+	@Override
+	public void add(T segment, IMerger<T> merger) throws ConflictingRegionsException, RegionTraceMissingException {
+		Preconditions.checkNotNull(segment);
+		trace(segment);
+		T existing = get(segment);
+		if (existing != null)
+			replaceExistingEntry(segment, existing, merger);
+		else
+			insert(segment, merger);
+	}
+
+	@Override
+	public T get(T segment) {
+		T floor = contents.floor(segment);
+		if (floor != null && contents.comparator().compare(floor, segment) == 0)
+			return floor;
+		return null;
+	}
+
+	protected void insert(T segment, IMerger<T> merger) throws ConflictingRegionsException, RegionTraceMissingException {
+		List<T> conflicting = null;
+		for (T item : contents.headSet(segment, false).descendingSet()) {
+			if (isConflict(item, segment)) {
+				if (conflicting == null)
+					conflicting = Lists.newArrayList();
+				conflicting.add(item);
+			} else
+				break;
+		}
+		for (T item : contents.tailSet(segment, false)) {
+			if (isConflict(item, segment)) {
+				if (conflicting == null)
+					conflicting = Lists.newArrayList();
+				conflicting.add(item);
+			} else
+				break;
+		}
+		if (conflicting == null) {
+			trace(segment);
+			contents.add(segment);
+		} else {
+			conflicting.add(0, segment);
+			List<T> existing = conflicting.subList(1, conflicting.size());
+			try {
+				T merged = merger != null ? merger.merge(conflicting) : null;
+				if (merged != null) {
+					contents.removeAll(existing);
+					trace(merged);
+					contents.add(merged);
+				} else {
+					int segmentLengh = getRegion(segment).getLength();
+					int totalLength = 0;
+					for (T t : existing)
+						totalLength += getRegion(t).getLength();
+					if (segmentLengh >= totalLength)
+						contents.removeAll(existing);
+					if (segmentLengh > totalLength) {
+						trace(segment);
+						contents.add(segment);
+					}
+					handleConflict(conflicting, null);
+				}
+			} catch (ConflictingRegionsException e) {
+				throw e;
+			} catch (Exception e) {
+				handleConflict(conflicting, e);
+			}
+		}
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		return Iterators.unmodifiableIterator(contents.iterator());
+	}
+
+	/**
+	 * The returned iterator looks up each next segment in the tree, so segments may be added while it is used.
+	 */
+	@Override
+	public Iterator<T> iteratorAfter(final T segment) {
+		if (get(segment) == null) {
+			return Collections.emptyIterator();
+		}
+		return new AbstractIterator<T>() {
+			private T current = segment;
+
+			@Override
+			protected T computeNext() {
+				current = contents.higher(current);
+				if (current == null)
+					return endOfData();
+				return current;
+			}
+		};
+	}
+
+	protected void replaceExistingEntry(T segment, T existing, IMerger<T> merger)
+			throws ConflictingRegionsException, RegionTraceMissingException {
+		List<T> conflicting = ImmutableList.of(segment, existing);
+		try {
+			T merged = merger != null ? merger.merge(conflicting) : null;
+			contents.remove(existing);
+			if (merged != null) {
+				trace(merged);
+				contents.add(merged);
+			} else {
+				handleConflict(conflicting, null);
+			}
+		} catch (ConflictingRegionsException e) {
+			throw e;
+		} catch (Exception e) {
+			handleConflict(conflicting, e);
+		}
+	}
+
+}
@@ -9,6 +9,7 @@ package org.eclipse.xtext.generator;
 
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.util.Metrics;
 
 import com.google.inject.Inject;
 
@@ -29,11 +30,13 @@ public class GeneratorDelegate implements IGenerator, IGenerator2 {
 	}
 	
 	public void generate(Resource input, IFileSystemAccess2 fsa, IGeneratorContext context) {
+		Metrics.Timer timer = Metrics.start(Metrics.GENERATE, input.getURI());
 		try {
 			beforeGenerate(input, fsa, context);
 			doGenerate(input, fsa, context);
 		} finally {
 			afterGenerate(input, fsa, context);
+			timer.stop();
 		}
 	}
 
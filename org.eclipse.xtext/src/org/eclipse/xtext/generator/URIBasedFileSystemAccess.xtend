@@ -46,6 +46,14 @@ class URIBasedFileSystemAccess extends AbstractFileSystemAccess2 {
 		def InputStream beforeRead(URI changed, InputStream in)
 	}
 	
+	/**
+	 * Writes the content of generated files in place of the file system access, e.g. asynchronously.
+	 * @since 2.13
+	 */
+	static interface ContentWriter {
+		def void write(URIConverter converter, URI uri, byte[] content)
+	}
+	
 	@Accessors URIConverter converter
 	@Accessors URI baseDir
 	@Accessors boolean generateTraces = false
@@ -56,6 +64,12 @@ class URIBasedFileSystemAccess extends AbstractFileSystemAccess2 {
 	@Accessors BeforeWrite beforeWrite = [$2]
 	@Accessors BeforeRead beforeRead = [$1]
 	
+	/**
+	 * If set, the generated files are passed to this writer after the {@link BeforeWrite} callback.
+	 * @since 2.13
+	 */
+	@Accessors ContentWriter contentWriter
+	
 	public override void setPostProcessor(IFilePostProcessor filePostProcessor) {
 		super.postProcessor = filePostProcessor
 	}
@@ -101,6 +115,11 @@ class URIBasedFileSystemAccess extends AbstractFileSystemAccess2 {
 	
 	override generateFile(String fileName, String outputCfgName, InputStream content) throws RuntimeIOException {
 		val uri = getURI(fileName, outputCfgName)
+		if (contentWriter !== null) {
+			val processedContent = beforeWrite.beforeWrite(uri, outputCfgName, content)
+			contentWriter.write(converter, uri, ByteStreams.toByteArray(processedContent))
+			return
+		}
 		val out = converter.createOutputStream(uri)
 		try {
 			val processedContent = beforeWrite.beforeWrite(uri, outputCfgName, content)
@@ -8,16 +8,29 @@
  *******************************************************************************/
 package org.eclipse.xtext.grammaranalysis.impl;
 
-import org.eclipse.emf.common.notify.Adapter;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.xtext.AbstractElement;
 import org.eclipse.xtext.grammaranalysis.IGrammarNFAProvider.NFABuilder;
-import org.eclipse.xtext.grammaranalysis.INFAState;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 /**
+ * Caches the states of the grammar elements. The states are kept by the builder instead of being attached to the
+ * elements, since a grammar may be {@link org.eclipse.xtext.service.GrammarProvider#SHARED_GRAMMAR shared} between
+ * injectors.
+ * 
  * @author Moritz Eysholdt - Initial contribution and API
  */
 public abstract class AbstractCachingNFABuilder<S, T> implements NFABuilder<S, T> {
 
+	private final Map<AbstractElement, S> states = Maps.newHashMap();
+
+	private final Set<Resource> initializedResources = Sets.newHashSet();
+
 	protected abstract S createState(AbstractElement ele);
 
 	protected abstract T createTransition(S source, S target, boolean isRuleCall, AbstractElement loopCenter);
@@ -28,21 +41,27 @@ public abstract class AbstractCachingNFABuilder<S, T> implements NFABuilder<S, T
 	}
 
 	@Override
-	@SuppressWarnings({ "unchecked", "rawtypes" })
-	public final S getState(AbstractElement ele) {
+	public final synchronized S getState(AbstractElement ele) {
 		if (ele == null)
 			return null;
-		for (Adapter a : ele.eAdapters())
-			if (a instanceof INFAState) {
-				INFAState s = (INFAState) a;
-				if (s.getBuilder() == this)
-					return (S) s;
-			}
-		S t = createState(ele);
-		ele.eAdapters().add((Adapter) t);
+		S t = states.get(ele);
+		if (t == null) {
+			t = createState(ele);
+			states.put(ele, t);
+		}
 		return t;
 	}
 
+	/**
+	 * Marks the given grammar resource as initialized, see {@link AbstractNFAState#getAllIncoming()}.
+	 * 
+	 * @return <code>true</code> if the resource has not been marked before.
+	 * @since 2.13
+	 */
+	public synchronized boolean markInitialized(Resource resource) {
+		return initializedResources.add(resource);
+	}
+
 	@Override
 	public final T getTransition(S source, S target, boolean isRuleCall, AbstractElement loopCenter) {
 		return createTransition(source, target, isRuleCall, loopCenter);
@@ -218,10 +218,15 @@ public class AbstractNFAState<S extends INFAState<S, T>, T extends INFATransitio
 
 	@Override
 	public List<T> getAllIncoming() {
-		for (Adapter a : element.eResource().eAdapters())
-			if (a instanceof IsInitializedMarker && ((IsInitializedMarker) a).builder == builder)
+		if (builder instanceof AbstractCachingNFABuilder<?, ?>) {
+			if (!((AbstractCachingNFABuilder<?, ?>) builder).markInitialized(element.eResource()))
 				return getIncoming();
-		element.eResource().eAdapters().add(new IsInitializedMarker(builder));
+		} else {
+			for (Adapter a : element.eResource().eAdapters())
+				if (a instanceof IsInitializedMarker && ((IsInitializedMarker) a).builder == builder)
+					return getIncoming();
+			element.eResource().eAdapters().add(new IsInitializedMarker(builder));
+		}
 		for (EObject root : element.eResource().getContents())
 			if (root instanceof Grammar)
 				for (AbstractRule rule : ((Grammar) root).getRules())
@@ -26,8 +26,7 @@ import org.eclipse.xtext.diagnostics.IDiagnosticConsumer;
 import org.eclipse.xtext.linking.lazy.LazyLinkingResource;
 import org.eclipse.xtext.nodemodel.ICompositeNode;
 import org.eclipse.xtext.nodemodel.INode;
-import org.eclipse.xtext.util.internal.Stopwatches;
-import org.eclipse.xtext.util.internal.Stopwatches.StoppedTask;
+import org.eclipse.xtext.util.Metrics;
 
 /**
  * @author Sebastian Zarnekow
@@ -38,8 +37,8 @@ public abstract class AbstractCleaningLinker extends AbstractLinker {
 	
 	@Override
 	public void linkModel(EObject model, IDiagnosticConsumer diagnosticsConsumer) {
-		StoppedTask task = Stopwatches.forTask("installing proxies (AbstractCleaningLinker.linkModel)");
-		task.start();
+		Resource resource = model.eResource();
+		Metrics.Timer timer = Metrics.start(Metrics.LINK, resource != null ? resource.getURI() : null);
 		boolean debug = log.isDebugEnabled();
 		long time = System.currentTimeMillis();
 		beforeModelLinked(model, diagnosticsConsumer);
@@ -60,7 +59,7 @@ public abstract class AbstractCleaningLinker extends AbstractLinker {
 			log.debug("afterModelLinked took: " + (now - time) + "ms");
 			time = now;
 		}
-		task.stop();
+		timer.stop();
 	}
 
 	protected void afterModelLinked(EObject model, IDiagnosticConsumer diagnosticsConsumer) {
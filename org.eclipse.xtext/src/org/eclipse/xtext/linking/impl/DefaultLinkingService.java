@@ -14,6 +14,7 @@ import org.apache.log4j.Logger;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.xtext.linking.LinkingScopeProviderBinding;
 import org.eclipse.xtext.naming.IQualifiedNameConverter;
 import org.eclipse.xtext.naming.QualifiedName;
@@ -91,13 +92,20 @@ public class DefaultLinkingService extends AbstractLinkingService {
 		}
 	}
 
+	/**
+	 * Returns the adapter of the context's resource and installs it if necessary. It is installed while holding the
+	 * lock of the resource, since the references of one resource may be resolved concurrently.
+	 */
 	protected ImportedNamesAdapter getImportedNamesAdapter(EObject context) {
-		ImportedNamesAdapter adapter = ImportedNamesAdapter.find(context.eResource());
-		if (adapter!=null)
-			return adapter;
-		ImportedNamesAdapter importedNamesAdapter = importedNamesAdapterProvider.get();
-		context.eResource().eAdapters().add(importedNamesAdapter);
-		return importedNamesAdapter;
+		Resource resource = context.eResource();
+		synchronized (resource) {
+			ImportedNamesAdapter adapter = ImportedNamesAdapter.find(resource);
+			if (adapter!=null)
+				return adapter;
+			ImportedNamesAdapter importedNamesAdapter = importedNamesAdapterProvider.get();
+			resource.eAdapters().add(importedNamesAdapter);
+			return importedNamesAdapter;
+		}
 	}
 
 	/**
@@ -7,9 +7,10 @@
  *******************************************************************************/
 package org.eclipse.xtext.linking.impl;
 
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.log4j.Logger;
 import org.eclipse.emf.common.notify.Adapter;
@@ -40,15 +41,19 @@ public class ImportedNamesAdapter extends AdapterImpl implements IScopeWrapper {
 	}
 	
 	/**
+	 * Installs the adapter while holding the lock of the resource.
+	 * 
 	 * @since 2.7
 	 */
 	public static ImportedNamesAdapter findOrInstall(Resource resource) {
-		ImportedNamesAdapter adapter = find(resource);
-		if (adapter!=null)
-			return adapter;
-		ImportedNamesAdapter importedNamesAdapter = new ImportedNamesAdapter();
-		resource.eAdapters().add(importedNamesAdapter);
-		return importedNamesAdapter;
+		synchronized (resource) {
+			ImportedNamesAdapter adapter = find(resource);
+			if (adapter!=null)
+				return adapter;
+			ImportedNamesAdapter importedNamesAdapter = new ImportedNamesAdapter();
+			resource.eAdapters().add(importedNamesAdapter);
+			return importedNamesAdapter;
+		}
 	}
 
 	/**
@@ -111,7 +116,10 @@ public class ImportedNamesAdapter extends AdapterImpl implements IScopeWrapper {
 		}
 	}
 
-	private Set<QualifiedName> importedNames = new HashSet<QualifiedName>();
+	/**
+	 * Concurrently resolved cross references of one resource may record their names at the same time.
+	 */
+	private Set<QualifiedName> importedNames = Collections.newSetFromMap(new ConcurrentHashMap<QualifiedName, Boolean>());
 	
 	public Set<QualifiedName> getImportedNames() {
 		return importedNames;
@@ -107,6 +107,29 @@ public class LazyLinker extends AbstractCleaningLinker {
 		installQueuedLinks(settingsToLink);
 	}
 
+	/**
+	 * Replaces the cross references of the given objects with new proxies. In contrast to
+	 * {@link #linkModel(EObject, IDiagnosticConsumer)}, the contents of the given objects are not relinked and the
+	 * proxies of all other objects of the resource remain valid.
+	 * 
+	 * @param objects the objects to relink. All of them have to be contained in the same resource.
+	 * @since 2.13
+	 */
+	public void relink(final Iterable<? extends EObject> objects, Resource resource, IDiagnosticConsumer consumer) {
+		final Multimap<EStructuralFeature.Setting, INode> settingsToLink = ArrayListMultimap.create();
+		final LinkingDiagnosticProducer producer = new LinkingDiagnosticProducer(consumer);
+		cache.execWithoutCacheClear(resource, new IUnitOfWork.Void<Resource>() {
+			@Override
+			public void process(Resource state) throws Exception {
+				for (EObject eObject : objects) {
+					clearReferences(eObject);
+					installProxies(eObject, producer, settingsToLink);
+				}
+			}
+		});
+		installQueuedLinks(settingsToLink);
+	}
+
 	protected void installProxies(EObject obj, IDiagnosticProducer producer,
 			Multimap<EStructuralFeature.Setting, INode> settingsToLink) {
 		ICompositeNode node = NodeModelUtils.getNode(obj);
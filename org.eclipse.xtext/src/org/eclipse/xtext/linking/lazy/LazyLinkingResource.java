@@ -13,16 +13,20 @@ import static com.google.common.collect.Lists.*;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.log4j.Logger;
 import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.common.util.WrappedException;
+import org.eclipse.emf.ecore.EAttribute;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.EStructuralFeature;
@@ -33,21 +37,29 @@ import org.eclipse.emf.ecore.util.InternalEList;
 import org.eclipse.xtext.EcoreUtil2;
 import org.eclipse.xtext.diagnostics.DiagnosticMessage;
 import org.eclipse.xtext.diagnostics.ExceptionDiagnostic;
+import org.eclipse.xtext.diagnostics.Severity;
 import org.eclipse.xtext.linking.ILinkingDiagnosticMessageProvider;
 import org.eclipse.xtext.linking.ILinkingDiagnosticMessageProvider.ILinkingDiagnosticContext;
 import org.eclipse.xtext.linking.ILinkingService;
 import org.eclipse.xtext.linking.impl.IllegalNodeException;
 import org.eclipse.xtext.linking.impl.LinkingHelper;
+import org.eclipse.xtext.resource.impl.ListBasedDiagnosticConsumer;
 import org.eclipse.xtext.linking.impl.XtextLinkingDiagnostic;
+import org.eclipse.xtext.naming.IQualifiedNameProvider;
+import org.eclipse.xtext.naming.QualifiedName;
 import org.eclipse.xtext.nodemodel.INode;
+import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
 import org.eclipse.xtext.resource.XtextResource;
 import org.eclipse.xtext.util.CancelIndicator;
 import org.eclipse.xtext.util.Triple;
 import org.eclipse.xtext.util.Tuples;
 
+import com.google.common.base.Objects;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
+import com.google.inject.name.Named;
 
 /**
  * @author Sven Efftinge - Initial contribution and API
@@ -78,6 +90,24 @@ public class LazyLinkingResource extends XtextResource {
 	 */
 	public static final String UNRESOLVEABLE_PROXIES_KEY = "UNRESOLVEABLE_PROXIES";
 
+	/**
+	 * The name of an optional boolean binding that enables incremental linking after a partial reparse, see
+	 * {@link #update(int, int, String)}. A partial reparse that changes the text of a cross reference relinks the
+	 * whole resource, unless the language declares that the reference does not affect any scope, see
+	 * {@link #isScopeRelevant(EReference)}.
+	 * 
+	 * @since 2.13
+	 */
+	public static final String INCREMENTAL_LINKING = "org.eclipse.xtext.linking.lazy.LazyLinkingResource.incrementalLinking";
+
+	/**
+	 * The name of an optional boolean binding that lets multiple threads resolve the lazy cross references of one
+	 * resource at the same time, see {@link #getEObject(String)}.
+	 * 
+	 * @since 2.13
+	 */
+	public static final String CONCURRENT_RESOLUTION = "org.eclipse.xtext.linking.lazy.LazyLinkingResource.concurrentResolution";
+
 	@Inject
 	private ILinkingService linkingService;
 
@@ -95,6 +125,23 @@ public class LazyLinkingResource extends XtextResource {
 
 	private boolean eagerLinking = false;
 
+	@Inject(optional = true)
+	@Named(INCREMENTAL_LINKING)
+	private boolean incrementalLinking = false;
+
+	@Inject(optional = true)
+	@Named(CONCURRENT_RESOLUTION)
+	private boolean concurrentResolution = false;
+
+	@Inject(optional = true)
+	private IQualifiedNameProvider qualifiedNameProvider;
+
+	/**
+	 * All objects of this resource before the current {@link #update(int, int, String) update} with their qualified
+	 * names, or <code>null</code>.
+	 */
+	private Map<EObject, QualifiedName> contentsBeforeUpdate;
+
 	@Override
 	protected void doLoad(InputStream inputStream, Map<?, ?> options) throws IOException {
 		super.doLoad(inputStream, options);
@@ -104,16 +151,220 @@ public class LazyLinkingResource extends XtextResource {
 
 	@Override
 	protected void doLinking() {
-		super.doLinking();
+		if (contentsBeforeUpdate == null || !doIncrementalLinking(contentsBeforeUpdate)) {
+			super.doLinking();
+		}
 		if (isEagerLinking())
 			EcoreUtil.resolveAll(this);
 	}
 
+	/**
+	 * If {@link #isIncrementalLinking() incremental linking} is enabled, the cross references that are not affected
+	 * by a partial reparse keep their resolved targets. Only the objects that have been created by the reparse and
+	 * the objects that refer to replaced objects are relinked. A partial reparse that may change the scopes
+	 * {@link #isSameExceptReferences(EObject, EObject, Map) in any other way}, e.g. by changing a super type, relinks
+	 * the whole resource.
+	 * 
+	 * @since 2.13
+	 */
+	@Override
+	public void update(int offset, int replacedTextLength, String newText) {
+		if (!isIncrementalLinking() || !isLoaded() || qualifiedNameProvider == null) {
+			super.update(offset, replacedTextLength, newText);
+			return;
+		}
+		contentsBeforeUpdate = Maps.newIdentityHashMap();
+		for (Iterator<EObject> iterator = getAllContents(); iterator.hasNext();) {
+			EObject object = iterator.next();
+			contentsBeforeUpdate.put(object, qualifiedNameProvider.getFullyQualifiedName(object));
+		}
+		try {
+			super.update(offset, replacedTextLength, newText);
+		} finally {
+			contentsBeforeUpdate = null;
+		}
+	}
+
+	/**
+	 * Relinks the objects that have been created by a partial reparse, their containers and the objects that refer to
+	 * removed objects.
+	 * 
+	 * @param contentsBeforeUpdate
+	 *            all objects of this resource before the reparse with their qualified names.
+	 * @return <code>false</code> if the whole resource has to be linked.
+	 * @since 2.13
+	 */
+	protected boolean doIncrementalLinking(Map<EObject, QualifiedName> contentsBeforeUpdate) {
+		if (!(getLinker() instanceof LazyLinker) || getParseResult() == null || getParseResult().getRootASTElement() == null)
+			return false;
+		Set<EObject> removedObjects = Sets.newIdentityHashSet();
+		removedObjects.addAll(contentsBeforeUpdate.keySet());
+		Set<EObject> addedObjects = Sets.newIdentityHashSet();
+		List<EObject> relinkedObjects = newArrayList();
+		List<EObject> addedRoots = newArrayList();
+		for (Iterator<EObject> iterator = getAllContents(); iterator.hasNext();) {
+			EObject object = iterator.next();
+			if (!removedObjects.remove(object)) {
+				addedObjects.add(object);
+				relinkedObjects.add(object);
+				if (!addedObjects.contains(object.eContainer()))
+					addedRoots.add(object);
+			}
+		}
+		List<EObject> removedRoots = newArrayList();
+		for (EObject object : removedObjects) {
+			if (!removedObjects.contains(object.eContainer()))
+				removedRoots.add(object);
+		}
+		if (addedRoots.size() != 1 || removedRoots.size() != 1 || addedRoots.get(0).eContainer() == null)
+			return false;
+		if (!isSameExceptReferences(removedRoots.get(0), addedRoots.get(0), contentsBeforeUpdate))
+			return false;
+		// the node model of the containers has changed, so their proxies are recreated, too
+		Set<EObject> containers = Sets.newIdentityHashSet();
+		for (EObject container = addedRoots.get(0).eContainer(); container != null; container = container.eContainer()) {
+			containers.add(container);
+		}
+		for (Iterator<EObject> iterator = getAllContents(); iterator.hasNext();) {
+			EObject object = iterator.next();
+			if (!addedObjects.contains(object) && (containers.contains(object) || refersTo(object, removedObjects)))
+				relinkedObjects.add(object);
+		}
+		// the proxy information of the removed and the relinked objects is replaced, so its slots are reused
+		Set<EObject> replacedProxies = Sets.newIdentityHashSet();
+		replacedProxies.addAll(relinkedObjects);
+		replacedProxies.addAll(removedObjects);
+		for (int i = 0; i < proxyInformation.size(); i++) {
+			Triple<EObject, EReference, INode> triple = proxyInformation.get(i);
+			if (triple != null && replacedProxies.contains(triple.getFirst())) {
+				removeLazyProxyInformation(i);
+				reusableProxyInformation.set(i);
+			}
+		}
+		ListBasedDiagnosticConsumer consumer = new ListBasedDiagnosticConsumer();
+		((LazyLinker) getLinker()).relink(relinkedObjects, this, consumer);
+		if (!isValidationDisabled()) {
+			getErrors().addAll(consumer.getResult(Severity.ERROR));
+			getWarnings().addAll(consumer.getResult(Severity.WARNING));
+		}
+		return true;
+	}
+
+	/**
+	 * Whether the targets of the given cross reference may be used to compute the scopes of other cross references,
+	 * e.g. the super types of a type or imported types. The objects that are not relinked incrementally would keep
+	 * their targets, even though their scopes have changed. A partial reparse that changes the text of such a
+	 * reference relinks the whole resource. Returns <code>true</code> for all references, so a language that enables
+	 * {@link #INCREMENTAL_LINKING incremental linking} may override it to declare the references that do not affect
+	 * any scope.
+	 * 
+	 * @since 2.13
+	 */
+	protected boolean isScopeRelevant(EReference reference) {
+		return true;
+	}
+
+	private List<String> getLinkTexts(EObject object, EReference reference) {
+		List<String> result = newArrayList();
+		for (INode node : NodeModelUtils.findNodesForFeature(object, reference)) {
+			result.add(linkingHelper.getCrossRefNodeAsString(node, false));
+		}
+		return result;
+	}
+
+	private boolean refersTo(EObject object, Set<EObject> targets) {
+		for (EReference reference : object.eClass().getEAllReferences()) {
+			if (reference.isContainment() || reference.isContainer() || reference.isDerived() || reference.isTransient())
+				continue;
+			if (reference.isMany()) {
+				@SuppressWarnings("unchecked")
+				InternalEList<EObject> list = (InternalEList<EObject>) object.eGet(reference, false);
+				for (int i = 0; i < list.size(); i++) {
+					if (targets.contains(list.basicGet(i)))
+						return true;
+				}
+			} else if (targets.contains(object.eGet(reference, false))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Whether an object that a partial reparse has created in place of a removed one differs only in its cross
+	 * references, so the scopes of the resource are the same as before. The objects and their contents have to be of
+	 * the same types, have the same {@link IQualifiedNameProvider qualified names} and the same attribute values, e.g.
+	 * imported namespaces. The cross references that {@link #isScopeRelevant(EReference) may affect scopes}, e.g. super
+	 * types, have to be written the same. If in doubt, the whole resource is relinked.
+	 * 
+	 * @param removed
+	 *            the removed object, which is no longer contained in this resource.
+	 * @param added
+	 *            the object that has been created by the reparse.
+	 * @param contentsBeforeUpdate
+	 *            all objects of this resource before the reparse with their qualified names.
+	 * @since 2.13
+	 */
+	protected boolean isSameExceptReferences(EObject removed, EObject added, Map<EObject, QualifiedName> contentsBeforeUpdate) {
+		if (removed.eClass() != added.eClass())
+			return false;
+		if (!Objects.equal(contentsBeforeUpdate.get(removed), qualifiedNameProvider.getFullyQualifiedName(added)))
+			return false;
+		for (EReference reference : removed.eClass().getEAllReferences()) {
+			if (reference.isContainment() || reference.isContainer() || reference.isDerived() || reference.isTransient())
+				continue;
+			if (isScopeRelevant(reference) && !getLinkTexts(removed, reference).equals(getLinkTexts(added, reference)))
+				return false;
+		}
+		for (EAttribute attribute : removed.eClass().getEAllAttributes()) {
+			if (!attribute.isDerived() && !Objects.equal(removed.eGet(attribute), added.eGet(attribute)))
+				return false;
+		}
+		List<EObject> removedContents = removed.eContents();
+		List<EObject> addedContents = added.eContents();
+		if (removedContents.size() != addedContents.size())
+			return false;
+		for (int i = 0; i < removedContents.size(); i++) {
+			EObject removedChild = removedContents.get(i);
+			EObject addedChild = addedContents.get(i);
+			if (removedChild.eContainmentFeature() != addedChild.eContainmentFeature()
+					|| !isSameExceptReferences(removedChild, addedChild, contentsBeforeUpdate))
+				return false;
+		}
+		return true;
+	}
+
 	/**
 	 * @since 2.4
+	 * @deprecated use {@link #getResolving()} instead. This set is only filled unless
+	 *             {@link #isConcurrentResolution() concurrent resolution} is enabled, since the references that are
+	 *             resolved concurrently are tracked per thread.
 	 */
+	@Deprecated
 	protected LinkedHashSet<Triple<EObject, EReference, INode>> resolving = Sets.newLinkedHashSet();
 
+	private final ThreadLocal<LinkedHashSet<Triple<EObject, EReference, INode>>> resolvingPerThread = new ThreadLocal<LinkedHashSet<Triple<EObject, EReference, INode>>>() {
+		@Override
+		protected LinkedHashSet<Triple<EObject, EReference, INode>> initialValue() {
+			return Sets.newLinkedHashSet();
+		}
+	};
+
+	/**
+	 * Returns the references that are currently being resolved by the calling thread, in the order in which their
+	 * resolution has been started. Unless {@link #isConcurrentResolution() concurrent resolution} is enabled, only
+	 * one thread resolves references at a time and the {@link #resolving} set is returned.
+	 * 
+	 * @since 2.13
+	 */
+	@SuppressWarnings("deprecation")
+	protected LinkedHashSet<Triple<EObject, EReference, INode>> getResolving() {
+		if (isConcurrentResolution()) {
+			return resolvingPerThread.get();
+		}
+		return resolving;
+	}
+
 	/**
 	 * resolves any lazy cross references in this resource, adding Issues for unresolvable elements to this resource.
 	 * This resource might still contain resolvable proxies after this method has been called.
@@ -214,8 +465,26 @@ public class LazyLinkingResource extends XtextResource {
 				&& feature instanceof EReference && ((EReference)feature).isResolveProxies();
 	}
 
+	/**
+	 * Resolves lazy cross reference fragments and delegates all other fragments to the super implementation.
+	 * 
+	 * Unless {@link #isConcurrentResolution() concurrent resolution} is enabled, only one thread at a time resolves the
+	 * references of this resource. Otherwise, threads only share the set of {@link #getUnresolvableURIFragments()
+	 * unresolvable fragments} and the diagnostics of this resource, which are both thread-safe. Cyclic resolutions
+	 * are detected per thread. Threads that resolve the same reference at the same time compute the same result.
+	 * This requires a linking service and scope providers that can be used concurrently.
+	 */
 	@Override
-	public synchronized EObject getEObject(String uriFragment) {
+	public EObject getEObject(String uriFragment) {
+		if (isConcurrentResolution()) {
+			return doGetEObject(uriFragment);
+		}
+		synchronized (this) {
+			return doGetEObject(uriFragment);
+		}
+	}
+
+	private EObject doGetEObject(String uriFragment) {
 		try {
 			if (getEncoder().isCrossLinkFragment(this, uriFragment)) {
 				Triple<EObject, EReference, INode> triple = getEncoder().decode(this, uriFragment);
@@ -236,6 +505,7 @@ public class LazyLinkingResource extends XtextResource {
 	 * @since 2.4
 	 */
 	protected EObject getEObject(String uriFragment, Triple<EObject, EReference, INode> triple) throws AssertionError {
+		LinkedHashSet<Triple<EObject, EReference, INode>> resolving = getResolving();
 		if (!resolving.add(triple))
 			return handleCyclicResolution(triple);
 		try {
@@ -299,7 +569,7 @@ public class LazyLinkingResource extends XtextResource {
 	}
 
 	protected EObject handleCyclicResolution(Triple<EObject, EReference, INode> triple) throws AssertionError {
-		throw new CyclicLinkingException("Cyclic resolution of lazy links : " + getReferences(triple, resolving) + " in resource '"+getURI()+"'.", triple);
+		throw new CyclicLinkingException("Cyclic resolution of lazy links : " + getReferences(triple, getResolving()) + " in resource '"+getURI()+"'.", triple);
 	}
 
 	protected String getReferences(Triple<EObject, EReference, INode> triple,
@@ -354,8 +624,10 @@ public class LazyLinkingResource extends XtextResource {
 		if (message != null) {
 			List<Diagnostic> list = getDiagnosticList(message);
 			Diagnostic diagnostic = createDiagnostic(triple, message);
-			if (!list.contains(diagnostic))
-				list.add(diagnostic);
+			synchronized (list) {
+				if (!list.contains(diagnostic))
+					list.add(diagnostic);
+			}
 		}
 	}
 	
@@ -370,8 +642,10 @@ public class LazyLinkingResource extends XtextResource {
 		if (message != null) {
 			List<Diagnostic> list = getDiagnosticList(message);
 			Diagnostic diagnostic = createDiagnostic(triple, message);
-			if (!list.contains(diagnostic))
-				list.add(diagnostic);
+			synchronized (list) {
+				if (!list.contains(diagnostic))
+					list.add(diagnostic);
+			}
 		}
 	}
 
@@ -383,7 +657,9 @@ public class LazyLinkingResource extends XtextResource {
 		List<Diagnostic> list = getDiagnosticList(message);
 		if (!list.isEmpty()) {
 			Diagnostic diagnostic = createDiagnostic(triple, message);
-			list.remove(diagnostic);
+			synchronized (list) {
+				list.remove(diagnostic);
+			}
 		}
 	}
 
@@ -441,6 +717,34 @@ public class LazyLinkingResource extends XtextResource {
 		return eagerLinking;
 	}
 
+	/**
+	 * @since 2.13
+	 */
+	public void setIncrementalLinking(boolean incrementalLinking) {
+		this.incrementalLinking = incrementalLinking;
+	}
+
+	/**
+	 * @since 2.13
+	 */
+	public boolean isIncrementalLinking() {
+		return incrementalLinking;
+	}
+
+	/**
+	 * @since 2.13
+	 */
+	public void setConcurrentResolution(boolean concurrentResolution) {
+		this.concurrentResolution = concurrentResolution;
+	}
+
+	/**
+	 * @since 2.13
+	 */
+	public boolean isConcurrentResolution() {
+		return concurrentResolution;
+	}
+
 	public ILinkingDiagnosticMessageProvider getDiagnosticMessageProvider() {
 		return diagnosticMessageProvider;
 	}
@@ -478,7 +782,7 @@ public class LazyLinkingResource extends XtextResource {
 				new Provider<Set<String>>() {
 					@Override
 					public Set<String> get() {
-						return Sets.newHashSet();
+						return Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 					}
 				});
 		return unresolveableProxies;
@@ -486,11 +790,22 @@ public class LazyLinkingResource extends XtextResource {
 	
 	private ArrayList<Triple<EObject, EReference, INode>> proxyInformation = newArrayList();
 	
+	/**
+	 * The indexes of the proxy information that has been replaced by an incremental linking and can be reused.
+	 */
+	private final BitSet reusableProxyInformation = new BitSet();
+	
 	/**
 	 * @since 2.7
 	 */
 	public int addLazyProxyInformation(EObject obj, EReference ref, INode node) {
-		int index = proxyInformation.size();
+		int index = reusableProxyInformation.nextSetBit(0);
+		if (index >= 0) {
+			reusableProxyInformation.clear(index);
+			proxyInformation.set(index, Tuples.create(obj, ref, node));
+			return index;
+		}
+		index = proxyInformation.size();
 		proxyInformation.add(Tuples.create(obj, ref, node));
 		return index;
 	}
@@ -524,6 +839,7 @@ public class LazyLinkingResource extends XtextResource {
 	 */
 	public void clearLazyProxyInformation() {
 		proxyInformation = newArrayListWithCapacity(proxyInformation.size());
+		reusableProxyInformation.clear();
 	}
 	
 }
@@ -18,6 +18,8 @@ import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl.EObjectOutputStrea
 import org.eclipse.xtext.util.Strings;
 
 import com.google.common.base.Function;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 
 /**
  * A datatype for dealing with qualified names.
@@ -34,8 +36,15 @@ public class QualifiedName implements Comparable<QualifiedName> {
 
 	private QualifiedName lowerCase;
 
+	/**
+	 * Whether this is the instance that is returned by {@link #intern()} for its segments.
+	 */
+	private final boolean canonical;
+
 	private static final boolean USE_INTERNING = Boolean.getBoolean("xtext.qn.interning");
 
+	private static final Interner<QualifiedName> CANONICAL_NAMES = Interners.newWeakInterner();
+
 	public static final QualifiedName EMPTY = new QualifiedName() {
 		@Override
 		public QualifiedName append(QualifiedName relativeQualifiedName) {
@@ -128,11 +137,13 @@ public class QualifiedName implements Comparable<QualifiedName> {
 		}
 
 		String[] segments = readSegmentArray(eObjectInputStream, segmentCount, firstSegment);
+		QualifiedName result;
 		if (lowerCase) {
-			return new QualifiedNameLowerCase(segments);
+			result = new QualifiedNameLowerCase(segments);
 		} else {
-			return new QualifiedName(segments);
+			result = new QualifiedName(segments);
 		}
+		return USE_INTERNING ? result.intern() : result;
 	}
 
 	private static String[] readSegmentArray(EObjectInputStream from, int count, String first) throws IOException {
@@ -221,11 +232,43 @@ public class QualifiedName implements Comparable<QualifiedName> {
 	}
 
 	protected QualifiedName(String... segments) {
+		this(segments, false);
+	}
+
+	private QualifiedName(String[] segments, boolean canonical) {
 		if (segments == null || segments.length == 0)
 			this.segments = Strings.EMPTY_ARRAY;
 		else
 			this.segments = segments;
 		hash = Arrays.hashCode(this.segments);
+		this.canonical = canonical;
+	}
+
+	/**
+	 * Returns the canonical instance that is equal to this qualified name. All canonical instances with equal segments
+	 * are identical as long as they are referenced, so they can be compared by reference. The canonical instances
+	 * share their segment strings and their {@link #toLowerCase() lower case representation} is canonical, too.
+	 * 
+	 * The canonical instances are held in a global table with weak references. A canonical instance is always a new
+	 * copy, this instance is not modified. The persisted index is read into canonical instances if the system property
+	 * {@code xtext.qn.interning} is set to {@code true}.
+	 * 
+	 * @return the canonical instance. Never <code>null</code>.
+	 * @since 2.13
+	 */
+	public QualifiedName intern() {
+		if (canonical)
+			return this;
+		if (segments.length == 0)
+			return EMPTY;
+		String[] canonicalSegments = new String[segments.length];
+		for (int i = 0; i < segments.length; i++) {
+			canonicalSegments[i] = CommonUtil.intern(segments[i]);
+		}
+		if (this instanceof QualifiedNameLowerCase) {
+			return CANONICAL_NAMES.intern(new QualifiedNameLowerCase(canonicalSegments, true));
+		}
+		return CANONICAL_NAMES.intern(new QualifiedName(canonicalSegments, true));
 	}
 
 	public boolean isEmpty() {
@@ -316,6 +359,8 @@ public class QualifiedName implements Comparable<QualifiedName> {
 		}
 		if (isLowerCase) {
 			lowerCase = this;
+		} else if (canonical) {
+			lowerCase = new QualifiedNameLowerCase(newSegments).intern();
 		} else {
 			lowerCase = new QualifiedNameLowerCase(newSegments);
 		}
@@ -326,6 +371,10 @@ public class QualifiedName implements Comparable<QualifiedName> {
 		public QualifiedNameLowerCase(String[] segments) {
 			super(segments);
 		}
+
+		QualifiedNameLowerCase(String[] segments, boolean canonical) {
+			super(segments, canonical);
+		}
 		@Override
 		public QualifiedName toLowerCase() {
 			return this;
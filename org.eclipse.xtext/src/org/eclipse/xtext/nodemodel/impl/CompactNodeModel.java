@@ -0,0 +1,759 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.nodemodel.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.xtext.nodemodel.BidiIterable;
+import org.eclipse.xtext.nodemodel.BidiTreeIterable;
+import org.eclipse.xtext.nodemodel.BidiTreeIterator;
+import org.eclipse.xtext.nodemodel.ICompositeNode;
+import org.eclipse.xtext.nodemodel.ILeafNode;
+import org.eclipse.xtext.nodemodel.INode;
+import org.eclipse.xtext.nodemodel.SyntaxErrorMessage;
+import org.eclipse.xtext.nodemodel.util.EmptyBidiIterable;
+import org.eclipse.xtext.nodemodel.util.NodeIterable;
+import org.eclipse.xtext.nodemodel.util.NodeTreeIterator;
+import org.eclipse.xtext.nodemodel.util.ReversedBidiTreeIterable;
+import org.eclipse.xtext.nodemodel.util.SingletonBidiIterable;
+import org.eclipse.xtext.util.ITextRegion;
+import org.eclipse.xtext.util.ITextRegionWithLineInformation;
+import org.eclipse.xtext.util.TextRegion;
+import org.eclipse.xtext.util.TextRegionWithLineInformation;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterables;
+
+/**
+ * A read-only node model that keeps the nodes of a parsed document in parallel arrays instead of one object per node.
+ * The nodes are numbered in pre-order, so the descendants of a node are exactly the nodes between its own index and
+ * the end index of its subtree. The first child of a composite node is the next node and the next sibling of a node
+ * is the end of its subtree, provided that it is still in the subtree of the parent.
+ *
+ * Clients access the nodes through lightweight {@link INode} views that are created on demand. Two views are equal if
+ * they denote the same node. Only the nodes that have a direct semantic element are kept as objects, since they are
+ * installed as adapters of their semantic element.
+ *
+ * Folded composite nodes of the original node model are stored as regular composite nodes. A compact node model
+ * cannot be modified, so it cannot be used for partial parsing, and it cannot be written to a resource storage.
+ *
+ * @see NodeModelBuilder#compact(ICompositeNode)
+ * @since 2.13
+ */
+@Beta
+public class CompactNodeModel {
+
+	private static final int COMPOSITE = 0;
+
+	private static final int LEAF = 1;
+
+	private static final int HIDDEN_LEAF = 2;
+
+	private static final int KIND_BITS = 2;
+
+	private static final int KIND_MASK = (1 << KIND_BITS) - 1;
+
+	/**
+	 * Creates a compact copy of the given node model and installs its nodes as adapters of the semantic elements
+	 * instead of the nodes of the given model.
+	 */
+	public static CompactNodeModel create(RootNode rootNode) {
+		return new CompactNodeModel(rootNode);
+	}
+
+	private final String completeContent;
+
+	private final int[] lineBreakOffsets;
+
+	private final int[] parents;
+
+	private final int[] subtreeEnds;
+
+	private final int[] totalOffsets;
+
+	private final int[] totalLengths;
+
+	/**
+	 * The index of the grammar element of each node in {@link #grammarElements}, or <code>-1</code>.
+	 */
+	private final int[] grammarElementIds;
+
+	private final EObject[] grammarElements;
+
+	/**
+	 * The kind of each node in the lower bits and the look ahead of composite nodes in the upper bits.
+	 */
+	private final int[] kindsAndLookAheads;
+
+	/**
+	 * The sorted indices of the nodes that have a syntax error.
+	 */
+	private final int[] syntaxErrorIndices;
+
+	private final SyntaxErrorMessage[] syntaxErrorMessages;
+
+	/**
+	 * The sorted indices of the nodes that have a direct semantic element.
+	 */
+	private final int[] semanticIndices;
+
+	private final SemanticCompositeNodeView[] semanticNodes;
+
+	private final CompositeNodeView rootNode;
+
+	protected CompactNodeModel(RootNode original) {
+		completeContent = original.getCompleteContent();
+		lineBreakOffsets = original.basicGetLineBreakOffsets();
+		int size = Iterables.size(original.getAsTreeIterable());
+		parents = new int[size];
+		subtreeEnds = new int[size];
+		totalOffsets = new int[size];
+		totalLengths = new int[size];
+		grammarElementIds = new int[size];
+		kindsAndLookAheads = new int[size];
+		Map<EObject, Integer> grammarElementToId = new IdentityHashMap<EObject, Integer>();
+		List<EObject> grammarElementList = new ArrayList<EObject>();
+		List<Integer> syntaxErrorIndexList = new ArrayList<Integer>();
+		List<SyntaxErrorMessage> syntaxErrorMessageList = new ArrayList<SyntaxErrorMessage>();
+		List<Integer> semanticIndexList = new ArrayList<Integer>();
+		List<INode> semanticOriginals = new ArrayList<INode>();
+
+		// the open composite nodes of the current path and their indices
+		List<INode> path = new ArrayList<INode>();
+		int[] pathIndices = new int[16];
+		int index = 0;
+		INode node = original;
+		while (node != null) {
+			parents[index] = path.isEmpty() ? -1 : pathIndices[path.size() - 1];
+			totalOffsets[index] = node.getTotalOffset();
+			totalLengths[index] = node.getTotalLength();
+			EObject grammarElement = node.getGrammarElement();
+			if (grammarElement == null) {
+				grammarElementIds[index] = -1;
+			} else {
+				Integer id = grammarElementToId.get(grammarElement);
+				if (id == null) {
+					id = grammarElementList.size();
+					grammarElementToId.put(grammarElement, id);
+					grammarElementList.add(grammarElement);
+				}
+				grammarElementIds[index] = id;
+			}
+			if (node.getSyntaxErrorMessage() != null) {
+				syntaxErrorIndexList.add(index);
+				syntaxErrorMessageList.add(node.getSyntaxErrorMessage());
+			}
+			if (node.hasDirectSemanticElement()) {
+				semanticIndexList.add(index);
+				semanticOriginals.add(node);
+			}
+			if (node instanceof ILeafNode) {
+				kindsAndLookAheads[index] = ((ILeafNode) node).isHidden() ? HIDDEN_LEAF : LEAF;
+			} else {
+				kindsAndLookAheads[index] = ((ICompositeNode) node).getLookAhead() << KIND_BITS | COMPOSITE;
+			}
+			index++;
+			if (node instanceof ICompositeNode && ((ICompositeNode) node).hasChildren()) {
+				if (path.size() == pathIndices.length) {
+					pathIndices = Arrays.copyOf(pathIndices, pathIndices.length * 2);
+				}
+				pathIndices[path.size()] = index - 1;
+				path.add(node);
+				node = ((ICompositeNode) node).getFirstChild();
+			} else {
+				subtreeEnds[index - 1] = index;
+				while (node != null && !node.hasNextSibling()) {
+					if (path.isEmpty()) {
+						node = null;
+					} else {
+						subtreeEnds[pathIndices[path.size() - 1]] = index;
+						node = path.remove(path.size() - 1);
+					}
+				}
+				if (node != null) {
+					node = node.getNextSibling();
+				}
+			}
+		}
+		grammarElements = grammarElementList.toArray(new EObject[grammarElementList.size()]);
+		syntaxErrorIndices = toIntArray(syntaxErrorIndexList);
+		syntaxErrorMessages = syntaxErrorMessageList.toArray(new SyntaxErrorMessage[syntaxErrorMessageList.size()]);
+		semanticIndices = toIntArray(semanticIndexList);
+		semanticNodes = new SemanticCompositeNodeView[semanticIndices.length];
+		for (int i = 0; i < semanticIndices.length; i++) {
+			semanticNodes[i] = new SemanticCompositeNodeView(semanticIndices[i]);
+			replaceAdapter(semanticOriginals.get(i), semanticNodes[i]);
+		}
+		if (semanticIndices.length > 0 && semanticIndices[0] == 0) {
+			rootNode = semanticNodes[0];
+		} else {
+			rootNode = new CompositeNodeView(0);
+		}
+	}
+
+	private int[] toIntArray(List<Integer> list) {
+		int[] result = new int[list.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = list.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Replaces the original node in the adapters of its semantic element, so the new node keeps the position that
+	 * {@link org.eclipse.xtext.nodemodel.util.NodeModelUtils#getNode(EObject)} relies on.
+	 */
+	private void replaceAdapter(INode originalNode, SemanticCompositeNodeView node) {
+		EObject semanticElement = originalNode.getSemanticElement();
+		EList<Adapter> adapters = semanticElement.eAdapters();
+		int index = 0;
+		while (index < adapters.size() && adapters.get(index) != originalNode) {
+			index++;
+		}
+		if (index < adapters.size()) {
+			adapters.set(index, node);
+		} else {
+			adapters.add(node);
+		}
+		node.setTarget(semanticElement);
+	}
+
+	public ICompositeNode getRootNode() {
+		return rootNode;
+	}
+
+	/**
+	 * Returns the number of nodes in this model.
+	 */
+	public int size() {
+		return parents.length;
+	}
+
+	protected INode getNode(int index) {
+		if (index == 0) {
+			return rootNode;
+		}
+		int semanticIndex = Arrays.binarySearch(semanticIndices, index);
+		if (semanticIndex >= 0) {
+			return semanticNodes[semanticIndex];
+		}
+		switch (getKind(index)) {
+			case COMPOSITE:
+				return new CompositeNodeView(index);
+			default:
+				return new LeafNodeView(index);
+		}
+	}
+
+	private int getKind(int index) {
+		return kindsAndLookAheads[index] & KIND_MASK;
+	}
+
+	private boolean isLeaf(int index) {
+		return getKind(index) != COMPOSITE;
+	}
+
+	private boolean isHidden(int index) {
+		return getKind(index) == HIDDEN_LEAF;
+	}
+
+	private int getNextSibling(int index) {
+		int parent = parents[index];
+		if (parent == -1) {
+			return -1;
+		}
+		int next = subtreeEnds[index];
+		if (next < subtreeEnds[parent]) {
+			return next;
+		}
+		return -1;
+	}
+
+	private int getPreviousSibling(int index) {
+		int parent = parents[index];
+		if (parent == -1 || parent == index - 1) {
+			return -1;
+		}
+		int candidate = index - 1;
+		while (parents[candidate] != parent) {
+			candidate = parents[candidate];
+		}
+		return candidate;
+	}
+
+	private int getLastChild(int index) {
+		int end = subtreeEnds[index];
+		if (end == index + 1) {
+			return -1;
+		}
+		int candidate = end - 1;
+		while (parents[candidate] != index) {
+			candidate = parents[candidate];
+		}
+		return candidate;
+	}
+
+	private int getTotalEndOffset(int index) {
+		return totalOffsets[index] + totalLengths[index];
+	}
+
+	private int getOffset(int index) {
+		int firstLeaf = -1;
+		for (int i = index; i < subtreeEnds[index]; i++) {
+			if (isLeaf(i)) {
+				if (!isHidden(i)) {
+					return totalOffsets[i];
+				}
+				if (firstLeaf == -1) {
+					firstLeaf = i;
+				}
+			}
+		}
+		if (firstLeaf != -1) {
+			return totalOffsets[firstLeaf];
+		}
+		return totalOffsets[index];
+	}
+
+	/**
+	 * Returns the index of the last non-hidden leaf in the subtree of the given node, or <code>-1</code>.
+	 */
+	private int getLastVisibleLeaf(int index) {
+		for (int i = subtreeEnds[index] - 1; i >= index; i--) {
+			if (isLeaf(i) && !isHidden(i)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private int getLine(int offset) {
+		return InternalNodeModelUtils.getLineAndColumn(completeContent, lineBreakOffsets, offset).getLine();
+	}
+
+	private ILeafNode findLeafNodeAtOffset(int index, int leafNodeOffset) {
+		int i = index;
+		while (i < subtreeEnds[index]) {
+			int offset = totalOffsets[i];
+			if (offset <= leafNodeOffset && offset + totalLengths[i] > leafNodeOffset) {
+				if (isLeaf(i)) {
+					return (ILeafNode) getNode(i);
+				}
+				i++;
+			} else {
+				if (offset > leafNodeOffset) {
+					return null;
+				}
+				i = subtreeEnds[i];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the text of the document.
+	 */
+	protected String getCompleteContent() {
+		return completeContent;
+	}
+
+	/**
+	 * Returns the offsets of the line breaks in the document. Note that the result is not a copy but the internal
+	 * data structure of this model.
+	 */
+	protected int[] basicGetLineBreakOffsets() {
+		return lineBreakOffsets;
+	}
+
+	/**
+	 * A view of a node in a {@link CompactNodeModel}.
+	 *
+	 * @noextend This class is not intended to be subclassed by clients.
+	 */
+	public abstract class AbstractNodeView implements INode, BidiTreeIterable<INode> {
+
+		protected final int index;
+
+		protected AbstractNodeView(int index) {
+			this.index = index;
+		}
+
+		public CompactNodeModel getModel() {
+			return CompactNodeModel.this;
+		}
+
+		/**
+		 * Find the leaf node at the given offset in the subtree of this node.
+		 *
+		 * @see org.eclipse.xtext.nodemodel.util.NodeModelUtils#findLeafNodeAtOffset(INode, int)
+		 */
+		public ILeafNode findLeafNodeAtOffset(int leafNodeOffset) {
+			return CompactNodeModel.this.findLeafNodeAtOffset(index, leafNodeOffset);
+		}
+
+		@Override
+		public ICompositeNode getParent() {
+			int parent = parents[index];
+			if (parent == -1) {
+				return null;
+			}
+			return (ICompositeNode) getNode(parent);
+		}
+
+		@Override
+		public boolean hasSiblings() {
+			return hasPreviousSibling() || hasNextSibling();
+		}
+
+		@Override
+		public boolean hasPreviousSibling() {
+			int parent = parents[index];
+			return parent != -1 && parent != index - 1;
+		}
+
+		@Override
+		public boolean hasNextSibling() {
+			return CompactNodeModel.this.getNextSibling(index) != -1;
+		}
+
+		@Override
+		public INode getPreviousSibling() {
+			int previous = CompactNodeModel.this.getPreviousSibling(index);
+			if (previous == -1) {
+				return null;
+			}
+			return getNode(previous);
+		}
+
+		@Override
+		public INode getNextSibling() {
+			int next = CompactNodeModel.this.getNextSibling(index);
+			if (next == -1) {
+				return null;
+			}
+			return getNode(next);
+		}
+
+		@Override
+		public ICompositeNode getRootNode() {
+			return rootNode;
+		}
+
+		@Override
+		public Iterable<ILeafNode> getLeafNodes() {
+			return new Iterable<ILeafNode>() {
+				@Override
+				public Iterator<ILeafNode> iterator() {
+					return new AbstractIterator<ILeafNode>() {
+						private int next = index;
+
+						@Override
+						protected ILeafNode computeNext() {
+							while (next < subtreeEnds[index]) {
+								int current = next++;
+								if (isLeaf(current)) {
+									return (ILeafNode) getNode(current);
+								}
+							}
+							return endOfData();
+						}
+					};
+				}
+			};
+		}
+
+		@Override
+		public int getTotalOffset() {
+			return totalOffsets[index];
+		}
+
+		@Override
+		public int getTotalLength() {
+			return totalLengths[index];
+		}
+
+		@Override
+		public int getTotalEndOffset() {
+			return CompactNodeModel.this.getTotalEndOffset(index);
+		}
+
+		@Override
+		public int getTotalStartLine() {
+			return getLine(getTotalOffset());
+		}
+
+		@Override
+		public int getStartLine() {
+			return getLine(getOffset());
+		}
+
+		@Override
+		public int getTotalEndLine() {
+			return getLine(getTotalEndOffset());
+		}
+
+		@Override
+		public int getEndLine() {
+			return getLine(getEndOffset());
+		}
+
+		@Override
+		public String getText() {
+			return completeContent.substring(getTotalOffset(), getTotalEndOffset());
+		}
+
+		@Override
+		public EObject getGrammarElement() {
+			int id = grammarElementIds[index];
+			if (id == -1) {
+				return null;
+			}
+			return grammarElements[id];
+		}
+
+		@Override
+		public EObject getSemanticElement() {
+			for (int parent = parents[index]; parent != -1; parent = parents[parent]) {
+				int semanticIndex = Arrays.binarySearch(semanticIndices, parent);
+				if (semanticIndex >= 0 && semanticNodes[semanticIndex].semanticElement != null) {
+					return semanticNodes[semanticIndex].semanticElement;
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public boolean hasDirectSemanticElement() {
+			return false;
+		}
+
+		@Override
+		public SyntaxErrorMessage getSyntaxErrorMessage() {
+			int errorIndex = Arrays.binarySearch(syntaxErrorIndices, index);
+			if (errorIndex < 0) {
+				return null;
+			}
+			return syntaxErrorMessages[errorIndex];
+		}
+
+		@Override
+		public BidiTreeIterable<INode> getAsTreeIterable() {
+			return this;
+		}
+
+		@Override
+		public BidiTreeIterator<INode> iterator() {
+			return new NodeTreeIterator(this);
+		}
+
+		@Override
+		public BidiTreeIterable<INode> reverse() {
+			return new ReversedBidiTreeIterable<INode>(this);
+		}
+
+		@Override
+		public ITextRegion getTextRegion() {
+			int offset = getOffset();
+			return new TextRegion(offset, getEndOffset() - offset);
+		}
+
+		@Override
+		public ITextRegion getTotalTextRegion() {
+			return new TextRegion(getTotalOffset(), getTotalLength());
+		}
+
+		@Override
+		public ITextRegionWithLineInformation getTextRegionWithLineInformation() {
+			int offset = getOffset();
+			int endOffset = getEndOffset();
+			return new TextRegionWithLineInformation(offset, endOffset - offset, getLine(offset), getLine(endOffset));
+		}
+
+		@Override
+		public ITextRegionWithLineInformation getTotalTextRegionWithLineInformation() {
+			return new TextRegionWithLineInformation(getTotalOffset(), getTotalLength(), getTotalStartLine(),
+					getTotalEndLine());
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this)
+				return true;
+			if (!(obj instanceof AbstractNodeView))
+				return false;
+			AbstractNodeView other = (AbstractNodeView) obj;
+			return index == other.index && getModel() == other.getModel();
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(getModel()) ^ index;
+		}
+
+	}
+
+	protected class LeafNodeView extends AbstractNodeView implements ILeafNode {
+
+		protected LeafNodeView(int index) {
+			super(index);
+		}
+
+		@Override
+		public boolean isHidden() {
+			return CompactNodeModel.this.isHidden(index);
+		}
+
+		@Override
+		public int getOffset() {
+			return getTotalOffset();
+		}
+
+		@Override
+		public int getLength() {
+			return getTotalLength();
+		}
+
+		@Override
+		public int getEndOffset() {
+			return getTotalEndOffset();
+		}
+
+	}
+
+	protected class CompositeNodeView extends AbstractNodeView implements ICompositeNode {
+
+		protected CompositeNodeView(int index) {
+			super(index);
+		}
+
+		@Override
+		public BidiIterable<INode> getChildren() {
+			if (hasChildren()) {
+				INode firstChild = getFirstChild();
+				if (firstChild.hasSiblings()) {
+					return new NodeIterable(firstChild);
+				} else {
+					return SingletonBidiIterable.<INode>create(firstChild);
+				}
+			}
+			return EmptyBidiIterable.instance();
+		}
+
+		@Override
+		public boolean hasChildren() {
+			return subtreeEnds[index] > index + 1;
+		}
+
+		@Override
+		public INode getFirstChild() {
+			if (!hasChildren()) {
+				return null;
+			}
+			return getNode(index + 1);
+		}
+
+		@Override
+		public INode getLastChild() {
+			int lastChild = CompactNodeModel.this.getLastChild(index);
+			if (lastChild == -1) {
+				return null;
+			}
+			return getNode(lastChild);
+		}
+
+		@Override
+		public int getLookAhead() {
+			return kindsAndLookAheads[index] >> KIND_BITS;
+		}
+
+		@Override
+		public int getOffset() {
+			return CompactNodeModel.this.getOffset(index);
+		}
+
+		@Override
+		public int getLength() {
+			int lastLeaf = getLastVisibleLeaf(index);
+			if (lastLeaf == -1) {
+				return getTotalLength();
+			}
+			return CompactNodeModel.this.getTotalEndOffset(lastLeaf) - getOffset();
+		}
+
+		@Override
+		public int getEndOffset() {
+			int lastLeaf = getLastVisibleLeaf(index);
+			if (lastLeaf == -1) {
+				return getTotalEndOffset();
+			}
+			return CompactNodeModel.this.getTotalEndOffset(lastLeaf);
+		}
+
+	}
+
+	/**
+	 * A composite node with a direct semantic element. These nodes are created eagerly, since they are attached to
+	 * their semantic element.
+	 */
+	protected class SemanticCompositeNodeView extends CompositeNodeView implements Adapter {
+
+		private EObject semanticElement;
+
+		protected SemanticCompositeNodeView(int index) {
+			super(index);
+		}
+
+		@Override
+		public EObject getSemanticElement() {
+			if (semanticElement != null)
+				return semanticElement;
+			return super.getSemanticElement();
+		}
+
+		@Override
+		public boolean hasDirectSemanticElement() {
+			return semanticElement != null;
+		}
+
+		@Override
+		public void notifyChanged(Notification notification) {
+			// ignore
+		}
+
+		@Override
+		public Notifier getTarget() {
+			return semanticElement;
+		}
+
+		@Override
+		public void setTarget(Notifier newTarget) {
+			if (newTarget == null || newTarget instanceof EObject)
+				semanticElement = (EObject) newTarget;
+			else
+				throw new IllegalArgumentException("Notifier must be an Eobject");
+		}
+
+		@Override
+		public boolean isAdapterForType(Object type) {
+			return type instanceof Class<?> && INode.class.isAssignableFrom((Class<?>) type);
+		}
+
+	}
+
+}
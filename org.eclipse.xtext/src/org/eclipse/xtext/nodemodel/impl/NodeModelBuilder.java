@@ -382,6 +382,20 @@ public class NodeModelBuilder {
 		((RootNode)rootNode).basicSetCompleteContent(completeContent);
 	}
 
+	/**
+	 * Returns a {@link CompactNodeModel compact}, read-only copy of the given node model. The nodes of the copy
+	 * replace the nodes of the given model as adapters of the semantic elements. Returns the given node if it is not
+	 * the root of a regular node model.
+	 * 
+	 * @since 2.13
+	 */
+	public ICompositeNode compact(ICompositeNode rootNode) {
+		if (rootNode instanceof RootNode) {
+			return CompactNodeModel.create((RootNode) rootNode).getRootNode();
+		}
+		return rootNode;
+	}
+
 	public void setForcedFirstGrammarElement(RuleCall ruleCall) {
 		this.forcedGrammarElement = ruleCall;
 		compressRoot = false;
@@ -14,6 +14,7 @@ import java.util.List;
 import org.eclipse.emf.common.notify.Adapter;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.xtext.AbstractRule;
 import org.eclipse.xtext.Action;
 import org.eclipse.xtext.Assignment;
@@ -29,10 +30,11 @@ import org.eclipse.xtext.nodemodel.ILeafNode;
 import org.eclipse.xtext.nodemodel.INode;
 import org.eclipse.xtext.nodemodel.SyntaxErrorMessage;
 import org.eclipse.xtext.nodemodel.impl.AbstractNode;
+import org.eclipse.xtext.nodemodel.impl.CompactNodeModel;
 import org.eclipse.xtext.nodemodel.impl.InternalNodeModelUtils;
-import org.eclipse.xtext.nodemodel.impl.RootNode;
 import org.eclipse.xtext.resource.EObjectAtOffsetHelper;
 import org.eclipse.xtext.resource.ILocationInFileProvider;
+import org.eclipse.xtext.resource.XtextResource;
 import org.eclipse.xtext.util.LineAndColumn;
 
 import com.google.common.collect.Lists;
@@ -66,6 +68,9 @@ public class NodeModelUtils extends InternalNodeModelUtils {
 	 */
 	/* @Nullable */
 	public static ILeafNode findLeafNodeAtOffset(/* @NonNull */ INode node, int leafNodeOffset) {
+		if (node instanceof CompactNodeModel.AbstractNodeView) {
+			return ((CompactNodeModel.AbstractNodeView) node).findLeafNodeAtOffset(leafNodeOffset);
+		}
 		INode localNode = node;
 		while(!(localNode instanceof AbstractNode)) {
 			localNode = localNode.getParent();
@@ -124,7 +129,7 @@ public class NodeModelUtils extends InternalNodeModelUtils {
 	 */
 	public static LineAndColumn getLineAndColumn(INode anyNode, int documentOffset) {
 		// special treatment for inconsistent nodes such as SyntheticLinkingLeafNode
-		if (anyNode.getParent() == null && !(anyNode instanceof RootNode)) {
+		if (anyNode.getParent() == null && anyNode.getRootNode() != anyNode) {
 			return LineAndColumn.from(1,1);
 		}
 		return InternalNodeModelUtils.getLineAndColumn(anyNode, documentOffset);
@@ -137,7 +142,9 @@ public class NodeModelUtils extends InternalNodeModelUtils {
 	}
 
 	/**
-	 * Returns the node that is directly associated with the given object by means of an EMF-Adapter.
+	 * Returns the node that is directly associated with the given object by means of an EMF-Adapter. If the object
+	 * has no node yet, the {@link XtextResource#getParseResult() parse result} of its resource is requested, since
+	 * e.g. a resource that was loaded from storage reads its node model on demand.
 	 * 
 	 * @param object the semantic object whose direct node should be provided.
 	 * @return the node that is directly associated with the given object.
@@ -147,6 +154,17 @@ public class NodeModelUtils extends InternalNodeModelUtils {
 	public static ICompositeNode getNode(/* @Nullable */ EObject object) {
 		if (object == null)
 			return null;
+		ICompositeNode result = getNodeAdapter(object);
+		if (result == null) {
+			Resource resource = object.eResource();
+			if (resource instanceof XtextResource && ((XtextResource) resource).getParseResult() != null) {
+				result = getNodeAdapter(object);
+			}
+		}
+		return result;
+	}
+
+	private static ICompositeNode getNodeAdapter(EObject object) {
 		List<Adapter> adapters = object.eAdapters();
 		for (int i = 0; i < adapters.size(); i++) {
 			Adapter adapter = adapters.get(i);
@@ -19,6 +19,7 @@ import org.eclipse.xtext.nodemodel.impl.CompositeNode;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
 
 /**
@@ -54,6 +55,14 @@ public class ParseResult implements IParseResult {
 	public Iterable<INode> getSyntaxErrors() {
 		if (rootNode == null || !hasSyntaxErrors())
 			return Collections.emptyList();
+		if (!(rootNode instanceof CompositeNode)) {
+			return Iterables.filter(rootNode.getAsTreeIterable(), new Predicate<INode>() {
+				@Override
+				public boolean apply(INode input) {
+					return input.getSyntaxErrorMessage() != null;
+				}
+			});
+		}
 		return new Iterable<INode>() {
 			@Override
 			@SuppressWarnings("unchecked")
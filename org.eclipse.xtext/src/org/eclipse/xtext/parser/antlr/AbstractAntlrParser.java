@@ -10,13 +10,16 @@ package org.eclipse.xtext.parser.antlr;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.util.Map;
 
 import org.antlr.runtime.ANTLRReaderStream;
+import org.antlr.runtime.ANTLRStringStream;
 import org.antlr.runtime.CharStream;
 import org.antlr.runtime.TokenSource;
 import org.eclipse.emf.common.util.WrappedException;
 import org.eclipse.xtext.ParserRule;
 import org.eclipse.xtext.RuleCall;
+import org.eclipse.xtext.nodemodel.ICompositeNode;
 import org.eclipse.xtext.nodemodel.impl.NodeModelBuilder;
 import org.eclipse.xtext.parser.AbstractParser;
 import org.eclipse.xtext.parser.IAstFactory;
@@ -24,6 +27,8 @@ import org.eclipse.xtext.parser.IParseResult;
 import org.eclipse.xtext.parser.ParseException;
 import org.eclipse.xtext.util.ReplaceRegion;
 
+import com.google.common.collect.MapMaker;
+import com.google.common.io.CharStreams;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.name.Named;
@@ -34,9 +39,57 @@ import com.google.inject.name.Named;
  */
 public abstract class AbstractAntlrParser extends AbstractParser {
 
+	/**
+	 * Enables the {@link TokenCache} that keeps the tokens of documents that had to be parsed completely again after a
+	 * change, so only the changed text is lexed if that happens again. Changes that can be reparsed partially do not
+	 * touch the tokens. Documents that are only parsed once, e.g. in a batch build, do not keep any tokens. Languages that wrap the lexer in {@link #createLexer(CharStream)}
+	 * should not enable it. Disabled by default.
+	 * 
+	 * @since 2.13
+	 */
+	public static final String TOKEN_CACHE = "org.eclipse.xtext.parser.antlr.AbstractAntlrParser.tokenCache";
+
 	@Inject
 	private IAstFactory elementFactory;
 
+	@Inject(optional = true)
+	@Named(TOKEN_CACHE)
+	private boolean tokenCache = false;
+
+	/**
+	 * The tokens of the documents that have been parsed completely again by their root node. The tokens are not
+	 * updated if a later change is reparsed partially.
+	 */
+	private final Map<ICompositeNode, TokenCache> tokenCaches = new MapMaker().weakKeys().makeMap();
+
+	/**
+	 * The document that is currently reparsed by this thread.
+	 */
+	private final ThreadLocal<ReparsedDocument> reparsedDocument = new ThreadLocal<ReparsedDocument>();
+
+	private static class ReparsedDocument {
+
+		/**
+		 * The tokens of a previous text of the document or <code>null</code>.
+		 */
+		private final TokenCache previousTokens;
+
+		/**
+		 * The length of the changed text, which distinguishes a complete reparse from a partial one.
+		 */
+		private final int length;
+
+		/**
+		 * The tokens of the changed text if the document has been parsed completely.
+		 */
+		private TokenCache tokens;
+
+		private ReparsedDocument(TokenCache previousTokens, int length) {
+			this.previousTokens = previousTokens;
+			this.length = length;
+		}
+	}
+
 	@Inject(optional = true)
 	private IPartialParsingHelper partialParser;
 
@@ -59,6 +112,8 @@ public abstract class AbstractAntlrParser extends AbstractParser {
 	@Override
 	public IParseResult doParse(Reader reader) {
 		try {
+			if (reparsedDocument.get() != null)
+				return parseWithTokenCache(getDefaultRuleName(), CharStreams.toString(reader));
 			return parse(getDefaultRuleName(), new ANTLRReaderStream(reader));
 		} catch (IOException e) {
 			throw new WrappedException(e);
@@ -85,7 +140,13 @@ public abstract class AbstractAntlrParser extends AbstractParser {
 	}
 
 	protected IParseResult doParse(String ruleName, CharStream in, NodeModelBuilder nodeModelBuilder, int initialLookAhead) {
-		TokenSource tokenSource = createLexer(in);
+		return doParse(ruleName, createLexer(in), nodeModelBuilder, initialLookAhead);
+	}
+
+	/**
+	 * @since 2.13
+	 */
+	protected IParseResult doParse(String ruleName, TokenSource tokenSource, NodeModelBuilder nodeModelBuilder, int initialLookAhead) {
 		XtextTokenStream tokenStream = createTokenStream(tokenSource);
 		tokenStream.initCurrentLookAhead(initialLookAhead);
 		setInitialHiddenTokens(tokenStream);
@@ -111,9 +172,33 @@ public abstract class AbstractAntlrParser extends AbstractParser {
 	
 	protected abstract AbstractInternalAntlrParser createParser(XtextTokenStream stream);
 
+	/**
+	 * Parses the text of a document that is reparsed. If the complete text is parsed, the tokens of a previous text
+	 * from the {@link TokenCache} are updated for it. Otherwise the text is lexed as usual.
+	 * 
+	 * @since 2.13
+	 */
+	protected IParseResult parseWithTokenCache(String ruleName, String text) {
+		ReparsedDocument document = reparsedDocument.get();
+		if (document == null || document.length != text.length()) {
+			// a part of the document is parsed
+			return parse(ruleName, new ANTLRStringStream(text));
+		}
+		TokenCache tokens;
+		if (document.previousTokens == null) {
+			tokens = TokenCache.create(lexerProvider.get(), text);
+		} else {
+			tokens = document.previousTokens.update(lexerProvider.get(), text);
+		}
+		document.tokens = tokens;
+		return doParse(ruleName, tokens.createTokenSource(), nodeModelBuilder.get(), 0);
+	}
+
 	@Override
 	public IParseResult parse(ParserRule rule, Reader reader) {
 		try {
+			if (reparsedDocument.get() != null)
+				return parseWithTokenCache(rule.getName(), CharStreams.toString(reader));
 			IParseResult parseResult = parse(rule.getName(), new ANTLRReaderStream(reader));
 			return parseResult;
 		} catch (IOException e) {
@@ -135,7 +220,21 @@ public abstract class AbstractAntlrParser extends AbstractParser {
 
 	@Override
 	protected IParseResult doReparse(IParseResult previousParseResult, ReplaceRegion replaceRegion) {
-		return partialParser.reparse(this, previousParseResult, replaceRegion);
+		if (!tokenCache)
+			return partialParser.reparse(this, previousParseResult, replaceRegion);
+		ICompositeNode rootNode = previousParseResult.getRootNode();
+		int length = rootNode.getText().length() - replaceRegion.getLength() + replaceRegion.getText().length();
+		// the tokens are only lexed if the partial parser falls back to parsing the complete text
+		ReparsedDocument document = new ReparsedDocument(tokenCaches.get(rootNode), length);
+		reparsedDocument.set(document);
+		try {
+			IParseResult result = partialParser.reparse(this, previousParseResult, replaceRegion);
+			if (document.tokens != null)
+				tokenCaches.put(result.getRootNode(), document.tokens);
+			return result;
+		} finally {
+			reparsedDocument.remove();
+		}
 	}
 
 	@Override
@@ -169,6 +268,20 @@ public abstract class AbstractAntlrParser extends AbstractParser {
 		this.lexerProvider = lexerProvider;
 	}
 
+	/**
+	 * @since 2.13
+	 */
+	public void setTokenCache(boolean tokenCache) {
+		this.tokenCache = tokenCache;
+	}
+
+	/**
+	 * @since 2.13
+	 */
+	public boolean isTokenCache() {
+		return tokenCache;
+	}
+
 	public void setTokenDefProvider(ITokenDefProvider tokenDefProvider) {
 		this.tokenDefProvider = tokenDefProvider;
 	}
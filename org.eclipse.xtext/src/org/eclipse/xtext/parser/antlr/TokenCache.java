@@ -0,0 +1,312 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.parser.antlr;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.antlr.runtime.ANTLRStringStream;
+import org.antlr.runtime.CharStream;
+import org.antlr.runtime.CommonToken;
+import org.antlr.runtime.Token;
+import org.antlr.runtime.TokenSource;
+import org.eclipse.xtext.util.ReplaceRegion;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.Maps;
+
+/**
+ * The tokens of a text as they are produced by a {@link Lexer}. A cache can be {@link #update(Lexer, ReplaceRegion)
+ * updated} for a changed text. The lexer is restarted at a token boundary before the change and stops as soon as it
+ * produces a token that starts at the same position as a token of the previous text, since all following tokens are
+ * the same then. The tokens are stored in a compact form and are {@link #createTokenSource() replayed} on demand.
+ *
+ * This assumes that the lexer does not keep any state between two tokens, which is true for the lexers that are
+ * generated by Xtext.
+ *
+ * Instances are immutable.
+ *
+ * @since 2.13
+ */
+@Beta
+public class TokenCache {
+
+	private static final int TYPE = 0;
+	private static final int CHANNEL = 1;
+	private static final int START = 2;
+	private static final int STOP = 3;
+	private static final int LINE = 4;
+	private static final int COLUMN = 5;
+	private static final int FIELDS = 6;
+
+	/**
+	 * Lexes the complete text.
+	 */
+	public static TokenCache create(Lexer lexer, String text) {
+		TokenCache result = new TokenCache(text, new int[Math.max(16, text.length() / 2)], Maps.<Integer, String>newHashMap());
+		RestartableStringStream stream = new RestartableStringStream(text);
+		lexer.setCharStream(stream);
+		Token token = lexer.nextToken();
+		while (token.getType() != Token.EOF) {
+			result.add((CommonToken) token, lexer);
+			token = lexer.nextToken();
+		}
+		result.relexedTokens = result.size;
+		return result;
+	}
+
+	private final String text;
+
+	private int[] data;
+
+	private int size;
+
+	/**
+	 * The lexer errors by the start offset of the invalid token.
+	 */
+	private final Map<Integer, String> errors;
+
+	private int relexedTokens;
+
+	protected TokenCache(String text, int[] data, Map<Integer, String> errors) {
+		this.text = text;
+		this.data = data;
+		this.errors = errors;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public int getTokenCount() {
+		return size;
+	}
+
+	/**
+	 * The number of tokens that had to be lexed to create this instance.
+	 */
+	int getRelexedTokenCount() {
+		return relexedTokens;
+	}
+
+	/**
+	 * Returns the tokens for the text with the given change applied. Only the tokens around the changed region are
+	 * lexed again.
+	 */
+	public TokenCache update(Lexer lexer, ReplaceRegion region) {
+		StringBuilder builder = new StringBuilder(text);
+		region.applyTo(builder);
+		String newText = builder.toString();
+		int offset = region.getOffset();
+		int delta = region.getText().length() - region.getLength();
+		int lineDelta = countLineBreaks(region.getText(), 0, region.getText().length())
+				- countLineBreaks(text, offset, region.getEndOffset());
+		int newEndOffset = offset + region.getText().length();
+		// the lexer may have looked ahead beyond the end of a token, so we restart one token earlier
+		int restart = Math.max(0, findLastTokenBefore(offset) - 1);
+		TokenCache result = new TokenCache(newText, new int[Math.max(16, data.length + delta / 2)], Maps.<Integer, String>newHashMap());
+		System.arraycopy(data, 0, result.data, 0, restart * FIELDS);
+		result.size = restart;
+		RestartableStringStream stream = new RestartableStringStream(newText);
+		lexer.setCharStream(stream);
+		if (restart < size) {
+			stream.restart(get(restart, START), get(restart, LINE), get(restart, COLUMN));
+		}
+		for (Map.Entry<Integer, String> error : errors.entrySet()) {
+			if (error.getKey() < stream.index())
+				result.errors.put(error.getKey(), error.getValue());
+		}
+		int old = restart;
+		Token token = lexer.nextToken();
+		while (token.getType() != Token.EOF) {
+			CommonToken commonToken = (CommonToken) token;
+			result.add(commonToken, lexer);
+			result.relexedTokens++;
+			if (commonToken.getStartIndex() >= newEndOffset) {
+				int oldStart = commonToken.getStartIndex() - delta;
+				while (old < size && get(old, START) < oldStart)
+					old++;
+				if (old < size && get(old, START) == oldStart && get(old, LINE) + lineDelta == commonToken.getLine()
+						&& isSameToken(old, commonToken)) {
+					result.copyFrom(this, old + 1, delta, lineDelta);
+					break;
+				}
+			}
+			token = lexer.nextToken();
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the tokens for the given text, which may differ from the text of this instance in several places. Only
+	 * the tokens between the common prefix and the common suffix of both texts are lexed again.
+	 */
+	public TokenCache update(Lexer lexer, String newText) {
+		int prefix = 0;
+		int maxPrefix = Math.min(text.length(), newText.length());
+		while (prefix < maxPrefix && text.charAt(prefix) == newText.charAt(prefix))
+			prefix++;
+		if (prefix == text.length() && prefix == newText.length())
+			return this;
+		int suffix = 0;
+		int maxSuffix = maxPrefix - prefix;
+		while (suffix < maxSuffix && text.charAt(text.length() - 1 - suffix) == newText.charAt(newText.length() - 1 - suffix))
+			suffix++;
+		return update(lexer, new ReplaceRegion(prefix, text.length() - prefix - suffix, newText.substring(prefix, newText.length() - suffix)));
+	}
+
+	/**
+	 * Returns a token source that emits the cached tokens.
+	 */
+	public TokenSource createTokenSource() {
+		return new CachedTokenSource();
+	}
+
+	private int get(int token, int field) {
+		return data[token * FIELDS + field];
+	}
+
+	private static int countLineBreaks(String text, int start, int end) {
+		int result = 0;
+		for (int i = start; i < end; i++) {
+			if (text.charAt(i) == '\n')
+				result++;
+		}
+		return result;
+	}
+
+	private int findLastTokenBefore(int offset) {
+		int low = 0;
+		int high = size - 1;
+		int result = -1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (get(mid, STOP) + 1 < offset) {
+				result = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * A token that starts at the same offset, line and column with the same text after the change was produced from
+	 * the same state of the lexer, so the remaining tokens are the same, too. The position is checked by the caller.
+	 */
+	private boolean isSameToken(int old, CommonToken token) {
+		return get(old, TYPE) == token.getType() && get(old, CHANNEL) == token.getChannel()
+				&& get(old, COLUMN) == token.getCharPositionInLine()
+				&& get(old, STOP) - get(old, START) == token.getStopIndex() - token.getStartIndex();
+	}
+
+	private void add(CommonToken token, Lexer lexer) {
+		ensureCapacity(size + 1);
+		int index = size * FIELDS;
+		data[index + TYPE] = token.getType();
+		data[index + CHANNEL] = token.getChannel();
+		data[index + START] = token.getStartIndex();
+		data[index + STOP] = token.getStopIndex();
+		data[index + LINE] = token.getLine();
+		data[index + COLUMN] = token.getCharPositionInLine();
+		size++;
+		if (token.getType() == Token.INVALID_TOKEN_TYPE) {
+			String message = lexer.getErrorMessage(token);
+			if (message != null)
+				errors.put(token.getStartIndex(), message);
+		}
+	}
+
+	private void copyFrom(TokenCache other, int from, int delta, int lineDelta) {
+		int count = other.size - from;
+		ensureCapacity(size + count);
+		System.arraycopy(other.data, from * FIELDS, data, size * FIELDS, count * FIELDS);
+		if (delta != 0 || lineDelta != 0) {
+			for (int i = size; i < size + count; i++) {
+				data[i * FIELDS + START] += delta;
+				data[i * FIELDS + STOP] += delta;
+				data[i * FIELDS + LINE] += lineDelta;
+			}
+		}
+		size += count;
+		if (from < other.size) {
+			int oldStart = other.get(from, START);
+			for (Map.Entry<Integer, String> error : other.errors.entrySet()) {
+				if (error.getKey() >= oldStart)
+					errors.put(error.getKey() + delta, error.getValue());
+			}
+		}
+	}
+
+	private void ensureCapacity(int tokens) {
+		if (tokens * FIELDS > data.length) {
+			data = Arrays.copyOf(data, Math.max(tokens * FIELDS, data.length * 3 / 2));
+		}
+	}
+
+	/**
+	 * Emits the cached tokens. The lexer errors are available for the {@link Token#INVALID_TOKEN_TYPE invalid}
+	 * tokens.
+	 */
+	public class CachedTokenSource implements TokenSource {
+
+		private final CharStream stream = new ANTLRStringStream(text);
+
+		private final Map<Token, String> tokenErrors = errors.isEmpty() ? Collections.<Token, String>emptyMap() : Maps.<Token, String>newHashMap();
+
+		private int next;
+
+		@Override
+		public Token nextToken() {
+			if (next >= size)
+				return Token.EOF_TOKEN;
+			CommonToken result = new CommonToken(stream, get(next, TYPE), get(next, CHANNEL), get(next, START), get(next, STOP));
+			result.setLine(get(next, LINE));
+			result.setCharPositionInLine(get(next, COLUMN));
+			if (result.getType() == Token.INVALID_TOKEN_TYPE) {
+				String message = errors.get(result.getStartIndex());
+				if (message != null)
+					tokenErrors.put(result, message);
+			}
+			next++;
+			return result;
+		}
+
+		public CharStream getCharStream() {
+			return stream;
+		}
+
+		public String getErrorMessage(Token token) {
+			return tokenErrors.get(token);
+		}
+
+		@Override
+		public String getSourceName() {
+			return stream.getSourceName();
+		}
+	}
+
+	/**
+	 * A stream that can be positioned at a token boundary without reading the text before it.
+	 */
+	protected static class RestartableStringStream extends ANTLRStringStream {
+
+		public RestartableStringStream(String input) {
+			super(input);
+		}
+
+		public void restart(int index, int line, int column) {
+			this.p = index;
+			this.line = line;
+			this.charPositionInLine = column;
+		}
+	}
+
+}
@@ -65,13 +65,14 @@ public class XtextTokenStream extends CommonTokenStream {
 		if ( stop>=tokens.size() ) {
 			stop = tokens.size()-1;
 		}
-		if (tokenSource instanceof Lexer) {
+		if (tokenSource instanceof Lexer || tokenSource instanceof TokenCache.CachedTokenSource) {
 			Token startToken = (Token) tokens.get(start);
 			Token stopToken = (Token) tokens.get(stop);
 			if (startToken instanceof CommonToken && stopToken instanceof CommonToken) {
 				CommonToken commonStart = (CommonToken) startToken;
 				CommonToken commonStop = (CommonToken) stopToken;
-				CharStream charStream = ((Lexer) tokenSource).getCharStream();
+				CharStream charStream = tokenSource instanceof Lexer ? ((Lexer) tokenSource).getCharStream()
+						: ((TokenCache.CachedTokenSource) tokenSource).getCharStream();
 				String result = charStream.substring(commonStart.getStartIndex(), commonStop.getStopIndex());
 				return result;
 			}
@@ -267,6 +268,11 @@ public class XtextTokenStream extends CommonTokenStream {
 		if (tokenSource instanceof org.eclipse.xtext.parser.antlr.Lexer) {
 			return ((org.eclipse.xtext.parser.antlr.Lexer) tokenSource).getErrorMessage(invalidToken);
 		}
+		if (tokenSource instanceof TokenCache.CachedTokenSource) {
+			String result = ((TokenCache.CachedTokenSource) tokenSource).getErrorMessage(invalidToken);
+			if (result != null)
+				return result;
+		}
 		return (invalidToken.getType() == Token.INVALID_TOKEN_TYPE) ? "Invalid token " + invalidToken.getText() : null;
 	}
 
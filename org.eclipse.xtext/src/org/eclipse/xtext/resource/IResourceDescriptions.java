@@ -7,7 +7,9 @@
  *******************************************************************************/
 package org.eclipse.xtext.resource;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Set;
 
 import org.eclipse.emf.common.notify.Notifier;
 import org.eclipse.emf.common.util.URI;
@@ -16,6 +18,8 @@ import org.eclipse.emf.ecore.EObject;
 import org.eclipse.xtext.naming.QualifiedName;
 import org.eclipse.xtext.resource.impl.ResourceDescriptionsProvider;
 
+import com.google.common.annotations.Beta;
+
 /**
  * Represents a set of {@link IResourceDescription}.
  * 
@@ -44,6 +48,25 @@ public interface IResourceDescriptions extends ISelectable {
 		void setContext(Notifier ctx);
 	}
 
+	/**
+	 * An instance of {@link IResourceDescriptions} that knows which resources contain a
+	 * {@link IResourceDescription#getReferenceDescriptions() reference} to a given object.
+	 * 
+	 * @since 2.13
+	 */
+	@Beta
+	interface IReferencingResourcesAware extends IResourceDescriptions {
+
+		/**
+		 * Returns the URIs of the resources that have a {@link IReferenceDescription reference description} whose
+		 * {@link IReferenceDescription#getTargetEObjectUri() target} is one of the given object URIs.
+		 * 
+		 * @param targetObjectURIs
+		 *            the URIs of the referenced objects. May not be <code>null</code>.
+		 */
+		Set<URI> getReferencingResourceURIs(Collection<URI> targetObjectURIs);
+	}
+
 	class NullImpl implements IResourceDescriptions {
 
 		@Override
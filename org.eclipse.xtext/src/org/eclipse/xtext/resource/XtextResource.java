@@ -30,18 +30,22 @@ import org.eclipse.xtext.Constants;
 import org.eclipse.xtext.ParserRule;
 import org.eclipse.xtext.diagnostics.Severity;
 import org.eclipse.xtext.linking.ILinker;
+import org.eclipse.xtext.nodemodel.ICompositeNode;
 import org.eclipse.xtext.nodemodel.INode;
 import org.eclipse.xtext.nodemodel.SyntaxErrorMessage;
+import org.eclipse.xtext.nodemodel.impl.NodeModelBuilder;
 import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
 import org.eclipse.xtext.parser.IEncodingProvider;
 import org.eclipse.xtext.parser.IParseResult;
 import org.eclipse.xtext.parser.IParser;
+import org.eclipse.xtext.parser.ParseResult;
 import org.eclipse.xtext.parser.antlr.IReferableElementsUnloader;
 import org.eclipse.xtext.resource.impl.ListBasedDiagnosticConsumer;
 import org.eclipse.xtext.serializer.ISerializer;
 import org.eclipse.xtext.service.OperationCanceledManager;
 import org.eclipse.xtext.util.IResourceScopeCache;
 import org.eclipse.xtext.util.LazyStringInputStream;
+import org.eclipse.xtext.util.Metrics;
 import org.eclipse.xtext.util.ReplaceRegion;
 import org.eclipse.xtext.util.TextRegion;
 import org.eclipse.xtext.validation.IConcreteSyntaxValidator;
@@ -78,6 +82,15 @@ public class XtextResource extends ResourceImpl {
 
 	public static final String OPTION_ENCODING = XtextResource.class.getName() + ".DEFAULT_ENCODING";
 
+	/**
+	 * The name of an optional boolean binding. If it is <code>true</code>, the node model of the resources is
+	 * {@link #compactNodeModel() compacted} whenever they are parsed completely. Since a compact node model cannot be
+	 * written to a resource storage, it is not meant for resources whose storages are written by a build.
+	 * 
+	 * @since 2.13
+	 */
+	public static final String COMPACT_NODE_MODEL = "org.eclipse.xtext.resource.XtextResource.COMPACT_NODE_MODEL";
+
 	private boolean validationDisabled;
 	
 	/**
@@ -138,6 +151,12 @@ public class XtextResource extends ResourceImpl {
 	@Inject
 	private IEncodingProvider encodingProvider;
 
+	private NodeModelBuilder nodeModelBuilder = new NodeModelBuilder();
+
+	@Inject(optional = true)
+	@Named(COMPACT_NODE_MODEL)
+	private boolean compactNodeModelEnabled;
+
 	private String encoding;
 
 	public IResourceServiceProvider getResourceServiceProvider() {
@@ -172,12 +191,20 @@ public class XtextResource extends ResourceImpl {
 	protected void doLoad(InputStream inputStream, Map<?, ?> options) throws IOException {
 		setEncodingFromOptions(options);
 		IParseResult result;
-		if (entryPoint == null) {
-			result = parser.parse(createReader(inputStream));
-		} else {
-			result = parser.parse(entryPoint, createReader(inputStream));
+		Metrics.Timer timer = Metrics.start(Metrics.PARSE, getURI());
+		try {
+			if (entryPoint == null) {
+				result = parser.parse(createReader(inputStream));
+			} else {
+				result = parser.parse(entryPoint, createReader(inputStream));
+			}
+		} finally {
+			timer.stop();
 		}
 		updateInternalState(this.parseResult, result);
+		if (compactNodeModelEnabled) {
+			compactNodeModel();
+		}
 	}
 	
 	/**
@@ -245,7 +272,8 @@ public class XtextResource extends ResourceImpl {
 		}
 		try {
 			isUpdating = true;
-			updateInternalState(parseResult, parseResult);
+			IParseResult currentParseResult = getParseResult();
+			updateInternalState(currentParseResult, currentParseResult);
 		} finally {
 			isUpdating = false;
 		}
@@ -257,16 +285,21 @@ public class XtextResource extends ResourceImpl {
 		}
 		try {
 			isUpdating = true;
-			IParseResult oldParseResult = parseResult;
+			IParseResult oldParseResult = getParseResult();
 			ReplaceRegion replaceRegion = new ReplaceRegion(new TextRegion(offset, replacedTextLength), newText);
 			IParseResult newParseResult;
 			ParserRule oldEntryPoint = NodeModelUtils.getEntryParserRule(oldParseResult.getRootNode());
-			if (entryPoint == null || entryPoint == oldEntryPoint) {
-				newParseResult = parser.reparse(oldParseResult, replaceRegion);
-			} else {
-				StringBuilder builder = new StringBuilder(oldParseResult.getRootNode().getText());
-				replaceRegion.applyTo(builder);
-				newParseResult = parser.parse(entryPoint, new StringReader(builder.toString()));
+			Metrics.Timer timer = Metrics.start(Metrics.PARSE, getURI());
+			try {
+				if (entryPoint == null || entryPoint == oldEntryPoint) {
+					newParseResult = parser.reparse(oldParseResult, replaceRegion);
+				} else {
+					StringBuilder builder = new StringBuilder(oldParseResult.getRootNode().getText());
+					replaceRegion.applyTo(builder);
+					newParseResult = parser.parse(entryPoint, new StringReader(builder.toString()));
+				}
+			} finally {
+				timer.stop();
 			}
 			updateInternalState(oldParseResult, newParseResult);
 		} finally {
@@ -481,6 +514,40 @@ public class XtextResource extends ResourceImpl {
 		this.parseResult = parseResult;
 	}
 
+	/**
+	 * Replaces the node model of this resource with a {@link NodeModelBuilder#compact(ICompositeNode) compact},
+	 * read-only copy that needs considerably less memory. The next {@link #update(int, int, String) update} of the
+	 * resource parses the complete text again. A compact node model cannot be written to a resource storage.
+	 * 
+	 * @since 2.13
+	 */
+	public void compactNodeModel() {
+		IParseResult currentParseResult = getParseResult();
+		if (currentParseResult == null) {
+			return;
+		}
+		ICompositeNode rootNode = currentParseResult.getRootNode();
+		ICompositeNode compactRootNode = nodeModelBuilder.compact(rootNode);
+		if (compactRootNode != rootNode) {
+			setParseResult(new ParseResult(currentParseResult.getRootASTElement(), compactRootNode,
+					currentParseResult.hasSyntaxErrors()));
+		}
+	}
+
+	/**
+	 * @since 2.13
+	 */
+	public boolean isCompactNodeModelEnabled() {
+		return compactNodeModelEnabled;
+	}
+
+	/**
+	 * @since 2.13
+	 */
+	public void setCompactNodeModelEnabled(boolean compactNodeModelEnabled) {
+		this.compactNodeModelEnabled = compactNodeModelEnabled;
+	}
+
 	public boolean isValidationDisabled() {
 		return validationDisabled;
 	}
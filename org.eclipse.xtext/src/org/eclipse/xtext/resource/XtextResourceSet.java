@@ -14,6 +14,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.emf.common.notify.Notification;
@@ -26,12 +27,18 @@ import org.eclipse.emf.ecore.resource.impl.ExtensibleURIConverterImpl;
 import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 import org.eclipse.emf.ecore.xmi.XMLResource;
 
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+
 /**
  * A resource set that is capable of resolving classpath URIs.
  * 
  * It maintains a {@link #getURIResourceMap()} containing the resource's URI as well as the normalized version of it as a key.
  * The superset of actual and normalized resource URIs must be unique within the same resource set. 
  * 
+ * Removing a resource only touches the map entries that have been registered for it, so resources can be removed
+ * from large resource sets one by one without scanning the maps.
+ * 
  * @author Jan Khnlein
  * @author Sven Efftinge
  * @author Sebastian Zarnekow - Default registration of {@link XtextPlatformResourceURIHandler}
@@ -50,6 +57,19 @@ public class XtextResourceSet extends ResourceSetImpl {
 		return Collections.unmodifiableMap(normalizationMap);
 	}
 	
+	/**
+	 * The keys of the {@link #normalizationMap} by their normalized URI.
+	 */
+	private final SetMultimap<URI, URI> normalizedURIs = HashMultimap.create();
+	
+	/**
+	 * The number of entries this resource set has put into the {@link #getURIResourceMap() URI resource map}. If the
+	 * map has more entries, removing a resource falls back to scanning the map. This happens if clients put entries
+	 * into the map themselves or {@link #setURIResourceMap(Map) set} a map that already contains entries, since this
+	 * resource set cannot remove these entries by the URI of the removed resource.
+	 */
+	private int registeredURIs;
+	
 	private volatile AtomicInteger outdatedStamp = new AtomicInteger(0);
 	private volatile int modificationStamp = 0;
 	
@@ -98,13 +118,65 @@ public class XtextResourceSet extends ResourceSetImpl {
 	}
 	
 	void updateURI(Resource resource, URI old, final Map<URI, Resource> uriResourceMap) {
-		uriResourceMap.remove(old);
-		URI oldNormalized = normalizationMap.remove(old);
+		if (uriResourceMap.remove(old) != null) {
+			registeredURIs--;
+		}
+		URI oldNormalized = removeNormalization(old);
 		if (old != null && !old.equals(oldNormalized)) {
-			uriResourceMap.remove(oldNormalized);
+			if (uriResourceMap.remove(oldNormalized) != null) {
+				registeredURIs--;
+			}
 		}
 		registerURI(resource);
 	}
+	
+	private void putNormalization(URI uri, URI normalized) {
+		URI previous = normalizationMap.put(uri, normalized);
+		if (previous != null) {
+			normalizedURIs.remove(previous, uri);
+		}
+		normalizedURIs.put(normalized, uri);
+	}
+	
+	private URI removeNormalization(URI uri) {
+		URI normalized = normalizationMap.remove(uri);
+		if (normalized != null) {
+			normalizedURIs.remove(normalized, uri);
+		}
+		return normalized;
+	}
+	
+	/**
+	 * Removes all entries of the {@link #normalizationMap} with the given normalized URI.
+	 */
+	private void removeNormalizations(URI normalized) {
+		if (normalizationMap.size() == normalizedURIs.size()) {
+			for (URI uri : normalizedURIs.removeAll(normalized)) {
+				if (normalized.equals(normalizationMap.get(uri))) {
+					normalizationMap.remove(uri);
+				}
+			}
+		} else {
+			// the map has been modified by a subclass, fall back to a scan and reindex it
+			Iterator<URI> i = normalizationMap.values().iterator();
+			while(i.hasNext()) {
+				if (i.next().equals(normalized)) {
+					i.remove();
+				}
+			}
+			normalizedURIs.clear();
+			for (Map.Entry<URI, URI> entry : normalizationMap.entrySet()) {
+				normalizedURIs.put(entry.getValue(), entry.getKey());
+			}
+		}
+	}
+	
+	private void unregisterURI(Map<URI, Resource> map, URI uri, Resource resource) {
+		if (map.get(uri) == resource) {
+			map.remove(uri);
+			registeredURIs--;
+		}
+	}
 
 	private UriChangeListener uriChangeListener = new UriChangeListener();
 	
@@ -126,14 +198,18 @@ public class XtextResourceSet extends ResourceSetImpl {
 				URI normalized = getURIConverter().normalize(uri);
 				if (!normalized.equals(uri)) {
 					Resource previous = map.put(normalized, resource);
-					if (previous != null && previous != resource) {
+					if (previous == null) {
+						registeredURIs++;
+					} else if (previous != resource) {
 						throw new IllegalStateException("A resource with the normalized URI '"+normalized+"' was already registered. The resource with the URI '"+previous+"' is no longer registered with the normalized form.");
 					}
 				}
-				normalizationMap.put(uri, normalized);
+				putNormalization(uri, normalized);
 			}
 			Resource previous = map.put(uri, resource);
-			if (previous != null && previous != resource) {
+			if (previous == null) {
+				registeredURIs++;
+			} else if (previous != resource) {
 				throw new IllegalStateException("A different resource with the URI '"+uri+"' was already registered.");
 			}
 		}
@@ -153,19 +229,32 @@ public class XtextResourceSet extends ResourceSetImpl {
 			return chain;
 		}
 		
+		/**
+		 * Removes the entries that have been registered for the resource instead of scanning the maps. Only if the
+		 * {@link #getURIResourceMap() URI resource map} contains entries that have been added by clients, it is
+		 * scanned for further entries of the resource.
+		 */
 		@Override
 		protected NotificationChain inverseRemove(Resource resource, NotificationChain notifications) {
 			URI uri = resource.getURI();
+			URI normalized = null;
 			if (uri != null) {
-				URI normalize = getURIConverter().normalize(uri);
-				Iterator<URI> i = normalizationMap.values().iterator();
-				while(i.hasNext()) {
-					if (i.next().equals(normalize)) {
-						i.remove();
-					}
+				normalized = getURIConverter().normalize(uri);
+				removeNormalizations(normalized);
+			}
+			final NotificationChain inverseRemove;
+			Map<URI, Resource> map = getURIResourceMap();
+			if (map != null) {
+				unregisterURI(map, uri, resource);
+				if (normalized != null && !normalized.equals(uri)) {
+					unregisterURI(map, normalized, resource);
 				}
 			}
-			final NotificationChain inverseRemove = super.inverseRemove(resource, notifications);
+			if (map != null && map.size() != registeredURIs) {
+				inverseRemove = super.inverseRemove(resource, notifications);
+			} else {
+				inverseRemove = ((Resource.Internal) resource).basicSetResourceSet(null, notifications);
+			}
 			resource.eAdapters().remove(getUriChangeListener());
 			return inverseRemove;
 		}
@@ -178,7 +267,9 @@ public class XtextResourceSet extends ResourceSetImpl {
 			super.doClear();
 			// don't iterate the values of the map per resource but just clear it all at once
 			getURIResourceMap().clear();
+			registeredURIs = 0;
 			normalizationMap.clear();
+			normalizedURIs.clear();
 		}
 
 	}
@@ -194,6 +285,15 @@ public class XtextResourceSet extends ResourceSetImpl {
 		initializeDefaultLoadOptions();
     }
 
+    /**
+     * @since 2.13
+     */
+    @Override
+    public void setURIResourceMap(Map<URI, Resource> uriResourceMap) {
+    	super.setURIResourceMap(uriResourceMap);
+    	registeredURIs = 0;
+    }
+
     /**
      * Adds a {@link XtextPlatformResourceURIHandler} to the default load
      * options of this resource set.
@@ -239,7 +339,7 @@ public class XtextResourceSet extends ResourceSetImpl {
 			URI normalizedURI = getURIConverter().normalize(uri);
 			resource = map.get(normalizedURI);
 			if (resource != null) {
-				normalizationMap.put(uri, normalizedURI);
+				putNormalization(uri, normalizedURI);
 			}
 		}
 		if (resource != null) {
@@ -0,0 +1,305 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.resource.clustering;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.xtext.nodemodel.ICompositeNode;
+import org.eclipse.xtext.parser.IParseResult;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.resource.persistence.StorageAwareResource;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.Lists;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+/**
+ * Keeps the recently used resources of a resource set loaded. Instead of clearing the resource set when a cluster is
+ * full, only the least recently used resources are evicted until the resource set fits into the budget again, so the
+ * resources that are shared by many clusters stay loaded. The budget is a maximum number of resources, a maximum size
+ * of the loaded resources, or both. The policy is disabled unless one of them is configured.
+ *
+ * The usage of the resources is tracked by an adapter on the resource set, so it is kept as long as the resource set
+ * is reused, e.g. by subsequent builds. Resources that are loaded as dependencies count as used when they are added to
+ * the resource set.
+ *
+ * @since 2.13
+ */
+@Beta
+@Singleton
+public class LRUResourceEvictionPolicy {
+
+	public static final String MAXIMUM_RESOURCES = "org.eclipse.xtext.resource.clustering.LRUResourceEvictionPolicy.maximumResources";
+	public static final String MAXIMUM_SIZE = "org.eclipse.xtext.resource.clustering.LRUResourceEvictionPolicy.maximumSize";
+
+	/** Maximum number of resources in the resource set, zero for no limit. */
+	@Inject(optional = true)
+	@Named(MAXIMUM_RESOURCES)
+	private int maximumResources = 0;
+
+	/** Maximum total {@link #getSize(Resource) size} of the resources in the resource set, zero for no limit. */
+	@Inject(optional = true)
+	@Named(MAXIMUM_SIZE)
+	private long maximumSize = 0;
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * The resources of a resource set in the order of their last usage and their sizes.
+	 */
+	protected static class Usage extends AdapterImpl {
+
+		private final LinkedHashMap<Resource, Long> sizes = new LinkedHashMap<Resource, Long>();
+
+		private final List<Resource> unmeasured = Lists.newArrayList();
+
+		private long totalSize = 0;
+
+		@Override
+		public boolean isAdapterForType(Object type) {
+			return type == Usage.class;
+		}
+
+		@Override
+		public void notifyChanged(Notification notification) {
+			if (notification.getFeatureID(ResourceSet.class) != ResourceSet.RESOURCE_SET__RESOURCES)
+				return;
+			switch (notification.getEventType()) {
+				case Notification.ADD:
+					added((Resource) notification.getNewValue());
+					break;
+				case Notification.ADD_MANY:
+					for (Object resource : (List<?>) notification.getNewValue())
+						added((Resource) resource);
+					break;
+				case Notification.REMOVE:
+					removed((Resource) notification.getOldValue());
+					break;
+				case Notification.REMOVE_MANY:
+					for (Object resource : (List<?>) notification.getOldValue())
+						removed((Resource) resource);
+					break;
+				default:
+					break;
+			}
+		}
+
+		protected synchronized void added(Resource resource) {
+			if (!sizes.containsKey(resource)) {
+				sizes.put(resource, 0L);
+				unmeasured.add(resource);
+			}
+		}
+
+		protected synchronized void removed(Resource resource) {
+			Long size = sizes.remove(resource);
+			if (size != null)
+				totalSize -= size;
+		}
+
+		protected synchronized void used(Resource resource) {
+			Long size = sizes.remove(resource);
+			if (size == null) {
+				size = 0L;
+				unmeasured.add(resource);
+			}
+			sizes.put(resource, size);
+		}
+	}
+
+	/**
+	 * Returns the resource with the given URI and marks it as the most recently used one. A resource that is already
+	 * loaded in the resource set counts as a hit, otherwise it is loaded and counts as a miss.
+	 */
+	public Resource getResource(ResourceSet resourceSet, URI uri) {
+		Usage usage = getUsage(resourceSet);
+		Resource resource = resourceSet.getResource(uri, false);
+		if (resource != null && resource.isLoaded()) {
+			hits.incrementAndGet();
+		} else {
+			misses.incrementAndGet();
+			resource = resourceSet.getResource(uri, true);
+		}
+		if (resource != null)
+			usage.used(resource);
+		return resource;
+	}
+
+	/**
+	 * Whether the resources of the resource set exceed the budget.
+	 */
+	public boolean isExceeded(ResourceSet resourceSet) {
+		Usage usage = getUsage(resourceSet);
+		synchronized (usage) {
+			measure(usage);
+			return isExceeded(usage);
+		}
+	}
+
+	/**
+	 * Removes and unloads the least recently used resources until the resource set fits into the budget again.
+	 */
+	public void evict(ResourceSet resourceSet) {
+		Usage usage = getUsage(resourceSet);
+		List<Resource> evicted = Lists.newArrayList();
+		synchronized (usage) {
+			measure(usage);
+			Iterator<Map.Entry<Resource, Long>> iterator = usage.sizes.entrySet().iterator();
+			while (isExceeded(usage) && iterator.hasNext()) {
+				Map.Entry<Resource, Long> entry = iterator.next();
+				iterator.remove();
+				usage.totalSize -= entry.getValue();
+				// the resource set may have been cleared without notifications
+				if (entry.getKey().getResourceSet() == resourceSet)
+					evicted.add(entry.getKey());
+			}
+		}
+		for (Resource resource : evicted)
+			evict(resourceSet, resource);
+		evictions.addAndGet(evicted.size());
+	}
+
+	protected void evict(ResourceSet resourceSet, Resource resource) {
+		resourceSet.getResources().remove(resource);
+		resource.unload();
+	}
+
+	protected boolean isExceeded(Usage usage) {
+		return maximumResources > 0 && usage.sizes.size() > maximumResources
+				|| maximumSize > 0 && usage.totalSize > maximumSize;
+	}
+
+	/**
+	 * Determines the sizes of the resources that have been loaded since the last call.
+	 */
+	protected void measure(Usage usage) {
+		if (maximumSize <= 0) {
+			usage.unmeasured.clear();
+			return;
+		}
+		Iterator<Resource> iterator = usage.unmeasured.iterator();
+		while (iterator.hasNext()) {
+			Resource resource = iterator.next();
+			Long previous = usage.sizes.get(resource);
+			if (previous == null) {
+				iterator.remove();
+			} else if (resource.isLoaded()) {
+				// an estimated size is replaced as soon as the resource can be measured
+				boolean measurable = isMeasurable(resource);
+				long size = getSize(resource);
+				usage.sizes.put(resource, size);
+				usage.totalSize += size - previous;
+				if (measurable)
+					iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Whether the final size of the resource can be determined now. The node model of a resource that was loaded from
+	 * its storage is {@link StorageAwareResource#hasDeferredParseResult() deferred}, so the resource is measured again
+	 * when the node model is used instead of loading it here.
+	 */
+	protected boolean isMeasurable(Resource resource) {
+		if (!resource.isLoaded())
+			return false;
+		return !(resource instanceof StorageAwareResource) || !((StorageAwareResource) resource).hasDeferredParseResult();
+	}
+
+	/**
+	 * An estimate of the memory that a loaded resource occupies. By default this is the length of the text of an
+	 * {@link XtextResource}. Until the deferred node model of a resource that was loaded from its storage is read, it
+	 * is the {@link StorageAwareResource#getDeferredParseResultSize() size of the stored node model}. Other resources
+	 * have a size of zero and are only limited by the {@link #getMaximumResources() maximum number of resources}.
+	 */
+	protected long getSize(Resource resource) {
+		if (resource instanceof StorageAwareResource && ((StorageAwareResource) resource).hasDeferredParseResult()) {
+			return ((StorageAwareResource) resource).getDeferredParseResultSize();
+		}
+		if (resource instanceof XtextResource) {
+			IParseResult parseResult = ((XtextResource) resource).getParseResult();
+			if (parseResult != null) {
+				ICompositeNode rootNode = parseResult.getRootNode();
+				if (rootNode != null)
+					return rootNode.getTotalLength();
+			}
+		}
+		return 0;
+	}
+
+	protected Usage getUsage(ResourceSet resourceSet) {
+		synchronized (resourceSet) {
+			for (Object adapter : resourceSet.eAdapters()) {
+				if (adapter instanceof Usage)
+					return (Usage) adapter;
+			}
+			Usage usage = new Usage();
+			for (Resource resource : resourceSet.getResources())
+				usage.added(resource);
+			resourceSet.eAdapters().add(usage);
+			return usage;
+		}
+	}
+
+	public boolean isEnabled() {
+		return maximumResources > 0 || maximumSize > 0;
+	}
+
+	/**
+	 * The number of requested resources that were already loaded.
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * The number of requested resources that had to be loaded.
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * The number of evicted resources.
+	 */
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	public int getMaximumResources() {
+		return maximumResources;
+	}
+
+	public void setMaximumResources(int maximumResources) {
+		this.maximumResources = maximumResources;
+	}
+
+	public long getMaximumSize() {
+		return maximumSize;
+	}
+
+	public void setMaximumSize(long maximumSize) {
+		this.maximumSize = maximumSize;
+	}
+
+}
@@ -8,6 +8,7 @@
 package org.eclipse.xtext.resource.containers
 
 import com.google.common.annotations.Beta
+import org.eclipse.emf.ecore.resource.ResourceSet
 import org.eclipse.xtext.resource.IContainer
 import org.eclipse.xtext.resource.IResourceDescription
 import org.eclipse.xtext.resource.IResourceDescriptions
@@ -15,6 +16,7 @@ import org.eclipse.xtext.resource.impl.ChunkedResourceDescriptions
 import org.eclipse.xtext.resource.impl.ProjectDescription
 import org.eclipse.xtext.resource.impl.ResourceDescriptionsBasedContainer
 import org.eclipse.xtext.resource.impl.ResourceDescriptionsData
+import org.eclipse.xtext.scoping.impl.GlobalScopeCache
 
 /**
  * @author Sven Efftinge - Initial contribution and API
@@ -49,14 +51,27 @@ class ProjectDescriptionBasedContainerManager implements IContainer.Manager {
 			val projectDescription = ProjectDescription.findInEmfObject(resourceSet)
 			val allContainers = <IContainer>newArrayList
 			val container = resourceDescriptions.getContainer(projectDescription.name) ?: new ResourceDescriptionsData(emptySet)
-			allContainers.add(new ResourceDescriptionsBasedContainer(container))
+			allContainers.add(createContainer(container, resourceSet))
 			for (name : projectDescription.dependencies) {
 				val containerDep = resourceDescriptions.getContainer(name) ?: new ResourceDescriptionsData(emptySet)
-				allContainers.add(new ResourceDescriptionsBasedContainer(containerDep))
+				allContainers.add(createContainer(containerDep, resourceSet))
 			}
 			return allContainers
 		}
 		throw new IllegalArgumentException("expected "+ChunkedResourceDescriptions.name)
 	}
 	
+	/**
+	 * Creates the container for the index of a project. The containers of the {@link GlobalScopeCache} are used if
+	 * the resource set has one.
+	 * @since 2.13
+	 */
+	protected def IContainer createContainer(ResourceDescriptionsData data, ResourceSet resourceSet) {
+		val scopeCache = GlobalScopeCache.findInEmfObject(resourceSet)
+		if (scopeCache !== null) {
+			return scopeCache.getContainer(data)
+		}
+		return new ResourceDescriptionsBasedContainer(data)
+	}
+	
 }
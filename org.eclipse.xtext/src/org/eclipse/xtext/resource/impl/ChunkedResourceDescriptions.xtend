@@ -14,8 +14,10 @@ import java.io.ObjectInput
 import java.io.ObjectOutput
 import java.io.Serializable
 import java.util.ArrayList
+import java.util.Collection
 import java.util.HashMap
 import java.util.Map
+import java.util.Set
 import java.util.concurrent.ConcurrentHashMap
 import org.eclipse.emf.common.util.URI
 import org.eclipse.emf.ecore.resource.ResourceSet
@@ -37,7 +39,7 @@ import org.eclipse.xtext.util.internal.EmfAdaptable
  * @since 2.9
  */
 @Beta
-@EmfAdaptable class ChunkedResourceDescriptions extends AbstractCompoundSelectable implements IResourceDescriptions, Externalizable {
+@EmfAdaptable class ChunkedResourceDescriptions extends AbstractCompoundSelectable implements IResourceDescriptions.IReferencingResourcesAware, Externalizable {
 	
 	protected ConcurrentHashMap<String, ResourceDescriptionsData> chunk2resourceDescriptions = new ConcurrentHashMap;
 	
@@ -115,6 +117,24 @@ import org.eclipse.xtext.util.internal.EmfAdaptable
 		return chunk2resourceDescriptions.get(containerHandle)
 	}
 	
+	/**
+	 * @since 2.13
+	 */
+	def Collection<ResourceDescriptionsData> getContainers() {
+		return chunk2resourceDescriptions.values
+	}
+	
+	/**
+	 * @since 2.13
+	 */
+	override Set<URI> getReferencingResourceURIs(Collection<URI> targetObjectURIs) {
+		val result = <URI>newLinkedHashSet
+		for (container : chunk2resourceDescriptions.values) {
+			result += container.getReferencingResourceURIs(targetObjectURIs)
+		}
+		return result
+	}
+	
 	override readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
 		val numChunks = in.readInt
 		for(i: 0..<numChunks) {
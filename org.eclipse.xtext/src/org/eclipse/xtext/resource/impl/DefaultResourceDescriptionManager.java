@@ -151,6 +151,21 @@ public class DefaultResourceDescriptionManager implements IResourceDescription.M
         return false;
     }
 
+	/**
+	 * Whether {@link #isAffected(Collection, IResourceDescription, IResourceDescriptions)} reports a candidate as affected
+	 * only if it imports a name exported by a delta whose {@link Delta#haveEObjectDescriptionsChanged() descriptions have
+	 * changed}, or if it references the resource of such a delta. Builders use this to skip all candidates that are not
+	 * {@link ResourceDescriptionsData#getDependentURIs(Collection) dependents} of the deltas.
+	 * <p>
+	 * Subclasses that customize the affection check have to opt-in explicitly.
+	 * </p>
+	 *
+	 * @since 2.13
+	 */
+	public boolean isAffectedByDependenciesOnly() {
+		return getClass() == DefaultResourceDescriptionManager.class;
+	}
+
 	/**
 	 * Whether the given delta is considered to have changed from the candidate's perspective. By default this will just call
 	 * {@link org.eclipse.xtext.resource.IResourceDescription.Delta#haveEObjectDescriptionsChanged() Delta#haveEObjectDescriptionsChanged()}. 
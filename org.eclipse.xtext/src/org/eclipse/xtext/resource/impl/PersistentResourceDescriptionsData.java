@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.resource.impl;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.resource.IEObjectDescription;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.util.PersistentHashMap;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.Sets;
+
+/**
+ * A {@link ResourceDescriptionsData} whose {@link #copy() copies} are created in constant time. The maps are
+ * {@link PersistentHashMap persistent} in the sense of functional data structures: a copy shares its structure with
+ * the original and only the modified paths are duplicated on write.
+ *
+ * In contrast to the default implementation, {@link #getAllResourceDescriptions()} does not preserve the insertion
+ * order.
+ *
+ * @since 2.13
+ */
+@Beta
+public class PersistentResourceDescriptionsData extends ResourceDescriptionsData {
+
+	private final PersistentHashMap<URI, IResourceDescription> resourceDescriptionMap;
+
+	/**
+	 * Same as the lookup map of the super class, but the value sets are shared between copies and therefore are never
+	 * modified in place.
+	 */
+	private final PersistentHashMap<QualifiedName, Object> lookupMap;
+
+	public PersistentResourceDescriptionsData() {
+		this(Collections.<IResourceDescription>emptyList());
+	}
+
+	public PersistentResourceDescriptionsData(Iterable<IResourceDescription> descriptions) {
+		this(new PersistentHashMap<URI, IResourceDescription>(), new PersistentHashMap<QualifiedName, Object>(), null, null, null);
+		for (IResourceDescription description : descriptions) {
+			addDescription(description.getURI(), description);
+		}
+	}
+
+	protected PersistentResourceDescriptionsData(PersistentHashMap<URI, IResourceDescription> resourceDescriptionMap,
+			PersistentHashMap<QualifiedName, Object> lookupMap, ReverseDependencyIndex dependencyIndex,
+			TrigramNameIndex nameIndex, ReverseReferenceIndex referenceIndex) {
+		super(resourceDescriptionMap, lookupMap, dependencyIndex, nameIndex, referenceIndex);
+		this.resourceDescriptionMap = resourceDescriptionMap;
+		this.lookupMap = lookupMap;
+	}
+
+	@Override
+	public PersistentResourceDescriptionsData copy() {
+		return new PersistentResourceDescriptionsData(resourceDescriptionMap.copy(), lookupMap.copy(), copyDependencyIndex(),
+				copyNameIndex(), copyReferenceIndex());
+	}
+
+	@Override
+	protected Map<QualifiedName, Object> copyLookupMap() {
+		return lookupMap.copy();
+	}
+
+	@Override
+	protected void registerDescription(IResourceDescription description, Map<QualifiedName, Object> target) {
+		for (IEObjectDescription object : description.getExportedObjects()) {
+			// all chunks of the index share one key instance per name
+			QualifiedName lowerCase = object.getName().toLowerCase().intern();
+			Object existing = target.get(lowerCase);
+			if (existing == null) {
+				target.put(lowerCase, description);
+			} else if (existing != description) {
+				Set<IResourceDescription> set = null;
+				if (existing instanceof IResourceDescription) {
+					set = Sets.newLinkedHashSetWithExpectedSize(2);
+					set.add((IResourceDescription) existing);
+				} else {
+					@SuppressWarnings("unchecked")
+					Set<IResourceDescription> casted = (Set<IResourceDescription>) existing;
+					if (casted.contains(description)) {
+						continue;
+					}
+					set = Sets.newLinkedHashSet(casted);
+				}
+				set.add(description);
+				target.put(lowerCase, set);
+			}
+		}
+	}
+
+	@Override
+	protected void unregisterDescription(IResourceDescription description, Map<QualifiedName, Object> target) {
+		for (IEObjectDescription object : description.getExportedObjects()) {
+			QualifiedName objectName = object.getName().toLowerCase();
+			Object existing = target.get(objectName);
+			if (existing == description) {
+				target.remove(objectName);
+			} else if (existing instanceof Set<?>) {
+				Set<?> casted = (Set<?>) existing;
+				if (casted.contains(description)) {
+					Set<Object> copy = Sets.<Object>newLinkedHashSet(casted);
+					copy.remove(description);
+					if (copy.size() == 1) {
+						target.put(objectName, copy.iterator().next());
+					} else {
+						target.put(objectName, copy);
+					}
+				}
+			}
+		}
+	}
+}
@@ -11,6 +11,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -41,7 +42,7 @@ import com.google.common.collect.Sets;
  * @since 2.5
  * 
  */
-@Beta public class ResourceDescriptionsData extends AbstractCompoundSelectable implements IResourceDescriptions {
+@Beta public class ResourceDescriptionsData extends AbstractCompoundSelectable implements IResourceDescriptions.IReferencingResourcesAware {
 	
 	public static class ResourceSetAdapter extends AdapterImpl {
 		
@@ -90,6 +91,24 @@ import com.google.common.collect.Sets;
 	 */
 	private final Map<QualifiedName, Object> lookupMap;
 
+	/**
+	 * The reverse dependency index is created on the first call to {@link #getDependentURIs(Collection)} and
+	 * maintained by {@link #removeDescription(URI)} and {@link #addDescription(URI, IResourceDescription)} afterwards.
+	 */
+	private ReverseDependencyIndex dependencyIndex;
+
+	/**
+	 * The index of the exported names is created on the first call to {@link #findExportedNames(String)} and
+	 * maintained by {@link #removeDescription(URI)} and {@link #addDescription(URI, IResourceDescription)} afterwards.
+	 */
+	private volatile TrigramNameIndex nameIndex;
+
+	/**
+	 * The reverse reference index is created on the first call to {@link #getReferencingResourceURIs(Collection)} and
+	 * maintained by {@link #removeDescription(URI)} and {@link #addDescription(URI, IResourceDescription)} afterwards.
+	 */
+	private ReverseReferenceIndex referenceIndex;
+
 	public ResourceDescriptionsData(Iterable<IResourceDescription> descriptions) {
 		int expectedSize = 500; // magic number in case it's not a Collection
 		if (descriptions instanceof Collection) {
@@ -110,11 +129,58 @@ import com.google.common.collect.Sets;
 		this.resourceDescriptionMap = resourceDescriptionMap;
 		this.lookupMap = lookupMap;
 	}
+
+	/**
+	 * @since 2.13
+	 */
+	protected ResourceDescriptionsData(Map<URI, IResourceDescription> resourceDescriptionMap, Map<QualifiedName, Object> lookupMap,
+			ReverseDependencyIndex dependencyIndex, TrigramNameIndex nameIndex, ReverseReferenceIndex referenceIndex) {
+		this(resourceDescriptionMap, lookupMap);
+		this.dependencyIndex = dependencyIndex;
+		this.nameIndex = nameIndex;
+		this.referenceIndex = referenceIndex;
+	}
 	
 	public ResourceDescriptionsData copy() {
 		return new ResourceDescriptionsData(
 				Maps.newLinkedHashMap(resourceDescriptionMap),
-				copyLookupMap());
+				copyLookupMap(),
+				copyDependencyIndex(),
+				copyNameIndex(),
+				copyReferenceIndex());
+	}
+	
+	/**
+	 * @return a copy of the reverse dependency index or <code>null</code> if it was not created yet.
+	 * @since 2.13
+	 */
+	protected ReverseDependencyIndex copyDependencyIndex() {
+		if (dependencyIndex != null) {
+			return dependencyIndex.copy();
+		}
+		return null;
+	}
+	
+	/**
+	 * @return a copy of the index of the exported names or <code>null</code> if it was not created yet.
+	 * @since 2.13
+	 */
+	protected synchronized TrigramNameIndex copyNameIndex() {
+		if (nameIndex != null) {
+			return nameIndex.copy();
+		}
+		return null;
+	}
+	
+	/**
+	 * @return a copy of the reverse reference index or <code>null</code> if it was not created yet.
+	 * @since 2.13
+	 */
+	protected synchronized ReverseReferenceIndex copyReferenceIndex() {
+		if (referenceIndex != null) {
+			return referenceIndex.copy();
+		}
+		return null;
 	}
 	
 	protected Map<QualifiedName, Object> copyLookupMap() {
@@ -143,21 +209,42 @@ import com.google.common.collect.Sets;
 	}
 
 	public void removeDescription(URI uri) {
+		if (dependencyIndex != null) {
+			dependencyIndex.remove(uri);
+		}
+		if (referenceIndex != null) {
+			referenceIndex.remove(uri);
+		}
 		IResourceDescription oldDescription = resourceDescriptionMap.remove(uri);
 		if (oldDescription != null) {
-			for(IEObjectDescription object: oldDescription.getExportedObjects()) {
-				QualifiedName objectName = object.getName().toLowerCase();
-				Object existing = lookupMap.get(objectName);
-				if (existing == oldDescription) {
-					lookupMap.remove(objectName);
-				} else if (existing instanceof Set<?>) {
-					Set<?> casted = (Set<?>) existing;
-					if (casted.remove(oldDescription)) {
-						if (casted.size() == 1) {
-							lookupMap.put(objectName, casted.iterator().next());
-						} else if (casted.isEmpty()) {
-							lookupMap.remove(objectName);
-						}
+			unregisterDescription(oldDescription, lookupMap);
+			if (nameIndex != null) {
+				for (IEObjectDescription object : oldDescription.getExportedObjects()) {
+					QualifiedName lowerCase = object.getName().toLowerCase();
+					if (!lookupMap.containsKey(lowerCase)) {
+						nameIndex.remove(lowerCase);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @since 2.13
+	 */
+	protected void unregisterDescription(IResourceDescription description, Map<QualifiedName, Object> target) {
+		for(IEObjectDescription object: description.getExportedObjects()) {
+			QualifiedName objectName = object.getName().toLowerCase();
+			Object existing = target.get(objectName);
+			if (existing == description) {
+				target.remove(objectName);
+			} else if (existing instanceof Set<?>) {
+				Set<?> casted = (Set<?>) existing;
+				if (casted.remove(description)) {
+					if (casted.size() == 1) {
+						target.put(objectName, casted.iterator().next());
+					} else if (casted.isEmpty()) {
+						target.remove(objectName);
 					}
 				}
 			}
@@ -208,13 +295,25 @@ import com.google.common.collect.Sets;
 		if (newDescription != null) {
 			resourceDescriptionMap.put(uri, newDescription);
 			registerDescription(newDescription, lookupMap);
+			if (dependencyIndex != null) {
+				dependencyIndex.add(uri);
+			}
+			if (referenceIndex != null) {
+				referenceIndex.add(uri);
+			}
+			if (nameIndex != null) {
+				for (IEObjectDescription object : newDescription.getExportedObjects()) {
+					nameIndex.add(object.getName().toLowerCase().intern());
+				}
+			}
 		}
 	}
 
 	@SuppressWarnings("unchecked")
 	protected void registerDescription(IResourceDescription description, Map<QualifiedName, Object> target) {
 		for(IEObjectDescription object: description.getExportedObjects()) {
-			QualifiedName lowerCase = object.getName().toLowerCase();
+			// all chunks of the index share one key instance per name
+			QualifiedName lowerCase = object.getName().toLowerCase().intern();
 			Object existing = target.put(lowerCase, description);
 			if (existing != null && existing != description) {
 				Set<IResourceDescription> set = null;
@@ -246,4 +345,102 @@ import com.google.common.collect.Sets;
 			addDescription(delta.getUri(), newDesc);
 		}
 	}
+	
+	/**
+	 * Returns the URIs of the resources that may be affected by the given deltas, that is those resources that
+	 * {@link IResourceDescription#getImportedNames() import} a name exported by the old or new state of a delta whose
+	 * {@link Delta#haveEObjectDescriptionsChanged() descriptions have changed}, or that reference the resource of such
+	 * a delta. The URIs of the deltas themselves are never part of the result. Their descriptions are not inspected
+	 * either, since they may still be in the middle of being computed.
+	 * <p>
+	 * The required reverse index is built on the first invocation and maintained incrementally afterwards, so the
+	 * costs are proportional to the names that were changed by the deltas.
+	 * </p>
+	 * 
+	 * @param deltas
+	 *            the changes to check. May not be <code>null</code>.
+	 * @since 2.13
+	 */
+	public Set<URI> getDependentURIs(Collection<Delta> deltas) {
+		Set<URI> deltaURIs = Sets.newHashSetWithExpectedSize(deltas.size());
+		Set<QualifiedName> changedNames = Sets.newHashSet();
+		Set<URI> changedResources = Sets.newHashSet();
+		for (Delta delta : deltas) {
+			deltaURIs.add(delta.getUri());
+			if (delta.haveEObjectDescriptionsChanged()) {
+				changedResources.add(delta.getUri());
+				addExportedNames(delta.getOld(), changedNames);
+				addExportedNames(delta.getNew(), changedNames);
+			}
+		}
+		if (dependencyIndex == null) {
+			dependencyIndex = new ReverseDependencyIndex();
+			for (URI uri : resourceDescriptionMap.keySet()) {
+				dependencyIndex.add(uri);
+			}
+		}
+		return dependencyIndex.getDependents(changedNames, changedResources, deltaURIs, this);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The required reverse index is built on the first invocation and maintained incrementally afterwards. The
+	 * references of added descriptions are extracted on the next invocation.
+	 * </p>
+	 * 
+	 * @since 2.13
+	 */
+	@Override
+	public synchronized Set<URI> getReferencingResourceURIs(Collection<URI> targetObjectURIs) {
+		if (referenceIndex == null) {
+			referenceIndex = new ReverseReferenceIndex();
+			for (URI uri : resourceDescriptionMap.keySet()) {
+				referenceIndex.add(uri);
+			}
+		}
+		return referenceIndex.getReferencingResources(targetObjectURIs, this);
+	}
+
+	/**
+	 * Returns the lower-case names of the exported objects whose {@link QualifiedName#toString() string representation}
+	 * contains the given string, ignoring case. Use {@link #getExportedObjects(EClass, QualifiedName, boolean)} to
+	 * obtain the objects.
+	 * <p>
+	 * The required index is built on the first invocation and maintained incrementally afterwards. Only the names that
+	 * share the least frequent trigram of the query are checked, unless the query is shorter than three characters.
+	 * </p>
+	 * 
+	 * @param query
+	 *            the string to look for. May not be <code>null</code>.
+	 * @since 2.13
+	 */
+	public List<QualifiedName> findExportedNames(String query) {
+		return getNameIndex().find(query.toLowerCase());
+	}
+
+	private TrigramNameIndex getNameIndex() {
+		TrigramNameIndex result = nameIndex;
+		if (result == null) {
+			synchronized (this) {
+				result = nameIndex;
+				if (result == null) {
+					result = new TrigramNameIndex();
+					for (QualifiedName name : lookupMap.keySet()) {
+						result.add(name);
+					}
+					nameIndex = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	private void addExportedNames(IResourceDescription description, Set<QualifiedName> target) {
+		if (description != null) {
+			for (IEObjectDescription object : description.getExportedObjects()) {
+				target.add(object.getName().toLowerCase());
+			}
+		}
+	}
 }
@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.resource.impl;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.resource.IReferenceDescription;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.util.PersistentHashMap;
+import org.eclipse.xtext.util.PersistentHashSet;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.Sets;
+
+/**
+ * An inverted index from the lower-cased {@link IResourceDescription#getImportedNames() imported names} and the
+ * referenced resource URIs of a set of resource descriptions to the URIs of the resources that depend on them.
+ *
+ * The dependencies of a registered description are extracted lazily: newly {@link #add(URI) added} URIs are kept
+ * pending until the next {@link #getDependents(Collection, Collection, Set, ResourceDescriptionsData) query}. That way
+ * the index never asks for the imported names of a description that is only preliminarily registered while a build
+ * is still computing its final state.
+ *
+ * @since 2.13
+ */
+@Beta
+public class ReverseDependencyIndex {
+
+	/**
+	 * The dependencies of a single resource, kept to unregister it again.
+	 */
+	protected static class Dependencies {
+		protected final QualifiedName[] importedNames;
+		protected final URI[] referencedResources;
+
+		protected Dependencies(QualifiedName[] importedNames, URI[] referencedResources) {
+			this.importedNames = importedNames;
+			this.referencedResources = referencedResources;
+		}
+	}
+
+	/**
+	 * The URIs of the dependent resources per lower-cased imported name.
+	 */
+	private final PersistentHashMap<QualifiedName, PersistentHashSet<URI>> importedNameToDependents;
+
+	/**
+	 * The URIs of the dependent resources per referenced resource URI.
+	 */
+	private final PersistentHashMap<URI, PersistentHashSet<URI>> referencedResourceToDependents;
+
+	private final PersistentHashMap<URI, Dependencies> dependencies;
+
+	private final PersistentHashSet<URI> pending;
+
+	public ReverseDependencyIndex() {
+		this(new PersistentHashMap<QualifiedName, PersistentHashSet<URI>>(),
+				new PersistentHashMap<URI, PersistentHashSet<URI>>(), new PersistentHashMap<URI, Dependencies>(),
+				new PersistentHashSet<URI>());
+	}
+
+	protected ReverseDependencyIndex(PersistentHashMap<QualifiedName, PersistentHashSet<URI>> importedNameToDependents,
+			PersistentHashMap<URI, PersistentHashSet<URI>> referencedResourceToDependents,
+			PersistentHashMap<URI, Dependencies> dependencies, PersistentHashSet<URI> pending) {
+		this.importedNameToDependents = importedNameToDependents;
+		this.referencedResourceToDependents = referencedResourceToDependents;
+		this.dependencies = dependencies;
+		this.pending = pending;
+	}
+
+	/**
+	 * Creates a copy of this index in constant time.
+	 */
+	public ReverseDependencyIndex copy() {
+		return new ReverseDependencyIndex(importedNameToDependents.copy(), referencedResourceToDependents.copy(),
+				dependencies.copy(), pending.copy());
+	}
+
+	/**
+	 * Schedules the description of the given resource to be analyzed on the next query. Existing dependencies of the
+	 * URI are discarded.
+	 */
+	public void add(URI uri) {
+		remove(uri);
+		pending.add(uri);
+	}
+
+	/**
+	 * Discards all dependencies of the given resource.
+	 */
+	public void remove(URI uri) {
+		pending.remove(uri);
+		Dependencies removed = dependencies.remove(uri);
+		if (removed != null) {
+			for (QualifiedName importedName : removed.importedNames) {
+				unregister(importedNameToDependents, importedName, uri);
+			}
+			for (URI referencedResource : removed.referencedResources) {
+				unregister(referencedResourceToDependents, referencedResource, uri);
+			}
+		}
+	}
+
+	/**
+	 * Returns the URIs of all resources that import one of the given lower-case names or that reference one of the
+	 * given resources. The descriptions of the <code>unstableURIs</code> are not analyzed and never part of the result,
+	 * they usually denote the resources that are currently rebuilt.
+	 *
+	 * @param lowerCaseNames
+	 *            the lower-case names to look up. May not be <code>null</code>.
+	 * @param referencedResources
+	 *            the resource URIs to look up. May not be <code>null</code>.
+	 * @param unstableURIs
+	 *            the URIs that are excluded from the result. May not be <code>null</code>.
+	 * @param data
+	 *            the index that provides the descriptions of pending URIs. May not be <code>null</code>.
+	 */
+	public Set<URI> getDependents(Collection<QualifiedName> lowerCaseNames, Collection<URI> referencedResources,
+			Set<URI> unstableURIs, ResourceDescriptionsData data) {
+		analyzePending(unstableURIs, data);
+		Set<URI> result = new LinkedHashSet<URI>();
+		for (QualifiedName name : lowerCaseNames) {
+			Set<URI> dependents = importedNameToDependents.get(name);
+			if (dependents != null) {
+				result.addAll(dependents);
+			}
+		}
+		for (URI referencedResource : referencedResources) {
+			Set<URI> dependents = referencedResourceToDependents.get(referencedResource);
+			if (dependents != null) {
+				result.addAll(dependents);
+			}
+		}
+		result.removeAll(unstableURIs);
+		return result;
+	}
+
+	protected void analyzePending(Set<URI> unstableURIs, ResourceDescriptionsData data) {
+		if (pending.isEmpty()) {
+			return;
+		}
+		Set<URI> analyzed = Sets.newHashSet();
+		for (URI uri : pending) {
+			if (!unstableURIs.contains(uri)) {
+				IResourceDescription description = data.getResourceDescription(uri);
+				if (description != null) {
+					register(uri, description);
+				}
+				analyzed.add(uri);
+			}
+		}
+		pending.removeAll(analyzed);
+	}
+
+	protected void register(URI uri, IResourceDescription description) {
+		Set<QualifiedName> importedNames = Sets.newHashSet();
+		for (QualifiedName importedName : description.getImportedNames()) {
+			importedNames.add(importedName.toLowerCase());
+		}
+		Set<URI> referencedResources = Sets.newHashSet();
+		for (IReferenceDescription reference : description.getReferenceDescriptions()) {
+			URI targetResource = reference.getTargetEObjectUri().trimFragment();
+			if (!uri.equals(targetResource)) {
+				referencedResources.add(targetResource);
+			}
+		}
+		if (importedNames.isEmpty() && referencedResources.isEmpty()) {
+			return;
+		}
+		for (QualifiedName importedName : importedNames) {
+			register(importedNameToDependents, importedName, uri);
+		}
+		for (URI referencedResource : referencedResources) {
+			register(referencedResourceToDependents, referencedResource, uri);
+		}
+		dependencies.put(uri, new Dependencies(importedNames.toArray(new QualifiedName[importedNames.size()]),
+				referencedResources.toArray(new URI[referencedResources.size()])));
+	}
+
+	private static <K> void register(PersistentHashMap<K, PersistentHashSet<URI>> target, K key, URI dependent) {
+		PersistentHashSet<URI> dependents = target.get(key);
+		if (dependents == null) {
+			dependents = new PersistentHashSet<URI>();
+		} else if (dependents.contains(dependent)) {
+			return;
+		} else {
+			dependents = dependents.copy();
+		}
+		dependents.add(dependent);
+		target.put(key, dependents);
+	}
+
+	private static <K> void unregister(PersistentHashMap<K, PersistentHashSet<URI>> target, K key, URI dependent) {
+		PersistentHashSet<URI> dependents = target.get(key);
+		if (dependents == null || !dependents.contains(dependent)) {
+			return;
+		}
+		if (dependents.size() == 1) {
+			target.remove(key);
+		} else {
+			dependents = dependents.copy();
+			dependents.remove(dependent);
+			target.put(key, dependents);
+		}
+	}
+}
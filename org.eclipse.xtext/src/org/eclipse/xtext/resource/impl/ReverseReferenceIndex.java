@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.resource.impl;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.xtext.resource.IReferenceDescription;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.util.PersistentHashMap;
+import org.eclipse.xtext.util.PersistentHashSet;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.Sets;
+
+/**
+ * An inverted index from the {@link IReferenceDescription#getTargetEObjectUri() target object URIs} of the reference
+ * descriptions of a set of resource descriptions to the URIs of the resources that contain these references.
+ *
+ * The references of a registered description are extracted lazily: newly {@link #add(URI) added} URIs are kept
+ * pending until the next {@link #getReferencingResources(Collection, ResourceDescriptionsData) query}.
+ *
+ * @since 2.13
+ */
+@Beta
+public class ReverseReferenceIndex {
+
+	/**
+	 * The URIs of the referencing resources per target object URI.
+	 */
+	private final PersistentHashMap<URI, PersistentHashSet<URI>> targetToSources;
+
+	/**
+	 * The referenced target object URIs per resource, kept to unregister it again.
+	 */
+	private final PersistentHashMap<URI, URI[]> targets;
+
+	private final PersistentHashSet<URI> pending;
+
+	public ReverseReferenceIndex() {
+		this(new PersistentHashMap<URI, PersistentHashSet<URI>>(), new PersistentHashMap<URI, URI[]>(),
+				new PersistentHashSet<URI>());
+	}
+
+	protected ReverseReferenceIndex(PersistentHashMap<URI, PersistentHashSet<URI>> targetToSources,
+			PersistentHashMap<URI, URI[]> targets, PersistentHashSet<URI> pending) {
+		this.targetToSources = targetToSources;
+		this.targets = targets;
+		this.pending = pending;
+	}
+
+	/**
+	 * Creates a copy of this index in constant time.
+	 */
+	public ReverseReferenceIndex copy() {
+		return new ReverseReferenceIndex(targetToSources.copy(), targets.copy(), pending.copy());
+	}
+
+	/**
+	 * Schedules the description of the given resource to be analyzed on the next query. Existing references of the
+	 * URI are discarded.
+	 */
+	public void add(URI uri) {
+		remove(uri);
+		pending.add(uri);
+	}
+
+	/**
+	 * Discards all references of the given resource.
+	 */
+	public void remove(URI uri) {
+		pending.remove(uri);
+		URI[] removed = targets.remove(uri);
+		if (removed != null) {
+			for (URI target : removed) {
+				PersistentHashSet<URI> sources = targetToSources.get(target);
+				if (sources == null || !sources.contains(uri)) {
+					continue;
+				}
+				if (sources.size() == 1) {
+					targetToSources.remove(target);
+				} else {
+					sources = sources.copy();
+					sources.remove(uri);
+					targetToSources.put(target, sources);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the URIs of all resources that have a reference description whose target is one of the given object
+	 * URIs.
+	 *
+	 * @param targetObjectURIs
+	 *            the URIs of the referenced objects. May not be <code>null</code>.
+	 * @param data
+	 *            the index that provides the descriptions of pending URIs. May not be <code>null</code>.
+	 */
+	public Set<URI> getReferencingResources(Collection<URI> targetObjectURIs, ResourceDescriptionsData data) {
+		analyzePending(data);
+		Set<URI> result = new LinkedHashSet<URI>();
+		for (URI target : targetObjectURIs) {
+			Set<URI> sources = targetToSources.get(target);
+			if (sources != null) {
+				result.addAll(sources);
+			}
+		}
+		return result;
+	}
+
+	protected void analyzePending(ResourceDescriptionsData data) {
+		if (pending.isEmpty()) {
+			return;
+		}
+		for (URI uri : pending) {
+			IResourceDescription description = data.getResourceDescription(uri);
+			if (description != null) {
+				register(uri, description);
+			}
+		}
+		pending.clear();
+	}
+
+	protected void register(URI uri, IResourceDescription description) {
+		Set<URI> referencedObjects = Sets.newHashSet();
+		for (IReferenceDescription reference : description.getReferenceDescriptions()) {
+			referencedObjects.add(reference.getTargetEObjectUri());
+		}
+		if (referencedObjects.isEmpty()) {
+			return;
+		}
+		for (URI target : referencedObjects) {
+			PersistentHashSet<URI> sources = targetToSources.get(target);
+			if (sources == null) {
+				sources = new PersistentHashSet<URI>();
+			} else {
+				sources = sources.copy();
+			}
+			sources.add(uri);
+			targetToSources.put(target, sources);
+		}
+		targets.put(uri, referencedObjects.toArray(new URI[referencedObjects.size()]));
+	}
+
+}
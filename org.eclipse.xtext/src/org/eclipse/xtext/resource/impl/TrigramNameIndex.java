@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.resource.impl;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.util.PersistentHashMap;
+import org.eclipse.xtext.util.PersistentHashSet;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * An index of lower-case qualified names that finds all names containing a given string. Each name is registered with
+ * the trigrams, i.e. the substrings of length three, of its {@link QualifiedName#toString() string representation}. A
+ * query only has to check the names that share the least frequent trigram of the query string.
+ *
+ * @since 2.13
+ */
+@Beta
+public class TrigramNameIndex {
+
+	protected static final int GRAM_LENGTH = 3;
+
+	/**
+	 * The registered names per trigram.
+	 */
+	private final PersistentHashMap<String, PersistentHashSet<QualifiedName>> trigramToNames;
+
+	private final PersistentHashSet<QualifiedName> names;
+
+	public TrigramNameIndex() {
+		this(new PersistentHashMap<String, PersistentHashSet<QualifiedName>>(), new PersistentHashSet<QualifiedName>());
+	}
+
+	protected TrigramNameIndex(PersistentHashMap<String, PersistentHashSet<QualifiedName>> trigramToNames,
+			PersistentHashSet<QualifiedName> names) {
+		this.trigramToNames = trigramToNames;
+		this.names = names;
+	}
+
+	/**
+	 * Creates a copy of this index in constant time.
+	 */
+	public TrigramNameIndex copy() {
+		return new TrigramNameIndex(trigramToNames.copy(), names.copy());
+	}
+
+	public void add(QualifiedName lowerCaseName) {
+		if (!names.add(lowerCaseName)) {
+			return;
+		}
+		for (String trigram : getTrigrams(lowerCaseName.toString())) {
+			PersistentHashSet<QualifiedName> namesWithTrigram = trigramToNames.get(trigram);
+			if (namesWithTrigram == null) {
+				namesWithTrigram = new PersistentHashSet<QualifiedName>();
+			} else {
+				namesWithTrigram = namesWithTrigram.copy();
+			}
+			namesWithTrigram.add(lowerCaseName);
+			trigramToNames.put(trigram, namesWithTrigram);
+		}
+	}
+
+	public void remove(QualifiedName lowerCaseName) {
+		if (!names.remove(lowerCaseName)) {
+			return;
+		}
+		for (String trigram : getTrigrams(lowerCaseName.toString())) {
+			PersistentHashSet<QualifiedName> namesWithTrigram = trigramToNames.get(trigram);
+			if (namesWithTrigram == null) {
+				continue;
+			}
+			if (namesWithTrigram.size() == 1) {
+				trigramToNames.remove(trigram);
+			} else {
+				namesWithTrigram = namesWithTrigram.copy();
+				namesWithTrigram.remove(lowerCaseName);
+				trigramToNames.put(trigram, namesWithTrigram);
+			}
+		}
+	}
+
+	/**
+	 * Returns the names whose string representation contains the given lower-case string. Queries that are shorter than
+	 * a trigram have to check all names.
+	 */
+	public List<QualifiedName> find(String lowerCaseQuery) {
+		Set<QualifiedName> candidates = names;
+		if (lowerCaseQuery.length() >= GRAM_LENGTH) {
+			for (String trigram : getTrigrams(lowerCaseQuery)) {
+				Set<QualifiedName> namesWithTrigram = trigramToNames.get(trigram);
+				if (namesWithTrigram == null) {
+					return Collections.emptyList();
+				}
+				if (namesWithTrigram.size() < candidates.size()) {
+					candidates = namesWithTrigram;
+				}
+			}
+		}
+		List<QualifiedName> result = Lists.newArrayList();
+		for (QualifiedName candidate : candidates) {
+			if (candidate.toString().contains(lowerCaseQuery)) {
+				result.add(candidate);
+			}
+		}
+		return result;
+	}
+
+	protected Set<String> getTrigrams(String string) {
+		Set<String> result = Sets.newHashSet();
+		for (int i = 0; i + GRAM_LENGTH <= string.length(); i++) {
+			result.add(string.substring(i, i + GRAM_LENGTH));
+		}
+		return result;
+	}
+
+	public int size() {
+		return names.size();
+	}
+}
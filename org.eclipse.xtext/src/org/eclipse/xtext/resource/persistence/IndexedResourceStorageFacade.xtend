@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.resource.persistence
+
+import com.google.common.annotations.Beta
+import com.google.common.io.ByteStreams
+import java.io.File
+import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
+import java.io.RandomAccessFile
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel.MapMode
+import org.eclipse.emf.common.util.URI
+
+/**
+ * A resource storage facade that uses the {@link IndexedResourceStorageWritable indexed storage format}. Storages
+ * in the local file system are memory mapped instead of being read into the heap. The mapping is only read while a
+ * resource is loaded, the node model that is read on demand is copied to the heap beforehand.
+ *
+ * Note that some platforms do not allow to modify a file while it is mapped.
+ *
+ * @since 2.13
+ */
+@Beta
+class IndexedResourceStorageFacade extends ResourceStorageFacade {
+
+	override getOrCreateResourceStorageLoadable(StorageAwareResource resource) {
+		if (!resource.resourceSet.eAdapters.exists[it instanceof ResourceStorageProviderAdapter]) {
+			val file = getStorageFile(resource)
+			if (file !== null) {
+				return new IndexedResourceStorageLoadable(map(file), isStoreNodeModel)
+			}
+		}
+		return super.getOrCreateResourceStorageLoadable(resource)
+	}
+
+	override createResourceStorageLoadable(InputStream in) {
+		try {
+			return new IndexedResourceStorageLoadable(ByteBuffer.wrap(ByteStreams.toByteArray(in)), isStoreNodeModel)
+		} finally {
+			in.close
+		}
+	}
+
+	override createResourceStorageWritable(OutputStream out) {
+		return new IndexedResourceStorageWritable(out, isStoreNodeModel)
+	}
+
+	/**
+	 * Returns the storage of the given resource if it is a file in the local file system, or <code>null</code>.
+	 */
+	protected def File getStorageFile(StorageAwareResource resource) {
+		val uriConverter = resource.resourceSet.URIConverter
+		val storageURI = resource.URI.getBinaryStorageURI
+		if (uriConverter.exists(storageURI, emptyMap)) {
+			return toFile(uriConverter.normalize(storageURI))
+		}
+		if (resource.URI.isArchive) {
+			return null
+		}
+		val fsaURI = getFileSystemAccess(resource).getURI(computeOutputPath(resource))
+		if (fsaURI === null) {
+			return null
+		}
+		return toFile(uriConverter.normalize(fsaURI))
+	}
+
+	private def File toFile(URI uri) {
+		if (uri.isFile) {
+			val file = new File(uri.toFileString)
+			if (file.isFile)
+				return file
+		}
+		return null
+	}
+
+	protected def ByteBuffer map(File file) throws IOException {
+		val randomAccessFile = new RandomAccessFile(file, 'r')
+		try {
+			return randomAccessFile.channel.map(MapMode.READ_ONLY, 0, randomAccessFile.length)
+		} finally {
+			randomAccessFile.close
+		}
+	}
+
+}
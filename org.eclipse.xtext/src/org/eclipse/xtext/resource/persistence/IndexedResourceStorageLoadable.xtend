@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.resource.persistence
+
+import com.google.common.annotations.Beta
+import java.io.DataInputStream
+import java.io.IOException
+import java.io.InputStream
+import java.nio.ByteBuffer
+import java.util.Map
+import org.eclipse.emf.common.util.WrappedException
+
+import static org.eclipse.xtext.resource.persistence.IndexedResourceStorageWritable.*
+
+/**
+ * Reads a storage that was written by the {@link IndexedResourceStorageWritable}. The data is accessed through a
+ * {@link ByteBuffer}, which is usually a memory mapped file, and each section is only decoded when it is needed.
+ * The node model is not read before the parse result of the resource is requested. Its section is copied to the
+ * heap while the resource is loaded, so the buffer is not accessed later on, e.g. after the mapped file has been
+ * rewritten.
+ *
+ * Storages in the zip based format of the {@link ResourceStorageWritable} are read, too.
+ *
+ * @since 2.13
+ */
+@Beta
+class IndexedResourceStorageLoadable extends ResourceStorageLoadable {
+
+	val ByteBuffer buffer
+	val boolean storeNodeModel
+
+	/**
+	 * The sections by name, each value is a read-only view of the respective part of the buffer. Lazily
+	 * initialized.
+	 */
+	Map<String, ByteBuffer> sections
+
+	new(ByteBuffer buffer, boolean storeNodeModel) {
+		super(null, storeNodeModel)
+		this.buffer = buffer
+		this.storeNodeModel = storeNodeModel
+	}
+
+	/**
+	 * Whether the buffer has been written by the {@link IndexedResourceStorageWritable}.
+	 */
+	def boolean isIndexed() {
+		return buffer.limit >= 8 && buffer.getInt(0) == MAGIC_NUMBER && buffer.getInt(4) == VERSION
+	}
+
+	override protected loadIntoResource(StorageAwareResource resource) throws IOException {
+		if (!resource.isLoadedFromStorage) {
+			throw new IllegalStateException("Please use StorageAwareResource#load(ResourceStorageLoadable).");
+		}
+		if (!isIndexed) {
+			new ResourceStorageLoadable(new ByteBufferInputStream(buffer.duplicate), storeNodeModel).loadIntoResource(resource)
+			return;
+		}
+		loadSections(resource)
+	}
+
+	/**
+	 * Load the sections from the storage.
+	 * Overriding methods should first delegate to super before reading their own sections.
+	 */
+	protected def void loadSections(StorageAwareResource resource) throws IOException {
+		readContents(resource, getSection(CONTENTS))
+		readResourceDescription(resource, getSection(RESOURCE_DESCRIPTION))
+		if (storeNodeModel && hasSection(NODE_MODEL)) {
+			val nodeModel = copySection(NODE_MODEL)
+			resource.setDeferredParseResult([
+				try {
+					readNodeModel(resource, new ByteBufferInputStream(nodeModel.duplicate))
+					return resource.parseResult
+				} catch (IOException e) {
+					throw new WrappedException(e)
+				}
+			], nodeModel.remaining)
+		}
+	}
+
+	def boolean hasSection(String name) throws IOException {
+		return getSections.containsKey(name)
+	}
+
+	/**
+	 * Returns a stream that reads the section with the given name.
+	 */
+	def InputStream getSection(String name) throws IOException {
+		val section = getSections.get(name)
+		if (section === null) {
+			throw new IOException("Missing section " + name)
+		}
+		return new ByteBufferInputStream(section.duplicate)
+	}
+
+	/**
+	 * Returns a copy of the section with the given name on the heap.
+	 */
+	protected def ByteBuffer copySection(String name) throws IOException {
+		val section = getSections.get(name)
+		if (section === null) {
+			throw new IOException("Missing section " + name)
+		}
+		val result = ByteBuffer.allocate(section.remaining)
+		result.put(section.duplicate)
+		result.flip
+		return result
+	}
+
+	protected def Map<String, ByteBuffer> getSections() throws IOException {
+		if (sections === null) {
+			val header = buffer.duplicate
+			val in = new DataInputStream(new ByteBufferInputStream(header))
+			in.readInt // magic number
+			in.readInt // version
+			val count = in.readInt
+			val offsets = <String, int[]>newLinkedHashMap
+			for (i : 0 ..< count) {
+				offsets.put(in.readUTF, #[in.readInt, in.readInt])
+			}
+			val dataStart = header.position
+			val result = <String, ByteBuffer>newLinkedHashMap
+			for (entry : offsets.entrySet) {
+				val section = buffer.duplicate
+				val start = dataStart + entry.value.get(0)
+				section.limit(start + entry.value.get(1))
+				section.position(start)
+				result.put(entry.key, section.slice.asReadOnlyBuffer)
+			}
+			sections = result
+		}
+		return sections
+	}
+
+	/**
+	 * An input stream that reads the remaining bytes of a buffer.
+	 */
+	protected static class ByteBufferInputStream extends InputStream {
+
+		val ByteBuffer buffer
+
+		new(ByteBuffer buffer) {
+			this.buffer = buffer
+		}
+
+		override read() {
+			if (!buffer.hasRemaining)
+				return -1
+			return buffer.get.bitwiseAnd(0xFF)
+		}
+
+		override read(byte[] b, int off, int len) {
+			if (len == 0)
+				return 0
+			if (!buffer.hasRemaining)
+				return -1
+			val count = Math.min(len, buffer.remaining)
+			buffer.get(b, off, count)
+			return count
+		}
+
+		override available() {
+			return buffer.remaining
+		}
+
+		override skip(long n) {
+			val count = Math.max(0, Math.min(n, buffer.remaining)) as int
+			buffer.position(buffer.position + count)
+			return count
+		}
+	}
+
+}
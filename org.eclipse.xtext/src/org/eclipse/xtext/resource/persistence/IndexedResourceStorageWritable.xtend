@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.resource.persistence
+
+import com.google.common.annotations.Beta
+import java.io.ByteArrayOutputStream
+import java.io.DataOutputStream
+import java.io.IOException
+import java.io.OutputStream
+import java.util.LinkedHashMap
+import java.util.Map
+
+/**
+ * Writes the resource storage as uncompressed sections that are preceded by a table of their offsets, so that
+ * the {@link IndexedResourceStorageLoadable} can decode each section on its own.
+ *
+ * The layout is
+ * <pre>
+ * int magic, int version, int sectionCount,
+ * sectionCount * (UTF name, int offset, int length),
+ * section data
+ * </pre>
+ * where the offsets are relative to the end of the table.
+ *
+ * @since 2.13
+ */
+@Beta
+class IndexedResourceStorageWritable extends ResourceStorageWritable {
+
+	public static val int MAGIC_NUMBER = 0x58545253 // 'XTRS'
+
+	public static val int VERSION = 1
+
+	public static val String CONTENTS = 'emf-contents'
+
+	public static val String RESOURCE_DESCRIPTION = 'resource-description'
+
+	public static val String NODE_MODEL = 'node-model'
+
+	val OutputStream out
+	val boolean storeNodeModel
+
+	new(OutputStream out, boolean storeNodeModel) {
+		super(out, storeNodeModel)
+		this.out = out
+		this.storeNodeModel = storeNodeModel
+	}
+
+	override writeResource(StorageAwareResource resource) throws IOException {
+		if (resource.isLoadedFromStorage) {
+			throw new IllegalStateException("cannot write resources loaded from storage. URI was " + resource.URI)
+		}
+		val sections = new LinkedHashMap<String, byte[]>
+		writeSections(resource, sections)
+		val dataOut = new DataOutputStream(out)
+		try {
+			dataOut.writeInt(MAGIC_NUMBER)
+			dataOut.writeInt(VERSION)
+			dataOut.writeInt(sections.size)
+			var offset = 0
+			for (section : sections.entrySet) {
+				dataOut.writeUTF(section.key)
+				dataOut.writeInt(offset)
+				dataOut.writeInt(section.value.length)
+				offset += section.value.length
+			}
+			for (data : sections.values) {
+				dataOut.write(data)
+			}
+		} finally {
+			dataOut.close
+		}
+	}
+
+	/**
+	 * Write the sections into the storage.
+	 * Overriding methods should first delegate to super before adding their own sections.
+	 */
+	protected def void writeSections(StorageAwareResource resource, Map<String, byte[]> sections) throws IOException {
+		val contents = new ByteArrayOutputStream
+		writeContents(resource, contents)
+		sections.put(CONTENTS, contents.toByteArray)
+
+		val description = new ByteArrayOutputStream
+		writeResourceDescription(resource, description)
+		sections.put(RESOURCE_DESCRIPTION, description.toByteArray)
+
+		if (storeNodeModel) {
+			val nodeModel = new ByteArrayOutputStream
+			writeNodeModel(resource, nodeModel)
+			sections.put(NODE_MODEL, nodeModel.toByteArray)
+		}
+	}
+
+}
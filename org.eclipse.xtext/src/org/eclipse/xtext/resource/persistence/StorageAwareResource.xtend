@@ -13,8 +13,9 @@ import java.util.Map
 import org.apache.log4j.Logger
 import org.eclipse.xtend.lib.annotations.Accessors
 import org.eclipse.xtext.linking.lazy.LazyLinkingResource
+import org.eclipse.xtext.parser.IParseResult
 import org.eclipse.xtext.resource.IResourceDescription
-import org.eclipse.xtext.util.internal.Stopwatches
+import org.eclipse.xtext.util.Metrics
 
 /**
  * A resource implementation that can load itself from ResourceStorage.
@@ -33,6 +34,22 @@ class StorageAwareResource extends LazyLinkingResource {
 	
 	@Accessors IResourceDescription resourceDescription = null;
 	
+	/**
+	 * Computes the parse result on first access, see {@link #setDeferredParseResult}. Guarded by this resource.
+	 */
+	()=>IParseResult deferredParseResult
+	
+	/**
+	 * Whether the parse result has not been computed yet. It is only reset after the computation has finished, so
+	 * other threads wait for it rather than seeing an incomplete parse result.
+	 */
+	volatile boolean parseResultDeferred
+	
+	/**
+	 * The size of the stored data that the deferred parse result is read from. Guarded by this resource.
+	 */
+	long deferredParseResultSize
+	
 	override load(Map<?, ?> options) throws IOException {
 		if (!isLoaded && !isLoading && resourceStorageFacade !== null && resourceStorageFacade.shouldLoadFromStorage(this)) {
 			if (LOG.isDebugEnabled) {
@@ -56,8 +73,7 @@ class StorageAwareResource extends LazyLinkingResource {
 		if (storageInputStream === null) {
 			throw new NullPointerException('storageInputStream')
 		}
-		val task = Stopwatches.forTask("Loading from storage")
-		task.start
+		val timer = Metrics.start(Metrics.LOAD_STORAGE, URI)
 		isLoading = true;
 		isLoadedFromStorage = true;
 		try {
@@ -65,20 +81,94 @@ class StorageAwareResource extends LazyLinkingResource {
 			isLoaded = true;
 		} finally {
 			isLoading = false
-			task.stop
+			timer.stop
 		}
 	}
 	
 	override protected doUnload() {
 		super.doUnload
 		isLoadedFromStorage = false;
+		synchronized (this) {
+			deferredParseResult = null
+			parseResultDeferred = false
+		}
 	}
 	
 	override protected clearInternalState() {
 		isLoadedFromStorage = false;
+		synchronized (this) {
+			deferredParseResult = null
+			parseResultDeferred = false
+		}
 		super.clearInternalState();
 	}
 	
+	/**
+	 * Defers the creation of the parse result until it is requested for the first time. Storage formats that can
+	 * read the node model independently of the contents use this to skip it for resources that are only linked
+	 * against.
+	 * 
+	 * The computation runs at most once, even if the parse result is requested concurrently. While it runs, the
+	 * parse result of this resource is still the previous one.
+	 * 
+	 * @since 2.13
+	 */
+	def synchronized void setDeferredParseResult(()=>IParseResult deferredParseResult) {
+		setDeferredParseResult(deferredParseResult, 0)
+	}
+	
+	/**
+	 * Defers the creation of the parse result like {@link #setDeferredParseResult(Function0)}. The size of the stored
+	 * data that it is read from, e.g. the node model section of a storage, is an estimate of the memory that the
+	 * resource needs for it.
+	 * 
+	 * @since 2.13
+	 */
+	def synchronized void setDeferredParseResult(()=>IParseResult deferredParseResult, long storedSize) {
+		this.deferredParseResult = deferredParseResult
+		this.deferredParseResultSize = storedSize
+		this.parseResultDeferred = deferredParseResult !== null
+	}
+	
+	/**
+	 * The size of the stored data that a {@link #hasDeferredParseResult() deferred} parse result is read from, or
+	 * zero if it is unknown or the parse result is not deferred.
+	 * 
+	 * @since 2.13
+	 */
+	def synchronized long getDeferredParseResultSize() {
+		if (parseResultDeferred) {
+			return deferredParseResultSize
+		}
+		return 0
+	}
+	
+	/**
+	 * Whether the parse result, and with it the node model, is computed on first access.
+	 * 
+	 * @since 2.13
+	 */
+	def boolean hasDeferredParseResult() {
+		return parseResultDeferred
+	}
+	
+	override getParseResult() {
+		if (parseResultDeferred) {
+			synchronized (this) {
+				val computation = deferredParseResult
+				if (computation !== null) {
+					deferredParseResult = null
+					try {
+						parseResult = computation.apply
+					} finally {
+						parseResultDeferred = false
+					}
+				}
+			}
+		}
+		return super.getParseResult
+	}
+	
 	override synchronized getEObject(String uriFragment) {
 		if (portableURIs.isPortableURIFragment(uriFragment)) {
 			return portableURIs.resolve(this, uriFragment)
@@ -26,4 +26,11 @@ class StorageAwareResourceDescriptionManager extends DefaultResourceDescriptionM
 		}
 	}
 	
+	/**
+	 * @since 2.13
+	 */
+	override isAffectedByDependenciesOnly() {
+		true
+	}
+	
 }
\ No newline at end of file
@@ -46,14 +46,35 @@ public abstract class AbstractGlobalScopeDelegatingScopeProvider extends Abstrac
 		return wrap(globalScopeProvider.getScope(context, reference, filter));
 	}
 	
-	private IScopeWrapper scopeWrapper;
+	/**
+	 * Returns the global scope without the {@link #setWrapper(IScopeWrapper) wrapper} of the calling thread, e.g. to
+	 * look up scopes that are cached for it.
+	 * 
+	 * @since 2.13
+	 */
+	protected IScope getUnwrappedGlobalScope(final Resource context, final EReference reference) {
+		return globalScopeProvider.getScope(context, reference, null);
+	}
+	
+	/**
+	 * The wrapper is set per thread, since the references of a resource may be resolved concurrently.
+	 */
+	private final ThreadLocal<IScopeWrapper> scopeWrapper = new ThreadLocal<IScopeWrapper>();
 	
+	/**
+	 * Sets the wrapper of the global scopes that are requested by the calling thread. A <code>null</code> wrapper
+	 * removes it.
+	 */
 	public void setWrapper(IScopeWrapper wrapper) {
-		this.scopeWrapper = wrapper;
+		if (wrapper == null)
+			scopeWrapper.remove();
+		else
+			scopeWrapper.set(wrapper);
 	}
 
 	protected IScope wrap(IScope scope) {
-		return scopeWrapper!=null ? scopeWrapper.wrap(scope) : scope;
+		IScopeWrapper wrapper = scopeWrapper.get();
+		return wrapper!=null ? wrapper.wrap(scope) : scope;
 	}
 	
 	protected boolean isIgnoreCase(EReference reference) {
@@ -30,32 +30,79 @@ import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.name.Named;
 
 /**
  * @author Sven Efftinge - Initial contribution and API
  */
 public class DefaultGlobalScopeProvider extends AbstractGlobalScopeProvider {
 
+	/**
+	 * Enables the {@link GlobalScopeCache} that shares the results of index queries and the scopes of containers
+	 * between the resources of a resource set. Disabled by default.
+	 * 
+	 * @since 2.13
+	 */
+	public static final String SHARED_SCOPE_CACHE = "org.eclipse.xtext.scoping.impl.DefaultGlobalScopeProvider.sharedScopeCache";
+
 	@Inject
 	private IContainer.Manager containerManager;
 
 	@Inject
 	private IResourceDescription.Manager descriptionManager;
 	
+	@Inject(optional = true)
+	@Named(SHARED_SCOPE_CACHE)
+	private boolean sharedScopeCache = false;
+	
 	protected IScope getScope(IScope parent, final Resource context, boolean ignoreCase, EClass type, Predicate<IEObjectDescription> filter) {
 		IScope result = parent;
 		if (context == null || context.getResourceSet() == null)
 			return result;
+		GlobalScopeCache scopeCache = sharedScopeCache ? GlobalScopeCache.getOrCreate(context.getResourceSet()) : null;
 		List<IContainer> containers = Lists.newArrayList(getVisibleContainers(context));
 		Collections.reverse(containers);
 		Iterator<IContainer> iter = containers.iterator();
 		while (iter.hasNext()) {
 			IContainer container = iter.next();
-			result = createContainerScopeWithContext(context, result, container, filter, type, ignoreCase);
+			if (scopeCache != null && filter == null && scopeCache.isShared(result) && scopeCache.isShared(container)
+					&& !container.hasResourceDescription(context.getURI())) {
+				result = getSharedContainerScope(scopeCache, result, container, type, ignoreCase);
+			} else {
+				result = createContainerScopeWithContext(context, result, container, filter, type, ignoreCase);
+			}
 		}
 		return result;
 	}
 	
+	/**
+	 * @since 2.13
+	 */
+	protected IScope getSharedContainerScope(GlobalScopeCache scopeCache, final IScope parent, final IContainer container,
+			final EClass type, final boolean ignoreCase) {
+		return scopeCache.getContainerScope(parent, container, type, ignoreCase, new Provider<IScope>() {
+			@Override
+			public IScope get() {
+				return createContainerScope(parent, container, null, type, ignoreCase);
+			}
+		});
+	}
+	
+	/**
+	 * @since 2.13
+	 */
+	public void setSharedScopeCache(boolean sharedScopeCache) {
+		this.sharedScopeCache = sharedScopeCache;
+	}
+	
+	/**
+	 * @since 2.13
+	 */
+	public boolean isSharedScopeCache() {
+		return sharedScopeCache;
+	}
+	
 	@Override
 	protected IScope getScope(final Resource context, boolean ignoreCase, EClass type, Predicate<IEObjectDescription> filter) {
 		return getScope(IScope.NULLSCOPE, context, ignoreCase, type, filter);
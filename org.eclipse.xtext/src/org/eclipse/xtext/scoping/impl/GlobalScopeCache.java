@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.scoping.impl;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.resource.IContainer;
+import org.eclipse.xtext.resource.IEObjectDescription;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.resource.IResourceDescription.Delta;
+import org.eclipse.xtext.resource.impl.ResourceDescriptionChangeEvent;
+import org.eclipse.xtext.resource.impl.ResourceDescriptionsBasedContainer;
+import org.eclipse.xtext.resource.impl.ResourceDescriptionsData;
+import org.eclipse.xtext.scoping.IScope;
+import org.eclipse.xtext.util.Triple;
+import org.eclipse.xtext.util.Tuples;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.MapMaker;
+import com.google.common.collect.Sets;
+import com.google.inject.Provider;
+
+/**
+ * Shares the global scopes of the resources in a resource set. It hands out one container per
+ * {@link ResourceDescriptionsData index chunk} that remembers the results of its queries, so resources that see the
+ * same containers do not query the index for the same names again. Scopes on top of these containers that do not
+ * depend on the resource they are created for, e.g. the scopes of the containers of upstream projects or import
+ * scopes with the same normalizers, are shared as well.
+ *
+ * The cache is not invalidated by changes to the resources of the resource set, but by the
+ * {@link #invalidate(Iterable) deltas} of the index. Clients that modify the index chunks have to pass on their deltas.
+ *
+ * @see DefaultGlobalScopeProvider#SHARED_SCOPE_CACHE
+ * @since 2.13
+ */
+@Beta
+public class GlobalScopeCache extends AdapterImpl {
+
+	public static GlobalScopeCache findInEmfObject(Notifier notifier) {
+		if (notifier != null) {
+			for (Adapter adapter : notifier.eAdapters()) {
+				if (adapter instanceof GlobalScopeCache) {
+					return (GlobalScopeCache) adapter;
+				}
+			}
+		}
+		return null;
+	}
+
+	public static GlobalScopeCache getOrCreate(ResourceSet resourceSet) {
+		synchronized (resourceSet) {
+			GlobalScopeCache result = findInEmfObject(resourceSet);
+			if (result == null) {
+				result = new GlobalScopeCache();
+				resourceSet.eAdapters().add(result);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Discards the cached query results that may be affected by the given deltas if the resource set has a cache.
+	 */
+	public static void invalidate(ResourceSet resourceSet, Iterable<? extends Delta> deltas) {
+		GlobalScopeCache cache = findInEmfObject(resourceSet);
+		if (cache != null) {
+			cache.invalidate(deltas);
+		}
+	}
+
+	/**
+	 * The containers are only weakly referenced, since a new index chunk is usually created for each build.
+	 */
+	private final Map<ResourceDescriptionsData, SharedContainer> containers = new MapMaker().weakKeys().weakValues()
+			.makeMap();
+
+	/**
+	 * The shared scopes and the containers they are created for.
+	 */
+	private final Map<IScope, SharedContainer> sharedScopes = new MapMaker().weakKeys().weakValues().makeMap();
+
+	@Override
+	public boolean isAdapterForType(Object type) {
+		return type == GlobalScopeCache.class;
+	}
+
+	/**
+	 * Returns the shared container for the given index chunk.
+	 */
+	public IContainer getContainer(ResourceDescriptionsData descriptions) {
+		SharedContainer result = containers.get(descriptions);
+		if (result == null) {
+			synchronized (containers) {
+				result = containers.get(descriptions);
+				if (result == null) {
+					result = new SharedContainer(descriptions);
+					containers.put(descriptions, result);
+				}
+			}
+		}
+		return result;
+	}
+
+	public boolean isShared(IContainer container) {
+		return container instanceof SharedContainer && containers.get(((SharedContainer) container).getDescriptions()) == container;
+	}
+
+	public boolean isShared(IScope scope) {
+		return scope == IScope.NULLSCOPE || sharedScopes.containsKey(scope);
+	}
+
+	/**
+	 * Returns the shared scope for the given {@link #isShared(IContainer) shared container} with the given
+	 * {@link #isShared(IScope) shared} parent. The factory is used to create it on the first request.
+	 */
+	public IScope getContainerScope(IScope parent, IContainer container, EClass type, boolean ignoreCase, Provider<IScope> factory) {
+		if (!isShared(container) || !isShared(parent))
+			return factory.get();
+		SharedContainer owner = (SharedContainer) container;
+		return getScope(owner, Tuples.create(parent, type, ignoreCase), factory);
+	}
+
+	/**
+	 * Returns the shared scope that resolves names with the given normalizers against the given
+	 * {@link #isShared(IScope) shared} parent. The factory is used to create it on the first request.
+	 */
+	public IScope getImportScope(IScope parent, List<ImportNormalizer> normalizers, EClass type, boolean ignoreCase, Provider<IScope> factory) {
+		SharedContainer owner = parent != IScope.NULLSCOPE ? sharedScopes.get(parent) : null;
+		if (owner == null)
+			return factory.get();
+		return getScope(owner, Tuples.create(parent, ImmutableList.copyOf(normalizers), Tuples.create(type, ignoreCase)), factory);
+	}
+
+	private IScope getScope(SharedContainer owner, Object key, Provider<IScope> factory) {
+		IScope result = owner.scopes.get(key);
+		if (result == null) {
+			IScope newScope = factory.get();
+			result = owner.scopes.putIfAbsent(key, newScope);
+			if (result == null) {
+				result = newScope;
+				sharedScopes.put(result, owner);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Discards the cached query results for the names that are exported by the old or new state of the given deltas.
+	 */
+	public void invalidate(Iterable<? extends Delta> deltas) {
+		Set<QualifiedName> names = Sets.newHashSet();
+		boolean changed = false;
+		for (Delta delta : deltas) {
+			changed = true;
+			addNames(delta.getOld(), names);
+			addNames(delta.getNew(), names);
+		}
+		if (!changed)
+			return;
+		for (SharedContainer container : containers.values()) {
+			container.invalidate(deltas, names);
+		}
+	}
+
+	private void addNames(IResourceDescription description, Set<QualifiedName> names) {
+		if (description != null) {
+			for (IEObjectDescription object : description.getExportedObjects()) {
+				names.add(object.getName().toLowerCase());
+			}
+		}
+	}
+
+	/**
+	 * Remembers the results of the queries for exported objects. The results stay valid until they are
+	 * {@link GlobalScopeCache#invalidate(Iterable) invalidated}.
+	 */
+	protected static class SharedContainer extends ResourceDescriptionsBasedContainer {
+
+		private final ConcurrentMap<Triple<EClass, QualifiedName, Boolean>, List<IEObjectDescription>> byName = new ConcurrentHashMap<Triple<EClass, QualifiedName, Boolean>, List<IEObjectDescription>>();
+
+		private final ConcurrentMap<EClass, List<IEObjectDescription>> byType = new ConcurrentHashMap<EClass, List<IEObjectDescription>>();
+
+		private final ConcurrentMap<Object, IScope> scopes = new ConcurrentHashMap<Object, IScope>();
+
+		/**
+		 * Counts the invalidations, so results that were computed from the index before a concurrent invalidation
+		 * are not cached.
+		 */
+		private final AtomicInteger generation = new AtomicInteger();
+
+		protected SharedContainer(ResourceDescriptionsData descriptions) {
+			super(descriptions);
+		}
+
+		@Override
+		public Iterable<IEObjectDescription> getExportedObjects(EClass type, QualifiedName qualifiedName, boolean ignoreCase) {
+			Triple<EClass, QualifiedName, Boolean> key = Tuples.create(type, ignoreCase ? qualifiedName.toLowerCase() : qualifiedName, ignoreCase);
+			List<IEObjectDescription> result = byName.get(key);
+			if (result == null) {
+				int stamp = generation.get();
+				result = ImmutableList.copyOf(super.getExportedObjects(type, qualifiedName, ignoreCase));
+				cache(byName, key, result, stamp);
+			}
+			return result;
+		}
+
+		@Override
+		public Iterable<IEObjectDescription> getExportedObjectsByType(EClass type) {
+			List<IEObjectDescription> result = byType.get(type);
+			if (result == null) {
+				int stamp = generation.get();
+				result = ImmutableList.copyOf(super.getExportedObjectsByType(type));
+				cache(byType, type, result, stamp);
+			}
+			return result;
+		}
+
+		private <K> void cache(ConcurrentMap<K, List<IEObjectDescription>> cache, K key, List<IEObjectDescription> result, int stamp) {
+			cache.put(key, result);
+			// an invalidation that started after the stamp may have missed the result
+			if (generation.get() != stamp)
+				cache.remove(key, result);
+		}
+
+		@Override
+		protected ResourceDescriptionsData getDescriptions() {
+			return (ResourceDescriptionsData) super.getDescriptions();
+		}
+
+		protected void invalidate(Iterable<? extends Delta> deltas, Set<QualifiedName> lowerCaseNames) {
+			generation.incrementAndGet();
+			byType.clear();
+			Iterator<Triple<EClass, QualifiedName, Boolean>> keys = byName.keySet().iterator();
+			while (keys.hasNext()) {
+				if (lowerCaseNames.contains(keys.next().getSecond().toLowerCase()))
+					keys.remove();
+			}
+			@SuppressWarnings("unchecked")
+			Iterable<Delta> casted = (Iterable<Delta>) deltas;
+			descriptionsChanged(new ResourceDescriptionChangeEvent(casted));
+		}
+	}
+
+}
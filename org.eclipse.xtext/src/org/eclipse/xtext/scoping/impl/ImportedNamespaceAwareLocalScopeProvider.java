@@ -101,14 +101,105 @@ public class ImportedNamespaceAwareLocalScopeProvider extends AbstractGlobalScop
 	
 	protected IScope getResourceScope(Resource res, EReference reference) {
 		EObject context = res.getContents().get(0);
-		IScope globalScope = getGlobalScope(res, reference);
+		IScope globalScope;
 		List<ImportNormalizer> normalizers = getImplicitImports(isIgnoreCase(reference));
-		if (!normalizers.isEmpty()) {
-			globalScope = createImportScope(globalScope, normalizers, null, reference.getEReferenceType(), isIgnoreCase(reference));
+		if (normalizers.isEmpty()) {
+			globalScope = getGlobalScope(res, reference);
+		} else {
+			globalScope = createImplicitImportScope(res, normalizers, reference);
 		}
 		return getResourceScope(globalScope, context, reference);
 	}
 
+	/**
+	 * Creates the scope for the implicit imports on top of the global scope. It is shared by all resources with the
+	 * same global scope if the resource set has a {@link GlobalScopeCache}. The shared scope is looked up with the
+	 * {@link #getUnwrappedGlobalScope(Resource, EReference) unwrapped global scope}, so the names that it resolves
+	 * are passed to the {@link #setWrapper(IScopeWrapper) wrapper} separately.
+	 * 
+	 * @since 2.13
+	 */
+	protected IScope createImplicitImportScope(Resource res, final List<ImportNormalizer> normalizers, final EReference reference) {
+		final EClass type = reference.getEReferenceType();
+		final boolean ignoreCase = isIgnoreCase(reference);
+		final IScope globalScope = getUnwrappedGlobalScope(res, reference);
+		// the global scope provider attaches the cache to the resource set on demand
+		GlobalScopeCache scopeCache = GlobalScopeCache.findInEmfObject(res.getResourceSet());
+		if (scopeCache == null)
+			return createImportScope(wrap(globalScope), normalizers, null, type, ignoreCase);
+		IScope result = scopeCache.getImportScope(globalScope, normalizers, type, ignoreCase, new Provider<IScope>() {
+			@Override
+			public IScope get() {
+				return createImportScope(globalScope, normalizers, null, type, ignoreCase);
+			}
+		});
+		IScope wrapper = wrap(IScope.NULLSCOPE);
+		if (wrapper == IScope.NULLSCOPE)
+			return result;
+		return new ImportedNamesScope(result, wrapper, normalizers);
+	}
+
+	/**
+	 * Asks a {@link #wrap(IScope) wrapped} empty scope for the names that a shared implicit import scope resolves
+	 * against the global scope, so they are recorded as if the import scope were created on top of the wrapped
+	 * global scope.
+	 */
+	private static class ImportedNamesScope implements IScope {
+
+		private final IScope delegate;
+
+		private final IScope wrapper;
+
+		private final List<ImportNormalizer> normalizers;
+
+		ImportedNamesScope(IScope delegate, IScope wrapper, List<ImportNormalizer> normalizers) {
+			this.delegate = delegate;
+			this.wrapper = wrapper;
+			this.normalizers = normalizers;
+		}
+
+		private void query(QualifiedName name) {
+			wrapper.getSingleElement(name);
+			for (ImportNormalizer normalizer : normalizers) {
+				QualifiedName resolvedName = normalizer.resolve(name);
+				if (resolvedName != null)
+					wrapper.getSingleElement(resolvedName);
+			}
+		}
+
+		@Override
+		public IEObjectDescription getSingleElement(QualifiedName name) {
+			query(name);
+			return delegate.getSingleElement(name);
+		}
+
+		@Override
+		public Iterable<IEObjectDescription> getElements(QualifiedName name) {
+			query(name);
+			return delegate.getElements(name);
+		}
+
+		@Override
+		public IEObjectDescription getSingleElement(EObject object) {
+			return delegate.getSingleElement(object);
+		}
+
+		@Override
+		public Iterable<IEObjectDescription> getElements(EObject object) {
+			return delegate.getElements(object);
+		}
+
+		@Override
+		public Iterable<IEObjectDescription> getAllElements() {
+			return delegate.getAllElements();
+		}
+
+		@Override
+		public String toString() {
+			return getClass().getSimpleName() + " -> " + delegate;
+		}
+	}
+
 	protected List<ImportNormalizer> getImplicitImports(boolean ignoreCase) {
 		return emptyList();
 	}
@@ -236,6 +236,12 @@ public class ContextTypePDAProvider implements IContextTypePDAProvider {
 	@Inject
 	protected NfaUtil nfaUtil;
 
+	/**
+	 * @since 2.13
+	 */
+	@Inject
+	protected ContextTypePDAStore store;
+
 	protected Set<EClass> collectTypes(Pda<ISerState, RuleCall> contextPda, Map<ISerState, Integer> distances) {
 		TypeCollector collector = newTypeCollector();
 		pdaUtil.filterEdges(contextPda, collector, distances, null);
@@ -253,6 +259,11 @@ public class ContextTypePDAProvider implements IContextTypePDAProvider {
 		SerializationContextMap<Pda<ISerState, RuleCall>> cached = cache.get(grammar);
 		if (cached != null)
 			return cached;
+		SerializationContextMap<Pda<ISerState, RuleCall>> precomputed = store.load(grammar);
+		if (precomputed != null) {
+			cache.put(grammar, precomputed);
+			return precomputed;
+		}
 		SerializationContextMap.Builder<Pda<ISerState, RuleCall>> builder = SerializationContextMap.builder();
 
 		SerializationContextMap<Pda<ISerState, RuleCall>> contextPDAs = pdaProvider.getContextPDAs(grammar);
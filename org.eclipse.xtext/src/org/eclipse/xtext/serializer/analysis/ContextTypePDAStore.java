@@ -0,0 +1,431 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.serializer.analysis;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.ENamedElement;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.xtext.AbstractElement;
+import org.eclipse.xtext.AbstractMetamodelDeclaration;
+import org.eclipse.xtext.AbstractRule;
+import org.eclipse.xtext.Action;
+import org.eclipse.xtext.Grammar;
+import org.eclipse.xtext.GrammarUtil;
+import org.eclipse.xtext.Parameter;
+import org.eclipse.xtext.ParserRule;
+import org.eclipse.xtext.RuleCall;
+import org.eclipse.xtext.serializer.ISerializationContext;
+import org.eclipse.xtext.serializer.analysis.ISerState.SerStateType;
+import org.eclipse.xtext.serializer.analysis.SerializationContext.ActionContext;
+import org.eclipse.xtext.serializer.analysis.SerializationContext.ParameterValueContext;
+import org.eclipse.xtext.serializer.analysis.SerializationContext.RuleContext;
+import org.eclipse.xtext.serializer.analysis.SerializationContext.TypeContext;
+import org.eclipse.xtext.serializer.analysis.SerializerPDA.SerializerPDAState;
+import org.eclipse.xtext.util.formallang.Pda;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.inject.Singleton;
+
+/**
+ * Reads and writes the {@link IContextTypePDAProvider context type PDAs} of a grammar in a compact binary format, so
+ * they do not have to be computed at runtime. The file is generated next to the binary grammar and
+ * {@link #load(Grammar) loaded} on demand.
+ *
+ * The grammar elements are referenced by their position in the contents of their grammar. A fingerprint of the
+ * grammars is stored as well, so a file that was generated for a different state of the grammar is ignored.
+ *
+ * @since 2.13
+ */
+@Beta
+@Singleton
+public class ContextTypePDAStore {
+
+	public static final String FILE_EXTENSION = "xtextpda";
+
+	private static final Logger LOG = Logger.getLogger(ContextTypePDAStore.class);
+
+	private static final int VERSION = 1;
+
+	private static final int NULL_CONTEXT = 0;
+	private static final int RULE_CONTEXT = 1;
+	private static final int ACTION_CONTEXT = 2;
+	private static final int TYPE_CONTEXT = 3;
+	private static final int PARAMETER_VALUE_CONTEXT = 4;
+
+	/**
+	 * The path of the file relative to the root of the source folder, analogous to
+	 * {@link GrammarUtil#getClasspathRelativePathToBinGrammar(Grammar)}.
+	 */
+	public String getClasspathRelativePath(Grammar grammar) {
+		return GrammarUtil.getLanguageId(grammar).replace('.', '/') + "." + FILE_EXTENSION;
+	}
+
+	/**
+	 * Returns the PDAs from the file next to the resource of the grammar or <code>null</code> if there is no such file
+	 * or if it does not match the grammar.
+	 */
+	public SerializationContextMap<Pda<ISerState, RuleCall>> load(Grammar grammar) {
+		Resource resource = grammar.eResource();
+		if (resource == null || resource.getURI() == null)
+			return null;
+		URI uri = resource.getURI().trimFileExtension().appendFileExtension(FILE_EXTENSION);
+		URIConverter uriConverter = resource.getResourceSet() != null ? resource.getResourceSet().getURIConverter()
+				: URIConverter.INSTANCE;
+		InputStream in;
+		try {
+			in = uriConverter.createInputStream(uri);
+		} catch (IOException e) {
+			return null;
+		} catch (RuntimeException e) {
+			// e.g. not found on the classpath
+			return null;
+		}
+		try {
+			SerializationContextMap<Pda<ISerState, RuleCall>> result = read(grammar, in);
+			if (result == null)
+				LOG.warn("The file '" + uri + "' does not match the grammar " + grammar.getName() + ". Please regenerate the language.");
+			return result;
+		} catch (Exception e) {
+			LOG.warn("Error reading '" + uri + "': " + e.getMessage(), e);
+			return null;
+		} finally {
+			try {
+				in.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	/**
+	 * Returns the PDAs of the given stream or <code>null</code> if it was written for a different state of the grammar.
+	 */
+	public SerializationContextMap<Pda<ISerState, RuleCall>> read(Grammar grammar, InputStream stream) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+		if (readInt(in) != VERSION || !grammar.getName().equals(in.readUTF()))
+			return null;
+		List<Grammar> grammars = getGrammars(grammar);
+		if (in.readInt() != computeFingerprint(grammars))
+			return null;
+		List<List<EObject>> elements = Lists.newArrayListWithCapacity(grammars.size());
+		for (Grammar g : grammars) {
+			elements.add(Lists.newArrayList(g.eAllContents()));
+		}
+		int entryCount = readInt(in);
+		ImmutableList.Builder<SerializationContextMap.Entry<Pda<ISerState, RuleCall>>> entries = ImmutableList.builder();
+		for (int i = 0; i < entryCount; i++) {
+			int contextCount = readInt(in);
+			List<ISerializationContext> contexts = Lists.newArrayListWithCapacity(contextCount);
+			for (int j = 0; j < contextCount; j++) {
+				ISerializationContext context = readContext(in, grammar, elements);
+				if (context == null)
+					return null;
+				contexts.add(context);
+			}
+			SerializerPDA pda = readPda(in, elements);
+			entries.add(new SerializationContextMap.Entry<Pda<ISerState, RuleCall>>(pda, contexts));
+		}
+		return new SerializationContextMap<Pda<ISerState, RuleCall>>(entries.build());
+	}
+
+	public void write(Grammar grammar, SerializationContextMap<Pda<ISerState, RuleCall>> pdas, OutputStream stream)
+			throws IOException {
+		DataOutputStream out = new DataOutputStream(stream);
+		writeInt(out, VERSION);
+		out.writeUTF(grammar.getName());
+		List<Grammar> grammars = getGrammars(grammar);
+		out.writeInt(computeFingerprint(grammars));
+		Map<EObject, int[]> index = new IdentityHashMap<EObject, int[]>();
+		for (int i = 0; i < grammars.size(); i++) {
+			TreeIterator<EObject> iterator = grammars.get(i).eAllContents();
+			for (int j = 0; iterator.hasNext(); j++) {
+				index.put(iterator.next(), new int[] { i, j });
+			}
+		}
+		List<SerializationContextMap.Entry<Pda<ISerState, RuleCall>>> entries = pdas.values();
+		writeInt(out, entries.size());
+		for (SerializationContextMap.Entry<Pda<ISerState, RuleCall>> entry : entries) {
+			writeInt(out, entry.getContexts().size());
+			for (ISerializationContext context : entry.getContexts()) {
+				writeContext(out, context, index);
+			}
+			writePda(out, entry.getValue(), index);
+		}
+		out.flush();
+	}
+
+	protected List<Grammar> getGrammars(Grammar grammar) {
+		List<Grammar> result = Lists.newArrayList(grammar);
+		result.addAll(GrammarUtil.allUsedGrammars(grammar));
+		return result;
+	}
+
+	/**
+	 * Computes a hash over the structure, the attributes and the names of the referenced elements of the given
+	 * grammars. It is the same for a grammar that is parsed from its source and for the grammar that is loaded from the
+	 * binary grammar file.
+	 */
+	protected int computeFingerprint(List<Grammar> grammars) {
+		int result = 1;
+		for (Grammar grammar : grammars) {
+			result = 31 * result + hash(grammar);
+			TreeIterator<EObject> iterator = grammar.eAllContents();
+			while (iterator.hasNext()) {
+				result = 31 * result + hash(iterator.next());
+			}
+		}
+		return result;
+	}
+
+	private int hash(EObject object) {
+		EClass eClass = object.eClass();
+		int result = eClass.getName().hashCode();
+		for (EAttribute attribute : eClass.getEAllAttributes()) {
+			if (!attribute.isDerived() && !attribute.isTransient() && object.eIsSet(attribute))
+				result = 31 * result + String.valueOf(object.eGet(attribute)).hashCode();
+		}
+		for (EReference reference : eClass.getEAllReferences()) {
+			if (reference.isContainment() || reference.isContainer() || reference.isDerived() || reference.isTransient()
+					|| !object.eIsSet(reference))
+				continue;
+			Object value = object.eGet(reference);
+			if (reference.isMany()) {
+				for (Object target : (List<?>) value) {
+					result = 31 * result + getName((EObject) target).hashCode();
+				}
+			} else {
+				result = 31 * result + getName((EObject) value).hashCode();
+			}
+		}
+		return result;
+	}
+
+	private String getName(EObject object) {
+		if (object instanceof ENamedElement)
+			return String.valueOf(((ENamedElement) object).getName());
+		if (object instanceof AbstractRule)
+			return String.valueOf(((AbstractRule) object).getName());
+		if (object instanceof Parameter)
+			return String.valueOf(((Parameter) object).getName());
+		if (object instanceof Grammar)
+			return String.valueOf(((Grammar) object).getName());
+		return object.eClass().getName();
+	}
+
+	protected void writeContext(DataOutputStream out, ISerializationContext context, Map<EObject, int[]> index)
+			throws IOException {
+		if (context == null) {
+			writeInt(out, NULL_CONTEXT);
+			return;
+		}
+		if (context instanceof RuleContext) {
+			writeInt(out, RULE_CONTEXT);
+			writeElement(out, context.getParserRule(), index);
+		} else if (context instanceof ActionContext) {
+			writeInt(out, ACTION_CONTEXT);
+			writeElement(out, context.getAssignedAction(), index);
+		} else if (context instanceof TypeContext) {
+			writeInt(out, TYPE_CONTEXT);
+			EClass type = context.getType();
+			out.writeBoolean(type != null);
+			if (type != null) {
+				out.writeUTF(type.getEPackage().getNsURI());
+				out.writeUTF(type.getName());
+			}
+		} else if (context instanceof ParameterValueContext) {
+			writeInt(out, PARAMETER_VALUE_CONTEXT);
+			Set<Parameter> parameters = context.getEnabledBooleanParameters();
+			writeInt(out, parameters.size());
+			for (Parameter parameter : parameters) {
+				writeElement(out, parameter, index);
+			}
+		} else {
+			throw new IllegalStateException("Unknown context type: " + context.getClass().getName());
+		}
+		writeContext(out, ((SerializationContext) context).getParent(), index);
+	}
+
+	protected ISerializationContext readContext(DataInputStream in, Grammar grammar, List<List<EObject>> elements)
+			throws IOException {
+		int kind = readInt(in);
+		switch (kind) {
+			case NULL_CONTEXT:
+				return null;
+			case RULE_CONTEXT: {
+				ParserRule rule = (ParserRule) readElement(in, elements);
+				return new RuleContext(readContext(in, grammar, elements), rule);
+			}
+			case ACTION_CONTEXT: {
+				Action action = (Action) readElement(in, elements);
+				return new ActionContext(readContext(in, grammar, elements), action);
+			}
+			case TYPE_CONTEXT: {
+				EClass type = null;
+				if (in.readBoolean()) {
+					type = findType(grammar, in.readUTF(), in.readUTF());
+					if (type == null)
+						return null;
+				}
+				return new TypeContext(readContext(in, grammar, elements), type);
+			}
+			case PARAMETER_VALUE_CONTEXT: {
+				int count = readInt(in);
+				Set<Parameter> parameters = Sets.newLinkedHashSet();
+				for (int i = 0; i < count; i++) {
+					parameters.add((Parameter) readElement(in, elements));
+				}
+				return new ParameterValueContext(readContext(in, grammar, elements), parameters);
+			}
+			default:
+				throw new IOException("Unknown context kind: " + kind);
+		}
+	}
+
+	protected EClass findType(Grammar grammar, String nsURI, String name) {
+		for (AbstractMetamodelDeclaration declaration : GrammarUtil.allMetamodelDeclarations(grammar)) {
+			EPackage ePackage = declaration.getEPackage();
+			if (ePackage != null && nsURI.equals(ePackage.getNsURI())) {
+				EClassifier classifier = ePackage.getEClassifier(name);
+				if (classifier instanceof EClass)
+					return (EClass) classifier;
+			}
+		}
+		Resource resource = grammar.eResource();
+		EPackage.Registry registry = resource != null && resource.getResourceSet() != null
+				? resource.getResourceSet().getPackageRegistry() : EPackage.Registry.INSTANCE;
+		EPackage ePackage = registry.getEPackage(nsURI);
+		if (ePackage != null) {
+			EClassifier classifier = ePackage.getEClassifier(name);
+			if (classifier instanceof EClass)
+				return (EClass) classifier;
+		}
+		return null;
+	}
+
+	/**
+	 * The start state gets the index 0 and the stop state the index 1.
+	 */
+	protected void writePda(DataOutputStream out, Pda<ISerState, RuleCall> pda, Map<EObject, int[]> index)
+			throws IOException {
+		Map<ISerState, Integer> states = new IdentityHashMap<ISerState, Integer>();
+		List<ISerState> ordered = Lists.newArrayList();
+		Deque<ISerState> queue = new ArrayDeque<ISerState>();
+		for (ISerState state : ImmutableList.of(pda.getStart(), pda.getStop())) {
+			states.put(state, ordered.size());
+			ordered.add(state);
+			queue.add(state);
+		}
+		while (!queue.isEmpty()) {
+			for (ISerState follower : queue.poll().getFollowers()) {
+				if (!states.containsKey(follower)) {
+					states.put(follower, ordered.size());
+					ordered.add(follower);
+					queue.add(follower);
+				}
+			}
+		}
+		writeInt(out, ordered.size());
+		for (ISerState state : ordered) {
+			writeInt(out, state.getType().ordinal());
+			writeElement(out, state.getGrammarElement(), index);
+		}
+		for (ISerState state : ordered) {
+			List<? extends ISerState> followers = state.getFollowers();
+			writeInt(out, followers.size());
+			for (ISerState follower : followers) {
+				writeInt(out, states.get(follower));
+			}
+		}
+	}
+
+	protected SerializerPDA readPda(DataInputStream in, List<List<EObject>> elements) throws IOException {
+		SerStateType[] types = SerStateType.values();
+		int count = readInt(in);
+		SerializerPDAState[] states = new SerializerPDAState[count];
+		for (int i = 0; i < count; i++) {
+			SerStateType type = types[readInt(in)];
+			states[i] = new SerializerPDAState((AbstractElement) readElement(in, elements), type);
+		}
+		for (int i = 0; i < count; i++) {
+			int followerCount = readInt(in);
+			for (int j = 0; j < followerCount; j++) {
+				SerializerPDAState follower = states[readInt(in)];
+				states[i].followers.add(follower);
+				follower.precedents.add(states[i]);
+			}
+		}
+		return new SerializerPDA(states[0], states[1]);
+	}
+
+	private void writeElement(DataOutputStream out, EObject element, Map<EObject, int[]> index) throws IOException {
+		if (element == null) {
+			writeInt(out, 0);
+			return;
+		}
+		int[] position = index.get(element);
+		if (position == null)
+			throw new IllegalStateException("Element is not part of the grammar: " + element);
+		writeInt(out, position[0] + 1);
+		writeInt(out, position[1]);
+	}
+
+	private EObject readElement(DataInputStream in, List<List<EObject>> elements) throws IOException {
+		int grammar = readInt(in);
+		if (grammar == 0)
+			return null;
+		return elements.get(grammar - 1).get(readInt(in));
+	}
+
+	/**
+	 * Writes a non-negative number in as few bytes as possible.
+	 */
+	private void writeInt(DataOutputStream out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private int readInt(DataInputStream in) throws IOException {
+		int result = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = in.readByte();
+			result |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return result;
+		}
+		throw new IOException("Malformed number");
+	}
+
+}
@@ -13,6 +13,7 @@ import java.util.Iterator;
 import java.util.List;
 
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.xtext.IGrammarAccess;
 import org.eclipse.xtext.formatting.IFormatter;
 import org.eclipse.xtext.formatting.IFormatterExtension;
@@ -39,6 +40,7 @@ import org.eclipse.xtext.serializer.sequencer.IHiddenTokenSequencer;
 import org.eclipse.xtext.serializer.sequencer.ISemanticSequencer;
 import org.eclipse.xtext.serializer.sequencer.ISyntacticSequencer;
 import org.eclipse.xtext.util.EmfFormatter;
+import org.eclipse.xtext.util.Metrics;
 import org.eclipse.xtext.util.ReplaceRegion;
 import org.eclipse.xtext.validation.IConcreteSyntaxValidator;
 
@@ -168,6 +170,7 @@ public class Serializer implements ISerializer {
 
 	@Override
 	public String serialize(EObject obj, SaveOptions options) {
+		Metrics.Timer timer = startTimer(obj);
 		try {
 			if (formatter2Provider != null) {
 				StringBuilder builder = new StringBuilder();
@@ -180,19 +183,31 @@ public class Serializer implements ISerializer {
 			}
 		} catch (IOException e) {
 			throw new RuntimeException(e);
+		} finally {
+			timer.stop();
 		}
 	}
 
 	@Override
 	public void serialize(EObject obj, Writer writer, SaveOptions options) throws IOException {
-		if (formatter2Provider != null) {
-			serialize(obj, (Appendable) writer, options);
-			writer.flush();
-		} else {
-			serialize(obj, new WriterTokenStream(writer), options);
+		Metrics.Timer timer = startTimer(obj);
+		try {
+			if (formatter2Provider != null) {
+				serialize(obj, (Appendable) writer, options);
+				writer.flush();
+			} else {
+				serialize(obj, new WriterTokenStream(writer), options);
+			}
+		} finally {
+			timer.stop();
 		}
 	}
 
+	private Metrics.Timer startTimer(EObject obj) {
+		Resource resource = obj.eResource();
+		return Metrics.start(Metrics.SERIALIZE, resource != null ? resource.getURI() : null);
+	}
+
 	@Override
 	public ReplaceRegion serializeReplacement(EObject obj, SaveOptions options) {
 		ICompositeNode node = NodeModelUtils.findActualNodeFor(obj);
@@ -7,6 +7,8 @@
  *******************************************************************************/
 package org.eclipse.xtext.service;
 
+import java.util.Map;
+
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.xtext.Constants;
 import org.eclipse.xtext.Grammar;
@@ -15,7 +17,13 @@ import org.eclipse.xtext.parser.BaseEPackageAccess;
 import org.eclipse.xtext.resource.ClasspathUriUtil;
 import org.eclipse.xtext.resource.FileNotFoundOnClasspathException;
 import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.serializer.analysis.GrammarElementDeclarationOrder;
+import org.eclipse.xtext.xtext.RuleNames;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Maps;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.Singleton;
@@ -27,6 +35,28 @@ import com.google.inject.name.Named;
 @Singleton
 public class GrammarProvider {
 
+	/**
+	 * Enables the sharing of the loaded grammar between all injectors of the language in the same class loader. The
+	 * grammar is then only loaded and linked once, which speeds up the creation of further injectors, e.g. in tests
+	 * and build tools that create many short-lived injectors. Clients must not modify the shared grammar. Disabled by
+	 * default.
+	 * 
+	 * @since 2.13
+	 */
+	public static final String SHARED_GRAMMAR = "org.eclipse.xtext.service.GrammarProvider.sharedGrammar";
+
+	/**
+	 * The shared grammars by language name. The values are softly referenced, since the grammars keep their class
+	 * loader alive.
+	 */
+	private static final LoadingCache<ClassLoader, Map<String, Grammar>> SHARED_GRAMMARS = CacheBuilder.newBuilder()
+			.weakKeys().softValues().build(new CacheLoader<ClassLoader, Map<String, Grammar>>() {
+				@Override
+				public Map<String, Grammar> load(ClassLoader key) {
+					return Maps.newHashMap();
+				}
+			});
+
 	private final String languageName;
 
 	private volatile Grammar grammar;
@@ -36,6 +66,10 @@ public class GrammarProvider {
 	@Inject(optional=true)
 	private ClassLoader classLoader;
 
+	@Inject(optional = true)
+	@Named(SHARED_GRAMMAR)
+	private boolean sharedGrammar = false;
+
 	@Inject
 	public GrammarProvider(@Named(Constants.LANGUAGE_NAME) String languageName, Provider<XtextResourceSet> resourceSetProvider) {
 		this.languageName = languageName;
@@ -49,31 +83,63 @@ public class GrammarProvider {
 			// DCL on a volatile is safe as of Java 5, which we obviously require.
 			synchronized(this) {
 				if (grammar == null) {
-					XtextResourceSet resourceSet = resourceSetProvider.get();
-					if (classLoader != null) {
-						resourceSet.setClasspathURIContext(classLoader);
-					} else {
-						final ClassLoader classLoaderToUse = requestor == null ? getClass().getClassLoader() : requestor.getClass().getClassLoader();
-						resourceSet.setClasspathURIContext(classLoaderToUse);
+					ClassLoader classLoaderToUse = classLoader;
+					if (classLoaderToUse == null) {
+						classLoaderToUse = requestor == null ? getClass().getClassLoader() : requestor.getClass().getClassLoader();
 					}
-					String fileWithoutExt = ClasspathUriUtil.CLASSPATH_SCHEME + ":/" + languageName.replace('.', '/');
-					try {
-						grammar = (Grammar) BaseEPackageAccess.loadGrammarFile(fileWithoutExt + ".xtextbin", resourceSet);
-						EcoreUtil.resolveAll(grammar.eResource());
-					} catch (RuntimeException e) {
-						Throwable cause = e;
-						while (cause.getCause() != null)
-							cause = cause.getCause();
-						if (cause instanceof FileNotFoundOnClasspathException) {
-							grammar = (Grammar) BaseEPackageAccess.loadGrammarFile(fileWithoutExt + ".xmi", resourceSet);
-						} else
-							throw e;
+					if (sharedGrammar) {
+						grammar = getSharedGrammar(classLoaderToUse);
+					} else {
+						grammar = loadGrammar(classLoaderToUse);
 					}
 				}
 			}
 		}
 		return grammar;
 	}
+
+	/**
+	 * Returns the grammar that was loaded by another injector with the same class loader or loads it.
+	 * 
+	 * @since 2.13
+	 */
+	protected Grammar getSharedGrammar(ClassLoader classLoader) {
+		Map<String, Grammar> grammars = SHARED_GRAMMARS.getUnchecked(classLoader);
+		synchronized (grammars) {
+			Grammar result = grammars.get(languageName);
+			if (result == null) {
+				result = loadGrammar(classLoader);
+				// the rule names and the declaration order are attached to the grammar, so they are computed before it
+				// is shared
+				RuleNames.ensureAdapterInstalled(result);
+				GrammarElementDeclarationOrder.get(result);
+				grammars.put(languageName, result);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * @since 2.13
+	 */
+	protected Grammar loadGrammar(ClassLoader classLoader) {
+		XtextResourceSet resourceSet = resourceSetProvider.get();
+		resourceSet.setClasspathURIContext(classLoader);
+		String fileWithoutExt = ClasspathUriUtil.CLASSPATH_SCHEME + ":/" + languageName.replace('.', '/');
+		try {
+			Grammar result = (Grammar) BaseEPackageAccess.loadGrammarFile(fileWithoutExt + ".xtextbin", resourceSet);
+			EcoreUtil.resolveAll(result.eResource());
+			return result;
+		} catch (RuntimeException e) {
+			Throwable cause = e;
+			while (cause.getCause() != null)
+				cause = cause.getCause();
+			if (cause instanceof FileNotFoundOnClasspathException) {
+				return (Grammar) BaseEPackageAccess.loadGrammarFile(fileWithoutExt + ".xmi", resourceSet);
+			} else
+				throw e;
+		}
+	}
 	
 	/**
 	 * Public for testing purpose.
@@ -84,4 +150,18 @@ public class GrammarProvider {
 	public void setClassLoader(ClassLoader classLoader) {
 		this.classLoader = classLoader;
 	}
+
+	/**
+	 * @since 2.13
+	 */
+	public void setSharedGrammar(boolean sharedGrammar) {
+		this.sharedGrammar = sharedGrammar;
+	}
+
+	/**
+	 * @since 2.13
+	 */
+	public boolean isSharedGrammar() {
+		return sharedGrammar;
+	}
 }
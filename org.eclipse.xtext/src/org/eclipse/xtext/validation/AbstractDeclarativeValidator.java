@@ -7,14 +7,20 @@
  *******************************************************************************/
 package org.eclipse.xtext.validation;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.log4j.Logger;
 import org.eclipse.emf.common.util.Diagnostic;
@@ -25,9 +31,7 @@ import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.xtext.diagnostics.Severity;
 import org.eclipse.xtext.util.Exceptions;
-import org.eclipse.xtext.util.SimpleCache;
 
-import com.google.common.base.Function;
 import com.google.common.collect.Sets;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
@@ -85,11 +89,32 @@ public abstract class AbstractDeclarativeValidator extends AbstractInjectableVal
 		private final Method method;
 		private final String s;
 		private final AbstractDeclarativeValidator instance;
+		private final CheckType checkType;
+		/**
+		 * The method bound to the instance with the type <code>(EObject)void</code>, or <code>null</code> if the
+		 * method has to be invoked reflectively.
+		 */
+		private final MethodHandle handle;
 
 		protected MethodWrapper(AbstractDeclarativeValidator instance, Method m) {
 			this.instance = instance;
 			this.method = m;
 			this.s = m.getName() + ":" + m.getParameterTypes()[0].getName();
+			this.checkType = m.getAnnotation(Check.class).value();
+			this.handle = createHandle(instance, m);
+		}
+
+		private static MethodHandle createHandle(AbstractDeclarativeValidator instance, Method method) {
+			try {
+				method.setAccessible(true);
+				MethodHandle result = MethodHandles.lookup().unreflect(method);
+				if (!Modifier.isStatic(method.getModifiers()))
+					result = result.bindTo(instance);
+				return result.asType(MethodType.methodType(void.class, EObject.class));
+			} catch (Exception e) {
+				log.debug("Falling back to reflection for " + method, e);
+				return null;
+			}
 		}
 
 		@Override
@@ -102,18 +127,26 @@ public abstract class AbstractDeclarativeValidator extends AbstractInjectableVal
 		}
 
 		public void invoke(State state) {
-			if (instance.state.get() != null && instance.state.get() != state)
+			State currentState = instance.state.get();
+			if (currentState != null && currentState != state)
 				throw new IllegalStateException("State is already assigned.");
-			boolean wasNull = instance.state.get() == null;
+			boolean wasNull = currentState == null;
 			if (wasNull)
 				instance.state.set(state);
 			try {
-				Check annotation = method.getAnnotation(Check.class);
-				if (!state.checkMode.shouldCheck(annotation.value()))
+				if (!state.checkMode.shouldCheck(checkType))
+					return;
+				state.currentMethod = method;
+				state.currentCheckType = checkType;
+				if (handle != null) {
+					try {
+						handle.invokeExact(state.currentObject);
+					} catch (Throwable t) {
+						handleInvocationTargetException(t, state);
+					}
 					return;
+				}
 				try {
-					state.currentMethod = method;
-					state.currentCheckType = annotation.value();
 					method.setAccessible(true);
 					method.invoke(instance, state.currentObject);
 				} catch (IllegalArgumentException e) {
@@ -243,18 +276,25 @@ public abstract class AbstractDeclarativeValidator extends AbstractInjectableVal
 		return instanceToUse;
 	}
 
-	private final SimpleCache<Class<?>, List<MethodWrapper>> methodsForType = new SimpleCache<Class<?>, List<MethodWrapper>>(
-			new Function<Class<?>, List<MethodWrapper>>() {
-				@Override
-				public List<MethodWrapper> apply(Class<?> param) {
-					List<MethodWrapper> result = new ArrayList<MethodWrapper>();
-					for (MethodWrapper mw : checkMethods) {
-						if (mw.isMatching(param))
-							result.add(mw);
-					}
-					return result;
-				}
-			});
+	/**
+	 * The check methods per type of validated object. Read without locking, a type's methods may be computed more
+	 * than once by concurrent threads.
+	 */
+	private final ConcurrentMap<Class<?>, MethodWrapper[]> methodsForType = new ConcurrentHashMap<Class<?>, MethodWrapper[]>();
+
+	private MethodWrapper[] getMethodsForType(Class<?> type) {
+		MethodWrapper[] result = methodsForType.get(type);
+		if (result == null) {
+			List<MethodWrapper> matching = new ArrayList<MethodWrapper>();
+			for (MethodWrapper mw : checkMethods) {
+				if (mw.isMatching(type))
+					matching.add(mw);
+			}
+			result = matching.toArray(new MethodWrapper[matching.size()]);
+			methodsForType.putIfAbsent(type, result);
+		}
+		return result;
+	}
 
 	public static class State {
 		public DiagnosticChain chain = null;
@@ -268,6 +308,16 @@ public abstract class AbstractDeclarativeValidator extends AbstractInjectableVal
 
 	private final ThreadLocal<State> state;
 
+	/**
+	 * The state that a thread reuses for all objects it validates. It is only handed out while it is not assigned.
+	 */
+	private final ThreadLocal<State> reusableState = new ThreadLocal<State>() {
+		@Override
+		protected State initialValue() {
+			return new State();
+		}
+	};
+
 	protected EObject getCurrentObject() {
 		return state.get().currentObject;
 	}
@@ -300,19 +350,36 @@ public abstract class AbstractDeclarativeValidator extends AbstractInjectableVal
 				}
 			}
 		}
+		MethodWrapper[] methods = getMethodsForType(object.getClass());
+		if (methods.length == 0)
+			return true;
 		CheckMode checkMode = CheckMode.getCheckMode(context);
 
-		State state = new State();
+		State assignedState = this.state.get();
+		State state = assignedState == null ? reusableState.get() : new State();
 		state.chain = diagnostics;
 		state.currentObject = object;
 		state.checkMode = checkMode;
 		state.context = context;
-
-		for (MethodWrapper method : methodsForType.get(object.getClass())) {
-			method.invoke(state);
+		state.currentMethod = null;
+		state.currentCheckType = null;
+		state.hasErrors = false;
+		if (assignedState == null)
+			this.state.set(state);
+		try {
+			for (MethodWrapper method : methods) {
+				method.invoke(state);
+			}
+			return !state.hasErrors;
+		} finally {
+			if (assignedState == null) {
+				this.state.set(null);
+				state.chain = null;
+				state.currentObject = null;
+				state.context = null;
+				state.currentMethod = null;
+			}
 		}
-
-		return !state.hasErrors;
 	}
 
 	////////////////////////////
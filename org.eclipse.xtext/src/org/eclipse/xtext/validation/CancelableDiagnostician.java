@@ -7,14 +7,22 @@
  *******************************************************************************/
 package org.eclipse.xtext.validation;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
 
+import org.eclipse.emf.common.util.BasicDiagnostic;
 import org.eclipse.emf.common.util.DiagnosticChain;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EValidator;
 import org.eclipse.emf.ecore.util.Diagnostician;
 import org.eclipse.xtext.service.OperationCanceledManager;
 import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.util.Exceptions;
+
+import com.google.common.collect.Maps;
 
 import com.google.inject.Inject;
 
@@ -24,6 +32,20 @@ import com.google.inject.Inject;
 public class CancelableDiagnostician extends Diagnostician {
 	
 	public static final String CANCEL_INDICATOR = CancelableDiagnostician.class + ".CANCEL_INDICATOR";
+
+	/**
+	 * A context option with a {@link ForkJoinPool}. If present, the subtrees of the contents of a root object are
+	 * validated in parallel on the pool. Each worker gets a copy of the context. The diagnostics are reported in the
+	 * order of the contents. The validators have to be thread-safe.
+	 * 
+	 * @since 2.13
+	 */
+	public static final String FORK_JOIN_POOL = CancelableDiagnostician.class + ".FORK_JOIN_POOL";
+
+	/**
+	 * The number of tasks per worker of the pool that the contents are split into.
+	 */
+	private static final int TASKS_PER_WORKER = 4;
 	
 	@Inject
 	private OperationCanceledManager operationCanceledManager;
@@ -67,7 +89,101 @@ public class CancelableDiagnostician extends Diagnostician {
 	@Override
 	protected boolean doValidateContents(EObject eObject, DiagnosticChain diagnostics, Map<Object, Object> context) {
 		checkCanceled(context);
+		ForkJoinPool pool = context != null ? (ForkJoinPool) context.get(FORK_JOIN_POOL) : null;
+		if (pool != null && diagnostics != null && eObject.eContainer() == null) {
+			List<EObject> contents = eObject.eContents();
+			if (contents.size() > 1) {
+				return doValidateContentsInParallel(pool, contents, diagnostics, context);
+			}
+		}
 		return super.doValidateContents(eObject, diagnostics, context);
 	}
 
+	/**
+	 * Validates the given subtrees on the pool and adds their diagnostics to the chain in the order of the subtrees.
+	 * If a worker fails or the validation is canceled, all workers stop and the first exception is rethrown.
+	 * 
+	 * @since 2.13
+	 */
+	protected boolean doValidateContentsInParallel(ForkJoinPool pool, List<EObject> contents,
+			DiagnosticChain diagnostics, Map<Object, Object> context) {
+		final CancelIndicator cancelIndicator = getCancelIndicator(context);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		CancelIndicator workerCancelIndicator = new CancelIndicator() {
+			@Override
+			public boolean isCanceled() {
+				return failure.get() != null || cancelIndicator != null && cancelIndicator.isCanceled();
+			}
+		};
+		BasicDiagnostic[] chains = new BasicDiagnostic[contents.size()];
+		boolean[] results = new boolean[contents.size()];
+		int maxTaskSize = Math.max(1, contents.size() / (pool.getParallelism() * TASKS_PER_WORKER));
+		pool.invoke(new ValidateSubtrees(contents, 0, contents.size(), maxTaskSize, chains, results, context,
+				workerCancelIndicator, failure));
+		if (failure.get() != null) {
+			Exceptions.throwUncheckedException(failure.get());
+		}
+		checkCanceled(context);
+		boolean result = true;
+		for (int i = 0; i < chains.length; i++) {
+			diagnostics.addAll(chains[i]);
+			result &= results[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Validates a range of subtrees, or splits it if it is larger than the maximum task size.
+	 */
+	private class ValidateSubtrees extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<EObject> contents;
+		private final int from;
+		private final int to;
+		private final int maxTaskSize;
+		private final BasicDiagnostic[] chains;
+		private final boolean[] results;
+		private final Map<Object, Object> context;
+		private final CancelIndicator cancelIndicator;
+		private final AtomicReference<Throwable> failure;
+
+		private ValidateSubtrees(List<EObject> contents, int from, int to, int maxTaskSize, BasicDiagnostic[] chains,
+				boolean[] results, Map<Object, Object> context, CancelIndicator cancelIndicator,
+				AtomicReference<Throwable> failure) {
+			this.contents = contents;
+			this.from = from;
+			this.to = to;
+			this.maxTaskSize = maxTaskSize;
+			this.chains = chains;
+			this.results = results;
+			this.context = context;
+			this.cancelIndicator = cancelIndicator;
+			this.failure = failure;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > maxTaskSize) {
+				int middle = (from + to) >>> 1;
+				invokeAll(
+						new ValidateSubtrees(contents, from, middle, maxTaskSize, chains, results, context, cancelIndicator, failure),
+						new ValidateSubtrees(contents, middle, to, maxTaskSize, chains, results, context, cancelIndicator, failure));
+				return;
+			}
+			Map<Object, Object> workerContext = Maps.newHashMap(context);
+			workerContext.remove(FORK_JOIN_POOL);
+			workerContext.put(CANCEL_INDICATOR, cancelIndicator);
+			for (int i = from; i < to && failure.get() == null; i++) {
+				try {
+					chains[i] = new BasicDiagnostic();
+					results[i] = validate(contents.get(i), chains[i], workerContext);
+				} catch (Throwable t) {
+					failure.compareAndSet(null, t);
+				}
+			}
+		}
+	}
+
 }
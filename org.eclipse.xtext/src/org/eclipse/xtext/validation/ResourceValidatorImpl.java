@@ -10,6 +10,7 @@ package org.eclipse.xtext.validation;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.log4j.Logger;
 import org.eclipse.emf.common.util.Diagnostic;
@@ -24,13 +25,13 @@ import org.eclipse.xtext.service.OperationCanceledError;
 import org.eclipse.xtext.service.OperationCanceledManager;
 import org.eclipse.xtext.util.CancelIndicator;
 import org.eclipse.xtext.util.IAcceptor;
-import org.eclipse.xtext.util.internal.Stopwatches;
-import org.eclipse.xtext.util.internal.Stopwatches.StoppedTask;
+import org.eclipse.xtext.util.Metrics;
 import org.eclipse.xtext.validation.impl.ConcreteSyntaxEValidator;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.inject.Inject;
+import com.google.inject.name.Named;
 
 /**
  * @author Dennis Hbner - Initial contribution and API
@@ -56,6 +57,14 @@ public class ResourceValidatorImpl implements IResourceValidator {
 
 	private static final Logger log = Logger.getLogger(ResourceValidatorImpl.class);
 
+	/**
+	 * The name of an optional boolean binding that enables parallel validation of the subtrees of a resource's root
+	 * objects, see {@link CancelableDiagnostician#FORK_JOIN_POOL}.
+	 * 
+	 * @since 2.13
+	 */
+	public static final String PARALLEL_VALIDATION = "org.eclipse.xtext.validation.ResourceValidatorImpl.parallelValidation";
+
 	@Inject
 	private Diagnostician diagnostician;
 
@@ -64,12 +73,15 @@ public class ResourceValidatorImpl implements IResourceValidator {
 	
 	@Inject
 	private OperationCanceledManager operationCanceledManager;
+
+	@Inject(optional = true)
+	@Named(PARALLEL_VALIDATION)
+	private boolean parallelValidation = false;
 	
 	@Override
 	public List<Issue> validate(Resource resource, final CheckMode mode, CancelIndicator mon) throws OperationCanceledError {
-		StoppedTask task = Stopwatches.forTask("ResourceValidatorImpl.validation");
+		Metrics.Timer timer = Metrics.start(Metrics.VALIDATE, resource.getURI());
 		try {
-			task.start();
 			final CancelIndicator monitor = mon == null ? CancelIndicator.NullImpl : mon;
 			resolveProxies(resource, monitor);
 			operationCanceledManager.checkCanceled(monitor);
@@ -95,7 +107,7 @@ public class ResourceValidatorImpl implements IResourceValidator {
 			}
 			return result;
 		} finally {
-			task.stop();
+			timer.stop();
 		}
 	}
 
@@ -139,6 +151,9 @@ public class ResourceValidatorImpl implements IResourceValidator {
 			options.put(ConcreteSyntaxEValidator.DISABLE_CONCRETE_SYNTAX_EVALIDATOR, Boolean.TRUE);
 			// see EObjectValidator.getRootEValidator(Map<Object, Object>)
 			options.put(EValidator.class, diagnostician);
+			if (isParallelValidation()) {
+				options.put(CancelableDiagnostician.FORK_JOIN_POOL, getForkJoinPool());
+			}
 			if (resource instanceof XtextResource) {
 				options.put(AbstractInjectableValidator.CURRENT_LANGUAGE_NAME,
 						((XtextResource) resource).getLanguageName());
@@ -203,4 +218,28 @@ public class ResourceValidatorImpl implements IResourceValidator {
 		return operationCanceledManager;
 	}
 
+	/**
+	 * @since 2.13
+	 */
+	public void setParallelValidation(boolean parallelValidation) {
+		this.parallelValidation = parallelValidation;
+	}
+
+	/**
+	 * @since 2.13
+	 */
+	public boolean isParallelValidation() {
+		return parallelValidation;
+	}
+
+	/**
+	 * The pool that validates the subtrees of root objects if {@link #isParallelValidation() parallel validation} is
+	 * enabled.
+	 * 
+	 * @since 2.13
+	 */
+	protected ForkJoinPool getForkJoinPool() {
+		return ForkJoinPool.commonPool();
+	}
+
 }
@@ -7,6 +7,7 @@
  */
 package org.eclipse.xtext.build;
 
+import java.util.concurrent.ExecutorService;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.xtend.lib.annotations.Accessors;
@@ -16,9 +17,12 @@ import org.eclipse.xtext.build.IndexState;
 import org.eclipse.xtext.resource.IResourceServiceProvider;
 import org.eclipse.xtext.resource.XtextResourceSet;
 import org.eclipse.xtext.resource.clustering.IResourceClusteringPolicy;
+import org.eclipse.xtext.resource.clustering.LRUResourceEvictionPolicy;
 import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.xbase.lib.Functions.Function0;
 import org.eclipse.xtext.xbase.lib.Functions.Function1;
 import org.eclipse.xtext.xbase.lib.IterableExtensions;
+import org.eclipse.xtext.xbase.lib.Procedures.Procedure1;
 import org.eclipse.xtext.xbase.lib.Pure;
 
 /**
@@ -42,8 +46,36 @@ public class BuildContext {
   @Accessors
   private final CancelIndicator cancelIndicator;
   
+  /**
+   * @since 2.13
+   */
+  @Accessors
+  private ExecutorService executorService;
+  
+  /**
+   * @since 2.13
+   */
+  @Accessors
+  private Function0<? extends XtextResourceSet> workerResourceSetProvider;
+  
+  /**
+   * If set, only the least recently used resources are evicted when a cluster is complete, instead of clearing the
+   * resource set.
+   * @since 2.13
+   */
+  @Accessors
+  private LRUResourceEvictionPolicy resourceEvictionPolicy;
+  
   private ClusteringStorageAwareResourceLoader loader;
   
+  /**
+   * Whether independent resources are processed in parallel, each worker using its own resource set.
+   * @since 2.13
+   */
+  public boolean isParallel() {
+    return ((this.executorService != null) && (this.workerResourceSetProvider != null));
+  }
+  
   public <T extends Object> Iterable<T> executeClustered(final Iterable<URI> uri, final Function1<? super Resource, ? extends T> operation) {
     if ((this.loader == null)) {
       ClusteringStorageAwareResourceLoader _clusteringStorageAwareResourceLoader = new ClusteringStorageAwareResourceLoader(this);
@@ -55,6 +87,23 @@ public class BuildContext {
     return this.loader.<T>executeClustered(IterableExtensions.<URI>filter(uri, _function), operation);
   }
   
+  /**
+   * Like {@link #executeClustered(Iterable, org.eclipse.xtext.xbase.lib.Functions.Function1) executeClustered(uri, operation)},
+   * but in a {@link #isParallel() parallel} context the resource set of each worker is passed to the given
+   * initializer before any resource is loaded into it.
+   * @since 2.13
+   */
+  public <T extends Object> Iterable<T> executeClustered(final Iterable<URI> uri, final Procedure1<? super XtextResourceSet> workerResourceSetInitializer, final Function1<? super Resource, ? extends T> operation) {
+    if ((this.loader == null)) {
+      ClusteringStorageAwareResourceLoader _clusteringStorageAwareResourceLoader = new ClusteringStorageAwareResourceLoader(this);
+      this.loader = _clusteringStorageAwareResourceLoader;
+    }
+    final Function1<URI, Boolean> _function = (URI it) -> {
+      return Boolean.valueOf(this.canHandle(it));
+    };
+    return this.loader.<T>executeClustered(IterableExtensions.<URI>filter(uri, _function), workerResourceSetInitializer, operation);
+  }
+  
   protected boolean canHandle(final URI uri) {
     final IResourceServiceProvider resourceServiceProvider = this.resourceServiceProviderProvider.apply(uri);
     if ((resourceServiceProvider == null)) {
@@ -96,4 +145,31 @@ public class BuildContext {
   public CancelIndicator getCancelIndicator() {
     return this.cancelIndicator;
   }
+  
+  @Pure
+  public ExecutorService getExecutorService() {
+    return this.executorService;
+  }
+  
+  public void setExecutorService(final ExecutorService executorService) {
+    this.executorService = executorService;
+  }
+  
+  @Pure
+  public Function0<? extends XtextResourceSet> getWorkerResourceSetProvider() {
+    return this.workerResourceSetProvider;
+  }
+  
+  public void setWorkerResourceSetProvider(final Function0<? extends XtextResourceSet> workerResourceSetProvider) {
+    this.workerResourceSetProvider = workerResourceSetProvider;
+  }
+  
+  @Pure
+  public LRUResourceEvictionPolicy getResourceEvictionPolicy() {
+    return this.resourceEvictionPolicy;
+  }
+  
+  public void setResourceEvictionPolicy(final LRUResourceEvictionPolicy resourceEvictionPolicy) {
+    this.resourceEvictionPolicy = resourceEvictionPolicy;
+  }
 }
@@ -9,6 +9,7 @@ package org.eclipse.xtext.build;
 
 import java.io.File;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import org.apache.log4j.Logger;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.xtend.lib.annotations.Accessors;
@@ -21,6 +22,7 @@ import org.eclipse.xtext.util.UriUtil;
 import org.eclipse.xtext.util.internal.Log;
 import org.eclipse.xtext.validation.Issue;
 import org.eclipse.xtext.xbase.lib.CollectionLiterals;
+import org.eclipse.xtext.xbase.lib.Functions.Function0;
 import org.eclipse.xtext.xbase.lib.Procedures.Procedure1;
 import org.eclipse.xtext.xbase.lib.Procedures.Procedure2;
 import org.eclipse.xtext.xbase.lib.Pure;
@@ -110,6 +112,48 @@ public class BuildRequest {
   
   private CancelIndicator cancelIndicator = CancelIndicator.NullImpl;
   
+  /**
+   * If set together with a {@link #getWorkerResourceSetProvider() worker resource set provider}, independent
+   * resources are loaded, indexed, validated and generated in parallel on this executor.
+   * @since 2.13
+   */
+  private ExecutorService executorService;
+  
+  /**
+   * Creates the resource sets of the workers in a {@link #isParallel() parallel build}. They have to be configured
+   * like the {@link #getResourceSet() resource set} of this request, e.g. they have to use the same index.
+   * @since 2.13
+   */
+  private Function0<? extends XtextResourceSet> workerResourceSetProvider;
+  
+  /**
+   * If set and {@link org.eclipse.xtext.util.Metrics metrics} are enabled, the recorded metrics are written to this
+   * file as JSON after the build.
+   * @since 2.13
+   */
+  private URI metricsFile;
+  
+  /**
+   * If set, generated files are written by a background thread while the next resources are generated. The
+   * {@link #getAfterGenerateFile() callback} may be called before a file is written, but all files have been written
+   * when the build returns.
+   * @since 2.13
+   */
+  private boolean writeBehind = false;
+  
+  /**
+   * If set, the written generated files are synced to the disk in one batch at the end of the build.
+   * @since 2.13
+   */
+  private boolean syncGeneratedFiles = false;
+  
+  /**
+   * @since 2.13
+   */
+  public boolean isParallel() {
+    return ((this.executorService != null) && (this.workerResourceSetProvider != null));
+  }
+  
   public void setBaseDir(final URI baseDir) {
     this.baseDir = baseDir;
   }
@@ -212,4 +256,49 @@ public class BuildRequest {
   public void setCancelIndicator(final CancelIndicator cancelIndicator) {
     this.cancelIndicator = cancelIndicator;
   }
+  
+  @Pure
+  public ExecutorService getExecutorService() {
+    return this.executorService;
+  }
+  
+  public void setExecutorService(final ExecutorService executorService) {
+    this.executorService = executorService;
+  }
+  
+  @Pure
+  public Function0<? extends XtextResourceSet> getWorkerResourceSetProvider() {
+    return this.workerResourceSetProvider;
+  }
+  
+  public void setWorkerResourceSetProvider(final Function0<? extends XtextResourceSet> workerResourceSetProvider) {
+    this.workerResourceSetProvider = workerResourceSetProvider;
+  }
+  
+  @Pure
+  public URI getMetricsFile() {
+    return this.metricsFile;
+  }
+  
+  public void setMetricsFile(final URI metricsFile) {
+    this.metricsFile = metricsFile;
+  }
+  
+  @Pure
+  public boolean isWriteBehind() {
+    return this.writeBehind;
+  }
+  
+  public void setWriteBehind(final boolean writeBehind) {
+    this.writeBehind = writeBehind;
+  }
+  
+  @Pure
+  public boolean isSyncGeneratedFiles() {
+    return this.syncGeneratedFiles;
+  }
+  
+  public void setSyncGeneratedFiles(final boolean syncGeneratedFiles) {
+    this.syncGeneratedFiles = syncGeneratedFiles;
+  }
 }
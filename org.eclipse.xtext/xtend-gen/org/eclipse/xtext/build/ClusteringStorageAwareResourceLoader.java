@@ -8,21 +8,35 @@
 package org.eclipse.xtext.build;
 
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.xtend.lib.annotations.FinalFieldsConstructor;
 import org.eclipse.xtext.build.BuildContext;
 import org.eclipse.xtext.resource.IResourceServiceProvider;
 import org.eclipse.xtext.resource.IResourceServiceProviderExtension;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.resource.clustering.LRUResourceEvictionPolicy;
 import org.eclipse.xtext.resource.persistence.SourceLevelURIsAdapter;
 import org.eclipse.xtext.resource.persistence.StorageAwareResource;
+import org.eclipse.xtext.util.Metrics;
 import org.eclipse.xtext.xbase.lib.CollectionLiterals;
+import org.eclipse.xtext.xbase.lib.Exceptions;
+import org.eclipse.xtext.xbase.lib.ExclusiveRange;
 import org.eclipse.xtext.xbase.lib.Extension;
 import org.eclipse.xtext.xbase.lib.Functions.Function1;
+import org.eclipse.xtext.xbase.lib.IterableExtensions;
 import org.eclipse.xtext.xbase.lib.ListExtensions;
+import org.eclipse.xtext.xbase.lib.Procedures.Procedure1;
 
 /**
  * @author Jan Koehnlein - Initial contribution and API
@@ -30,12 +44,24 @@ import org.eclipse.xtext.xbase.lib.ListExtensions;
 @FinalFieldsConstructor
 @SuppressWarnings("all")
 public class ClusteringStorageAwareResourceLoader {
+  /**
+   * The number of chunks per worker in a parallel build. More chunks balance the load better, fewer chunks share
+   * more of the loaded dependencies in the resource set of a worker.
+   */
+  private static final int CHUNKS_PER_WORKER = 4;
+  
   @Extension
   private final BuildContext context;
   
   public <T extends Object> Iterable<T> executeClustered(final Iterable<URI> uris, final Function1<? super Resource, ? extends T> operation) {
     ArrayList<T> _xblockexpression = null;
     {
+      boolean _isParallel = this.context.isParallel();
+      if (_isParallel) {
+        final Procedure1<XtextResourceSet> _function = (XtextResourceSet it) -> {
+        };
+        return this.<T>executeClustered(uris, _function, operation);
+      }
       final ArrayList<URI> loadedURIs = CollectionLiterals.<URI>newArrayList();
       final ArrayList<URI> sourceLevelURIs = CollectionLiterals.<URI>newArrayList();
       final ArrayList<Resource> resources = CollectionLiterals.<Resource>newArrayList();
@@ -44,16 +70,21 @@ public class ClusteringStorageAwareResourceLoader {
       while (iter.hasNext()) {
         {
           final URI uri = iter.next();
-          boolean _continueProcessing = this.context.getClusteringPolicy().continueProcessing(this.context.getResourceSet(), uri, loadedURIs.size());
-          boolean _not = (!_continueProcessing);
-          if (_not) {
-            final Function1<Resource, T> _function = (Resource it) -> {
+          if (((!this.context.getClusteringPolicy().continueProcessing(this.context.getResourceSet(), uri, loadedURIs.size())) || this.isBudgetExceeded(this.context.getResourceSet()))) {
+            final Function1<Resource, T> _function_1 = (Resource it) -> {
               return operation.apply(it);
             };
-            List<T> _map = ListExtensions.<Resource, T>map(resources, _function);
+            List<T> _map = ListExtensions.<Resource, T>map(resources, _function_1);
             Iterables.<T>addAll(result, _map);
             resources.clear();
-            this.clearResourceSet();
+            LRUResourceEvictionPolicy _resourceEvictionPolicy = this.context.getResourceEvictionPolicy();
+            boolean _tripleNotEquals = (_resourceEvictionPolicy != null);
+            if (_tripleNotEquals) {
+              this.context.getResourceEvictionPolicy().evict(this.context.getResourceSet());
+            } else {
+              this.clearResourceSet();
+            }
+            Metrics.record(Metrics.CLUSTER_SIZE, null, loadedURIs.size(), null);
             loadedURIs.clear();
           }
           loadedURIs.add(uri);
@@ -69,20 +100,195 @@ public class ClusteringStorageAwareResourceLoader {
             }
             SourceLevelURIsAdapter.setSourceLevelUris(this.context.getResourceSet(), sourceLevelURIs);
           }
-          Resource _resource = this.context.getResourceSet().getResource(uri, true);
-          resources.add(_resource);
+          Resource _loadResource = this.loadResource(this.context.getResourceSet(), uri);
+          resources.add(_loadResource);
         }
       }
-      final Function1<Resource, T> _function = (Resource it) -> {
+      final Function1<Resource, T> _function_2 = (Resource it) -> {
         return operation.apply(it);
       };
-      List<T> _map = ListExtensions.<Resource, T>map(resources, _function);
-      Iterables.<T>addAll(result, _map);
+      List<T> _map_1 = ListExtensions.<Resource, T>map(resources, _function_2);
+      Iterables.<T>addAll(result, _map_1);
       _xblockexpression = result;
     }
     return _xblockexpression;
   }
   
+  /**
+   * @since 2.13
+   */
+  public <T extends Object> Iterable<T> executeClustered(final Iterable<URI> uris, final Procedure1<? super XtextResourceSet> workerResourceSetInitializer, final Function1<? super Resource, ? extends T> operation) {
+    boolean _isParallel = this.context.isParallel();
+    boolean _not = (!_isParallel);
+    if (_not) {
+      return this.<T>executeClustered(uris, operation);
+    }
+    return this.<T>executeClusteredInParallel(IterableExtensions.<URI>toList(uris), workerResourceSetInitializer, operation);
+  }
+  
+  /**
+   * Splits the URIs into chunks that are processed by workers on the {@link BuildContext#getExecutorService()
+   * executor service}. Each worker loads the resources into its own resource set and applies the clustering policy
+   * to it, so memory is bounded per worker. The results are returned in the order of the given URIs.
+   * 
+   * @since 2.13
+   */
+  protected <T extends Object> List<T> executeClusteredInParallel(final List<URI> uris, final Procedure1<? super XtextResourceSet> workerResourceSetInitializer, final Function1<? super Resource, ? extends T> operation) {
+    try {
+      final Function1<URI, Boolean> _function = (URI it) -> {
+        return Boolean.valueOf(this.isSource(it));
+      };
+      final List<URI> sourceLevelURIs = IterableExtensions.<URI>toList(IterableExtensions.<URI>filter(uris, _function));
+      int _size = uris.size();
+      int _parallelism = this.getParallelism();
+      int _multiply = (_parallelism * ClusteringStorageAwareResourceLoader.CHUNKS_PER_WORKER);
+      int _divide = (_size / _multiply);
+      final List<List<URI>> chunks = Lists.<URI>partition(uris, Math.max(1, _divide));
+      final List<T>[] results = new List[chunks.size()];
+      final AtomicInteger nextChunk = new AtomicInteger();
+      final ArrayList<Future<?>> workers = CollectionLiterals.<Future<?>>newArrayList();
+      int _min = Math.min(this.getParallelism(), chunks.size());
+      ExclusiveRange _doubleDotLessThan = new ExclusiveRange(0, _min, true);
+      for (final Integer i : _doubleDotLessThan) {
+        {
+          final Runnable _function_1 = () -> {
+            final XtextResourceSet workerResourceSet = this.context.getWorkerResourceSetProvider().apply();
+            workerResourceSetInitializer.apply(workerResourceSet);
+            SourceLevelURIsAdapter.setSourceLevelUris(workerResourceSet, sourceLevelURIs);
+            final ArrayList<URI> loadedURIs = CollectionLiterals.<URI>newArrayList();
+            int index = nextChunk.getAndIncrement();
+            while ((index < chunks.size())) {
+              {
+                results[index] = this.<T>executeClustered(workerResourceSet, chunks.get(index), loadedURIs, operation);
+                index = nextChunk.getAndIncrement();
+              }
+            }
+          };
+          final Runnable worker = _function_1;
+          Future<?> _submit = this.context.getExecutorService().submit(worker);
+          workers.add(_submit);
+        }
+      }
+      Throwable failure = null;
+      try {
+        for (final Future<?> worker : workers) {
+          try {
+            worker.get();
+          } catch (final Throwable _t) {
+            if (_t instanceof ExecutionException) {
+              final ExecutionException e = (ExecutionException)_t;
+              if ((failure == null)) {
+                failure = e.getCause();
+                nextChunk.set(chunks.size());
+              }
+            } else {
+              throw Exceptions.sneakyThrow(_t);
+            }
+          }
+        }
+      } catch (final Throwable _t_1) {
+        if (_t_1 instanceof InterruptedException) {
+          nextChunk.set(chunks.size());
+          final Consumer<Future<?>> _function_2 = (Future<?> it) -> {
+            it.cancel(true);
+          };
+          workers.forEach(_function_2);
+          Thread.currentThread().interrupt();
+          throw new OperationCanceledException();
+        } else {
+          throw Exceptions.sneakyThrow(_t_1);
+        }
+      }
+      if ((failure != null)) {
+        throw Exceptions.sneakyThrow(failure);
+      }
+      final ArrayList<T> result = CollectionLiterals.<T>newArrayList();
+      for (final List<T> chunkResult : results) {
+        Iterables.<T>addAll(result, chunkResult);
+      }
+      return result;
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  /**
+   * Applies the operation to the resources of one chunk in a parallel build. The resource set is cleared whenever
+   * the clustering policy asks for it, <code>loadedURIs</code> tracks the URIs that were loaded since then. With a
+   * {@link BuildContext#getResourceEvictionPolicy() resource eviction policy} only the least recently used resources
+   * are evicted instead.
+   * 
+   * @since 2.13
+   */
+  protected <T extends Object> List<T> executeClustered(final XtextResourceSet resourceSet, final List<URI> uris, final List<URI> loadedURIs, final Function1<? super Resource, ? extends T> operation) {
+    final ArrayList<Resource> resources = CollectionLiterals.<Resource>newArrayList();
+    final ArrayList<T> result = CollectionLiterals.<T>newArrayList();
+    for (final URI uri : uris) {
+      {
+        if (((!this.context.getClusteringPolicy().continueProcessing(resourceSet, uri, loadedURIs.size())) || this.isBudgetExceeded(resourceSet))) {
+          final Function1<Resource, T> _function = (Resource it) -> {
+            return operation.apply(it);
+          };
+          List<T> _map = ListExtensions.<Resource, T>map(resources, _function);
+          Iterables.<T>addAll(result, _map);
+          resources.clear();
+          LRUResourceEvictionPolicy _resourceEvictionPolicy = this.context.getResourceEvictionPolicy();
+          boolean _tripleNotEquals = (_resourceEvictionPolicy != null);
+          if (_tripleNotEquals) {
+            this.context.getResourceEvictionPolicy().evict(resourceSet);
+          } else {
+            this.clearResourceSet(resourceSet);
+          }
+          Metrics.record(Metrics.CLUSTER_SIZE, null, loadedURIs.size(), null);
+          loadedURIs.clear();
+        }
+        loadedURIs.add(uri);
+        Resource _loadResource = this.loadResource(resourceSet, uri);
+        resources.add(_loadResource);
+      }
+    }
+    final Function1<Resource, T> _function = (Resource it) -> {
+      return operation.apply(it);
+    };
+    List<T> _map = ListExtensions.<Resource, T>map(resources, _function);
+    Iterables.<T>addAll(result, _map);
+    return result;
+  }
+  
+  /**
+   * The number of workers in a parallel build.
+   * 
+   * @since 2.13
+   */
+  protected int getParallelism() {
+    return Runtime.getRuntime().availableProcessors();
+  }
+  
+  /**
+   * Whether the loaded resources exceed the budget of the {@link BuildContext#getResourceEvictionPolicy() resource
+   * eviction policy}, if there is one.
+   * 
+   * @since 2.13
+   */
+  protected boolean isBudgetExceeded(final ResourceSet resourceSet) {
+    return ((this.context.getResourceEvictionPolicy() != null) && this.context.getResourceEvictionPolicy().isExceeded(resourceSet));
+  }
+  
+  /**
+   * Loads the resource, through the {@link BuildContext#getResourceEvictionPolicy() resource eviction policy} if
+   * there is one, so it is marked as recently used.
+   * 
+   * @since 2.13
+   */
+  protected Resource loadResource(final ResourceSet resourceSet, final URI uri) {
+    LRUResourceEvictionPolicy _resourceEvictionPolicy = this.context.getResourceEvictionPolicy();
+    boolean _tripleNotEquals = (_resourceEvictionPolicy != null);
+    if (_tripleNotEquals) {
+      return this.context.getResourceEvictionPolicy().getResource(resourceSet, uri);
+    }
+    return resourceSet.getResource(uri, true);
+  }
+  
   protected boolean isSource(final URI uri) {
     final IResourceServiceProvider provider = this.context.getResourceServiceProvider(uri);
     return ((provider instanceof IResourceServiceProviderExtension) && 
@@ -90,12 +296,19 @@ public class ClusteringStorageAwareResourceLoader {
   }
   
   protected void clearResourceSet() {
-    final boolean wasDeliver = this.context.getResourceSet().eDeliver();
+    this.clearResourceSet(this.context.getResourceSet());
+  }
+  
+  /**
+   * @since 2.13
+   */
+  protected void clearResourceSet(final ResourceSet resourceSet) {
+    final boolean wasDeliver = resourceSet.eDeliver();
     try {
-      this.context.getResourceSet().eSetDeliver(false);
-      this.context.getResourceSet().getResources().clear();
+      resourceSet.eSetDeliver(false);
+      resourceSet.getResources().clear();
     } finally {
-      this.context.getResourceSet().eSetDeliver(wasDeliver);
+      resourceSet.eSetDeliver(wasDeliver);
     }
   }
   
@@ -0,0 +1,274 @@
+/**
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.xtext.build;
+
+import com.google.common.annotations.Beta;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.xtext.build.BuildRequest;
+import org.eclipse.xtext.generator.FileSystemAccessQueue;
+import org.eclipse.xtext.generator.FileSystemAccessRequest;
+import org.eclipse.xtext.generator.URIBasedFileSystemAccess;
+import org.eclipse.xtext.xbase.lib.CollectionLiterals;
+import org.eclipse.xtext.xbase.lib.Exceptions;
+import org.eclipse.xtext.xbase.lib.Functions.Function1;
+import org.eclipse.xtext.xbase.lib.IterableExtensions;
+
+/**
+ * Writes the generated files of a build. A file is not written if its content is byte-identical to the file on
+ * disk. The {@link Source2GeneratedMapping#getContentHash(URI) content hashes} of the previously written files tell
+ * which files have to be compared at all.
+ *
+ * If the {@link BuildRequest#isWriteBehind() request asks for it}, the files are written by a background thread
+ * while the builder generates the next files. At most {@link #CAPACITY} files are queued, so the memory stays
+ * bounded if the disk is slower than the generator. The files are synced to the disk in one batch when the writer is
+ * {@link #close() closed}, if the request {@link BuildRequest#isSyncGeneratedFiles() asks for it}.
+ *
+ * @since 2.13
+ */
+@Beta
+@SuppressWarnings("all")
+public class GeneratedFileWriter implements URIBasedFileSystemAccess.ContentWriter {
+  public final static int CAPACITY = 64;
+
+  /**
+   * Runs the background writers. It is not the {@link BuildRequest#getExecutorService() executor of the build},
+   * since a writer blocks a thread for the whole build and the workers of a parallel build wait for it when the
+   * queue is full.
+   */
+  private final static ExecutorService WRITER_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setDaemon(true).setNameFormat("Generated file writer %d").build());
+
+  private final BuildRequest request;
+
+  private final IProgressMonitor monitor = new NullProgressMonitor();
+
+  private final List<URI> filesToSync = CollectionLiterals.<URI>newArrayList();
+
+  private final AtomicInteger writtenFiles = new AtomicInteger();
+
+  private final AtomicInteger skippedFiles = new AtomicInteger();
+
+  private final FileSystemAccessRequest end = new FileSystemAccessRequest(null, ((Runnable) () -> {
+  }));
+
+  private BlockingQueue<FileSystemAccessRequest> requests;
+
+  private FileSystemAccessQueue queue;
+
+  private Future<?> writer;
+
+  private volatile Throwable failure;
+
+  public GeneratedFileWriter(final BuildRequest request) {
+    this.request = request;
+    boolean _isWriteBehind = request.isWriteBehind();
+    if (_isWriteBehind) {
+      ArrayBlockingQueue<FileSystemAccessRequest> _arrayBlockingQueue = new ArrayBlockingQueue<FileSystemAccessRequest>(GeneratedFileWriter.CAPACITY);
+      this.requests = _arrayBlockingQueue;
+      FileSystemAccessQueue _fileSystemAccessQueue = new FileSystemAccessQueue(this.requests, this.monitor);
+      this.queue = _fileSystemAccessQueue;
+      final Runnable _function = () -> {
+        this.processRequests();
+      };
+      final Runnable task = _function;
+      this.writer = GeneratedFileWriter.WRITER_EXECUTOR.submit(task);
+    }
+  }
+
+  @Override
+  public void write(final URIConverter converter, final URI uri, final byte[] content) {
+    if ((this.queue == null)) {
+      this.doWrite(converter, uri, content);
+      return;
+    }
+    this.checkFailure();
+    try {
+      final Runnable _function = () -> {
+        this.doWrite(converter, uri, content);
+      };
+      this.queue.sendAsync(uri, _function);
+    } catch (final Throwable _t) {
+      if (_t instanceof OperationCanceledException) {
+        final OperationCanceledException e = (OperationCanceledException)_t;
+        this.checkFailure();
+        throw e;
+      } else {
+        throw Exceptions.sneakyThrow(_t);
+      }
+    }
+  }
+
+  protected void processRequests() {
+    try {
+      while (true) {
+        {
+          final FileSystemAccessRequest next = this.requests.take();
+          if ((next == this.end)) {
+            return;
+          }
+          if ((this.failure == null)) {
+            try {
+              next.run();
+            } catch (final Throwable _t) {
+              if (_t instanceof Throwable) {
+                final Throwable t = (Throwable)_t;
+                this.failure = t;
+                this.monitor.setCanceled(true);
+              } else {
+                throw Exceptions.sneakyThrow(_t);
+              }
+            }
+          }
+        }
+      }
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+
+  protected void doWrite(final URIConverter converter, final URI uri, final byte[] content) {
+    try {
+      final long hash = Hashing.murmur3_128().hashBytes(content).asLong();
+      Long _xsynchronizedexpression = null;
+      synchronized (this.request) {
+        _xsynchronizedexpression = this.request.getState().getFileMappings().getContentHash(uri);
+      }
+      final Long previousHash = _xsynchronizedexpression;
+      if ((((previousHash != null) && (previousHash.longValue() == hash)) && this.isOnDisk(converter, uri, content))) {
+        this.skippedFiles.incrementAndGet();
+        return;
+      }
+      final OutputStream out = converter.createOutputStream(uri);
+      try {
+        out.write(content);
+      } finally {
+        out.close();
+      }
+      synchronized (this.request) {
+        this.request.getState().getFileMappings().setContentHash(uri, hash);
+      }
+      this.writtenFiles.incrementAndGet();
+      boolean _isSyncGeneratedFiles = this.request.isSyncGeneratedFiles();
+      if (_isSyncGeneratedFiles) {
+        synchronized (this.filesToSync) {
+          this.filesToSync.add(uri);
+        }
+      }
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+
+  /**
+   * Whether the file exists with exactly the given content.
+   */
+  protected boolean isOnDisk(final URIConverter converter, final URI uri, final byte[] content) {
+    try {
+      boolean _exists = converter.exists(uri, CollectionLiterals.<Object, Object>emptyMap());
+      boolean _not = (!_exists);
+      if (_not) {
+        return false;
+      }
+      final InputStream in = converter.createInputStream(uri);
+      try {
+        return Arrays.equals(ByteStreams.toByteArray(in), content);
+      } finally {
+        in.close();
+      }
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+
+  /**
+   * Waits until the queued files have been written and syncs them to the disk. Rethrows the first failure of the
+   * background thread.
+   */
+  public void close() {
+    try {
+      this.stop();
+      synchronized (this.filesToSync) {
+        final Function1<URI, Boolean> _function = (URI it) -> {
+          return Boolean.valueOf(it.isFile());
+        };
+        Iterable<URI> _filter = IterableExtensions.<URI>filter(this.filesToSync, _function);
+        for (final URI uri : _filter) {
+          final FileChannel channel = FileChannel.open(Paths.get(uri.toFileString()), StandardOpenOption.WRITE);
+          try {
+            channel.force(true);
+          } finally {
+            channel.close();
+          }
+        }
+        this.filesToSync.clear();
+      }
+      this.checkFailure();
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+
+  /**
+   * Waits until the queued files have been written and stops the background writer.
+   */
+  public void stop() {
+    try {
+      if ((this.writer != null)) {
+        this.requests.put(this.end);
+        this.writer.get();
+        this.writer = null;
+        this.queue = null;
+      }
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+
+  protected void checkFailure() {
+    try {
+      if ((this.failure != null)) {
+        throw this.failure;
+      }
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+
+  /**
+   * The number of files that have been written.
+   */
+  public int getWrittenFiles() {
+    return this.writtenFiles.get();
+  }
+
+  /**
+   * The number of files that have not been written because their content was already on disk.
+   */
+  public int getSkippedFiles() {
+    return this.skippedFiles.get();
+  }
+}
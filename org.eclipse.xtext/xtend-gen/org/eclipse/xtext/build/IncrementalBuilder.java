@@ -7,12 +7,15 @@
  */
 package org.eclipse.xtext.build;
 
+import com.google.common.base.Charsets;
 import com.google.common.base.Objects;
 import com.google.common.collect.Iterables;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -45,12 +48,15 @@ import org.eclipse.xtext.resource.IResourceServiceProvider;
 import org.eclipse.xtext.resource.XtextResourceSet;
 import org.eclipse.xtext.resource.clustering.DisabledClusteringPolicy;
 import org.eclipse.xtext.resource.clustering.IResourceClusteringPolicy;
+import org.eclipse.xtext.resource.clustering.LRUResourceEvictionPolicy;
 import org.eclipse.xtext.resource.impl.ResourceDescriptionsData;
 import org.eclipse.xtext.resource.persistence.IResourceStorageFacade;
 import org.eclipse.xtext.resource.persistence.SerializableResourceDescription;
 import org.eclipse.xtext.resource.persistence.StorageAwareResource;
+import org.eclipse.xtext.scoping.impl.GlobalScopeCache;
 import org.eclipse.xtext.service.OperationCanceledManager;
 import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.util.Metrics;
 import org.eclipse.xtext.util.internal.Log;
 import org.eclipse.xtext.validation.CheckMode;
 import org.eclipse.xtext.validation.IResourceValidator;
@@ -61,6 +67,7 @@ import org.eclipse.xtext.workspace.ISourceFolder;
 import org.eclipse.xtext.xbase.lib.CollectionLiterals;
 import org.eclipse.xtext.xbase.lib.Exceptions;
 import org.eclipse.xtext.xbase.lib.Extension;
+import org.eclipse.xtext.xbase.lib.Functions.Function0;
 import org.eclipse.xtext.xbase.lib.Functions.Function1;
 import org.eclipse.xtext.xbase.lib.IterableExtensions;
 import org.eclipse.xtext.xbase.lib.ObjectExtensions;
@@ -149,6 +156,12 @@ public class IncrementalBuilder {
     @Accessors(AccessorType.PROTECTED_SETTER)
     private BuildRequest request;
     
+    /**
+     * @since 2.13
+     */
+    @Accessors(AccessorType.PROTECTED_SETTER)
+    private GeneratedFileWriter fileWriter;
+    
     @Inject
     private Indexer indexer;
     
@@ -223,6 +236,7 @@ public class IncrementalBuilder {
       };
       Iterable<IResourceDescription.Delta> _filter = IterableExtensions.<IResourceDescription.Delta>filter(result.getResourceDeltas(), _function_1);
       Iterables.<IResourceDescription.Delta>addAll(resolvedDeltas, _filter);
+      final boolean parallel = this.context.isParallel();
       final Function1<IResourceDescription.Delta, Boolean> _function_2 = (IResourceDescription.Delta it) -> {
         IResourceDescription _new = it.getNew();
         return Boolean.valueOf((_new != null));
@@ -237,9 +251,15 @@ public class IncrementalBuilder {
         this._operationCanceledManager.checkCanceled(this.request.getCancelIndicator());
         final IResourceServiceProvider serviceProvider = this.context.getResourceServiceProvider(resource.getURI());
         final IResourceDescription.Manager manager = serviceProvider.getResourceDescriptionManager();
+        final Metrics.Timer indexTimer = Metrics.start(Metrics.INDEX, resource.getURI());
         final IResourceDescription description = manager.getResourceDescription(resource);
         final SerializableResourceDescription copiedDescription = SerializableResourceDescription.createCopy(description);
-        result.getNewIndex().addDescription(resource.getURI(), copiedDescription);
+        indexTimer.stop();
+        if ((!parallel)) {
+          final IResourceDescription previous = result.getNewIndex().getResourceDescription(resource.getURI());
+          result.getNewIndex().addDescription(resource.getURI(), copiedDescription);
+          this.invalidateGlobalScopeCache(previous, copiedDescription, manager);
+        }
         this._operationCanceledManager.checkCanceled(this.request.getCancelIndicator());
         if ((((!this.request.isIndexOnly()) && this.validate(resource)) && serviceProvider.<IShouldGenerate>get(IShouldGenerate.class).shouldGenerate(resource, CancelIndicator.NullImpl))) {
           this._operationCanceledManager.checkCanceled(this.request.getCancelIndicator());
@@ -248,12 +268,46 @@ public class IncrementalBuilder {
         final IResourceDescription old = this.context.getOldState().getResourceDescriptions().getResourceDescription(resource.getURI());
         return manager.createDelta(old, copiedDescription);
       };
-      Iterable<IResourceDescription.Delta> _executeClustered = this.context.<IResourceDescription.Delta>executeClustered(IterableExtensions.<IResourceDescription.Delta, URI>map(IterableExtensions.<IResourceDescription.Delta>filter(result.getResourceDeltas(), _function_2), _function_3), _function_4);
-      Iterables.<IResourceDescription.Delta>addAll(resolvedDeltas, _executeClustered);
+      final List<IResourceDescription.Delta> changedDeltas = IterableExtensions.<IResourceDescription.Delta>toList(this.context.<IResourceDescription.Delta>executeClustered(IterableExtensions.<IResourceDescription.Delta, URI>map(IterableExtensions.<IResourceDescription.Delta>filter(result.getResourceDeltas(), _function_2), _function_3), _function_4));
+      if (parallel) {
+        for (final IResourceDescription.Delta delta : changedDeltas) {
+          {
+            final IResourceDescription previous = result.getNewIndex().getResourceDescription(delta.getUri());
+            result.getNewIndex().addDescription(delta.getUri(), delta.getNew());
+            this.invalidateGlobalScopeCache(previous, delta.getNew(), this.context.getResourceServiceProvider(delta.getUri()).getResourceDescriptionManager());
+          }
+        }
+      }
+      Iterables.<IResourceDescription.Delta>addAll(resolvedDeltas, changedDeltas);
       IndexState _state = this.request.getState();
       return new IncrementalBuilder.Result(_state, resolvedDeltas);
     }
     
+    /**
+     * Validates and generates the dirty files of the request without indexing them, e.g. because they have been
+     * indexed by a previous {@link BuildRequest#isIndexOnly() index only} build.
+     * @since 2.13
+     */
+    public IncrementalBuilder.Result launchValidation() {
+      final Source2GeneratedMapping newSource2GeneratedMapping = this.request.getState().getFileMappings();
+      final Function1<Resource, Object> _function = (Resource resource) -> {
+        this._operationCanceledManager.checkCanceled(this.request.getCancelIndicator());
+        resource.getContents();
+        EcoreUtil2.resolveLazyCrossReferences(resource, CancelIndicator.NullImpl);
+        this._operationCanceledManager.checkCanceled(this.request.getCancelIndicator());
+        final IResourceServiceProvider serviceProvider = this.context.getResourceServiceProvider(resource.getURI());
+        if ((this.validate(resource) && serviceProvider.<IShouldGenerate>get(IShouldGenerate.class).shouldGenerate(resource, CancelIndicator.NullImpl))) {
+          this._operationCanceledManager.checkCanceled(this.request.getCancelIndicator());
+          this.generate(resource, this.request, newSource2GeneratedMapping);
+        }
+        return null;
+      };
+      IterableExtensions.<Object>toList(this.context.<Object>executeClustered(this.request.getDirtyFiles(), _function));
+      IndexState _state = this.request.getState();
+      List<IResourceDescription.Delta> _emptyList = CollectionLiterals.<IResourceDescription.Delta>emptyList();
+      return new IncrementalBuilder.Result(_state, _emptyList);
+    }
+    
     protected boolean validate(final Resource resource) {
       final IResourceValidator resourceValidator = this.context.getResourceServiceProvider(resource.getURI()).getResourceValidator();
       if ((resourceValidator == null)) {
@@ -264,7 +318,27 @@ public class IncrementalBuilder {
       String _plus_1 = (_plus + "\'");
       IncrementalBuilder.InternalStatefulIncrementalBuilder.LOG.info(_plus_1);
       final List<Issue> validationResult = resourceValidator.validate(resource, CheckMode.ALL, null);
-      return this.request.getAfterValidate().afterValidate(resource.getURI(), validationResult);
+      synchronized (this.request) {
+        this._operationCanceledManager.checkCanceled(this.request.getCancelIndicator());
+        return this.request.getAfterValidate().afterValidate(resource.getURI(), validationResult);
+      }
+    }
+    
+    /**
+     * Passes a change of the exported objects of a resource to the {@link GlobalScopeCache} of the resource set.
+     * @since 2.13
+     */
+    protected void invalidateGlobalScopeCache(final IResourceDescription previous, final IResourceDescription current, final IResourceDescription.Manager manager) {
+      GlobalScopeCache _findInEmfObject = GlobalScopeCache.findInEmfObject(this.context.getResourceSet());
+      boolean _tripleEquals = (_findInEmfObject == null);
+      if (_tripleEquals) {
+        return;
+      }
+      final IResourceDescription.Delta delta = manager.createDelta(previous, current);
+      boolean _haveEObjectDescriptionsChanged = delta.haveEObjectDescriptionsChanged();
+      if (_haveEObjectDescriptionsChanged) {
+        GlobalScopeCache.invalidate(this.context.getResourceSet(), Collections.<IResourceDescription.Delta>unmodifiableList(CollectionLiterals.<IResourceDescription.Delta>newArrayList(delta)));
+      }
     }
     
     protected void generate(final Resource resource, final BuildRequest request, final Source2GeneratedMapping newMappings) {
@@ -273,19 +347,27 @@ public class IncrementalBuilder {
       if ((generator == null)) {
         return;
       }
-      final Set<URI> previous = newMappings.deleteSource(resource.getURI());
+      Set<URI> _xsynchronizedexpression = null;
+      synchronized (request) {
+        _xsynchronizedexpression = newMappings.deleteSource(resource.getURI());
+      }
+      final Set<URI> previous = _xsynchronizedexpression;
       URIBasedFileSystemAccess _createFileSystemAccess = this.createFileSystemAccess(serviceProvider, resource);
       final Procedure1<URIBasedFileSystemAccess> _function = (URIBasedFileSystemAccess it) -> {
         final URIBasedFileSystemAccess.BeforeWrite _function_1 = (URI uri, String outputCfgName, InputStream contents) -> {
-          newMappings.addSource2Generated(resource.getURI(), uri, outputCfgName);
-          previous.remove(uri);
-          request.getAfterGenerateFile().apply(resource.getURI(), uri);
+          synchronized (request) {
+            newMappings.addSource2Generated(resource.getURI(), uri, outputCfgName);
+            previous.remove(uri);
+            request.getAfterGenerateFile().apply(resource.getURI(), uri);
+          }
           return contents;
         };
         it.setBeforeWrite(_function_1);
         final URIBasedFileSystemAccess.BeforeDelete _function_2 = (URI uri) -> {
-          newMappings.deleteGenerated(uri);
-          request.getAfterDeleteFile().apply(uri);
+          synchronized (request) {
+            newMappings.deleteGenerated(uri);
+            request.getAfterDeleteFile().apply(uri);
+          }
           return true;
         };
         it.setBeforeDelete(_function_2);
@@ -311,7 +393,9 @@ public class IncrementalBuilder {
         try {
           IncrementalBuilder.InternalStatefulIncrementalBuilder.LOG.info(("Deleting stale generated file " + it));
           this.context.getResourceSet().getURIConverter().delete(it, CollectionLiterals.<Object, Object>emptyMap());
-          request.getAfterDeleteFile().apply(it);
+          synchronized (request) {
+            request.getAfterDeleteFile().apply(it);
+          }
         } catch (Throwable _e) {
           throw Exceptions.sneakyThrow(_e);
         }
@@ -355,6 +439,7 @@ public class IncrementalBuilder {
           }
           it.setCurrentSource(_name);
           it.setConverter(resource.getResourceSet().getURIConverter());
+          it.setContentWriter(this.fileWriter);
         };
         _xblockexpression = ObjectExtensions.<URIBasedFileSystemAccess>operator_doubleArrow(_uRIBasedFileSystemAccess, _function);
       }
@@ -370,6 +455,10 @@ public class IncrementalBuilder {
     protected void setRequest(final BuildRequest request) {
       this.request = request;
     }
+    
+    protected void setFileWriter(final GeneratedFileWriter fileWriter) {
+      this.fileWriter = fileWriter;
+    }
   }
   
   @Inject
@@ -379,37 +468,122 @@ public class IncrementalBuilder {
   @Extension
   private OperationCanceledManager _operationCanceledManager;
   
+  @Inject
+  private LRUResourceEvictionPolicy resourceEvictionPolicy;
+  
   public IncrementalBuilder.Result build(final BuildRequest request, final Function1<? super URI, ? extends IResourceServiceProvider> languages) {
     DisabledClusteringPolicy _disabledClusteringPolicy = new DisabledClusteringPolicy();
     return this.build(request, languages, _disabledClusteringPolicy);
   }
   
   public IncrementalBuilder.Result build(final BuildRequest request, final Function1<? super URI, ? extends IResourceServiceProvider> languages, final IResourceClusteringPolicy clusteringPolicy) {
+    final IncrementalBuilder.InternalStatefulIncrementalBuilder builder = this.createStatefulBuilder(request, languages, clusteringPolicy);
+    final Function0<IncrementalBuilder.Result> _function = () -> {
+      return builder.launch();
+    };
+    final IncrementalBuilder.Result result = this.runAndCloseFileWriter(builder, _function);
+    this.writeMetrics(request);
+    return result;
+  }
+  
+  /**
+   * Closes the file writer of the builder after a successful run. If the run fails, the writer is only stopped and a
+   * failure to stop it is added to the failure of the run.
+   */
+  private IncrementalBuilder.Result runAndCloseFileWriter(final IncrementalBuilder.InternalStatefulIncrementalBuilder builder, final Function0<? extends IncrementalBuilder.Result> run) {
     try {
-      final XtextResourceSet resourceSet = request.getResourceSet();
-      ResourceDescriptionsData _copy = request.getState().getResourceDescriptions().copy();
-      Source2GeneratedMapping _copy_1 = request.getState().getFileMappings().copy();
-      final IndexState oldState = new IndexState(_copy, _copy_1);
-      CancelIndicator _cancelIndicator = request.getCancelIndicator();
-      final BuildContext context = new BuildContext(languages, resourceSet, oldState, clusteringPolicy, _cancelIndicator);
-      final IncrementalBuilder.InternalStatefulIncrementalBuilder builder = this.provider.get();
-      builder.context = context;
-      builder.request = request;
+      IncrementalBuilder.Result result = null;
       try {
-        return builder.launch();
+        result = run.apply();
       } catch (final Throwable _t) {
         if (_t instanceof Throwable) {
           final Throwable t = (Throwable)_t;
+          try {
+            if (builder.fileWriter!=null) {
+              builder.fileWriter.stop();
+            }
+          } catch (final Throwable _t_1) {
+            if (_t_1 instanceof Throwable) {
+              final Throwable stopFailure = (Throwable)_t_1;
+              t.addSuppressed(stopFailure);
+            } else {
+              throw Exceptions.sneakyThrow(_t_1);
+            }
+          }
           this._operationCanceledManager.propagateIfCancelException(t);
           throw t;
         } else {
           throw Exceptions.sneakyThrow(_t);
         }
       }
+      if (builder.fileWriter!=null) {
+        builder.fileWriter.close();
+      }
+      return result;
     } catch (Throwable _e) {
       throw Exceptions.sneakyThrow(_e);
     }
   }
   
+  /**
+   * Writes the {@link Metrics} as JSON to the {@link BuildRequest#getMetricsFile() metrics file} of the request, if
+   * one is set and metrics are enabled.
+   * @since 2.13
+   */
+  protected void writeMetrics(final BuildRequest request) {
+    try {
+      if (((request.getMetricsFile() == null) || (!Metrics.isEnabled()))) {
+        return;
+      }
+      final OutputStream out = request.getResourceSet().getURIConverter().createOutputStream(request.getMetricsFile());
+      try {
+        out.write(Metrics.toJson().getBytes(Charsets.UTF_8));
+      } finally {
+        out.close();
+      }
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  /**
+   * Validates and generates the {@link BuildRequest#getDirtyFiles() dirty files} of the given request without
+   * updating the index. Their descriptions in the index state of the request have to be up to date, e.g. because
+   * they have been built by an {@link BuildRequest#isIndexOnly() index only} build.
+   * @since 2.13
+   */
+  public IncrementalBuilder.Result validateAndGenerate(final BuildRequest request, final Function1<? super URI, ? extends IResourceServiceProvider> languages) {
+    DisabledClusteringPolicy _disabledClusteringPolicy = new DisabledClusteringPolicy();
+    final IncrementalBuilder.InternalStatefulIncrementalBuilder builder = this.createStatefulBuilder(request, languages, _disabledClusteringPolicy);
+    final Function0<IncrementalBuilder.Result> _function = () -> {
+      return builder.launchValidation();
+    };
+    return this.runAndCloseFileWriter(builder, _function);
+  }
+  
+  /**
+   * @since 2.13
+   */
+  protected IncrementalBuilder.InternalStatefulIncrementalBuilder createStatefulBuilder(final BuildRequest request, final Function1<? super URI, ? extends IResourceServiceProvider> languages, final IResourceClusteringPolicy clusteringPolicy) {
+    final XtextResourceSet resourceSet = request.getResourceSet();
+    ResourceDescriptionsData _copy = request.getState().getResourceDescriptions().copy();
+    Source2GeneratedMapping _copy_1 = request.getState().getFileMappings().copy();
+    final IndexState oldState = new IndexState(_copy, _copy_1);
+    CancelIndicator _cancelIndicator = request.getCancelIndicator();
+    final BuildContext context = new BuildContext(languages, resourceSet, oldState, clusteringPolicy, _cancelIndicator);
+    context.setExecutorService(request.getExecutorService());
+    context.setWorkerResourceSetProvider(request.getWorkerResourceSetProvider());
+    boolean _isEnabled = this.resourceEvictionPolicy.isEnabled();
+    if (_isEnabled) {
+      context.setResourceEvictionPolicy(this.resourceEvictionPolicy);
+    }
+    final IncrementalBuilder.InternalStatefulIncrementalBuilder builder = this.provider.get();
+    builder.context = context;
+    builder.request = request;
+    GeneratedFileWriter _generatedFileWriter = new GeneratedFileWriter(request);
+    builder.fileWriter = _generatedFileWriter;
+    return builder;
+  }
+  
   private final static Logger LOG = Logger.getLogger(IncrementalBuilder.class);
 }
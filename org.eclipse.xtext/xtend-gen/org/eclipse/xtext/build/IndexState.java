@@ -10,9 +10,8 @@ package org.eclipse.xtext.build;
 import org.eclipse.xtend.lib.annotations.Accessors;
 import org.eclipse.xtend.lib.annotations.FinalFieldsConstructor;
 import org.eclipse.xtext.build.Source2GeneratedMapping;
-import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.resource.impl.PersistentResourceDescriptionsData;
 import org.eclipse.xtext.resource.impl.ResourceDescriptionsData;
-import org.eclipse.xtext.xbase.lib.CollectionLiterals;
 import org.eclipse.xtext.xbase.lib.Pure;
 
 /**
@@ -27,7 +26,7 @@ public class IndexState {
   private final Source2GeneratedMapping fileMappings;
   
   public IndexState() {
-    this(new ResourceDescriptionsData(CollectionLiterals.<IResourceDescription>emptySet()), new Source2GeneratedMapping());
+    this(new PersistentResourceDescriptionsData(), new Source2GeneratedMapping());
   }
   
   public IndexState(final ResourceDescriptionsData resourceDescriptions, final Source2GeneratedMapping fileMappings) {
@@ -37,10 +37,13 @@ import org.eclipse.xtext.resource.IReferenceDescription;
 import org.eclipse.xtext.resource.IResourceDescription;
 import org.eclipse.xtext.resource.IResourceDescriptions;
 import org.eclipse.xtext.resource.IResourceServiceProvider;
+import org.eclipse.xtext.resource.XtextResourceSet;
 import org.eclipse.xtext.resource.impl.AbstractResourceDescription;
+import org.eclipse.xtext.resource.impl.DefaultResourceDescriptionManager;
 import org.eclipse.xtext.resource.impl.DefaultResourceDescriptionDelta;
 import org.eclipse.xtext.resource.impl.ResourceDescriptionsData;
 import org.eclipse.xtext.resource.persistence.SerializableEObjectDescriptionProvider;
+import org.eclipse.xtext.scoping.impl.GlobalScopeCache;
 import org.eclipse.xtext.service.OperationCanceledManager;
 import org.eclipse.xtext.util.internal.Log;
 import org.eclipse.xtext.xbase.lib.CollectionLiterals;
@@ -48,6 +51,7 @@ import org.eclipse.xtext.xbase.lib.Extension;
 import org.eclipse.xtext.xbase.lib.Functions.Function1;
 import org.eclipse.xtext.xbase.lib.IterableExtensions;
 import org.eclipse.xtext.xbase.lib.ListExtensions;
+import org.eclipse.xtext.xbase.lib.Procedures.Procedure1;
 import org.eclipse.xtext.xbase.lib.Pure;
 import org.eclipse.xtext.xbase.lib.util.ToStringBuilder;
 
@@ -218,6 +222,7 @@ public class Indexer {
     for (final IResourceDescription.Delta delta : deltas) {
       newIndex.register(delta);
     }
+    GlobalScopeCache.invalidate(context.getResourceSet(), deltas);
     final HashSet<IResourceDescription.Delta> allDeltas = new HashSet<IResourceDescription.Delta>(deltas);
     boolean _isEmpty = request.getExternalDeltas().isEmpty();
     boolean _not = (!_isEmpty);
@@ -232,8 +237,20 @@ public class Indexer {
       return it.getUri();
     };
     remainingURIs.removeAll(ListExtensions.<IResourceDescription.Delta, URI>map(deltas, _function_1));
+    Set<URI> _xifexpression = null;
+    boolean _isEmpty_1 = remainingURIs.isEmpty();
+    if (_isEmpty_1) {
+      _xifexpression = CollectionLiterals.<URI>emptySet();
+    } else {
+      _xifexpression = newIndex.getDependentURIs(allDeltas);
+    }
+    final Set<URI> dependentURIs = _xifexpression;
     final Function1<URI, Boolean> _function_2 = (URI it) -> {
       final IResourceDescription.Manager manager = context.getResourceServiceProvider(it).getResourceDescriptionManager();
+      boolean _canBeSkipped = this.canBeSkipped(it, manager, dependentURIs);
+      if (_canBeSkipped) {
+        return Boolean.valueOf(false);
+      }
       final IResourceDescription resourceDescription = previousIndex.getResourceDescription(it);
       final boolean isAffected = this.isAffected(resourceDescription, manager, allDeltas, allDeltas, newIndex);
       return Boolean.valueOf(isAffected);
@@ -274,10 +291,13 @@ public class Indexer {
   protected List<IResourceDescription.Delta> getDeltasForChangedResources(final Iterable<URI> affectedUris, final ResourceDescriptionsData oldIndex, @Extension final BuildContext context) {
     try {
       this.compilerPhases.setIndexing(context.getResourceSet(), true);
-      final Function1<Resource, IResourceDescription.Delta> _function = (Resource it) -> {
+      final Procedure1<XtextResourceSet> _function = (XtextResourceSet it) -> {
+        this.compilerPhases.setIndexing(it, true);
+      };
+      final Function1<Resource, IResourceDescription.Delta> _function_1 = (Resource it) -> {
         return this.addToIndex(it, true, oldIndex, context);
       };
-      return IterableExtensions.<IResourceDescription.Delta>toList(context.<IResourceDescription.Delta>executeClustered(affectedUris, _function));
+      return IterableExtensions.<IResourceDescription.Delta>toList(context.<IResourceDescription.Delta>executeClustered(affectedUris, _function, _function_1));
     } finally {
       this.compilerPhases.setIndexing(context.getResourceSet(), false);
     }
@@ -298,6 +318,18 @@ public class Indexer {
     return delta;
   }
   
+  /**
+   * Whether the candidate cannot be affected by the current deltas because its manager only considers
+   * dependencies and it is not a dependent of any changed resource.
+   * @since 2.13
+   */
+  protected boolean canBeSkipped(final URI candidate, final IResourceDescription.Manager manager, final Set<URI> dependentURIs) {
+    if ((manager instanceof DefaultResourceDescriptionManager)) {
+      return (((DefaultResourceDescriptionManager)manager).isAffectedByDependenciesOnly() && (!dependentURIs.contains(candidate)));
+    }
+    return false;
+  }
+  
   protected boolean isAffected(final IResourceDescription affectionCandidate, final IResourceDescription.Manager manager, final Collection<IResourceDescription.Delta> newDeltas, final Collection<IResourceDescription.Delta> allDeltas, final IResourceDescriptions resourceDescriptions) {
     if ((manager instanceof IResourceDescription.Manager.AllChangeAware)) {
       return ((IResourceDescription.Manager.AllChangeAware)manager).isAffectedByAny(allDeltas, affectionCandidate, resourceDescriptions);
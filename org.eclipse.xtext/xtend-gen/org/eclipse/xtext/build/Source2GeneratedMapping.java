@@ -7,7 +7,6 @@
  */
 package org.eclipse.xtext.build;
 
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import java.io.Externalizable;
@@ -15,40 +14,85 @@ import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 import org.eclipse.emf.common.util.URI;
-import org.eclipse.xtend.lib.annotations.FinalFieldsConstructor;
 import org.eclipse.xtext.generator.IFileSystemAccess;
+import org.eclipse.xtext.util.PersistentHashMap;
+import org.eclipse.xtext.util.PersistentHashSet;
 import org.eclipse.xtext.xbase.lib.CollectionLiterals;
 import org.eclipse.xtext.xbase.lib.Exceptions;
 import org.eclipse.xtext.xbase.lib.ExclusiveRange;
 
 /**
+ * The mapping is backed by persistent maps, so {@link #copy() copies} are created in constant time and share
+ * their structure with the original.
+ * 
+ * It also keeps a {@link #getContentHash(URI) hash} of the content that has last been written to each generated
+ * file, so unchanged files don't have to be written again.
+ * 
  * @author Jan Koehnlein - Initial contribution and API
  */
-@FinalFieldsConstructor
 @SuppressWarnings("all")
 public class Source2GeneratedMapping implements Externalizable {
-  private final Multimap<URI, URI> source2generated;
+  /**
+   * Starts the serialized form that contains the content hashes. The serialized form of older versions starts with
+   * the non-negative number of entries instead.
+   */
+  private static final int CONTENT_HASH_FORMAT = (-1);
   
-  private final Multimap<URI, URI> generated2source;
+  private final PersistentHashMap<URI, PersistentHashSet<URI>> source2generated;
   
-  private final Map<URI, String> generated2OutputConfigName;
+  private final PersistentHashMap<URI, PersistentHashSet<URI>> generated2source;
+  
+  private final PersistentHashMap<URI, String> generated2OutputConfigName;
+  
+  private final PersistentHashMap<URI, Long> generated2ContentHash;
   
   public Source2GeneratedMapping() {
-    this(HashMultimap.<URI, URI>create(), HashMultimap.<URI, URI>create(), CollectionLiterals.<URI, String>newHashMap());
+    this(new PersistentHashMap<URI, PersistentHashSet<URI>>(), new PersistentHashMap<URI, PersistentHashSet<URI>>(), new PersistentHashMap<URI, String>(), new PersistentHashMap<URI, Long>());
+  }
+  
+  /**
+   * Creates a mapping with the given content. The multimaps and the map are copied.
+   */
+  public Source2GeneratedMapping(final Multimap<URI, URI> source2generated, final Multimap<URI, URI> generated2source, final Map<URI, String> generated2OutputConfigName) {
+    this();
+    Collection<Map.Entry<URI, URI>> _entries = source2generated.entries();
+    for (final Map.Entry<URI, URI> entry : _entries) {
+      Source2GeneratedMapping.putValue(this.source2generated, entry.getKey(), entry.getValue());
+    }
+    Collection<Map.Entry<URI, URI>> _entries_1 = generated2source.entries();
+    for (final Map.Entry<URI, URI> entry_1 : _entries_1) {
+      Source2GeneratedMapping.putValue(this.generated2source, entry_1.getKey(), entry_1.getValue());
+    }
+    Set<Map.Entry<URI, String>> _entrySet = generated2OutputConfigName.entrySet();
+    for (final Map.Entry<URI, String> entry_2 : _entrySet) {
+      String _value = entry_2.getValue();
+      boolean _tripleNotEquals = (_value != null);
+      if (_tripleNotEquals) {
+        this.generated2OutputConfigName.put(entry_2.getKey(), entry_2.getValue());
+      }
+    }
+  }
+  
+  private Source2GeneratedMapping(final PersistentHashMap<URI, PersistentHashSet<URI>> source2generated, final PersistentHashMap<URI, PersistentHashSet<URI>> generated2source, final PersistentHashMap<URI, String> generated2OutputConfigName, final PersistentHashMap<URI, Long> generated2ContentHash) {
+    this.source2generated = source2generated;
+    this.generated2source = generated2source;
+    this.generated2OutputConfigName = generated2OutputConfigName;
+    this.generated2ContentHash = generated2ContentHash;
   }
   
   public Source2GeneratedMapping copy() {
-    HashMultimap<URI, URI> _create = HashMultimap.<URI, URI>create(this.source2generated);
-    HashMultimap<URI, URI> _create_1 = HashMultimap.<URI, URI>create(this.generated2source);
-    HashMap<URI, String> _hashMap = new HashMap<URI, String>(this.generated2OutputConfigName);
-    return new Source2GeneratedMapping(_create, _create_1, _hashMap);
+    PersistentHashMap<URI, PersistentHashSet<URI>> _copy = this.source2generated.copy();
+    PersistentHashMap<URI, PersistentHashSet<URI>> _copy_1 = this.generated2source.copy();
+    PersistentHashMap<URI, String> _copy_2 = this.generated2OutputConfigName.copy();
+    PersistentHashMap<URI, Long> _copy_3 = this.generated2ContentHash.copy();
+    return new Source2GeneratedMapping(_copy, _copy_1, _copy_2, _copy_3);
   }
   
   public void addSource2Generated(final URI source, final URI generated) {
@@ -56,44 +100,96 @@ public class Source2GeneratedMapping implements Externalizable {
   }
   
   public void addSource2Generated(final URI source, final URI generated, final String outputCfgName) {
-    this.source2generated.put(source, generated);
-    this.generated2source.put(generated, source);
-    this.generated2OutputConfigName.put(generated, outputCfgName);
+    Source2GeneratedMapping.putValue(this.source2generated, source, generated);
+    Source2GeneratedMapping.putValue(this.generated2source, generated, source);
+    if ((outputCfgName != null)) {
+      this.generated2OutputConfigName.put(generated, outputCfgName);
+    } else {
+      this.generated2OutputConfigName.remove(generated);
+    }
   }
   
   public void removeSource2Generated(final URI source, final URI generated) {
-    this.source2generated.remove(source, generated);
-    this.generated2source.remove(generated, source);
+    Source2GeneratedMapping.removeValue(this.source2generated, source, generated);
+    Source2GeneratedMapping.removeValue(this.generated2source, generated, source);
   }
   
   public Set<URI> deleteSource(final URI source) {
-    Collection<URI> _removeAll = this.source2generated.removeAll(source);
-    final HashSet<URI> generated = new HashSet<URI>(_removeAll);
+    Set<URI> _elvis = null;
+    PersistentHashSet<URI> _remove = this.source2generated.remove(source);
+    if (_remove != null) {
+      _elvis = _remove;
+    } else {
+      Set<URI> _emptySet = CollectionLiterals.<URI>emptySet();
+      _elvis = _emptySet;
+    }
+    final HashSet<URI> generated = new HashSet<URI>(_elvis);
     final Consumer<URI> _function = (URI it) -> {
-      this.generated2source.remove(it, source);
+      Source2GeneratedMapping.removeValue(this.generated2source, it, source);
     };
     generated.forEach(_function);
     return generated;
   }
   
   public void deleteGenerated(final URI generated) {
+    Set<URI> _elvis = null;
+    PersistentHashSet<URI> _remove = this.generated2source.remove(generated);
+    if (_remove != null) {
+      _elvis = _remove;
+    } else {
+      Set<URI> _emptySet = CollectionLiterals.<URI>emptySet();
+      _elvis = _emptySet;
+    }
     final Consumer<URI> _function = (URI it) -> {
-      this.source2generated.remove(it, generated);
+      Source2GeneratedMapping.removeValue(this.source2generated, it, generated);
     };
-    this.generated2source.removeAll(generated).forEach(_function);
+    _elvis.forEach(_function);
     this.generated2OutputConfigName.remove(generated);
+    this.generated2ContentHash.remove(generated);
   }
   
   public String getOutputConfigName(final URI generated) {
     return this.generated2OutputConfigName.get(generated);
   }
   
+  /**
+   * The hash of the content that has last been written to the generated file, or <code>null</code> if it is not
+   * known.
+   * @since 2.13
+   */
+  public Long getContentHash(final URI generated) {
+    return this.generated2ContentHash.get(generated);
+  }
+  
+  /**
+   * @since 2.13
+   */
+  public void setContentHash(final URI generated, final long contentHash) {
+    this.generated2ContentHash.put(generated, Long.valueOf(contentHash));
+  }
+  
   public List<URI> getGenerated(final URI source) {
-    return Lists.<URI>newArrayList(this.source2generated.get(source));
+    Set<URI> _elvis = null;
+    PersistentHashSet<URI> _get = this.source2generated.get(source);
+    if (_get != null) {
+      _elvis = _get;
+    } else {
+      Set<URI> _emptySet = CollectionLiterals.<URI>emptySet();
+      _elvis = _emptySet;
+    }
+    return Lists.<URI>newArrayList(_elvis);
   }
   
   public List<URI> getSource(final URI generated) {
-    return Lists.<URI>newArrayList(this.generated2source.get(generated));
+    Set<URI> _elvis = null;
+    PersistentHashSet<URI> _get = this.generated2source.get(generated);
+    if (_get != null) {
+      _elvis = _get;
+    } else {
+      Set<URI> _emptySet = CollectionLiterals.<URI>emptySet();
+      _elvis = _emptySet;
+    }
+    return Lists.<URI>newArrayList(_elvis);
   }
   
   public List<URI> getAllGenerated() {
@@ -102,7 +198,11 @@ public class Source2GeneratedMapping implements Externalizable {
   
   @Override
   public void readExternal(final ObjectInput in) throws IOException, ClassNotFoundException {
-    final int numEntries = in.readInt();
+    int numEntries = in.readInt();
+    final boolean withContentHashes = (numEntries == Source2GeneratedMapping.CONTENT_HASH_FORMAT);
+    if (withContentHashes) {
+      numEntries = in.readInt();
+    }
     ExclusiveRange _doubleDotLessThan = new ExclusiveRange(0, numEntries, true);
     for (final Integer i : _doubleDotLessThan) {
       {
@@ -114,6 +214,12 @@ public class Source2GeneratedMapping implements Externalizable {
             final URI generated = URI.createURI(in.readUTF());
             final String outputConfig = in.readUTF();
             this.addSource2Generated(source, generated, outputConfig);
+            if (withContentHashes) {
+              final long contentHash = in.readLong();
+              if ((contentHash != 0)) {
+                this.generated2ContentHash.put(generated, Long.valueOf(contentHash));
+              }
+            }
           }
         }
       }
@@ -122,9 +228,10 @@ public class Source2GeneratedMapping implements Externalizable {
   
   @Override
   public void writeExternal(final ObjectOutput out) throws IOException {
-    final Set<Map.Entry<URI, Collection<URI>>> entries = this.source2generated.asMap().entrySet();
+    final Set<Map.Entry<URI, PersistentHashSet<URI>>> entries = this.source2generated.entrySet();
+    out.writeInt(Source2GeneratedMapping.CONTENT_HASH_FORMAT);
     out.writeInt(entries.size());
-    final Consumer<Map.Entry<URI, Collection<URI>>> _function = (Map.Entry<URI, Collection<URI>> it) -> {
+    final Consumer<Map.Entry<URI, PersistentHashSet<URI>>> _function = (Map.Entry<URI, PersistentHashSet<URI>> it) -> {
       try {
         out.writeUTF(it.getKey().toString());
         out.writeInt(it.getValue().size());
@@ -139,6 +246,14 @@ public class Source2GeneratedMapping implements Externalizable {
               _elvis = IFileSystemAccess.DEFAULT_OUTPUT;
             }
             out.writeUTF(_elvis);
+            Long _elvis_1 = null;
+            Long _get_1 = this.generated2ContentHash.get(it_1);
+            if (_get_1 != null) {
+              _elvis_1 = _get_1;
+            } else {
+              _elvis_1 = Long.valueOf(0L);
+            }
+            out.writeLong((_elvis_1).longValue());
           } catch (Throwable _e) {
             throw Exceptions.sneakyThrow(_e);
           }
@@ -151,10 +266,38 @@ public class Source2GeneratedMapping implements Externalizable {
     entries.forEach(_function);
   }
   
-  public Source2GeneratedMapping(final Multimap<URI, URI> source2generated, final Multimap<URI, URI> generated2source, final Map<URI, String> generated2OutputConfigName) {
-    super();
-    this.source2generated = source2generated;
-    this.generated2source = generated2source;
-    this.generated2OutputConfigName = generated2OutputConfigName;
+  /**
+   * The value sets may be shared with copies of this mapping, so they are never modified in place.
+   */
+  private static void putValue(final PersistentHashMap<URI, PersistentHashSet<URI>> map, final URI key, final URI value) {
+    final PersistentHashSet<URI> existing = map.get(key);
+    if ((existing == null)) {
+      PersistentHashSet<URI> _persistentHashSet = new PersistentHashSet<URI>(Collections.<URI>unmodifiableList(CollectionLiterals.<URI>newArrayList(value)));
+      map.put(key, _persistentHashSet);
+    } else {
+      boolean _contains = existing.contains(value);
+      boolean _not = (!_contains);
+      if (_not) {
+        final PersistentHashSet<URI> values = existing.copy();
+        values.add(value);
+        map.put(key, values);
+      }
+    }
+  }
+  
+  private static void removeValue(final PersistentHashMap<URI, PersistentHashSet<URI>> map, final URI key, final URI value) {
+    final PersistentHashSet<URI> existing = map.get(key);
+    if (((existing == null) || (!existing.contains(value)))) {
+      return;
+    }
+    int _size = existing.size();
+    boolean _equals = (_size == 1);
+    if (_equals) {
+      map.remove(key);
+    } else {
+      final PersistentHashSet<URI> values = existing.copy();
+      values.remove(value);
+      map.put(key, values);
+    }
   }
 }
@@ -52,6 +52,14 @@ public class URIBasedFileSystemAccess extends AbstractFileSystemAccess2 {
     public abstract InputStream beforeRead(final URI changed, final InputStream in);
   }
   
+  /**
+   * Writes the content of generated files in place of the file system access, e.g. asynchronously.
+   * @since 2.13
+   */
+  public interface ContentWriter {
+    public abstract void write(final URIConverter converter, final URI uri, final byte[] content);
+  }
+  
   @Accessors
   private URIConverter converter;
   
@@ -85,6 +93,13 @@ public class URIBasedFileSystemAccess extends AbstractFileSystemAccess2 {
     return $1;
   });
   
+  /**
+   * If set, the generated files are passed to this writer after the {@link BeforeWrite} callback.
+   * @since 2.13
+   */
+  @Accessors
+  private URIBasedFileSystemAccess.ContentWriter contentWriter;
+  
   @Override
   public void setPostProcessor(final IFilePostProcessor filePostProcessor) {
     super.setPostProcessor(filePostProcessor);
@@ -147,6 +162,11 @@ public class URIBasedFileSystemAccess extends AbstractFileSystemAccess2 {
   public void generateFile(final String fileName, final String outputCfgName, final InputStream content) throws RuntimeIOException {
     try {
       final URI uri = this.getURI(fileName, outputCfgName);
+      if ((this.contentWriter != null)) {
+        final InputStream processedContent = this.beforeWrite.beforeWrite(uri, outputCfgName, content);
+        this.contentWriter.write(this.converter, uri, ByteStreams.toByteArray(processedContent));
+        return;
+      }
       final OutputStream out = this.converter.createOutputStream(uri);
       try {
         final InputStream processedContent = this.beforeWrite.beforeWrite(uri, outputCfgName, content);
@@ -272,4 +292,13 @@ public class URIBasedFileSystemAccess extends AbstractFileSystemAccess2 {
   public void setBeforeRead(final URIBasedFileSystemAccess.BeforeRead beforeRead) {
     this.beforeRead = beforeRead;
   }
+  
+  @Pure
+  public URIBasedFileSystemAccess.ContentWriter getContentWriter() {
+    return this.contentWriter;
+  }
+  
+  public void setContentWriter(final URIBasedFileSystemAccess.ContentWriter contentWriter) {
+    this.contentWriter = contentWriter;
+  }
 }
@@ -19,6 +19,7 @@ import org.eclipse.xtext.resource.impl.ChunkedResourceDescriptions;
 import org.eclipse.xtext.resource.impl.ProjectDescription;
 import org.eclipse.xtext.resource.impl.ResourceDescriptionsBasedContainer;
 import org.eclipse.xtext.resource.impl.ResourceDescriptionsData;
+import org.eclipse.xtext.scoping.impl.GlobalScopeCache;
 import org.eclipse.xtext.xbase.lib.CollectionLiterals;
 
 /**
@@ -69,8 +70,7 @@ public class ProjectDescriptionBasedContainerManager implements IContainer.Manag
         _elvis = _resourceDescriptionsData;
       }
       final ResourceDescriptionsData container = _elvis;
-      ResourceDescriptionsBasedContainer _resourceDescriptionsBasedContainer = new ResourceDescriptionsBasedContainer(container);
-      allContainers.add(_resourceDescriptionsBasedContainer);
+      allContainers.add(this.createContainer(container, resourceSet));
       List<String> _dependencies = projectDescription.getDependencies();
       for (final String name : _dependencies) {
         {
@@ -84,8 +84,7 @@ public class ProjectDescriptionBasedContainerManager implements IContainer.Manag
             _elvis_1 = _resourceDescriptionsData_1;
           }
           final ResourceDescriptionsData containerDep = _elvis_1;
-          ResourceDescriptionsBasedContainer _resourceDescriptionsBasedContainer_1 = new ResourceDescriptionsBasedContainer(containerDep);
-          allContainers.add(_resourceDescriptionsBasedContainer_1);
+          allContainers.add(this.createContainer(containerDep, resourceSet));
         }
       }
       return allContainers;
@@ -94,4 +93,17 @@ public class ProjectDescriptionBasedContainerManager implements IContainer.Manag
     String _plus = ("expected " + _name);
     throw new IllegalArgumentException(_plus);
   }
+  
+  /**
+   * Creates the container for the index of a project. The containers of the {@link GlobalScopeCache} are used if
+   * the resource set has one.
+   * @since 2.13
+   */
+  protected IContainer createContainer(final ResourceDescriptionsData data, final ResourceSet resourceSet) {
+    final GlobalScopeCache scopeCache = GlobalScopeCache.findInEmfObject(resourceSet);
+    if ((scopeCache != null)) {
+      return scopeCache.getContainer(data);
+    }
+    return new ResourceDescriptionsBasedContainer(data);
+  }
 }
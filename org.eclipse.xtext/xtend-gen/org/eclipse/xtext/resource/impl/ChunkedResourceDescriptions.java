@@ -17,8 +17,10 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import org.eclipse.emf.common.notify.Adapter;
@@ -34,6 +36,7 @@ import org.eclipse.xtext.resource.impl.AbstractCompoundSelectable;
 import org.eclipse.xtext.resource.impl.ResourceDescriptionsData;
 import org.eclipse.xtext.resource.persistence.SerializableResourceDescription;
 import org.eclipse.xtext.util.internal.EmfAdaptable;
+import org.eclipse.xtext.xbase.lib.CollectionLiterals;
 import org.eclipse.xtext.xbase.lib.Exceptions;
 import org.eclipse.xtext.xbase.lib.ExclusiveRange;
 import org.eclipse.xtext.xbase.lib.Functions.Function1;
@@ -53,7 +56,7 @@ import org.eclipse.xtext.xbase.lib.IterableExtensions;
 @Beta
 @EmfAdaptable
 @SuppressWarnings("all")
-public class ChunkedResourceDescriptions extends AbstractCompoundSelectable implements IResourceDescriptions, Externalizable {
+public class ChunkedResourceDescriptions extends AbstractCompoundSelectable implements IResourceDescriptions.IReferencingResourcesAware, Externalizable {
   public static class ChunkedResourceDescriptionsAdapter extends AdapterImpl {
     private ChunkedResourceDescriptions element;
     
@@ -169,6 +172,27 @@ public class ChunkedResourceDescriptions extends AbstractCompoundSelectable impl
     return this.chunk2resourceDescriptions.get(containerHandle);
   }
   
+  /**
+   * @since 2.13
+   */
+  public Collection<ResourceDescriptionsData> getContainers() {
+    return this.chunk2resourceDescriptions.values();
+  }
+  
+  /**
+   * @since 2.13
+   */
+  @Override
+  public Set<URI> getReferencingResourceURIs(final Collection<URI> targetObjectURIs) {
+    final LinkedHashSet<URI> result = CollectionLiterals.<URI>newLinkedHashSet();
+    Collection<ResourceDescriptionsData> _values = this.chunk2resourceDescriptions.values();
+    for (final ResourceDescriptionsData container : _values) {
+      Set<URI> _referencingResourceURIs = container.getReferencingResourceURIs(targetObjectURIs);
+      Iterables.<URI>addAll(result, _referencingResourceURIs);
+    }
+    return result;
+  }
+  
   @Override
   public void readExternal(final ObjectInput in) throws IOException, ClassNotFoundException {
     final int numChunks = in.readInt();
@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.xtext.resource.persistence;
+
+import com.google.common.annotations.Beta;
+import com.google.common.io.ByteStreams;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.xtext.resource.persistence.IndexedResourceStorageLoadable;
+import org.eclipse.xtext.resource.persistence.IndexedResourceStorageWritable;
+import org.eclipse.xtext.resource.persistence.ResourceStorageFacade;
+import org.eclipse.xtext.resource.persistence.ResourceStorageLoadable;
+import org.eclipse.xtext.resource.persistence.ResourceStorageProviderAdapter;
+import org.eclipse.xtext.resource.persistence.ResourceStorageWritable;
+import org.eclipse.xtext.resource.persistence.StorageAwareResource;
+import org.eclipse.xtext.xbase.lib.CollectionLiterals;
+import org.eclipse.xtext.xbase.lib.Exceptions;
+import org.eclipse.xtext.xbase.lib.Functions.Function1;
+import org.eclipse.xtext.xbase.lib.IterableExtensions;
+
+/**
+ * A resource storage facade that uses the {@link IndexedResourceStorageWritable indexed storage format}. Storages
+ * in the local file system are memory mapped instead of being read into the heap. The mapping is only read while a
+ * resource is loaded, the node model that is read on demand is copied to the heap beforehand.
+ * 
+ * Note that some platforms do not allow to modify a file while it is mapped.
+ * 
+ * @since 2.13
+ */
+@Beta
+@SuppressWarnings("all")
+public class IndexedResourceStorageFacade extends ResourceStorageFacade {
+  @Override
+  public ResourceStorageLoadable getOrCreateResourceStorageLoadable(final StorageAwareResource resource) {
+    try {
+      final Function1<Adapter, Boolean> _function = (Adapter it) -> {
+        return Boolean.valueOf((it instanceof ResourceStorageProviderAdapter));
+      };
+      boolean _exists = IterableExtensions.<Adapter>exists(resource.getResourceSet().eAdapters(), _function);
+      boolean _not = (!_exists);
+      if (_not) {
+        final File file = this.getStorageFile(resource);
+        if ((file != null)) {
+          ByteBuffer _map = this.map(file);
+          boolean _isStoreNodeModel = this.isStoreNodeModel();
+          return new IndexedResourceStorageLoadable(_map, _isStoreNodeModel);
+        }
+      }
+      return super.getOrCreateResourceStorageLoadable(resource);
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  @Override
+  public ResourceStorageLoadable createResourceStorageLoadable(final InputStream in) {
+    try {
+      try {
+        ByteBuffer _wrap = ByteBuffer.wrap(ByteStreams.toByteArray(in));
+        boolean _isStoreNodeModel = this.isStoreNodeModel();
+        return new IndexedResourceStorageLoadable(_wrap, _isStoreNodeModel);
+      } finally {
+        in.close();
+      }
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  @Override
+  public ResourceStorageWritable createResourceStorageWritable(final OutputStream out) {
+    boolean _isStoreNodeModel = this.isStoreNodeModel();
+    return new IndexedResourceStorageWritable(out, _isStoreNodeModel);
+  }
+  
+  /**
+   * Returns the storage of the given resource if it is a file in the local file system, or <code>null</code>.
+   */
+  protected File getStorageFile(final StorageAwareResource resource) {
+    final URIConverter uriConverter = resource.getResourceSet().getURIConverter();
+    final URI storageURI = this.getBinaryStorageURI(resource.getURI());
+    boolean _exists = uriConverter.exists(storageURI, CollectionLiterals.<Object, Object>emptyMap());
+    if (_exists) {
+      return this.toFile(uriConverter.normalize(storageURI));
+    }
+    boolean _isArchive = resource.getURI().isArchive();
+    if (_isArchive) {
+      return null;
+    }
+    final URI fsaURI = this.getFileSystemAccess(resource).getURI(this.computeOutputPath(resource));
+    if ((fsaURI == null)) {
+      return null;
+    }
+    return this.toFile(uriConverter.normalize(fsaURI));
+  }
+  
+  private File toFile(final URI uri) {
+    boolean _isFile = uri.isFile();
+    if (_isFile) {
+      String _fileString = uri.toFileString();
+      final File file = new File(_fileString);
+      boolean _isFile_1 = file.isFile();
+      if (_isFile_1) {
+        return file;
+      }
+    }
+    return null;
+  }
+  
+  protected ByteBuffer map(final File file) throws IOException {
+    final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+    try {
+      return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, randomAccessFile.length());
+    } finally {
+      randomAccessFile.close();
+    }
+  }
+}
@@ -0,0 +1,229 @@
+/**
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.xtext.resource.persistence;
+
+import com.google.common.annotations.Beta;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.emf.common.util.WrappedException;
+import org.eclipse.xtext.parser.IParseResult;
+import org.eclipse.xtext.resource.persistence.IndexedResourceStorageWritable;
+import org.eclipse.xtext.resource.persistence.ResourceStorageLoadable;
+import org.eclipse.xtext.resource.persistence.StorageAwareResource;
+import org.eclipse.xtext.xbase.lib.CollectionLiterals;
+import org.eclipse.xtext.xbase.lib.Exceptions;
+import org.eclipse.xtext.xbase.lib.ExclusiveRange;
+import org.eclipse.xtext.xbase.lib.Functions.Function0;
+
+/**
+ * Reads a storage that was written by the {@link IndexedResourceStorageWritable}. The data is accessed through a
+ * {@link ByteBuffer}, which is usually a memory mapped file, and each section is only decoded when it is needed.
+ * The node model is not read before the parse result of the resource is requested. Its section is copied to the
+ * heap while the resource is loaded, so the buffer is not accessed later on, e.g. after the mapped file has been
+ * rewritten.
+ * 
+ * Storages in the zip based format of the {@link ResourceStorageWritable} are read, too.
+ * 
+ * @since 2.13
+ */
+@Beta
+@SuppressWarnings("all")
+public class IndexedResourceStorageLoadable extends ResourceStorageLoadable {
+  /**
+   * An input stream that reads the remaining bytes of a buffer.
+   */
+  protected static class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+    
+    public ByteBufferInputStream(final ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+    
+    @Override
+    public int read() {
+      boolean _hasRemaining = this.buffer.hasRemaining();
+      boolean _not = (!_hasRemaining);
+      if (_not) {
+        return (-1);
+      }
+      return (this.buffer.get() & 0xFF);
+    }
+    
+    @Override
+    public int read(final byte[] b, final int off, final int len) {
+      if ((len == 0)) {
+        return 0;
+      }
+      boolean _hasRemaining = this.buffer.hasRemaining();
+      boolean _not = (!_hasRemaining);
+      if (_not) {
+        return (-1);
+      }
+      final int count = Math.min(len, this.buffer.remaining());
+      this.buffer.get(b, off, count);
+      return count;
+    }
+    
+    @Override
+    public int available() {
+      return this.buffer.remaining();
+    }
+    
+    @Override
+    public long skip(final long n) {
+      int _remaining = this.buffer.remaining();
+      long _min = Math.min(n, _remaining);
+      long _max = Math.max(0, _min);
+      final int count = ((int) _max);
+      int _position = this.buffer.position();
+      int _plus = (_position + count);
+      this.buffer.position(_plus);
+      return count;
+    }
+  }
+  
+  private final ByteBuffer buffer;
+  
+  private final boolean storeNodeModel;
+  
+  /**
+   * The sections by name, each value is a read-only view of the respective part of the buffer. Lazily
+   * initialized.
+   */
+  private Map<String, ByteBuffer> sections;
+  
+  public IndexedResourceStorageLoadable(final ByteBuffer buffer, final boolean storeNodeModel) {
+    super(null, storeNodeModel);
+    this.buffer = buffer;
+    this.storeNodeModel = storeNodeModel;
+  }
+  
+  /**
+   * Whether the buffer has been written by the {@link IndexedResourceStorageWritable}.
+   */
+  public boolean isIndexed() {
+    return (((this.buffer.limit() >= 8) && (this.buffer.getInt(0) == IndexedResourceStorageWritable.MAGIC_NUMBER)) && (this.buffer.getInt(4) == IndexedResourceStorageWritable.VERSION));
+  }
+  
+  @Override
+  protected void loadIntoResource(final StorageAwareResource resource) throws IOException {
+    boolean _isLoadedFromStorage = resource.isLoadedFromStorage();
+    boolean _not = (!_isLoadedFromStorage);
+    if (_not) {
+      throw new IllegalStateException("Please use StorageAwareResource#load(ResourceStorageLoadable).");
+    }
+    boolean _isIndexed = this.isIndexed();
+    boolean _not_1 = (!_isIndexed);
+    if (_not_1) {
+      ByteBuffer _duplicate = this.buffer.duplicate();
+      IndexedResourceStorageLoadable.ByteBufferInputStream _byteBufferInputStream = new IndexedResourceStorageLoadable.ByteBufferInputStream(_duplicate);
+      new ResourceStorageLoadable(_byteBufferInputStream, this.storeNodeModel).loadIntoResource(resource);
+      return;
+    }
+    this.loadSections(resource);
+  }
+  
+  /**
+   * Load the sections from the storage.
+   * Overriding methods should first delegate to super before reading their own sections.
+   */
+  protected void loadSections(final StorageAwareResource resource) throws IOException {
+    this.readContents(resource, this.getSection(IndexedResourceStorageWritable.CONTENTS));
+    this.readResourceDescription(resource, this.getSection(IndexedResourceStorageWritable.RESOURCE_DESCRIPTION));
+    if ((this.storeNodeModel && this.hasSection(IndexedResourceStorageWritable.NODE_MODEL))) {
+      final ByteBuffer nodeModel = this.copySection(IndexedResourceStorageWritable.NODE_MODEL);
+      final Function0<IParseResult> _function = () -> {
+        try {
+          ByteBuffer _duplicate = nodeModel.duplicate();
+          IndexedResourceStorageLoadable.ByteBufferInputStream _byteBufferInputStream = new IndexedResourceStorageLoadable.ByteBufferInputStream(_duplicate);
+          this.readNodeModel(resource, _byteBufferInputStream);
+          return resource.getParseResult();
+        } catch (final Throwable _t) {
+          if (_t instanceof IOException) {
+            final IOException e = (IOException)_t;
+            throw new WrappedException(e);
+          } else {
+            throw Exceptions.sneakyThrow(_t);
+          }
+        }
+      };
+      resource.setDeferredParseResult(_function, nodeModel.remaining());
+    }
+  }
+  
+  public boolean hasSection(final String name) throws IOException {
+    return this.getSections().containsKey(name);
+  }
+  
+  /**
+   * Returns a stream that reads the section with the given name.
+   */
+  public InputStream getSection(final String name) throws IOException {
+    final ByteBuffer section = this.getSections().get(name);
+    if ((section == null)) {
+      throw new IOException(("Missing section " + name));
+    }
+    ByteBuffer _duplicate = section.duplicate();
+    return new IndexedResourceStorageLoadable.ByteBufferInputStream(_duplicate);
+  }
+  
+  /**
+   * Returns a copy of the section with the given name on the heap.
+   */
+  protected ByteBuffer copySection(final String name) throws IOException {
+    final ByteBuffer section = this.getSections().get(name);
+    if ((section == null)) {
+      throw new IOException(("Missing section " + name));
+    }
+    final ByteBuffer result = ByteBuffer.allocate(section.remaining());
+    result.put(section.duplicate());
+    result.flip();
+    return result;
+  }
+  
+  protected Map<String, ByteBuffer> getSections() throws IOException {
+    if ((this.sections == null)) {
+      final ByteBuffer header = this.buffer.duplicate();
+      IndexedResourceStorageLoadable.ByteBufferInputStream _byteBufferInputStream = new IndexedResourceStorageLoadable.ByteBufferInputStream(header);
+      final DataInputStream in = new DataInputStream(_byteBufferInputStream);
+      in.readInt();
+      in.readInt();
+      final int count = in.readInt();
+      final LinkedHashMap<String, int[]> offsets = CollectionLiterals.<String, int[]>newLinkedHashMap();
+      ExclusiveRange _doubleDotLessThan = new ExclusiveRange(0, count, true);
+      for (final Integer i : _doubleDotLessThan) {
+        String _readUTF = in.readUTF();
+        int _readInt = in.readInt();
+        int _readInt_1 = in.readInt();
+        offsets.put(_readUTF, new int[] { _readInt, _readInt_1 });
+      }
+      final int dataStart = header.position();
+      final LinkedHashMap<String, ByteBuffer> result = CollectionLiterals.<String, ByteBuffer>newLinkedHashMap();
+      Set<Map.Entry<String, int[]>> _entrySet = offsets.entrySet();
+      for (final Map.Entry<String, int[]> entry : _entrySet) {
+        {
+          final ByteBuffer section = this.buffer.duplicate();
+          int _get = entry.getValue()[0];
+          final int start = (dataStart + _get);
+          int _get_1 = entry.getValue()[1];
+          int _plus = (start + _get_1);
+          section.limit(_plus);
+          section.position(start);
+          result.put(entry.getKey(), section.slice().asReadOnlyBuffer());
+        }
+      }
+      this.sections = result;
+    }
+    return this.sections;
+  }
+}
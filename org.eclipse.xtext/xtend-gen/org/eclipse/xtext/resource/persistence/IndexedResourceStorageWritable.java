@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2017 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.xtext.resource.persistence;
+
+import com.google.common.annotations.Beta;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.xtext.resource.persistence.ResourceStorageWritable;
+import org.eclipse.xtext.resource.persistence.StorageAwareResource;
+
+/**
+ * Writes the resource storage as uncompressed sections that are preceded by a table of their offsets, so that
+ * the {@link IndexedResourceStorageLoadable} can decode each section on its own.
+ * 
+ * The layout is
+ * <pre>
+ * int magic, int version, int sectionCount,
+ * sectionCount * (UTF name, int offset, int length),
+ * section data
+ * </pre>
+ * where the offsets are relative to the end of the table.
+ * 
+ * @since 2.13
+ */
+@Beta
+@SuppressWarnings("all")
+public class IndexedResourceStorageWritable extends ResourceStorageWritable {
+  public final static int MAGIC_NUMBER = 0x58545253;
+  
+  public final static int VERSION = 1;
+  
+  public final static String CONTENTS = "emf-contents";
+  
+  public final static String RESOURCE_DESCRIPTION = "resource-description";
+  
+  public final static String NODE_MODEL = "node-model";
+  
+  private final OutputStream out;
+  
+  private final boolean storeNodeModel;
+  
+  public IndexedResourceStorageWritable(final OutputStream out, final boolean storeNodeModel) {
+    super(out, storeNodeModel);
+    this.out = out;
+    this.storeNodeModel = storeNodeModel;
+  }
+  
+  @Override
+  public void writeResource(final StorageAwareResource resource) throws IOException {
+    boolean _isLoadedFromStorage = resource.isLoadedFromStorage();
+    if (_isLoadedFromStorage) {
+      URI _uRI = resource.getURI();
+      String _plus = ("cannot write resources loaded from storage. URI was " + _uRI);
+      throw new IllegalStateException(_plus);
+    }
+    final LinkedHashMap<String, byte[]> sections = new LinkedHashMap<String, byte[]>();
+    this.writeSections(resource, sections);
+    final DataOutputStream dataOut = new DataOutputStream(this.out);
+    try {
+      dataOut.writeInt(IndexedResourceStorageWritable.MAGIC_NUMBER);
+      dataOut.writeInt(IndexedResourceStorageWritable.VERSION);
+      dataOut.writeInt(sections.size());
+      int offset = 0;
+      Set<Map.Entry<String, byte[]>> _entrySet = sections.entrySet();
+      for (final Map.Entry<String, byte[]> section : _entrySet) {
+        {
+          dataOut.writeUTF(section.getKey());
+          dataOut.writeInt(offset);
+          dataOut.writeInt(section.getValue().length);
+          int _offset = offset;
+          int _length = section.getValue().length;
+          offset = (_offset + _length);
+        }
+      }
+      Collection<byte[]> _values = sections.values();
+      for (final byte[] data : _values) {
+        dataOut.write(data);
+      }
+    } finally {
+      dataOut.close();
+    }
+  }
+  
+  /**
+   * Write the sections into the storage.
+   * Overriding methods should first delegate to super before adding their own sections.
+   */
+  protected void writeSections(final StorageAwareResource resource, final Map<String, byte[]> sections) throws IOException {
+    final ByteArrayOutputStream contents = new ByteArrayOutputStream();
+    this.writeContents(resource, contents);
+    sections.put(IndexedResourceStorageWritable.CONTENTS, contents.toByteArray());
+    final ByteArrayOutputStream description = new ByteArrayOutputStream();
+    this.writeResourceDescription(resource, description);
+    sections.put(IndexedResourceStorageWritable.RESOURCE_DESCRIPTION, description.toByteArray());
+    if (this.storeNodeModel) {
+      final ByteArrayOutputStream nodeModel = new ByteArrayOutputStream();
+      this.writeNodeModel(resource, nodeModel);
+      sections.put(IndexedResourceStorageWritable.NODE_MODEL, nodeModel.toByteArray());
+    }
+  }
+}
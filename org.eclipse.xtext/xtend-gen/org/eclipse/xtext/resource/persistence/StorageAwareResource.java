@@ -18,13 +18,15 @@ import org.eclipse.emf.ecore.EObject;
 import org.eclipse.xtend.lib.annotations.AccessorType;
 import org.eclipse.xtend.lib.annotations.Accessors;
 import org.eclipse.xtext.linking.lazy.LazyLinkingResource;
+import org.eclipse.xtext.parser.IParseResult;
 import org.eclipse.xtext.resource.IResourceDescription;
 import org.eclipse.xtext.resource.persistence.IResourceStorageFacade;
 import org.eclipse.xtext.resource.persistence.PortableURIs;
 import org.eclipse.xtext.resource.persistence.ResourceStorageLoadable;
-import org.eclipse.xtext.util.internal.Stopwatches;
+import org.eclipse.xtext.util.Metrics;
 import org.eclipse.xtext.xbase.lib.CollectionLiterals;
 import org.eclipse.xtext.xbase.lib.Exceptions;
+import org.eclipse.xtext.xbase.lib.Functions.Function0;
 import org.eclipse.xtext.xbase.lib.Pure;
 
 /**
@@ -52,6 +54,22 @@ public class StorageAwareResource extends LazyLinkingResource {
   @Accessors
   private IResourceDescription resourceDescription = null;
   
+  /**
+   * Computes the parse result on first access, see {@link #setDeferredParseResult}. Guarded by this resource.
+   */
+  private Function0<? extends IParseResult> deferredParseResult;
+  
+  /**
+   * Whether the parse result has not been computed yet. It is only reset after the computation has finished, so
+   * other threads wait for it rather than seeing an incomplete parse result.
+   */
+  private volatile boolean parseResultDeferred;
+  
+  /**
+   * The size of the stored data that the deferred parse result is read from. Guarded by this resource.
+   */
+  private long deferredParseResultSize;
+  
   @Override
   public void load(final Map<?, ?> options) throws IOException {
     if (((((!this.isLoaded) && (!this.isLoading)) && (this.resourceStorageFacade != null)) && this.resourceStorageFacade.shouldLoadFromStorage(this))) {
@@ -84,8 +102,7 @@ public class StorageAwareResource extends LazyLinkingResource {
     if ((storageInputStream == null)) {
       throw new NullPointerException("storageInputStream");
     }
-    final Stopwatches.StoppedTask task = Stopwatches.forTask("Loading from storage");
-    task.start();
+    final Metrics.Timer timer = Metrics.start(Metrics.LOAD_STORAGE, this.getURI());
     this.isLoading = true;
     this.isLoadedFromStorage = true;
     try {
@@ -93,7 +110,7 @@ public class StorageAwareResource extends LazyLinkingResource {
       this.isLoaded = true;
     } finally {
       this.isLoading = false;
-      task.stop();
+      timer.stop();
     }
   }
   
@@ -101,14 +118,89 @@ public class StorageAwareResource extends LazyLinkingResource {
   protected void doUnload() {
     super.doUnload();
     this.isLoadedFromStorage = false;
+    synchronized (this) {
+      this.deferredParseResult = null;
+      this.parseResultDeferred = false;
+    }
   }
   
   @Override
   protected void clearInternalState() {
     this.isLoadedFromStorage = false;
+    synchronized (this) {
+      this.deferredParseResult = null;
+      this.parseResultDeferred = false;
+    }
     super.clearInternalState();
   }
   
+  /**
+   * Defers the creation of the parse result until it is requested for the first time. Storage formats that can
+   * read the node model independently of the contents use this to skip it for resources that are only linked
+   * against.
+   * 
+   * The computation runs at most once, even if the parse result is requested concurrently. While it runs, the
+   * parse result of this resource is still the previous one.
+   * 
+   * @since 2.13
+   */
+  public synchronized void setDeferredParseResult(final Function0<? extends IParseResult> deferredParseResult) {
+    this.setDeferredParseResult(deferredParseResult, 0);
+  }
+  
+  /**
+   * Defers the creation of the parse result like {@link #setDeferredParseResult(Function0)}. The size of the stored
+   * data that it is read from, e.g. the node model section of a storage, is an estimate of the memory that the
+   * resource needs for it.
+   * 
+   * @since 2.13
+   */
+  public synchronized void setDeferredParseResult(final Function0<? extends IParseResult> deferredParseResult, final long storedSize) {
+    this.deferredParseResult = deferredParseResult;
+    this.deferredParseResultSize = storedSize;
+    this.parseResultDeferred = (deferredParseResult != null);
+  }
+  
+  /**
+   * The size of the stored data that a {@link #hasDeferredParseResult() deferred} parse result is read from, or
+   * zero if it is unknown or the parse result is not deferred.
+   * 
+   * @since 2.13
+   */
+  public synchronized long getDeferredParseResultSize() {
+    if (this.parseResultDeferred) {
+      return this.deferredParseResultSize;
+    }
+    return 0;
+  }
+  
+  /**
+   * Whether the parse result, and with it the node model, is computed on first access.
+   * 
+   * @since 2.13
+   */
+  public boolean hasDeferredParseResult() {
+    return this.parseResultDeferred;
+  }
+  
+  @Override
+  public IParseResult getParseResult() {
+    if (this.parseResultDeferred) {
+      synchronized (this) {
+        final Function0<? extends IParseResult> computation = this.deferredParseResult;
+        if ((computation != null)) {
+          this.deferredParseResult = null;
+          try {
+            this.setParseResult(computation.apply());
+          } finally {
+            this.parseResultDeferred = false;
+          }
+        }
+      }
+    }
+    return super.getParseResult();
+  }
+  
   @Override
   public synchronized EObject getEObject(final String uriFragment) {
     EObject _xblockexpression = null;
@@ -36,4 +36,12 @@ public class StorageAwareResourceDescriptionManager extends DefaultResourceDescr
     }
     return _switchResult;
   }
+  
+  /**
+   * @since 2.13
+   */
+  @Override
+  public boolean isAffectedByDependenciesOnly() {
+    return true;
+  }
 }